@@ -0,0 +1,24 @@
+-- ============================================================================
+-- EK KISITLAMALAR, SÜTUNLAR VE İNDEKSLER
+-- ============================================================================
+-- Açıklama: 01_create_tables.sql'den SONRA çalıştırılır. Mevcut bir veritabanına
+-- da tekrar tekrar uygulanabilsin diye tüm komutlar 'IF NOT EXISTS' ile yazılmıştır.
+-- ============================================================================
+
+-- ----------------------------------------------------------------------------
+-- 1. KULLANICI ŞUBESİ (users.branch_id)
+-- ----------------------------------------------------------------------------
+-- Her oturum (Session) kullanıcının şubesini taşır. Merkez kullanıcılar için NULL kalır.
+-- Şube silinirse kullanıcı silinmez, sadece şube bilgisi boşaltılır.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS branch_id INT REFERENCES branch(branch_id) ON DELETE SET NULL;
+
+-- ----------------------------------------------------------------------------
+-- 2. SATIR SÜRÜMÜ (version) - İyimser Eşzamanlılık (Optimistic Locking)
+-- ----------------------------------------------------------------------------
+-- Her güncellemede 1 artar (bkz. 04_triggers.sql -> trg_bump_version).
+-- Uygulama "UPDATE ... WHERE id = ? AND version = ?" yazar; 0 satır etkilenirse
+-- kayıt, ekranda okunduktan sonra başka bir kullanıcı tarafından değiştirilmiştir.
+-- Böylece kullanıcı formu doldururken satırda kilit (SELECT ... FOR UPDATE) tutulmaz.
+ALTER TABLE vehicle ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+ALTER TABLE reservation ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
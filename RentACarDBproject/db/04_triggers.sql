@@ -184,6 +184,32 @@ CREATE TRIGGER trg_rental_integrity_check
 BEFORE INSERT ON rental
 FOR EACH ROW EXECUTE FUNCTION check_rental_integrity();
 
+-- ============================================================================
+-- 7. TRIGGER: bump_version (Satır Sürümü)
+-- ============================================================================
+-- Her UPDATE'te 'version' sütununu 1 artırır. Tetikleyicilerin yaptığı dolaylı
+-- güncellemeler (Onay -> araç RESERVED gibi) de sürümü artırır; böylece ekranda
+-- eski bilgiyle yapılan bir değişiklik her durumda fark edilir.
+CREATE OR REPLACE FUNCTION bump_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_bump_version ON vehicle;
+CREATE TRIGGER trg_bump_version BEFORE UPDATE ON vehicle
+FOR EACH ROW EXECUTE FUNCTION bump_version();
+
+DROP TRIGGER IF EXISTS trg_bump_version ON customer;
+CREATE TRIGGER trg_bump_version BEFORE UPDATE ON customer
+FOR EACH ROW EXECUTE FUNCTION bump_version();
+
+DROP TRIGGER IF EXISTS trg_bump_version ON reservation;
+CREATE TRIGGER trg_bump_version BEFORE UPDATE ON reservation
+FOR EACH ROW EXECUTE FUNCTION bump_version();
+
 -- ----------------------------------------------------------------------------
 -- TEST SENARYOLARI (KENDİ TESTLERİN VE GÜNCEL KONTROLLER)
 -- ----------------------------------------------------------------------------
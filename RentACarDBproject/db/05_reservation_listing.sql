@@ -0,0 +1,152 @@
+-- ============================================================================
+-- REZERVASYON LİSTE TABLOSU (reservation_listing) - DENORMALİZE
+-- ============================================================================
+-- Açıklama: Rezervasyon ekranı her açılışta/aramada reservation + vehicle +
+-- customer + rental tablolarını JOIN ediyordu; sadece marka, model ve müşteri
+-- adını göstermek için. Bu tablo, ekranın ihtiyaç duyduğu tüm sütunları TEK
+-- satırda hazır tutar. Uygulama listeyi sadece buradan okur.
+--
+-- Tablo, aşağıdaki tetikleyicilerle (trigger) her zaman güncel tutulur:
+--   reservation  -> Ekleme / durum, tarih, araç, müşteri değişikliği
+--   vehicle      -> Marka, model veya durum değişikliği
+--   customer     -> İsim değişikliği
+--   rental       -> Kiralama başlatma / bitirme (rental_open)
+-- Silmeler ON DELETE CASCADE ile kendiliğinden yansır.
+--
+-- 04_triggers.sql'den SONRA çalıştırılır. Türetilmiş (kaynak tablolardan yeniden
+-- üretilebilen) bir tablo olduğu için her çalıştırmada baştan kurulur.
+-- ============================================================================
+
+DROP TABLE IF EXISTS reservation_listing CASCADE;
+
+-- PRIMARY KEY ... INCLUDE: Birincil anahtar indeksi tüm sütunları da taşır; liste sorgusu
+-- (ORDER BY reservation_id DESC) tabloya hiç gitmeden sadece indeksten okunabilir (Index Only Scan).
+CREATE TABLE reservation_listing(
+    reservation_id     INT NOT NULL REFERENCES reservation(reservation_id) ON DELETE CASCADE,
+    vehicle_id         INT NOT NULL,
+    customer_id        INT NOT NULL,
+    reservation_status VARCHAR(20) NOT NULL,
+    start_date         DATE NOT NULL,
+    brand              VARCHAR(50) NOT NULL,
+    model              VARCHAR(50) NOT NULL,
+    full_name          VARCHAR(50) NOT NULL,
+    vehicle_status     VARCHAR(20) NOT NULL,
+    rental_open        BOOLEAN NOT NULL DEFAULT FALSE, -- Araç müşteride mi? (İade alınmamış kiralama var mı)
+    CONSTRAINT pk_reservation_listing PRIMARY KEY (reservation_id)
+        INCLUDE (vehicle_id, reservation_status, start_date, brand, model, full_name, vehicle_status, rental_open, customer_id)
+);
+
+-- Araç/müşteri değişikliklerini ilgili satırlara hızlıca yansıtmak için.
+CREATE INDEX idx_listing_vehicle ON reservation_listing(vehicle_id);
+CREATE INDEX idx_listing_customer ON reservation_listing(customer_id);
+
+
+-- ----------------------------------------------------------------------------
+-- 1. TRIGGER: Rezervasyon eklendi / değişti
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE FUNCTION sync_listing_reservation()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO reservation_listing (reservation_id, vehicle_id, customer_id, reservation_status, start_date,
+                                     brand, model, full_name, vehicle_status, rental_open)
+    SELECT NEW.reservation_id, NEW.vehicle_id, NEW.customer_id, NEW.reservation_status, NEW.start_date,
+           v.brand, v.model, c.full_name, v.vehicle_status,
+           EXISTS (SELECT 1 FROM rental rt WHERE rt.reservation_id = NEW.reservation_id AND rt.return_date IS NULL)
+    FROM vehicle v, customer c
+    WHERE v.vehicle_id = NEW.vehicle_id AND c.customer_id = NEW.customer_id
+    ON CONFLICT (reservation_id) DO UPDATE SET
+        vehicle_id         = EXCLUDED.vehicle_id,
+        customer_id        = EXCLUDED.customer_id,
+        reservation_status = EXCLUDED.reservation_status,
+        start_date         = EXCLUDED.start_date,
+        brand              = EXCLUDED.brand,
+        model              = EXCLUDED.model,
+        full_name          = EXCLUDED.full_name,
+        vehicle_status     = EXCLUDED.vehicle_status,
+        rental_open        = EXCLUDED.rental_open;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_listing_reservation ON reservation;
+CREATE TRIGGER trg_listing_reservation
+AFTER INSERT OR UPDATE OF vehicle_id, customer_id, reservation_status, start_date ON reservation
+FOR EACH ROW EXECUTE FUNCTION sync_listing_reservation();
+
+
+-- ----------------------------------------------------------------------------
+-- 2. TRIGGER: Araç marka/model/durum değişti
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE FUNCTION sync_listing_vehicle()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE reservation_listing
+    SET brand = NEW.brand, model = NEW.model, vehicle_status = NEW.vehicle_status
+    WHERE vehicle_id = NEW.vehicle_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_listing_vehicle ON vehicle;
+CREATE TRIGGER trg_listing_vehicle
+AFTER UPDATE OF brand, model, vehicle_status ON vehicle
+FOR EACH ROW
+WHEN (OLD.brand IS DISTINCT FROM NEW.brand OR OLD.model IS DISTINCT FROM NEW.model
+      OR OLD.vehicle_status IS DISTINCT FROM NEW.vehicle_status)
+EXECUTE FUNCTION sync_listing_vehicle();
+
+
+-- ----------------------------------------------------------------------------
+-- 3. TRIGGER: Müşteri adı değişti
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE FUNCTION sync_listing_customer()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE reservation_listing SET full_name = NEW.full_name WHERE customer_id = NEW.customer_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_listing_customer ON customer;
+CREATE TRIGGER trg_listing_customer
+AFTER UPDATE OF full_name ON customer
+FOR EACH ROW
+WHEN (OLD.full_name IS DISTINCT FROM NEW.full_name)
+EXECUTE FUNCTION sync_listing_customer();
+
+
+-- ----------------------------------------------------------------------------
+-- 4. TRIGGER: Kiralama başladı / bitti / silindi
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE FUNCTION sync_listing_rental()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_reservation_id INT := CASE WHEN TG_OP = 'DELETE' THEN OLD.reservation_id ELSE NEW.reservation_id END;
+BEGIN
+    UPDATE reservation_listing
+    SET rental_open = EXISTS (SELECT 1 FROM rental rt WHERE rt.reservation_id = v_reservation_id AND rt.return_date IS NULL)
+    WHERE reservation_id = v_reservation_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_listing_rental ON rental;
+CREATE TRIGGER trg_listing_rental
+AFTER INSERT OR UPDATE OF return_date OR DELETE ON rental
+FOR EACH ROW EXECUTE FUNCTION sync_listing_rental();
+
+
+-- ----------------------------------------------------------------------------
+-- 5. İLK DOLDURMA (Mevcut rezervasyonlar)
+-- ----------------------------------------------------------------------------
+INSERT INTO reservation_listing (reservation_id, vehicle_id, customer_id, reservation_status, start_date,
+                                 brand, model, full_name, vehicle_status, rental_open)
+SELECT r.reservation_id, r.vehicle_id, r.customer_id, r.reservation_status, r.start_date,
+       v.brand, v.model, c.full_name, v.vehicle_status,
+       EXISTS (SELECT 1 FROM rental rt WHERE rt.reservation_id = r.reservation_id AND rt.return_date IS NULL)
+FROM reservation r
+JOIN vehicle v ON r.vehicle_id = v.vehicle_id
+JOIN customer c ON r.customer_id = c.customer_id;
+
+-- Görünürlük haritasını (visibility map) güncelle; Index Only Scan bunun üzerinden çalışır.
+VACUUM ANALYZE reservation_listing;
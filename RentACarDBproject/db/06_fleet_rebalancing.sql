@@ -0,0 +1,72 @@
+-- ============================================================================
+-- TEK YÖN KİRALAMA VE FİLO DENGELEME
+-- ============================================================================
+-- Açıklama: Araç bir şubeden alınıp BAŞKA bir şubeye bırakılabilir (tek yön kiralama).
+-- Bu durumda aracın bağlı olduğu şube (vehicle.branch_id: rezervasyonların yapıldığı "ev" şubesi)
+-- değişmez, ama araç fiziksel olarak başka yerdedir. Fiziksel konum ayrı bir sütunda tutulur;
+-- filo dengeleme (service.FleetRebalancer) araçların nerede biriktiğini buradan hesaplar.
+--
+-- 04_triggers.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+-- ----------------------------------------------------------------------------
+-- 1. ARACIN FİZİKSEL KONUMU (vehicle.current_branch_id)
+-- ----------------------------------------------------------------------------
+ALTER TABLE vehicle ADD COLUMN IF NOT EXISTS current_branch_id INT REFERENCES branch(branch_id);
+UPDATE vehicle SET current_branch_id = branch_id WHERE current_branch_id IS NULL;
+ALTER TABLE vehicle ALTER COLUMN current_branch_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_vehicle_current_branch ON vehicle(current_branch_id);
+
+-- Yeni araç, konumu verilmediyse kendi şubesindedir.
+CREATE OR REPLACE FUNCTION default_vehicle_location()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.current_branch_id := COALESCE(NEW.current_branch_id, NEW.branch_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_default_vehicle_location ON vehicle;
+CREATE TRIGGER trg_default_vehicle_location
+BEFORE INSERT ON vehicle
+FOR EACH ROW EXECUTE FUNCTION default_vehicle_location();
+
+-- ----------------------------------------------------------------------------
+-- 2. TRIGGER: İade alınınca araç, bırakıldığı şubededir
+-- ----------------------------------------------------------------------------
+-- (Araç durumunun AVAILABLE yapılması 04_triggers.sql -> trgReturnDate içindedir.)
+CREATE OR REPLACE FUNCTION move_vehicle_to_dropoff()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE vehicle v SET current_branch_id = NEW.dropoff_branch_id
+    FROM reservation r
+    WHERE r.reservation_id = NEW.reservation_id AND v.vehicle_id = r.vehicle_id
+      AND v.current_branch_id IS DISTINCT FROM NEW.dropoff_branch_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_move_vehicle_to_dropoff ON rental;
+CREATE TRIGGER trg_move_vehicle_to_dropoff
+AFTER UPDATE OF return_date ON rental
+FOR EACH ROW
+WHEN (OLD.return_date IS NULL AND NEW.return_date IS NOT NULL)
+EXECUTE FUNCTION move_vehicle_to_dropoff();
+
+-- Dengeleme sorgusu: Henüz iade edilmemiş kiralamaların bırakılacağı şubeler.
+CREATE INDEX IF NOT EXISTS idx_rental_open_dropoff ON rental(dropoff_branch_id) WHERE return_date IS NULL;
+
+-- ----------------------------------------------------------------------------
+-- 3. ŞUBELER ARASI TRANSFER MALİYETİ (İsteğe bağlı)
+-- ----------------------------------------------------------------------------
+-- Bir aracı 'from' şubesinden 'to' şubesine götürmenin maliyeti (TL, araç başına).
+-- Tabloda olmayan şube çiftleri için uygulama varsayılanı kullanılır:
+-- aynı şehir içi / şehirler arası (bkz. FleetRebalancer).
+CREATE TABLE IF NOT EXISTS branch_transfer_cost(
+    from_branch_id INT NOT NULL REFERENCES branch(branch_id) ON DELETE CASCADE,
+    to_branch_id   INT NOT NULL REFERENCES branch(branch_id) ON DELETE CASCADE,
+    cost           NUMERIC(10,2) NOT NULL CHECK (cost >= 0),
+    PRIMARY KEY (from_branch_id, to_branch_id),
+    CHECK (from_branch_id <> to_branch_id)
+);
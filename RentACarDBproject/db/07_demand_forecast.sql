@@ -0,0 +1,80 @@
+-- ============================================================================
+-- TALEP TAHMİNİ (ŞUBE + MODEL BAZINDA)
+-- ============================================================================
+-- Açıklama: service.DemandForecaster rezervasyon geçmişini bir kez okur ve şube + marka + model
+-- başına GÜNLÜK TALEP serisi (o gün kirada olan araç sayısı) çıkarır. Sonraki çalıştırmalar
+-- sadece son işlenen rezervasyondan SONRAKİ kayıtları (ve geç onaylananları) okur; seriler ve model durumu
+-- burada saklanır.
+--
+-- 06_fleet_rebalancing.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+-- ----------------------------------------------------------------------------
+-- 1. GÜNLÜK TALEP SERİSİ
+-- ----------------------------------------------------------------------------
+-- Bir rezervasyon, başlangıç ve bitiş günü dahil her gün için 1 araç talebi sayılır.
+CREATE TABLE IF NOT EXISTS demand_daily(
+    branch_id INT         NOT NULL REFERENCES branch(branch_id) ON DELETE CASCADE,
+    brand     VARCHAR(50) NOT NULL,
+    model     VARCHAR(50) NOT NULL,
+    day       DATE        NOT NULL,
+    vehicles  INT         NOT NULL CHECK (vehicles >= 0),
+    PRIMARY KEY (branch_id, brand, model, day)
+);
+
+-- Artımlı güncelleme sadece son günleri okur.
+CREATE INDEX IF NOT EXISTS idx_demand_daily_day ON demand_daily(day);
+
+-- ----------------------------------------------------------------------------
+-- 2. MODEL DURUMU (Holt-Winters: seviye, eğilim, haftalık mevsimsellik)
+-- ----------------------------------------------------------------------------
+-- 'fitted_through' gününe kadarki veriler modele işlenmiştir; sonraki çalıştırma oradan devam eder.
+-- 'first_day': Serinin ilk günü. İki haftadan kısa seriler her çalıştırmada baştan eğitilir.
+-- season[1..7]: Haftanın günü etkisi (indeks = epoch günü mod 7, +1).
+CREATE TABLE IF NOT EXISTS demand_model(
+    branch_id      INT         NOT NULL REFERENCES branch(branch_id) ON DELETE CASCADE,
+    brand          VARCHAR(50) NOT NULL,
+    model          VARCHAR(50) NOT NULL,
+    first_day      DATE        NOT NULL,
+    fitted_through DATE        NOT NULL,
+    alpha          DOUBLE PRECISION NOT NULL,
+    beta           DOUBLE PRECISION NOT NULL,
+    gamma          DOUBLE PRECISION NOT NULL,
+    level          DOUBLE PRECISION NOT NULL,
+    trend          DOUBLE PRECISION NOT NULL,
+    season         DOUBLE PRECISION[] NOT NULL,
+    PRIMARY KEY (branch_id, brand, model)
+);
+
+-- ----------------------------------------------------------------------------
+-- 3. TAHMİN SONUCU (Önümüzdeki 90 gün)
+-- ----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS demand_forecast(
+    branch_id INT          NOT NULL REFERENCES branch(branch_id) ON DELETE CASCADE,
+    brand     VARCHAR(50)  NOT NULL,
+    model     VARCHAR(50)  NOT NULL,
+    day       DATE         NOT NULL,
+    expected  NUMERIC(8,2) NOT NULL,
+    PRIMARY KEY (branch_id, brand, model, day)
+);
+
+-- ----------------------------------------------------------------------------
+-- 4. İLERLEME (Tek satır: En son işlenen rezervasyon)
+-- ----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS demand_progress(
+    id                  BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    last_reservation_id INT NOT NULL
+);
+INSERT INTO demand_progress (last_reservation_id) VALUES (0) ON CONFLICT DO NOTHING;
+
+-- ----------------------------------------------------------------------------
+-- 5. HENÜZ GÖRÜNMEYEN ID'LER (Geç onaylanan rezervasyonlar)
+-- ----------------------------------------------------------------------------
+-- ID sıradan (sequence) işlem içinde alınır; küçük ID'li bir rezervasyon, büyük ID'li olandan SONRA
+-- onaylanabilir. 'last_reservation_id'ye kadar okunmamış ID'ler burada tutulur ve sonraki çalıştırmalarda
+-- tekrar sorulur. 'horizon': Boşluğu tutabilecek işlemlerin bittiğini anlamak için işlem kimliği
+-- (txid) sınırı; 0 ise henüz tekrar sorulmadı (bkz. service.IdGaps).
+CREATE TABLE IF NOT EXISTS demand_gap(
+    reservation_id INT    PRIMARY KEY,
+    horizon        BIGINT NOT NULL DEFAULT 0
+);
@@ -0,0 +1,16 @@
+-- ============================================================================
+-- ZAMAN ÇİZELGESİ (TimelineView) İÇİN TARİH ARALIĞI İNDEKSİ
+-- ============================================================================
+-- Açıklama: Zaman çizelgesi sadece ekranda görünen tarih penceresiyle KESİŞEN rezervasyonları ister:
+--   daterange(start_date, end_date, '[]') && daterange(:from, :to, '[]')
+-- start_date veya end_date üzerindeki B-tree indeksler bu koşulda pencerenin bir tarafını süzebilir;
+-- GiST aralık indeksi ise iki tarafı birlikte süzer (Geçmiş yıllar taranmaz).
+--
+-- Tekrar çalıştırılabilir.
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_reservation_period
+    ON reservation USING gist (daterange(start_date, end_date, '[]'))
+    WHERE reservation_status <> 'CANCELLED';
+
+ANALYZE reservation;
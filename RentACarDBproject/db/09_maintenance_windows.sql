@@ -0,0 +1,111 @@
+-- ============================================================================
+-- BAKIM PENCERELERİ (Tarih aralıklı bakım planı)
+-- ============================================================================
+-- Açıklama: Eskiden bakım sadece vehicle_status = 'MAINTENANCE' bayrağıydı; başlangıcı ve bitişi
+-- olmadığı için servisteki araç bayrak kaldırılana kadar TÜM rezervasyonları engelliyor,
+-- planlı bakım da önceden takvime konamıyordu.
+-- Artık her bakım bir araç + [başlangıç, bitiş] gün aralığıdır (iki uç dahil). Rezervasyon oluşturma ve
+-- onaylama, sadece bu tarihlerle ÇAKIŞAN bakımları ve rezervasyonları reddeder (service.MaintenanceService).
+-- Çakışma sorguları aralık (GiST) indeksleriyle yapılır; aracın geçmiş yılları taranmaz.
+--
+-- 08_booking_timeline.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+-- Tamsayı (vehicle_id) ile tarih aralığını AYNI GiST indeksinde tutmak için gerekir.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- ----------------------------------------------------------------------------
+-- 1. BAKIM PENCERESİ TABLOSU
+-- ----------------------------------------------------------------------------
+-- 'recurring': Kayıt periyodik bakım planlayıcısı tarafından mı eklendi (Elle eklenenlerden ayırmak için).
+-- EXCLUDE kısıtı aynı aracın iki bakımının çakışmasını engeller; oluşturduğu GiST indeksi
+-- (vehicle_id, tarih aralığı) çakışma sorgularında da kullanılır.
+CREATE TABLE IF NOT EXISTS maintenance_window(
+    window_id  SERIAL PRIMARY KEY,
+    vehicle_id INT          NOT NULL REFERENCES vehicle(vehicle_id) ON DELETE CASCADE,
+    start_date DATE         NOT NULL,
+    end_date   DATE         NOT NULL,
+    reason     VARCHAR(100) NOT NULL DEFAULT 'Periyodik bakım',
+    recurring  BOOLEAN      NOT NULL DEFAULT FALSE,
+    CHECK (end_date >= start_date),
+    CONSTRAINT maintenance_window_no_overlap
+        EXCLUDE USING gist (vehicle_id WITH =, daterange(start_date, end_date, '[]') WITH &&)
+);
+
+-- ----------------------------------------------------------------------------
+-- 2. REZERVASYONLAR İÇİN ARAÇ + TARİH ARALIĞI İNDEKSİ
+-- ----------------------------------------------------------------------------
+-- idx_reservation_period (08) sadece tarih aralığını tutar; çakışma kontrolü ise TEK aracın
+-- rezervasyonlarını sorar. Araç ID'si indeksin ilk sütunu olunca diğer araçlar hiç okunmaz.
+CREATE INDEX IF NOT EXISTS idx_reservation_vehicle_period
+    ON reservation USING gist (vehicle_id, daterange(start_date, end_date, '[]'))
+    WHERE reservation_status <> 'CANCELLED';
+
+-- ----------------------------------------------------------------------------
+-- 3. GÜVENLİK KİLİDİ: Bakımla çakışan rezervasyon
+-- ----------------------------------------------------------------------------
+-- Uygulama çakışmayı zaten kontrol eder ve ayrıntılı mesaj gösterir; bu trigger
+-- doğrudan SQL ile (veya CreateReservationSP ile) yapılan kayıtları da korur.
+CREATE OR REPLACE FUNCTION check_reservation_maintenance_window()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_start DATE;
+    v_end   DATE;
+BEGIN
+    IF NEW.reservation_status IN ('PENDING', 'APPROVED') THEN
+        SELECT m.start_date, m.end_date INTO v_start, v_end
+        FROM maintenance_window m
+        WHERE m.vehicle_id = NEW.vehicle_id
+          AND daterange(m.start_date, m.end_date, '[]') && daterange(NEW.start_date, NEW.end_date, '[]')
+        LIMIT 1;
+
+        IF FOUND THEN
+            RAISE EXCEPTION 'HATA: Araç % - % tarihleri arasında BAKIMDA! Rezervasyon bu tarihlere yapılamaz.', v_start, v_end;
+        END IF;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_reservation_maintenance_window ON reservation;
+CREATE TRIGGER trg_reservation_maintenance_window
+BEFORE INSERT OR UPDATE OF reservation_status, vehicle_id, start_date, end_date ON reservation
+FOR EACH ROW EXECUTE FUNCTION check_reservation_maintenance_window();
+
+-- ----------------------------------------------------------------------------
+-- 4. GÜVENLİK KİLİDİ: Rezervasyonla veya açık kiralamayla çakışan bakım
+-- ----------------------------------------------------------------------------
+-- Bekleyen/onaylı rezervasyonlar ve iadesi alınmamış kiralamalar (bitişi geçmişse bugüne kadar dolu sayılır).
+CREATE OR REPLACE FUNCTION check_maintenance_window_bookings()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_reservation_id INT;
+BEGIN
+    SELECT r.reservation_id INTO v_reservation_id
+    FROM reservation r
+    WHERE r.vehicle_id = NEW.vehicle_id
+      AND r.reservation_status IN ('PENDING', 'APPROVED')
+      AND daterange(r.start_date, r.end_date, '[]') && daterange(NEW.start_date, NEW.end_date, '[]')
+    LIMIT 1;
+
+    IF v_reservation_id IS NULL THEN
+        SELECT r.reservation_id INTO v_reservation_id
+        FROM rental rt JOIN reservation r ON r.reservation_id = rt.reservation_id
+        WHERE r.vehicle_id = NEW.vehicle_id AND rt.return_date IS NULL
+          AND r.start_date <= NEW.end_date AND GREATEST(r.end_date, CURRENT_DATE) >= NEW.start_date
+        LIMIT 1;
+    END IF;
+
+    IF v_reservation_id IS NOT NULL THEN
+        RAISE EXCEPTION 'HATA: Bakım tarihleri #% numaralı rezervasyonla çakışıyor!', v_reservation_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_maintenance_window_bookings ON maintenance_window;
+CREATE TRIGGER trg_maintenance_window_bookings
+BEFORE INSERT OR UPDATE ON maintenance_window
+FOR EACH ROW EXECUTE FUNCTION check_maintenance_window_bookings();
+
+ANALYZE reservation;
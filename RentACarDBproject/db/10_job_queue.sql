@@ -0,0 +1,55 @@
+-- ============================================================================
+-- ARKA PLAN İŞ KUYRUĞU
+-- ============================================================================
+-- Açıklama: Periyodik veya ertelenmiş işler (bekleyen rezervasyonların süresinin dolması, talep tahmini,
+-- eski iş kayıtlarının temizlenmesi) bu tabloya yazılır; service.JobWorker havuzları onları işler.
+-- Birden çok JVM aynı tabloyu işleyebilir: İşler 'FOR UPDATE SKIP LOCKED' ile alınır, başka bir
+-- çalışanın kilitlediği satır beklenmeden atlanır.
+--
+-- Görünmezlik süresi (visibility timeout): Alınan işin 'run_at' değeri şimdi + süre yapılır. Çalışan
+-- bu sürede bitiremezse (JVM çöktü, bağlantı koptu) iş tekrar vadesi gelmiş sayılır ve başka bir
+-- çalışan tarafından alınır.
+--
+-- 09_maintenance_windows.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+-- ----------------------------------------------------------------------------
+-- 1. İŞ TABLOSU
+-- ----------------------------------------------------------------------------
+-- status: QUEUED (sırada) -> RUNNING (bir çalışanda) -> DONE | FAILED (deneme hakkı bitti)
+-- attempts: Kaçıncı deneme. Aynı zamanda işin "sahiplik" numarasıdır: Bitiren çalışan
+--           kendi denemesini verir; süresi dolup başkasına geçen iş eski çalışan tarafından kapatılamaz.
+-- unique_key: Aynı anda sadece BİR tane sırada/çalışan olabilecek işler için (Örn: periyodik işler).
+CREATE TABLE IF NOT EXISTS job(
+    job_id       BIGSERIAL PRIMARY KEY,
+    job_type     VARCHAR(50)  NOT NULL,
+    payload      TEXT         NOT NULL DEFAULT '{}',
+    status       VARCHAR(10)  NOT NULL DEFAULT 'QUEUED' CHECK (status IN ('QUEUED', 'RUNNING', 'DONE', 'FAILED')),
+    run_at       TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    attempts     INT          NOT NULL DEFAULT 0,
+    max_attempts INT          NOT NULL DEFAULT 5 CHECK (max_attempts >= 1),
+    unique_key   VARCHAR(100),
+    locked_by    VARCHAR(100),
+    last_error   TEXT,
+    created_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    finished_at  TIMESTAMPTZ
+);
+
+-- Vadesi gelmiş işler: Sadece aktif satırlar indekslenir, biten işler kuyruk taramasını yavaşlatmaz.
+CREATE INDEX IF NOT EXISTS idx_job_due ON job(run_at) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Aynı anahtarla en fazla bir aktif iş.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_job_unique_active ON job(unique_key) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Eski biten işlerin temizliği (job.purge).
+CREATE INDEX IF NOT EXISTS idx_job_finished ON job(finished_at) WHERE status IN ('DONE', 'FAILED');
+
+-- Kuyruk tablosu çok sık güncellenir: Ölü satırlar beklemeden temizlensin.
+ALTER TABLE job SET (autovacuum_vacuum_scale_factor = 0.01, autovacuum_analyze_scale_factor = 0.02);
+
+-- ----------------------------------------------------------------------------
+-- 2. BEKLEYEN REZERVASYONLARIN SÜRESİ (reservation.expire-pending)
+-- ----------------------------------------------------------------------------
+-- Başlangıç günü geçmiş PENDING rezervasyonlar; tablonun tamamı taranmadan bulunur.
+CREATE INDEX IF NOT EXISTS idx_reservation_pending_start
+    ON reservation(start_date) WHERE reservation_status = 'PENDING';
@@ -0,0 +1,50 @@
+-- ============================================================================
+-- MÜŞTERİ BİLDİRİMLERİ (SMS HATIRLATMALARI)
+-- ============================================================================
+-- Açıklama: service.ReminderDispatcher, aracı yarın teslim alınacak (PICKUP) ve iadesi yarına kadar
+-- beklenen (RETURN) müşterilere SMS hatırlatması gönderir. Her hatırlatma bu tabloda BİR satırdır;
+-- (rezervasyon, tür) tekil olduğu için aynı hatırlatma iki kez oluşturulamaz.
+--
+-- Durumlar: QUEUED (gönderilecek) -> SENDING (bir dağıtıcı aldı) -> SENT | FAILED
+--           QUEUED -> SKIPPED (Gönderim zamanı geldiğinde artık geçerli değil: rezervasyon iptal edildi,
+--                              araç zaten teslim alındı veya iade edildi)
+-- Gönderim sırasında JVM çökerse satır SENDING kalır ve TEKRAR GÖNDERİLMEZ (Müşteriye iki SMS gitmesin).
+-- Sağlayıcının reddettiği mesaj 'next_attempt_at' zamanına kadar bekleyerek tekrar QUEUED olur.
+--
+-- 10_job_queue.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS notification(
+    notification_id BIGSERIAL PRIMARY KEY,
+    reservation_id  INT          NOT NULL REFERENCES reservation(reservation_id) ON DELETE CASCADE,
+    kind            VARCHAR(10)  NOT NULL CHECK (kind IN ('PICKUP', 'RETURN')),
+    -- Mesajın içeriği oluşturulduğu andaki bilgilerle sabitlenir (Gönderimde JOIN gerekmez).
+    phone           VARCHAR(15)  NOT NULL,
+    customer_name   VARCHAR(50)  NOT NULL,
+    vehicle         VARCHAR(130) NOT NULL,
+    branch_name     VARCHAR(50)  NOT NULL,
+    due_date        DATE         NOT NULL,
+    status          VARCHAR(10)  NOT NULL DEFAULT 'QUEUED' CHECK (status IN ('QUEUED', 'SENDING', 'SENT', 'FAILED', 'SKIPPED')),
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ  NOT NULL DEFAULT now(), -- Bu andan önce alınmaz (Tekrar denemede bekleme)
+    provider_id     VARCHAR(100), -- SMS sağlayıcısının mesaj numarası
+    last_error      TEXT,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    sent_at         TIMESTAMPTZ,
+    UNIQUE (reservation_id, kind)
+);
+
+-- Önceki sürümle kurulmuş tablo için: Tekrar deneme zamanı ve SKIPPED durumu.
+ALTER TABLE notification ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE notification DROP CONSTRAINT IF EXISTS notification_status_check;
+ALTER TABLE notification ADD CONSTRAINT notification_status_check
+    CHECK (status IN ('QUEUED', 'SENDING', 'SENT', 'FAILED', 'SKIPPED'));
+
+-- Gönderilecekler: Sadece QUEUED satırlar, zamanı gelme sırasıyla indekslenir.
+DROP INDEX IF EXISTS idx_notification_queued;
+CREATE INDEX IF NOT EXISTS idx_notification_due ON notification(next_attempt_at, notification_id) WHERE status = 'QUEUED';
+
+-- Teslim hatırlatması adayları: Yakında başlayan ONAYLI rezervasyonlar (Tablonun tamamı taranmaz).
+-- İade adayları için 06_fleet_rebalancing.sql'deki açık kiralama indeksi (idx_rental_open_dropoff) kullanılır.
+CREATE INDEX IF NOT EXISTS idx_reservation_approved_start
+    ON reservation(start_date) WHERE reservation_status = 'APPROVED';
@@ -0,0 +1,53 @@
+-- ============================================================================
+-- SICAK / SOĞUK ARŞİV (Eski rezervasyon ve kiralamalar)
+-- ============================================================================
+-- Açıklama: Biten (COMPLETED + iadesi alınmış) ve iptal edilen (CANCELLED) rezervasyonlar canlı tablolarda
+-- sonsuza kadar kalıyor, liste/çakışma sorguları ve indeksleri her yıl büyüyordu. service.ArchiveService
+-- belirli bir yaştan eski bu kayıtları küçük işlemler (batch) halinde buraya TAŞIR: Canlı tablodan silinir,
+-- arşive yazılır. Geçmiş kaybolmaz; arşiv aramaları ve zaman çizelgesi arşivi de okur.
+--
+-- Arşiv satırları müşteri adı, şube, marka, model ve plakayı da taşır: Müşteri veya araç sonradan silinse bile
+-- geçmiş kayıt okunabilir kalır (Bu yüzden canlı tablolara yabancı anahtar yoktur).
+--
+-- 11_notifications.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS reservation_archive(
+    reservation_id     INT           PRIMARY KEY,
+    customer_id        INT           NOT NULL,
+    vehicle_id         INT           NOT NULL,
+    branch_id          INT           NOT NULL, -- Aracın arşivleme anındaki şubesi (Raporlar ve talep tahmini için)
+    start_date         DATE          NOT NULL,
+    end_date           DATE          NOT NULL,
+    total_price        NUMERIC(10,2) NOT NULL,
+    reservation_status VARCHAR(20)   NOT NULL CHECK (reservation_status IN ('COMPLETED', 'CANCELLED')),
+    version            INT           NOT NULL,
+    full_name          VARCHAR(50)   NOT NULL,
+    brand              VARCHAR(50)   NOT NULL,
+    model              VARCHAR(50)   NOT NULL,
+    plate              VARCHAR(20)   NOT NULL,
+    archived_at        TIMESTAMPTZ   NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS rental_archive(
+    rental_id         INT         PRIMARY KEY,
+    reservation_id    INT         NOT NULL UNIQUE REFERENCES reservation_archive(reservation_id) ON DELETE CASCADE,
+    pickup_branch_id  INT         NOT NULL,
+    dropoff_branch_id INT         NOT NULL,
+    rental_date       DATE        NOT NULL,
+    return_date       DATE        NOT NULL,
+    payment_status    VARCHAR(20) NOT NULL,
+    archived_at       TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Arşiv okuma yolları: Müşteri geçmişi ve zaman çizelgesi (tarih aralığı).
+CREATE INDEX IF NOT EXISTS idx_reservation_archive_customer ON reservation_archive(customer_id);
+CREATE INDEX IF NOT EXISTS idx_reservation_archive_period
+    ON reservation_archive USING gist (daterange(start_date, end_date, '[]'))
+    WHERE reservation_status <> 'CANCELLED';
+
+-- Arşivlenecek adaylar: Canlı tablonun tamamı taranmadan, en eskiden başlayarak bulunur.
+CREATE INDEX IF NOT EXISTS idx_reservation_cancelled_end
+    ON reservation(end_date) WHERE reservation_status = 'CANCELLED';
+CREATE INDEX IF NOT EXISTS idx_rental_returned
+    ON rental(return_date) WHERE return_date IS NOT NULL;
@@ -0,0 +1,64 @@
+-- ============================================================================
+-- ARAÇ TELEMETRİSİ (Kilometre, yakıt, konum)
+-- ============================================================================
+-- Açıklama: Araçlardaki cihazlar saniyede on binlerce okuma gönderebilir. service.TelemetryIngestor okumaları
+-- yerel bir soketten veya bırakma klasöründen alır, bellekte biriktirir ve buraya büyük parçalar halinde COPY
+-- ile yazar. Tablo AYLIK bölümlere (partition) ayrılmıştır:
+--   - Yazma sadece son bölüme gider; eski ayların indeksleri büyümeye devam etmez.
+--   - Eski veri DELETE ile değil, bölüm DROP edilerek silinir (Anında, tablo şişmesi yok).
+-- Bölümler servis tarafından önceden açılır (Bu ay ve gelecek ay); ay sınırına denk gelmeyen veya tarihi
+-- bozuk okumalar DEFAULT bölümüne düşer, kaybolmaz.
+--
+-- Yazma yolunu ucuz tutmak için vehicle tablosuna yabancı anahtar YOKTUR (Silinen aracın eski okumaları kalır).
+--
+-- vehicle_telemetry_latest: Her aracın SON okuması (Her COPY parçasıyla aynı işlemde güncellenir).
+-- Araç listesi bu tabloyu okur; milyonlarca satırlık geçmiş taranmaz.
+--
+-- vehicle_telemetry_file: Bırakma klasöründen yüklenmiş dosyalar. Dosyanın adı, okumalarıyla AYNI işlemde yazılır;
+-- dosya 'done/' altına taşınamadan süreç çökerse tekrar okunduğunda burada bulunur ve okumaları ikinci kez eklenmez.
+--
+-- 12_archive.sql'den SONRA çalıştırılır. Tüm komutlar tekrar çalıştırılabilir.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS vehicle_telemetry(
+    vehicle_id  INT              NOT NULL,
+    recorded_at TIMESTAMPTZ      NOT NULL,
+    odometer_km INT              NOT NULL CHECK (odometer_km >= 0),
+    fuel_pct    SMALLINT         NOT NULL CHECK (fuel_pct BETWEEN 0 AND 100),
+    lat         DOUBLE PRECISION,           -- Konum yoksa NULL
+    lon         DOUBLE PRECISION
+) PARTITION BY RANGE (recorded_at);
+
+CREATE TABLE IF NOT EXISTS vehicle_telemetry_default PARTITION OF vehicle_telemetry DEFAULT;
+
+-- Okuma yolları: Bir aracın geçmişi (araç + zaman) ve zaman aralığı taramaları.
+-- BRIN: Satırlar zaman sırasıyla eklendiği için çok küçük bir indeksle aralık sorguları hızlanır.
+CREATE INDEX IF NOT EXISTS idx_vehicle_telemetry_vehicle ON vehicle_telemetry(vehicle_id, recorded_at);
+CREATE INDEX IF NOT EXISTS idx_vehicle_telemetry_time ON vehicle_telemetry USING brin (recorded_at);
+
+-- Bu ayın ve gelecek ayın bölümleri (Servis her parça öncesinde ve günlük işte de kontrol eder).
+-- Ay sınırları UTC'dir (TelemetryService ile aynı): Oturumun saat dilimi bölümleri kaydırmaz.
+DO $$
+DECLARE
+    m DATE := date_trunc('month', now() AT TIME ZONE 'UTC')::date;
+BEGIN
+    FOR i IN 0..1 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF vehicle_telemetry FOR VALUES FROM (%L) TO (%L)',
+                       'vehicle_telemetry_' || to_char(m, 'YYYY_MM'), m || ' 00:00+00', (m + INTERVAL '1 month')::date || ' 00:00+00');
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+CREATE TABLE IF NOT EXISTS vehicle_telemetry_latest(
+    vehicle_id  INT              PRIMARY KEY,
+    recorded_at TIMESTAMPTZ      NOT NULL,
+    odometer_km INT              NOT NULL,
+    fuel_pct    SMALLINT         NOT NULL,
+    lat         DOUBLE PRECISION,
+    lon         DOUBLE PRECISION
+);
+
+CREATE TABLE IF NOT EXISTS vehicle_telemetry_file(
+    file_name   VARCHAR(255)     PRIMARY KEY,
+    loaded_at   TIMESTAMPTZ      NOT NULL DEFAULT now()
+);
@@ -1,3 +1,4 @@
+import model.VehicleStatus;
 import service.AuthService;
 import service.VehicleService;
 
@@ -33,7 +34,7 @@ public class Main {
 
             // Silme denemesi (SADECE ADMIN yapabilir)
             System.out.println("\n--- Araç Ekleme Denemesi ---");
-            VehicleService.addVehicle(8,"Citroen","C-Elysée","06ALT301",1050,"AVAILABLE");
+            VehicleService.addVehicle(8,"Citroen","C-Elysée","06ALT301",105000L,VehicleStatus.AVAILABLE); // 1050.00 TL
 
         } catch (Exception e) {
             System.out.println("Hata: " + e.getMessage());
@@ -0,0 +1,33 @@
+package model;
+
+// Şube: Araçların bulunduğu ve kiralamanın yapıldığı fiziksel lokasyon ('branch' tablosu).
+public class Branch {
+
+    private final int id;         // Veritabanındaki 'branch_id'
+    private final String name;    // Şube adı (Örn: Kizilay Subesi)
+    private final String city;    // Şehir (Transfer maliyeti tahmininde kullanılır)
+
+    public Branch(int id, String name, String city) {
+        this.id = id;
+        this.name = name;
+        this.city = StringPool.intern(city);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    // Açılır listelerde şube adı ve şehri görünsün. Örn: Kizilay Subesi (Ankara)
+    @Override
+    public String toString() {
+        return city == null || city.isEmpty() ? name : name + " (" + city + ")";
+    }
+}
@@ -14,17 +14,23 @@ public class Customer {
     private String fullName;    // Müşterinin adı soyadı
     private String phone;       // Telefon numarası
     private String licenseNo;   // Ehliyet numarası (Kiralama için kritik bilgi)
+    private int version;        // Satır sürümü: Kayıt her güncellendiğinde veritabanında 1 artar (İyimser kilitleme)
 
     // ==========================================
     // KURUCU METOT 1 (FULL CONSTRUCTOR)
     // ==========================================
     // 'new Customer(...)' dendiğinde çalışan ana metottur.
     // Veritabanından gelen TÜM bilgileri nesneye doldurmak için kullanılır.
-    public Customer(int id, String fullName, String phone, String licenseNo) {
+    public Customer(int id, String fullName, String phone, String licenseNo, int version) {
         this.id = id;               // Gelen id'yi, bu nesnenin id'sine eşitle
         this.fullName = fullName;   // Gelen ismi, bu nesnenin ismine eşitle
         this.phone = phone;         // ...
         this.licenseNo = licenseNo; // ...
+        this.version = version;     // Okunduğu andaki sürüm (Güncellerken karşılaştırılır)
+    }
+
+    public Customer(int id, String fullName, String phone, String licenseNo) {
+        this(id, fullName, phone, licenseNo, 0);
     }
 
     // ==========================================
@@ -62,6 +68,10 @@ public class Customer {
         return licenseNo; // Ehliyeti dışarı gönder
     }
 
+    public int getVersion() {
+        return version; // Satır sürümünü dışarı gönder
+    }
+
     // ==========================================
     // TOSTRING METODU (METİNSEL TEMSİL)
     // ==========================================
@@ -0,0 +1,48 @@
+package model;
+
+import java.time.LocalDate;
+
+// Bir aracın planlı bakım dönemi: [başlangıç, bitiş] (iki gün de dahil).
+// Bu tarihlerle çakışan rezervasyon oluşturulamaz ve onaylanamaz.
+public class MaintenanceWindow {
+
+    private final int id;
+    private final int vehicleId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String reason;
+    private final boolean recurring; // Periyodik bakım planlayıcısı tarafından mı eklendi
+
+    public MaintenanceWindow(int id, int vehicleId, LocalDate startDate, LocalDate endDate, String reason, boolean recurring) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.reason = reason;
+        this.recurring = recurring;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public boolean isRecurring() {
+        return recurring;
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// ==========================================
+// PARA YARDIMCI SINIFI (SABİT NOKTALI TUTAR)
+// ==========================================
+// Veritabanında fiyatlar 'NUMERIC(10,2)' olarak tutulur (kuruş hassasiyeti).
+// 'double' ile tutulduğunda 0.1 + 0.2 gibi işlemlerde yuvarlama kayması olur.
+// Bu yüzden model katmanında tutarları KURUŞ cinsinden 'long' olarak saklıyoruz:
+//   1250.50 TL  ->  125050 (kuruş)
+// Dönüşümler sadece veritabanı sınırında (BigDecimal) ve ekranda (format) yapılır.
+public final class Money {
+
+    private Money() {
+        // Sadece statik metotlar içerir, nesnesi oluşturulamaz.
+    }
+
+    // NUMERIC(10,2) -> kuruş. Veritabanından okunan değer zaten 2 haneli olduğu için kayıp yoktur.
+    public static long toKurus(BigDecimal value) {
+        if (value == null) return 0L;
+        return value.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    // Kuruş -> NUMERIC(10,2). PreparedStatement.setBigDecimal ile yazmak için kullanılır.
+    public static BigDecimal toDecimal(long kurus) {
+        return BigDecimal.valueOf(kurus, 2);
+    }
+
+    // Kullanıcının yazdığı metni ("1500", "1500.5", "1500,50") kuruşa çevirir.
+    // Sayı değilse NumberFormatException fırlatır (Arayüz bunu yakalayıp uyarı gösterir).
+    public static long parse(String text) {
+        return toKurus(new BigDecimal(text.trim().replace(',', '.')));
+    }
+
+    // Ekranda göstermek için: 125050 -> "1250.50"
+    public static String format(long kurus) {
+        return toDecimal(kurus).toPlainString();
+    }
+}
@@ -1,8 +1,9 @@
 package model;
 
-// Bu kütüphane, veritabanındaki (SQL) tarih formatını Java'da kullanabilmek için gereklidir.
-// Java'da 'java.util.Date' ve 'java.sql.Date' vardır. Veritabanı işlerinde 'sql' olan kullanılır.
-import java.sql.Date;
+// Tarihler bellekte 'epoch day' (1970-01-01'den itibaren gün sayısı) olarak tutulur.
+// 'java.sql.Date' her satır için ayrı bir nesne demektir; int ise nesne başlığı taşımaz.
+// Dışarıya verirken LocalDate'e çeviriyoruz.
+import java.time.LocalDate;
 
 public class Reservation {
 
@@ -13,8 +14,9 @@ public class Reservation {
 
     private int id;           // Rezervasyonun benzersiz numarası (PK)
     private int vehicleId;    // Hangi aracın rezerve edildiği (FK)
-    private String status;    // Durum bilgisi: "PENDING", "APPROVED", "CANCELLED"
-    private Date startDate;   // Rezervasyonun başlangıç tarihi
+    private int customerId;   // Rezervasyonu yapan müşteri (FK)
+    private ReservationStatus status; // Durum bilgisi: PENDING, APPROVED, CANCELLED, COMPLETED
+    private int startEpochDay;        // Rezervasyonun başlangıç tarihi (epoch day)
 
     // ==========================================
     // EKSTRA TABLO VERİLERİ (JOIN ALANLARI)
@@ -25,26 +27,33 @@ public class Reservation {
     // Ancak kullanıcı arayüzünde (tabloda) ID yerine "BMW 320i" veya "Ahmet Yılmaz" görmek isteriz.
     // Bu yüzden SQL sorgusunda JOIN yaparak çektiğimiz bu ek bilgileri de bu sınıfta tutuyoruz.
 
-    private String brand;         // Vehicle tablosundan gelen Marka (Örn: BMW)
-    private String model;         // Vehicle tablosundan gelen Model (Örn: 320i)
+    private String brand;         // Vehicle tablosundan gelen Marka (Örn: BMW) - StringPool ile paylaşılır
+    private String model;         // Vehicle tablosundan gelen Model (Örn: 320i) - StringPool ile paylaşılır
     private String customerName;  // Customer tablosundan gelen Müşteri Adı (Örn: Burak Özen)
 
+    // Aracın liste çekildiği andaki durumu. Rezervasyon durum makinesi (ReservationStateMachine)
+    // "Araç müsait mi?" gibi kontrolleri veritabanına gitmeden bu alanla yapar.
+    private VehicleStatus vehicleStatus;
+
     // ==========================================
     // YAPICI METOT (CONSTRUCTOR)
     // ==========================================
     // Veritabanından gelen karmaşık sorgu sonucunu (ResultSet) tek bir pakete dönüştürür.
     // Hem ana tablo verilerini hem de JOIN ile gelen ek verileri alır.
-    public Reservation(int id, int vehicleId, String status, Date startDate, String brand, String model, String customerName) {
+    public Reservation(int id, int vehicleId, int customerId, ReservationStatus status, LocalDate startDate, String brand,
+                       String model, String customerName, VehicleStatus vehicleStatus) {
         // Gelen verileri bu nesnenin hafızasına kaydet:
         this.id = id;
         this.vehicleId = vehicleId;
+        this.customerId = customerId;
         this.status = status;
-        this.startDate = startDate;
+        this.startEpochDay = (int) startDate.toEpochDay();
 
-        // Ekstra bilgileri de kaydet:
-        this.brand = brand;
-        this.model = model;
+        // Ekstra bilgileri de kaydet (Marka/Model binlerce satırda tekrar ettiği için havuzdan):
+        this.brand = StringPool.intern(brand);
+        this.model = StringPool.intern(model);
         this.customerName = customerName;
+        this.vehicleStatus = vehicleStatus;
     }
 
     // ==========================================
@@ -61,12 +70,21 @@ public class Reservation {
         return vehicleId;
     }
 
-    public String getStatus() {
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public ReservationStatus getStatus() {
         return status;
     }
 
-    public Date getStartDate() {
-        return startDate;
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(startEpochDay);
+    }
+
+    // Sıralama/karşılaştırma gibi işlemlerde nesne üretmeden kullanmak için.
+    public int getStartEpochDay() {
+        return startEpochDay;
     }
 
     // Bu veriler 'vehicle' tablosundan geldi ama bu nesne üzerinden erişiyoruz.
@@ -83,4 +101,8 @@ public class Reservation {
     public String getCustomerName() {
         return customerName;
     }
+
+    public VehicleStatus getVehicleStatus() {
+        return vehicleStatus;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package model;
+
+// Rezervasyonun durum bilgisi.
+// İlk dört değer veritabanındaki 'reservation_status' CHECK kısıtlamasıyla birebir aynıdır.
+public enum ReservationStatus {
+    PENDING,    // Onay bekliyor
+    APPROVED,   // Onaylandı (Araç RESERVED oldu)
+    CANCELLED,  // İptal edildi
+    COMPLETED,  // Kiralama bitti (Araç iade alındı)
+
+    // RENTED veritabanında YOKTUR: trgRentalInsert tetikleyicisi kiralama başlayınca
+    // rezervasyonu hemen COMPLETED yapar. Java tarafında "COMPLETED + iade edilmemiş kiralama kaydı"
+    // durumunu ayırt edebilmek için türetilmiş bir değer olarak kullanıyoruz.
+    RENTED;     // Araç şu an müşteride
+
+    // Veritabanından gelen metni enum'a çevirir (Büyük/küçük harf duyarsız).
+    public static ReservationStatus fromDb(String value) {
+        return valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+
+    // Veritabanı durumu + kiralama kaydı bilgisinden gerçek yaşam döngüsü durumunu çıkarır.
+    public static ReservationStatus derive(String dbValue, boolean rentalOpen) {
+        ReservationStatus status = fromDb(dbValue);
+        return status == COMPLETED && rentalOpen ? RENTED : status;
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// ==========================================
+// METİN HAVUZU (STRING DEDUPLICATION)
+// ==========================================
+// Filoda yüzlerce "Fiat", "Egea" gibi aynı marka/model metni bulunur.
+// JDBC her satır için YENİ bir String nesnesi üretir; 1 milyon satırda bu
+// milyonlarca kopya demektir. Bu havuz aynı içerikli metinler için
+// TEK bir nesne döndürür, böylece önbellekteki listeler çok daha az bellek tutar.
+//
+// NOT: String.intern() yerine kendi havuzumuzu kullanıyoruz; JVM'in global
+// tablosunu şişirmez ve sadece düşük çeşitlilikteki alanlar (marka, model) için kullanılır.
+public final class StringPool {
+
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    private StringPool() {
+    }
+
+    public static String intern(String value) {
+        if (value == null) return null;
+        String existing = POOL.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
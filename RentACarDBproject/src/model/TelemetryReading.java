@@ -0,0 +1,56 @@
+package model;
+
+import java.time.Instant;
+
+// Araçtan gelen tek bir telemetri okuması (Kilometre sayacı, yakıt yüzdesi ve varsa konum).
+// Saniyede on binlerce oluşturulduğu için alanlar ilkel tiptedir; zaman epoch milisaniye olarak tutulur.
+public final class TelemetryReading {
+
+    private final int vehicleId;
+    private final long recordedAtMillis;
+    private final int odometerKm;
+    private final int fuelPct;
+    private final double lat; // Konum yoksa NaN
+    private final double lon;
+
+    public TelemetryReading(int vehicleId, long recordedAtMillis, int odometerKm, int fuelPct, double lat, double lon) {
+        this.vehicleId = vehicleId;
+        this.recordedAtMillis = recordedAtMillis;
+        this.odometerKm = odometerKm;
+        this.fuelPct = fuelPct;
+        this.lat = lat;
+        this.lon = lon;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public long getRecordedAtMillis() {
+        return recordedAtMillis;
+    }
+
+    public Instant getRecordedAt() {
+        return Instant.ofEpochMilli(recordedAtMillis);
+    }
+
+    public int getOdometerKm() {
+        return odometerKm;
+    }
+
+    public int getFuelPct() {
+        return fuelPct;
+    }
+
+    public boolean hasLocation() {
+        return !Double.isNaN(lat) && !Double.isNaN(lon);
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+// Zaman çizelgesinde (TimelineView) bir aracın şeridindeki tek çubuk: Bir rezervasyon ya da kiralama.
+// Tarihler 'Reservation' sınıfındaki gibi epoch day olarak tutulur (On binlerce çubuk, nesne başına az bellek).
+public class TimelineBar {
+
+    private final int reservationId;
+    private final int vehicleId;
+    private final int startEpochDay;          // İlk gün (dahil)
+    private final int endEpochDay;            // Son gün (dahil)
+    private final ReservationStatus status;   // PENDING, APPROVED, RENTED veya COMPLETED
+    private final String customerName;
+
+    public TimelineBar(int reservationId, int vehicleId, int startEpochDay, int endEpochDay,
+                       ReservationStatus status, String customerName) {
+        this.reservationId = reservationId;
+        this.vehicleId = vehicleId;
+        this.startEpochDay = startEpochDay;
+        this.endEpochDay = endEpochDay;
+        this.status = status;
+        this.customerName = customerName;
+    }
+
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public int getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public int getEndEpochDay() {
+        return endEpochDay;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+}
@@ -11,28 +11,48 @@ public class Vehicle {
 
     private int id;         // Veritabanındaki 'vehicle_id' (Benzersiz kimlik)
     private String plate;   // Plaka (Örn: 06 BRK 058) - Araçları ayırt etmek için kritik.
-    private String brand;   // Marka (Örn: BMW)
-    private String model;   // Model (Örn: 320i)
+    private String brand;   // Marka (Örn: BMW) - StringPool ile paylaşılır
+    private String model;   // Model (Örn: 320i) - StringPool ile paylaşılır
 
-    // Fiyatlar genellikle kuruşlu olabileceği için 'double' veri tipi kullanılır.
-    // SQL'deki 'NUMERIC(10,2)' tipinin Java karşılığıdır.
-    private double price;   // Günlük Kiralama Ücreti
+    // Fiyat KURUŞ cinsinden tutulur (1250.50 TL -> 125050).
+    // SQL'deki 'NUMERIC(10,2)' tipini 'double' ile tutmak yuvarlama kaymasına yol açıyordu.
+    // Dönüşümler için 'Money' sınıfına bakınız.
+    private long priceKurus;   // Günlük Kiralama Ücreti
 
-    // Aracın o anki durumu: "AVAILABLE" (Müsait), "RENTED" (Kirada), "MAINTENANCE" (Bakımda) vs.
-    private String status;
+    // Aracın o anki durumu: AVAILABLE (Müsait), RENTED (Kirada), MAINTENANCE (Bakımda) vs.
+    private VehicleStatus status;
+
+    // Satır sürümü: Kayıt her güncellendiğinde veritabanında 1 artar (İyimser kilitleme).
+    private int version;
+
+    // Aracın bağlı olduğu şube ve fiziksel olarak bulunduğu şube (Tek yön kiralamadan sonra farklı olabilir).
+    private int branchId;
+    private int currentBranchId;
 
     // ==========================================
     // YAPICI METOT (CONSTRUCTOR)
     // ==========================================
     // Veritabanından (SQL) gelen bir satır veriyi (Row), Java nesnesine dönüştürür.
     // Örn: veritabanından "1, 06AB12, BMW..." geldiğinde bu metot çalışır ve bir 'Vehicle' nesnesi oluşturur.
-    public Vehicle(int id, String plate, String brand, String model, double price, String status) {
-        this.id = id;           // Gelen ID'yi bu nesneye kaydet
-        this.plate = plate;     // Gelen plakayı kaydet
-        this.brand = brand;     // ...
-        this.model = model;     // ...
-        this.price = price;     // ...
-        this.status = status;   // ...
+    public Vehicle(int id, String plate, String brand, String model, long priceKurus, VehicleStatus status, int version,
+                   int branchId, int currentBranchId) {
+        this.id = id;                           // Gelen ID'yi bu nesneye kaydet
+        this.plate = plate;                     // Gelen plakayı kaydet
+        this.brand = StringPool.intern(brand);  // Aynı markalar tek nesneyi paylaşsın
+        this.model = StringPool.intern(model);  // ...
+        this.priceKurus = priceKurus;           // ...
+        this.status = status;                   // ...
+        this.version = version;                 // Okunduğu andaki sürüm
+        this.branchId = branchId;               // Bağlı olduğu şube
+        this.currentBranchId = currentBranchId; // Şu an bulunduğu şube
+    }
+
+    public Vehicle(int id, String plate, String brand, String model, long priceKurus, VehicleStatus status, int version) {
+        this(id, plate, brand, model, priceKurus, status, version, 0, 0);
+    }
+
+    public Vehicle(int id, String plate, String brand, String model, long priceKurus, VehicleStatus status) {
+        this(id, plate, brand, model, priceKurus, status, 0);
     }
 
     // ==========================================
@@ -58,11 +78,28 @@ public class Vehicle {
         return model;
     }
 
-    public double getPrice() {
-        return price;
+    public long getPriceKurus() {
+        return priceKurus;
     }
 
-    public String getStatus() {
+    public VehicleStatus getStatus() {
         return status;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getBranchId() {
+        return branchId;
+    }
+
+    public int getCurrentBranchId() {
+        return currentBranchId;
+    }
+
+    // Müsait ve kendi şubesinde duruyor: Tezgâhta hemen kiralanabilir.
+    public boolean isRentableNow() {
+        return status == VehicleStatus.AVAILABLE && currentBranchId == branchId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package model;
+
+// Araç sınıfı: Bir şubedeki aynı marka ve modeldeki araçların tamamı.
+// Rezervasyon artık belirli bir plakaya değil, bir sınıfa yapılır; hangi aracın verileceğini
+// sistem (VehicleAssigner) seçer.
+public class VehicleClass {
+
+    // ==========================================
+    // DEĞİŞKENLER (FIELDS)
+    // ==========================================
+    private final int branchId;         // Şube ID'si (Sınıf şubeye özeldir)
+    private final String branchName;    // Şube adı (Listede göstermek için)
+    private final String brand;         // Marka - StringPool ile paylaşılır
+    private final String model;         // Model - StringPool ile paylaşılır
+    private final long priceKurus;      // Sınıfın günlük ücreti (kuruş): Sınıftaki en düşük araç fiyatı
+    private final int vehicleCount;     // Sınıftaki (bakımda olmayan) araç sayısı
+
+    public VehicleClass(int branchId, String branchName, String brand, String model, long priceKurus, int vehicleCount) {
+        this.branchId = branchId;
+        this.branchName = branchName;
+        this.brand = StringPool.intern(brand);
+        this.model = StringPool.intern(model);
+        this.priceKurus = priceKurus;
+        this.vehicleCount = vehicleCount;
+    }
+
+    // ==========================================
+    // GETTER METOTLARI (OKUYUCULAR)
+    // ==========================================
+
+    public int getBranchId() {
+        return branchId;
+    }
+
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public long getPriceKurus() {
+        return priceKurus;
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    // Örn: Ford Focus - Kizilay Subesi (3 araç)
+    @Override
+    public String toString() {
+        return brand + " " + model + " - " + branchName + " (" + vehicleCount + " araç)";
+    }
+}
@@ -0,0 +1,17 @@
+package model;
+
+// Aracın durum bilgisi.
+// Veritabanındaki 'vehicle_status' CHECK kısıtlamasındaki değerlerle birebir aynıdır.
+// String yerine enum kullanmak: her satırda ayrı bir metin tutmak yerine tek bir sabite referans verir
+// ve yanlış yazılmış durumların ("AVALIABLE" gibi) derleme anında yakalanmasını sağlar.
+public enum VehicleStatus {
+    AVAILABLE,   // Müsait
+    RESERVED,    // Rezerve (Onaylı rezervasyonu var)
+    RENTED,      // Kirada
+    MAINTENANCE; // Bakımda
+
+    // Veritabanından gelen metni enum'a çevirir (Büyük/küçük harf duyarsız).
+    public static VehicleStatus fromDb(String value) {
+        return valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+}
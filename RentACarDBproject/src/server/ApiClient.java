@@ -0,0 +1,386 @@
+package server;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Branch;
+import model.Customer;
+import model.MaintenanceWindow;
+import model.Reservation;
+import model.ReservationStatus;
+import model.TelemetryReading;
+import model.TimelineBar;
+import model.Vehicle;
+import model.VehicleClass;
+import model.VehicleStatus;
+import service.Session;
+import service.StaleDataException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ApiClient Sınıfı (İnce İstemci Adaptörü)
+ * ----------------------------------------
+ * JavaFX istemcisinin veritabanına doğrudan JDBC ile değil, ApiServer üzerinden
+ * bağlanmasını sağlar.
+ *
+ * Uygulama '-Drentacar.server=http://localhost:8085' ile başlatılırsa servis sınıfları
+ * (VehicleService, CustomerService, ReservationService, AuthService) çağrıları
+ * buraya yönlendirir. Arayüz kodunda hiçbir değişiklik gerekmez.
+ * (Sunucu başka bir bilgisayardaysa orada '-Drentacar.server.bind=0.0.0.0' ile başlatılır ve
+ * buraya o bilgisayarın adresi yazılır.)
+ * Liste yanıtları gövde akışından eleman eleman okunur; yanıtın tamamı bellekte birikmez.
+ */
+public final class ApiClient {
+
+    // Sunucu adresi. Boşsa istemci modu kapalıdır (doğrudan JDBC kullanılır).
+    private static final String BASE_URL = System.getProperty("rentacar.server", "").replaceAll("/+$", "");
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // Girişte sunucunun verdiği oturum anahtarı.
+    private static volatile String token;
+
+    private ApiClient() {
+    }
+
+    public static boolean isEnabled() {
+        return !BASE_URL.isEmpty();
+    }
+
+    // ==========================================
+    // GİRİŞ
+    // ==========================================
+
+    public static Session login(String username, String password) throws Exception {
+        HttpResponse<String> res = send("POST", "/api/login",
+                "{\"username\":" + Json.quote(username) + ",\"password\":" + Json.quote(password) + "}");
+        if (res.statusCode() == 401) return null;
+        Map<String, Object> b = parseOrThrow(res);
+        token = Json.str(b, "token");
+        Object branch = b.get("branchId");
+        return new Session((int) Json.num(b, "userId"), username, Json.str(b, "role"),
+                branch == null ? null : ((Number) branch).intValue());
+    }
+
+    // Sunucudaki oturum da kapatılır; sunucuya ulaşılamasa bile anahtar istemcide silinir.
+    public static void logout() {
+        if (token == null) return;
+        try {
+            send("POST", "/api/logout", "{}");
+        } catch (Exception e) {
+            System.out.println("Çıkış sunucuya bildirilemedi: " + e.getMessage());
+        }
+        token = null;
+    }
+
+    // ==========================================
+    // ARAÇLAR
+    // ==========================================
+
+    public static ObservableList<Vehicle> vehicles(String query) {
+        ObservableList<Vehicle> list = FXCollections.observableArrayList();
+        try {
+            getArray("/api/vehicles" + q(query), o -> list.add(vehicle(o)));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    private static Vehicle vehicle(Map<String, Object> o) {
+        return new Vehicle((int) Json.num(o, "id"), Json.str(o, "plate"), Json.str(o, "brand"),
+                Json.str(o, "model"), Json.num(o, "priceKurus"), VehicleStatus.fromDb(Json.str(o, "status")),
+                (int) Json.num(o, "version"), (int) Json.num(o, "branchId"), (int) Json.num(o, "currentBranchId"));
+    }
+
+    public static void addVehicle(int branchId, String brand, String model, String plate, long priceKurus, VehicleStatus status) throws Exception {
+        call("POST", "/api/vehicles", "{\"branchId\":" + branchId + ",\"brand\":" + Json.quote(brand)
+                + ",\"model\":" + Json.quote(model) + ",\"plate\":" + Json.quote(plate)
+                + ",\"priceKurus\":" + priceKurus + ",\"status\":\"" + status.name() + "\"}");
+    }
+
+    public static void updateVehicleStatus(Vehicle original, VehicleStatus status) throws Exception {
+        call("PUT", "/api/vehicles/" + original.getId() + "/status", "{\"status\":\"" + status.name()
+                + "\",\"baseStatus\":\"" + original.getStatus().name() + "\",\"version\":" + original.getVersion() + "}");
+    }
+
+    public static void deleteVehicle(int id) throws Exception {
+        call("DELETE", "/api/vehicles/" + id, null);
+    }
+
+    // ==========================================
+    // MÜŞTERİLER
+    // ==========================================
+
+    public static ObservableList<Customer> customers(String query) {
+        ObservableList<Customer> list = FXCollections.observableArrayList();
+        try {
+            getArray("/api/customers" + q(query), o -> {
+                list.add(new Customer((int) Json.num(o, "id"), Json.str(o, "fullName"), Json.str(o, "phone"),
+                        Json.str(o, "licenseNo"), (int) Json.num(o, "version")));
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public static void addCustomer(String name, String phone, String license) throws Exception {
+        call("POST", "/api/customers", customerJson(name, phone, license));
+    }
+
+    // Sunucu tarafında birleştirme yapılabilsin diye formun açıldığı andaki değerler de gönderilir.
+    public static void updateCustomer(Customer original, String name, String phone, String license) throws Exception {
+        call("PUT", "/api/customers/" + original.getId(), "{\"fullName\":" + Json.quote(name) + ",\"phone\":" + Json.quote(phone)
+                + ",\"licenseNo\":" + Json.quote(license) + ",\"baseFullName\":" + Json.quote(original.getFullName())
+                + ",\"basePhone\":" + Json.quote(original.getPhone()) + ",\"baseLicenseNo\":" + Json.quote(original.getLicenseNo())
+                + ",\"version\":" + original.getVersion() + "}");
+    }
+
+    public static void deleteCustomer(int id) throws Exception {
+        call("DELETE", "/api/customers/" + id, null);
+    }
+
+    public static int createCustomerAndGetId(String name, String phone, String license) throws Exception {
+        return (int) Json.num(call("POST", "/api/customers/resolve", customerJson(name, phone, license)), "id");
+    }
+
+    public static List<Customer> findLikelyDuplicates(String name, String phone, String license, int excludeId) throws Exception {
+        String body = "{\"fullName\":" + Json.quote(name) + ",\"phone\":" + Json.quote(phone) + ",\"licenseNo\":" + Json.quote(license)
+                + ",\"excludeId\":" + excludeId + "}";
+        List<Customer> list = new ArrayList<>();
+        readArray("POST", "/api/customers/duplicates", body, o ->
+                list.add(new Customer((int) Json.num(o, "id"), Json.str(o, "fullName"), Json.str(o, "phone"),
+                        Json.str(o, "licenseNo"), (int) Json.num(o, "version"))));
+        return list;
+    }
+
+    // ==========================================
+    // ARAÇ SINIFLARI
+    // ==========================================
+
+    public static ObservableList<VehicleClass> vehicleClasses() {
+        ObservableList<VehicleClass> list = FXCollections.observableArrayList();
+        try {
+            getArray("/api/vehicle-classes", o -> {
+                list.add(new VehicleClass((int) Json.num(o, "branchId"), Json.str(o, "branchName"), Json.str(o, "brand"),
+                        Json.str(o, "model"), Json.num(o, "priceKurus"), (int) Json.num(o, "vehicleCount")));
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public static int bookClass(int customerId, VehicleClass vc, LocalDate start, LocalDate end, long priceKurus) throws Exception {
+        return (int) Json.num(call("POST", "/api/reservations/by-class", "{\"customerId\":" + customerId
+                + ",\"branchId\":" + vc.getBranchId() + ",\"brand\":" + Json.quote(vc.getBrand()) + ",\"model\":" + Json.quote(vc.getModel())
+                + ",\"startDate\":\"" + start + "\",\"endDate\":\"" + end + "\",\"priceKurus\":" + priceKurus + "}"), "vehicleId");
+    }
+
+    public static ObservableList<Branch> branches() {
+        ObservableList<Branch> list = FXCollections.observableArrayList();
+        try {
+            getArray("/api/branches", o -> {
+                list.add(new Branch((int) Json.num(o, "id"), Json.str(o, "name"), Json.str(o, "city")));
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    // ==========================================
+    // BAKIM PENCERELERİ
+    // ==========================================
+
+    public static ObservableList<MaintenanceWindow> maintenanceWindows(int vehicleId) {
+        ObservableList<MaintenanceWindow> list = FXCollections.observableArrayList();
+        try {
+            getArray("/api/maintenance?vehicleId=" + vehicleId, o -> {
+                list.add(new MaintenanceWindow((int) Json.num(o, "id"), (int) Json.num(o, "vehicleId"),
+                        LocalDate.parse(Json.str(o, "startDate")), LocalDate.parse(Json.str(o, "endDate")),
+                        Json.str(o, "reason"), Boolean.TRUE.equals(o.get("recurring"))));
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public static void addMaintenanceWindow(int vehicleId, LocalDate start, LocalDate end, String reason) throws Exception {
+        call("POST", "/api/maintenance", "{\"vehicleId\":" + vehicleId + ",\"startDate\":\"" + start + "\",\"endDate\":\"" + end
+                + "\",\"reason\":" + Json.quote(reason == null ? "" : reason) + "}");
+    }
+
+    public static void deleteMaintenanceWindow(int windowId) throws Exception {
+        call("DELETE", "/api/maintenance/" + windowId, null);
+    }
+
+    public static int scheduleRecurringMaintenance(int intervalDays, int durationDays, LocalDate from, LocalDate until,
+                                                   int maxPerBranchPerDay) throws Exception {
+        Map<String, Object> res = call("POST", "/api/maintenance/recurring", "{\"intervalDays\":" + intervalDays
+                + ",\"durationDays\":" + durationDays + ",\"from\":\"" + from + "\",\"until\":\"" + until
+                + "\",\"maxPerBranchPerDay\":" + maxPerBranchPerDay + "}");
+        return (int) Json.num(res, "created");
+    }
+
+    // ==========================================
+    // REZERVASYONLAR
+    // ==========================================
+
+    public static ObservableList<Reservation> reservations(String query) {
+        return readReservations("/api/reservations" + q(query));
+    }
+
+    private static ObservableList<Reservation> readReservations(String path) {
+        ObservableList<Reservation> list = FXCollections.observableArrayList();
+        try {
+            getArray(path, o -> {
+                list.add(new Reservation((int) Json.num(o, "id"), (int) Json.num(o, "vehicleId"), (int) Json.num(o, "customerId"),
+                        ReservationStatus.fromDb(Json.str(o, "status")), LocalDate.parse(Json.str(o, "startDate")),
+                        Json.str(o, "brand"), Json.str(o, "model"), Json.str(o, "customerName"),
+                        VehicleStatus.fromDb(Json.str(o, "vehicleStatus"))));
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    // Arşivdeki rezervasyonlar (Satır biçimi canlı listeyle aynıdır).
+    public static ObservableList<Reservation> archivedReservations(String query) {
+        return readReservations("/api/reservations/archive" + q(query));
+    }
+
+    public static List<TimelineBar> timeline(LocalDate from, LocalDate to) throws Exception {
+        List<TimelineBar> bars = new ArrayList<>();
+        getArray("/api/timeline?from=" + from + "&to=" + to, o -> {
+            bars.add(new TimelineBar((int) Json.num(o, "id"), (int) Json.num(o, "vehicleId"), (int) Json.num(o, "start"),
+                    (int) Json.num(o, "end"), ReservationStatus.fromDb(Json.str(o, "status")), Json.str(o, "customerName")));
+        });
+        return bars;
+    }
+
+    public static void addReservation(int customerId, int vehicleId, LocalDate start, LocalDate end, long priceKurus) throws Exception {
+        call("POST", "/api/reservations", "{\"customerId\":" + customerId + ",\"vehicleId\":" + vehicleId
+                + ",\"startDate\":\"" + start + "\",\"endDate\":\"" + end + "\",\"priceKurus\":" + priceKurus + "}");
+    }
+
+    // action: approve, start, cancel (İade için finishRental)
+    public static void reservationAction(int id, String action) throws Exception {
+        call("POST", "/api/reservations/" + id + "/" + action, "{}");
+    }
+
+    // İadeden sonra aracın güncel hali (Sunucu okuyamadıysa null).
+    public static Vehicle finishRental(int id) throws Exception {
+        Map<String, Object> res = call("POST", "/api/reservations/" + id + "/finish", "{}");
+        return res.containsKey("id") ? vehicle(res) : null;
+    }
+
+    public static void startRental(int id, Integer dropoffBranchId) throws Exception {
+        call("POST", "/api/reservations/" + id + "/start", dropoffBranchId == null ? "{}" : "{\"dropoffBranchId\":" + dropoffBranchId + "}");
+    }
+
+    public static void deleteReservation(int id) throws Exception {
+        call("DELETE", "/api/reservations/" + id, null);
+    }
+
+    // ==========================================
+    // TELEMETRİ
+    // ==========================================
+
+    // Araç ID -> son okuma. Konumu olmayan okumada "lat"/"lon" alanları gelmez.
+    public static Map<Integer, TelemetryReading> telemetryLatest() {
+        Map<Integer, TelemetryReading> map = new HashMap<>();
+        try {
+            getArray("/api/telemetry/latest", o -> {
+                int vehicleId = (int) Json.num(o, "vehicleId");
+                map.put(vehicleId, new TelemetryReading(vehicleId, Json.num(o, "recordedAt"), (int) Json.num(o, "odometerKm"),
+                        (int) Json.num(o, "fuelPct"), coordinate(o.get("lat")), coordinate(o.get("lon"))));
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return map;
+    }
+
+    private static double coordinate(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    // ==========================================
+    // YARDIMCI METOTLAR
+    // ==========================================
+
+    private static String customerJson(String name, String phone, String license) {
+        return "{\"fullName\":" + Json.quote(name) + ",\"phone\":" + Json.quote(phone) + ",\"licenseNo\":" + Json.quote(license) + "}";
+    }
+
+    private static String q(String query) {
+        return query == null ? "" : "?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+    }
+
+    private static void getArray(String path, Consumer<Map<String, Object>> element) throws Exception {
+        readArray("GET", path, null, element);
+    }
+
+    // Liste yanıtını gövde akışından okur: Her eleman geldiği anda 'element'e verilir (bkz. Json.readObjectArray).
+    // Yanıtın tamamı ne metin ne de Map listesi olarak bellekte birikir.
+    private static void readArray(String method, String path, String body, Consumer<Map<String, Object>> element) throws Exception {
+        HttpResponse<InputStream> res = HTTP.send(request(method, path, body), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = res.body()) {
+            if (res.statusCode() != 200) throw error(res.statusCode(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            Json.readObjectArray(new InputStreamReader(in, StandardCharsets.UTF_8), element);
+        }
+    }
+
+    private static Map<String, Object> call(String method, String path, String body) throws Exception {
+        return parseOrThrow(send(method, path, body));
+    }
+
+    // Sunucu hata döndürdüyse, mesajını aynen Exception olarak fırlatır (Arayüz bunu Alert ile gösterir).
+    private static Map<String, Object> parseOrThrow(HttpResponse<String> res) throws Exception {
+        if (res.statusCode() != 200) throw error(res.statusCode(), res.body());
+        return Json.parseObject(res.body());
+    }
+
+    private static Exception error(int status, String body) {
+        String message = Json.str(Json.parseObject(body), "error");
+        if (status == 403) return new SecurityException(message);
+        if (status == 409) return new StaleDataException(message);
+        return new Exception(message);
+    }
+
+    private static HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        return HTTP.send(request(method, path, body), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private static HttpRequest request(String method, String path, String body) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        String t = token;
+        if (t != null) req.header("Authorization", "Bearer " + t);
+        return req.build();
+    }
+}
@@ -0,0 +1,583 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Branch;
+import model.Customer;
+import model.MaintenanceWindow;
+import model.Reservation;
+import model.TelemetryReading;
+import model.TimelineBar;
+import model.Vehicle;
+import model.VehicleClass;
+import model.VehicleStatus;
+import service.AuthService;
+import service.BranchService;
+import service.CustomerService;
+import service.Db;
+import service.DuplicateDetector;
+import service.JobWorker;
+import service.LicenseIndex;
+import service.MaintenanceService;
+import service.ReservationService;
+import service.RowSink;
+import service.Session;
+import service.StaleDataException;
+import service.TelemetryIngestor;
+import service.TelemetryService;
+import service.VehicleAssigner;
+import service.VehicleService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiServer Sınıfı (Sunucu Modu)
+ * ------------------------------
+ * Servis katmanını (Araç, Müşteri, Rezervasyon) yerel bir HTTP/JSON API olarak sunar.
+ * Böylece her gişe kendi JavaFX istemcisiyle doğrudan PostgreSQL'e bağlanmak yerine
+ * bu sunucuya bağlanır; tüm istemciler TEK bağlantı havuzunu paylaşır.
+ *
+ * - JDK'nın kendi HTTP sunucusu (com.sun.net.httpserver) kullanılır, ek kütüphane yoktur.
+ * - Her istek kendi SANAL iş parçacığında (virtual thread) çalışır; bağlantı beklerken
+ *   işletim sistemi iş parçacığı tüketmez.
+ * - Büyük listeler belleğe toplanmadan, satırlar veritabanından okundukça parça parça (chunked) yazılır.
+ * - Her istek, giriş yapan kullanıcının oturumuyla (Session.runAs) çalıştırılır.
+ * - Arka plan iş kuyruğunun çalışan havuzu (JobWorker) da sunucuyla birlikte başlar.
+ * - '-Drentacar.telemetry.port' veya '-Drentacar.telemetry.dir' verilirse araç telemetrisi alıcısı
+ *   (TelemetryIngestor) da başlar; son okumalar bellekten sunulur.
+ *
+ * Başlatma: java server.ApiServer [port]   (varsayılan port 8085)
+ * Sunucu varsayılan olarak sadece 'localhost'u dinler; diğer bilgisayarlardaki gişeler için
+ * '-Drentacar.server.bind=0.0.0.0' (veya sunucunun ağ adresi) verilir.
+ * Oturumlar 'rentacar.session.idleMinutes' (varsayılan 30) dakika kullanılmazsa düşer.
+ *
+ * UÇ NOKTALAR (ENDPOINTS):
+ *   POST   /api/login                         {"username","password"} -> {"token","role","branchId"}
+ *   POST   /api/logout                        Oturum anahtarını geçersiz kılar
+ *   GET    /api/vehicles[?q=...]              Araç listesi / arama
+ *   POST   /api/vehicles                      Araç ekle
+ *   PUT    /api/vehicles/{id}/status          {"status","baseStatus","version"}
+ *   DELETE /api/vehicles/{id}
+ *   GET    /api/customers[?q=...]             Müşteri listesi / arama
+ *   POST   /api/customers                     Müşteri ekle
+ *   PUT    /api/customers/{id}                Müşteri güncelle (+ "base*" alanları ve "version")
+ *   DELETE /api/customers/{id}
+ *   GET    /api/vehicle-classes               Araç sınıfları (şube + marka + model)
+ *   GET    /api/branches                      Şube listesi
+ *   GET    /api/maintenance?vehicleId=...     Aracın bugün ve sonrasındaki bakım pencereleri
+ *   POST   /api/maintenance                   {"vehicleId","startDate","endDate","reason"}
+ *   POST   /api/maintenance/recurring         {"intervalDays","durationDays","from","until","maxPerBranchPerDay"} -> {"created"}
+ *   DELETE /api/maintenance/{id}
+ *   GET    /api/reservations[?q=...]          Rezervasyon listesi / arama
+ *   GET    /api/reservations/archive[?q=...]  Arşivdeki (eski, biten/iptal) rezervasyonlarda arama
+ *   GET    /api/timeline?from=...&to=...      Tarih aralığıyla kesişen rezervasyon/kiralamalar (Zaman çizelgesi)
+ *   POST   /api/reservations                  Rezervasyon ekle
+ *   POST   /api/reservations/by-class         {"customerId","branchId","brand","model","startDate","endDate","priceKurus"} -> {"vehicleId"}
+ *   POST   /api/customers/resolve             {"fullName","phone","licenseNo"} -> {"id"}
+ *   POST   /api/customers/duplicates          {"fullName","phone","licenseNo","excludeId"} -> Olası mükerrer müşteriler
+ *   POST   /api/reservations/{id}/{approve|start|finish|cancel}   ("start" için isteğe bağlı {"dropoffBranchId"};
+ *                                             "finish" aracın güncel halini döner)
+ *   DELETE /api/reservations/{id}
+ *   GET    /api/telemetry/latest              Her aracın son telemetri okuması (Kilometre, yakıt, konum)
+ *
+ * Eşzamanlı güncelleme çakışması (StaleDataException) 409 Conflict olarak döner.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = 8085;
+
+    // Yanıt akışı tamponu: küçük parçalar halinde ağa yazmamak için.
+    private static final int WRITE_BUFFER = 16 * 1024;
+
+    // Dinlenecek adres ('0.0.0.0': tüm ağ arabirimleri).
+    private static final String BIND_ADDRESS = System.getProperty("rentacar.server.bind", "localhost");
+
+    // Bu kadar süre istek gelmeyen oturum düşer (İstemci yeniden giriş yapar).
+    private static final long SESSION_IDLE_NANOS = TimeUnit.MINUTES.toNanos(Integer.getInteger("rentacar.session.idleMinutes", 30));
+
+    // Giriş yapmış istemcilerin oturumları (token -> oturum).
+    private final Map<String, LoginSession> sessions = new ConcurrentHashMap<>();
+
+    private HttpServer http;
+    private JobWorker jobs;
+    private TelemetryIngestor telemetry;
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        new ApiServer().start(port);
+        System.out.println("Sunucu modu çalışıyor: http://" + BIND_ADDRESS + ":" + port + "/api/");
+    }
+
+    public void start(int port) throws IOException, SQLException {
+        Db.warmUp(4); // Sürücüyü yükle, ilk bağlantıları havuza koy
+        LicenseIndex.warmUp(); // Müşteri ehliyet no indeksini kur
+        new Thread(DuplicateDetector::warmUp, "duplicate-index").start(); // Mükerrer müşteri indeksi (arka planda)
+        http = HttpServer.create(new InetSocketAddress(BIND_ADDRESS, port), 0);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        http.createContext("/api/", this::handle);
+        http.start();
+
+        // Arka plan iş kuyruğu (Süresi dolan rezervasyonlar vb.). '-Drentacar.jobs.workers=0' ile kapatılır.
+        int workers = Integer.getInteger("rentacar.jobs.workers", JobWorker.DEFAULT_THREADS);
+        if (workers > 0) {
+            jobs = new JobWorker();
+            jobs.registerDefaults();
+            jobs.start(workers);
+        }
+
+        // Araç telemetrisi (Yerel soket ve/veya bırakma klasörü). İkisi de verilmezse kapalıdır.
+        int telemetryPort = Integer.getInteger("rentacar.telemetry.port", 0);
+        String telemetryDir = System.getProperty("rentacar.telemetry.dir", "");
+        if (telemetryPort > 0 || !telemetryDir.isEmpty()) {
+            telemetry = new TelemetryIngestor();
+            telemetry.start(telemetryPort, telemetryDir.isEmpty() ? null : Path.of(telemetryDir));
+        }
+    }
+
+    public void stop() {
+        if (http != null) http.stop(0);
+        if (jobs != null) jobs.stop();
+        if (telemetry != null) telemetry.stop();
+    }
+
+    // ==========================================
+    // İSTEK YÖNLENDİRME (ROUTING)
+    // ==========================================
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            String method = ex.getRequestMethod();
+            String[] parts = ex.getRequestURI().getPath().substring("/api/".length()).split("/");
+
+            if (parts[0].equals("login") && method.equals("POST")) {
+                login(ex);
+                return;
+            }
+            if (parts[0].equals("logout") && method.equals("POST")) {
+                String token = token(ex);
+                if (token != null) sessions.remove(token);
+                sendOk(ex);
+                return;
+            }
+
+            Session session = touch(token(ex));
+            if (session == null) {
+                sendError(ex, 401, "Önce giriş yapmalısın");
+                return;
+            }
+
+            try {
+                Session.runAs(session, () -> {
+                    route(ex, method, parts);
+                    return null;
+                });
+            } catch (SecurityException e) {
+                sendError(ex, 403, e.getMessage());
+            } catch (StaleDataException e) {
+                sendError(ex, 409, e.getMessage());
+            } catch (SQLException e) {
+                e.printStackTrace();
+                sendError(ex, 500, e.getMessage());
+            } catch (Exception e) {
+                // İş kuralı hataları ("Araç müsait değil" vb.) ve hatalı istekler
+                sendError(ex, 400, e.getMessage());
+            }
+        }
+    }
+
+    private void route(HttpExchange ex, String method, String[] p) throws Exception {
+        String resource = p[0];
+        Integer id = p.length > 1 && !p[1].isEmpty() && Character.isDigit(p[1].charAt(0)) ? Integer.valueOf(p[1]) : null;
+        String action = p.length > 2 ? p[2] : null;
+        String q = queryParam(ex, "q");
+
+        switch (resource) {
+            case "vehicles":
+                if (method.equals("GET") && id == null) {
+                    writeArray(ex, sink -> VehicleService.streamVehicles(q, sink), ApiServer::writeVehicle);
+                } else if (method.equals("POST") && id == null) {
+                    Map<String, Object> b = body(ex);
+                    VehicleService.addVehicle((int) Json.num(b, "branchId"), Json.str(b, "brand"), Json.str(b, "model"),
+                            Json.str(b, "plate"), Json.num(b, "priceKurus"), VehicleStatus.fromDb(Json.str(b, "status")));
+                    sendOk(ex);
+                } else if (method.equals("PUT") && id != null && "status".equals(action)) {
+                    Map<String, Object> b = body(ex);
+                    // İyimser kilitleme için istemcinin okuduğu durum ve sürüm de gelir.
+                    Vehicle original = new Vehicle(id, "", "", "", 0, VehicleStatus.fromDb(Json.str(b, "baseStatus")), (int) Json.num(b, "version"));
+                    VehicleService.updateVehicleStatus(original, VehicleStatus.fromDb(Json.str(b, "status")));
+                    sendOk(ex);
+                } else if (method.equals("DELETE") && id != null) {
+                    VehicleService.deleteVehicle(id);
+                    sendOk(ex);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "customers":
+                if (method.equals("GET") && id == null) {
+                    writeArray(ex, sink -> CustomerService.streamCustomers(q, sink), ApiServer::writeCustomer);
+                } else if (method.equals("POST") && p.length > 1 && p[1].equals("resolve")) {
+                    Map<String, Object> b = body(ex);
+                    int customerId = ReservationService.createCustomerAndGetId(Json.str(b, "fullName"), Json.str(b, "phone"), Json.str(b, "licenseNo"));
+                    sendJson(ex, 200, "{\"id\":" + customerId + "}");
+                } else if (method.equals("POST") && p.length > 1 && p[1].equals("duplicates")) {
+                    Map<String, Object> b = body(ex);
+                    writeArray(ex, DuplicateDetector.findLikelyDuplicates(Json.str(b, "fullName"), Json.str(b, "phone"),
+                            Json.str(b, "licenseNo"), (int) Json.num(b, "excludeId")), ApiServer::writeCustomer);
+                } else if (method.equals("POST") && id == null) {
+                    Map<String, Object> b = body(ex);
+                    CustomerService.addCustomer(Json.str(b, "fullName"), Json.str(b, "phone"), Json.str(b, "licenseNo"));
+                    sendOk(ex);
+                } else if (method.equals("PUT") && id != null) {
+                    Map<String, Object> b = body(ex);
+                    Customer original = new Customer(id, Json.str(b, "baseFullName"), Json.str(b, "basePhone"),
+                            Json.str(b, "baseLicenseNo"), (int) Json.num(b, "version"));
+                    CustomerService.updateCustomer(original, Json.str(b, "fullName"), Json.str(b, "phone"), Json.str(b, "licenseNo"));
+                    sendOk(ex);
+                } else if (method.equals("DELETE") && id != null) {
+                    CustomerService.deleteCustomer(id);
+                    sendOk(ex);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "timeline":
+                if (method.equals("GET") && id == null) {
+                    LocalDate from = LocalDate.parse(queryParam(ex, "from"));
+                    LocalDate to = LocalDate.parse(queryParam(ex, "to"));
+                    writeArray(ex, sink -> ReservationService.streamTimeline(from, to, sink), ApiServer::writeTimelineBar);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "vehicle-classes":
+                if (method.equals("GET") && id == null) {
+                    writeArray(ex, VehicleAssigner.getVehicleClasses(), ApiServer::writeVehicleClass);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "branches":
+                if (method.equals("GET") && id == null) {
+                    writeArray(ex, BranchService.getAllBranches(), ApiServer::writeBranch);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "maintenance":
+                if (method.equals("GET") && id == null) {
+                    writeArray(ex, MaintenanceService.getWindows(Integer.parseInt(queryParam(ex, "vehicleId"))), ApiServer::writeMaintenanceWindow);
+                } else if (method.equals("POST") && p.length > 1 && p[1].equals("recurring")) {
+                    Map<String, Object> b = body(ex);
+                    int created = MaintenanceService.scheduleRecurring((int) Json.num(b, "intervalDays"), (int) Json.num(b, "durationDays"),
+                            LocalDate.parse(Json.str(b, "from")), LocalDate.parse(Json.str(b, "until")), (int) Json.num(b, "maxPerBranchPerDay"));
+                    sendJson(ex, 200, "{\"created\":" + created + "}");
+                } else if (method.equals("POST") && id == null) {
+                    Map<String, Object> b = body(ex);
+                    MaintenanceService.addWindow((int) Json.num(b, "vehicleId"), LocalDate.parse(Json.str(b, "startDate")),
+                            LocalDate.parse(Json.str(b, "endDate")), Json.str(b, "reason"));
+                    sendOk(ex);
+                } else if (method.equals("DELETE") && id != null) {
+                    MaintenanceService.deleteWindow(id);
+                    sendOk(ex);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "reservations":
+                if (method.equals("GET") && p.length > 1 && p[1].equals("archive")) {
+                    writeArray(ex, sink -> ReservationService.streamArchive(q == null ? "" : q, sink), ApiServer::writeReservation);
+                } else if (method.equals("GET") && id == null) {
+                    writeArray(ex, sink -> ReservationService.streamReservations(q, sink), ApiServer::writeReservation);
+                } else if (method.equals("POST") && p.length > 1 && p[1].equals("by-class")) {
+                    Map<String, Object> b = body(ex);
+                    VehicleClass vc = new VehicleClass((int) Json.num(b, "branchId"), "", Json.str(b, "brand"), Json.str(b, "model"), 0, 0);
+                    int vehicleId = VehicleAssigner.bookClass((int) Json.num(b, "customerId"), vc,
+                            LocalDate.parse(Json.str(b, "startDate")), LocalDate.parse(Json.str(b, "endDate")), Json.num(b, "priceKurus"));
+                    sendJson(ex, 200, "{\"vehicleId\":" + vehicleId + "}");
+                } else if (method.equals("POST") && id == null) {
+                    Map<String, Object> b = body(ex);
+                    ReservationService.addReservation((int) Json.num(b, "customerId"), (int) Json.num(b, "vehicleId"),
+                            LocalDate.parse(Json.str(b, "startDate")), LocalDate.parse(Json.str(b, "endDate")), Json.num(b, "priceKurus"));
+                    sendOk(ex);
+                } else if (method.equals("POST") && id != null && action != null) {
+                    switch (action) {
+                        case "approve": ReservationService.approveReservation(id); break;
+                        case "start": {
+                            Object dropoff = body(ex).get("dropoffBranchId");
+                            ReservationService.startRental(id, dropoff instanceof Number ? ((Number) dropoff).intValue() : null);
+                            break;
+                        }
+                        case "finish": {
+                            // İstemci aracın güncel satırını (durum, konum, sürüm) listesine yazar.
+                            Vehicle vehicle = ReservationService.finishRental(id);
+                            if (vehicle == null) break;
+                            StringWriter w = new StringWriter();
+                            writeVehicle(w, vehicle);
+                            sendJson(ex, 200, w.toString());
+                            return;
+                        }
+                        case "cancel": ReservationService.cancelReservation(id); break;
+                        default:
+                            sendError(ex, 404, "Bilinmeyen işlem: " + action);
+                            return;
+                    }
+                    sendOk(ex);
+                } else if (method.equals("DELETE") && id != null) {
+                    ReservationService.deleteReservation(id);
+                    sendOk(ex);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            case "telemetry":
+                if (method.equals("GET") && p.length > 1 && p[1].equals("latest")) {
+                    writeArray(ex, TelemetryService.getLatest().values(), ApiServer::writeTelemetry);
+                } else {
+                    sendError(ex, 404, "Bilinmeyen istek");
+                }
+                break;
+
+            default:
+                sendError(ex, 404, "Bilinmeyen kaynak: " + resource);
+        }
+    }
+
+    private void login(HttpExchange ex) throws IOException {
+        try {
+            Map<String, Object> b = body(ex);
+            Session session = AuthService.authenticate(Json.str(b, "username"), Json.str(b, "password"));
+            if (session == null) {
+                sendError(ex, 401, "Hatalı kullanıcı adı veya şifre!");
+                return;
+            }
+            String token = UUID.randomUUID().toString();
+            long now = System.nanoTime();
+            sessions.values().removeIf(s -> s.isExpired(now)); // Süresi dolanları temizle (Harita sınırsız büyümesin)
+            sessions.put(token, new LoginSession(session, now));
+            sendJson(ex, 200, "{\"token\":" + Json.quote(token) + ",\"userId\":" + session.getUserId()
+                    + ",\"role\":" + Json.quote(session.getRole()) + ",\"branchId\":" + session.getBranchId() + "}");
+        } catch (Exception e) {
+            sendError(ex, 500, e.getMessage());
+        }
+    }
+
+    // Anahtarın oturumunu döner ve son kullanım zamanını günceller. Anahtar yoksa veya süresi dolduysa null.
+    private Session touch(String token) {
+        if (token == null) return null;
+        LoginSession s = sessions.get(token);
+        if (s == null) return null;
+        long now = System.nanoTime();
+        if (s.isExpired(now)) {
+            sessions.remove(token, s);
+            return null;
+        }
+        s.lastUsed = now;
+        return s.session;
+    }
+
+    private static final class LoginSession {
+        final Session session;
+        volatile long lastUsed; // System.nanoTime
+
+        LoginSession(Session session, long lastUsed) {
+            this.session = session;
+            this.lastUsed = lastUsed;
+        }
+
+        boolean isExpired(long now) {
+            return now - lastUsed > SESSION_IDLE_NANOS;
+        }
+    }
+
+    // ==========================================
+    // AKAN (STREAMING) LİSTE YANITLARI
+    // ==========================================
+    // Yanıt boyutu önceden bilinmediği için 'chunked' modda (uzunluk = 0) gönderilir.
+    // Büyük listelerde (araç, müşteri, rezervasyon, zaman çizelgesi) satırlar veritabanından okundukça
+    // (RowSink) doğrudan tamponlu akışa yazılır: Ne satır listesi ne de JSON metni bellekte birleştirilir.
+    // Bağlantı, yanıt yazılırken açık kalır; yavaş bir istemci o süre boyunca havuzdan bir bağlantı tutar.
+
+    // Diziden bir eleman yazar.
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(Writer w, T value) throws IOException;
+    }
+
+    // Satırları 'sink'e veren okuma (Servisin stream* metotları).
+    @FunctionalInterface
+    private interface RowSource<T> {
+        void stream(RowSink<T> sink) throws Exception;
+    }
+
+    // Yanıt başlığı ilk satır geldiğinde gönderilir: Sorgu daha hiçbir şey yazılmadan hata verirse
+    // handle() normal hata yanıtı (500/400) dönebilir. Yazmaya başladıktan sonraki hatada ise yanıt yarıda
+    // kesilir (Dizi kapatılmaz); istemci eksik JSON'u hata olarak görür.
+    private static <T> void writeArray(HttpExchange ex, RowSource<T> source, ElementWriter<T> element) throws Exception {
+        Writer[] out = new Writer[1];
+        try {
+            source.stream(row -> {
+                if (out[0] == null) {
+                    out[0] = openStream(ex);
+                    out[0].write('[');
+                } else {
+                    out[0].write(',');
+                }
+                element.write(out[0], row);
+            });
+        } catch (Exception e) {
+            if (out[0] == null) throw e;
+            e.printStackTrace();
+            return;
+        }
+        if (out[0] == null) { // Boş liste
+            out[0] = openStream(ex);
+            out[0].write('[');
+        }
+        try (Writer w = out[0]) {
+            w.write(']');
+        }
+    }
+
+    // Zaten bellekte olan küçük listeler (şubeler, araç sınıfları, bakım pencereleri, telemetri, mükerrerler).
+    private static <T> void writeArray(HttpExchange ex, Iterable<T> rows, ElementWriter<T> element) throws Exception {
+        writeArray(ex, sink -> {
+            for (T row : rows) sink.accept(row);
+        }, element);
+    }
+
+    private static void writeVehicle(Writer w, Vehicle v) throws IOException {
+        w.write("{\"id\":" + v.getId() + ",");
+        Json.writeKey(w, "plate"); Json.writeString(w, v.getPlate()); w.write(',');
+        Json.writeKey(w, "brand"); Json.writeString(w, v.getBrand()); w.write(',');
+        Json.writeKey(w, "model"); Json.writeString(w, v.getModel()); w.write(',');
+        w.write("\"priceKurus\":" + v.getPriceKurus() + ",\"status\":\"" + v.getStatus().name() + "\",\"version\":" + v.getVersion()
+                + ",\"branchId\":" + v.getBranchId() + ",\"currentBranchId\":" + v.getCurrentBranchId() + "}");
+    }
+
+    private static void writeBranch(Writer w, Branch b) throws IOException {
+        w.write("{\"id\":" + b.getId() + ",");
+        Json.writeKey(w, "name"); Json.writeString(w, b.getName()); w.write(',');
+        Json.writeKey(w, "city"); Json.writeString(w, b.getCity()); w.write('}');
+    }
+
+    private static void writeVehicleClass(Writer w, VehicleClass c) throws IOException {
+        w.write("{\"branchId\":" + c.getBranchId() + ",");
+        Json.writeKey(w, "branchName"); Json.writeString(w, c.getBranchName()); w.write(',');
+        Json.writeKey(w, "brand"); Json.writeString(w, c.getBrand()); w.write(',');
+        Json.writeKey(w, "model"); Json.writeString(w, c.getModel()); w.write(',');
+        w.write("\"priceKurus\":" + c.getPriceKurus() + ",\"vehicleCount\":" + c.getVehicleCount() + "}");
+    }
+
+    private static void writeCustomer(Writer w, Customer c) throws IOException {
+        w.write("{\"id\":" + c.getId() + ",\"version\":" + c.getVersion() + ",");
+        Json.writeKey(w, "fullName"); Json.writeString(w, c.getFullName()); w.write(',');
+        Json.writeKey(w, "phone"); Json.writeString(w, c.getPhone()); w.write(',');
+        Json.writeKey(w, "licenseNo"); Json.writeString(w, c.getLicenseNo()); w.write('}');
+    }
+
+    private static void writeMaintenanceWindow(Writer w, MaintenanceWindow m) throws IOException {
+        w.write("{\"id\":" + m.getId() + ",\"vehicleId\":" + m.getVehicleId() + ",\"startDate\":\"" + m.getStartDate()
+                + "\",\"endDate\":\"" + m.getEndDate() + "\",\"recurring\":" + m.isRecurring() + ",");
+        Json.writeKey(w, "reason"); Json.writeString(w, m.getReason()); w.write('}');
+    }
+
+    // Günler epoch day olarak yazılır (On binlerce çubukta tarih metni üretmemek için).
+    private static void writeTimelineBar(Writer w, TimelineBar b) throws IOException {
+        w.write("{\"id\":" + b.getReservationId() + ",\"vehicleId\":" + b.getVehicleId() + ",\"start\":" + b.getStartEpochDay()
+                + ",\"end\":" + b.getEndEpochDay() + ",\"status\":\"" + b.getStatus().name() + "\",");
+        Json.writeKey(w, "customerName"); Json.writeString(w, b.getCustomerName()); w.write('}');
+    }
+
+    private static void writeReservation(Writer w, Reservation r) throws IOException {
+        w.write("{\"id\":" + r.getId() + ",\"vehicleId\":" + r.getVehicleId() + ",\"customerId\":" + r.getCustomerId()
+                + ",\"status\":\"" + r.getStatus().name() + "\",\"vehicleStatus\":\"" + r.getVehicleStatus().name()
+                + "\",\"startDate\":\"" + r.getStartDate() + "\",");
+        Json.writeKey(w, "brand"); Json.writeString(w, r.getBrand()); w.write(',');
+        Json.writeKey(w, "model"); Json.writeString(w, r.getModel()); w.write(',');
+        Json.writeKey(w, "customerName"); Json.writeString(w, r.getCustomerName()); w.write('}');
+    }
+
+    // Zaman epoch milisaniye olarak yazılır; konumu olmayan okumada "lat"/"lon" yazılmaz.
+    private static void writeTelemetry(Writer w, TelemetryReading r) throws IOException {
+        w.write("{\"vehicleId\":" + r.getVehicleId() + ",\"recordedAt\":" + r.getRecordedAtMillis()
+                + ",\"odometerKm\":" + r.getOdometerKm() + ",\"fuelPct\":" + r.getFuelPct());
+        if (r.hasLocation()) w.write(",\"lat\":" + r.getLat() + ",\"lon\":" + r.getLon());
+        w.write('}');
+    }
+
+    // ==========================================
+    // YARDIMCI METOTLAR
+    // ==========================================
+
+    private static Writer openStream(HttpExchange ex) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(200, 0); // 0 -> chunked
+        return new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), WRITE_BUFFER);
+    }
+
+    private static void sendOk(HttpExchange ex) throws IOException {
+        sendJson(ex, 200, "{\"ok\":true}");
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) throws IOException {
+        sendJson(ex, status, "{\"error\":" + Json.quote(message) + "}");
+    }
+
+    private static void sendJson(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> body(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String token(HttpExchange ex) {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) return "";
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private static String queryParam(HttpExchange ex, String name) {
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
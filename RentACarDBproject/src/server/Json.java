@@ -0,0 +1,288 @@
+package server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Json Sınıfı
+ * -----------
+ * Sunucu modu için küçük bir JSON yardımcısı. Projeye dış kütüphane eklememek için
+ * sadece ihtiyacımız olan kadarını yazdık:
+ * - Yazma: metinleri kaçış karakterleriyle (escape) doğrudan bir akışa (Appendable) yazar.
+ * - Okuma: nesne, dizi, metin, sayı, true/false/null destekler.
+ *   Nesneler Map, diziler List, sayılar Long veya Double olarak döner.
+ *   Büyük liste yanıtları (readObjectArray) akıştan eleman eleman okunur.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    // ==========================================
+    // YAZMA
+    // ==========================================
+
+    public static void writeString(Appendable out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        out.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        out.append(ch);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // "anahtar": ile başlayan bir alan yazar (virgülü çağıran koyar).
+    public static void writeKey(Appendable out, String key) throws IOException {
+        writeString(out, key);
+        out.append(':');
+    }
+
+    public static String quote(String value) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeString(sb, value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder IOException fırlatmaz
+        }
+        return sb.toString();
+    }
+
+    // ==========================================
+    // OKUMA
+    // ==========================================
+
+    public static Object parse(String text) {
+        Parser p = new Parser(new StringReader(text));
+        p.skipWs();
+        Object value = p.readValue();
+        p.skipWs();
+        if (!p.atEnd()) throw p.error("Fazla karakter");
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) throw new IllegalArgumentException("JSON nesnesi bekleniyordu");
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Bir nesne dizisini akıştan okur ve her elemanı okunduğu anda 'element'e verir.
+     * Dizinin tamamı (ne metin ne de liste olarak) bellekte tutulmaz; bellekte sadece o anki eleman vardır.
+     * Akış dizinin sonundan önce biterse (sunucu yanıtı yarıda kestiyse) hata fırlatılır.
+     */
+    @SuppressWarnings("unchecked")
+    public static void readObjectArray(Reader in, Consumer<Map<String, Object>> element) throws IOException {
+        Parser p = new Parser(in);
+        try {
+            p.skipWs();
+            if (p.next() != '[') throw p.error("JSON dizisi bekleniyordu");
+            p.skipWs();
+            if (p.peek() == ']') {
+                p.next();
+            } else {
+                while (true) {
+                    p.skipWs();
+                    if (p.peek() != '{') throw p.error("JSON nesnesi bekleniyordu");
+                    element.accept((Map<String, Object>) p.readValue());
+                    p.skipWs();
+                    char ch = p.next();
+                    if (ch == ']') break;
+                    if (ch != ',') throw p.error("',' veya ']' bekleniyordu");
+                }
+            }
+            p.skipWs();
+            if (!p.atEnd()) throw p.error("Fazla karakter");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Map içinden tip dönüşümlü okuma yardımcıları.
+    public static String str(Map<String, Object> obj, String key) {
+        Object v = obj.get(key);
+        return v == null ? null : v.toString();
+    }
+
+    public static long num(Map<String, Object> obj, String key) {
+        Object v = obj.get(key);
+        if (!(v instanceof Number)) throw new IllegalArgumentException("Sayısal alan eksik: " + key);
+        return ((Number) v).longValue();
+    }
+
+    // Karakterleri bir Reader'dan kendi tamponuyla okur (Metin de akış da aynı kodla çözülür).
+    // Okuma hatası UncheckedIOException olarak yükselir; readObjectArray bunu IOException'a geri çevirir.
+    private static final class Parser {
+        private final Reader in;
+        private final char[] buf = new char[8192];
+        private int len;
+        private int idx;
+        private long pos; // Okunan karakter sayısı (Hata mesajı için)
+
+        Parser(Reader in) {
+            this.in = in;
+        }
+
+        Object readValue() {
+            char ch = peek();
+            switch (ch) {
+                case '{': return readObject();
+                case '[': return readArray();
+                case '"': return readString();
+                case 't': expect("true"); return Boolean.TRUE;
+                case 'f': expect("false"); return Boolean.FALSE;
+                case 'n': expect("null"); return null;
+                default: return readNumber();
+            }
+        }
+
+        Map<String, Object> readObject() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            next(); // {
+            skipWs();
+            if (peek() == '}') {
+                next();
+                return map;
+            }
+            while (true) {
+                skipWs();
+                String key = readString();
+                skipWs();
+                if (next() != ':') throw error("':' bekleniyordu");
+                skipWs();
+                map.put(key, readValue());
+                skipWs();
+                char ch = next();
+                if (ch == '}') return map;
+                if (ch != ',') throw error("',' veya '}' bekleniyordu");
+            }
+        }
+
+        List<Object> readArray() {
+            List<Object> list = new ArrayList<>();
+            next(); // [
+            skipWs();
+            if (peek() == ']') {
+                next();
+                return list;
+            }
+            while (true) {
+                skipWs();
+                list.add(readValue());
+                skipWs();
+                char ch = next();
+                if (ch == ']') return list;
+                if (ch != ',') throw error("',' veya ']' bekleniyordu");
+            }
+        }
+
+        String readString() {
+            if (next() != '"') throw error("'\"' bekleniyordu");
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char ch = next();
+                if (ch == '"') return sb.toString();
+                if (ch != '\\') {
+                    sb.append(ch);
+                    continue;
+                }
+                char esc = next();
+                switch (esc) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': {
+                        int code = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int digit = Character.digit(next(), 16);
+                            if (digit < 0) throw error("Geçersiz \\u kaçışı");
+                            code = code * 16 + digit;
+                        }
+                        sb.append((char) code);
+                        break;
+                    }
+                    default: sb.append(esc); // \" \\ \/
+                }
+            }
+        }
+
+        Number readNumber() {
+            StringBuilder sb = new StringBuilder();
+            boolean decimal = false;
+            while (!atEnd()) {
+                char ch = buf[idx];
+                if (ch == '.' || ch == 'e' || ch == 'E') decimal = true;
+                else if (!(ch == '-' || ch == '+' || (ch >= '0' && ch <= '9'))) break;
+                sb.append(next());
+            }
+            if (sb.length() == 0) throw error("Geçersiz değer");
+            String num = sb.toString();
+            return decimal ? (Number) Double.parseDouble(num) : (Number) Long.parseLong(num);
+        }
+
+        void expect(String word) {
+            for (int k = 0; k < word.length(); k++) {
+                if (atEnd() || next() != word.charAt(k)) throw error("'" + word + "' bekleniyordu");
+            }
+        }
+
+        void skipWs() {
+            while (!atEnd() && Character.isWhitespace(buf[idx])) next();
+        }
+
+        // Okunacak karakter kalmadıysa true (Gerekirse tamponu Reader'dan doldurur).
+        boolean atEnd() {
+            if (idx < len) return false;
+            try {
+                int n = in.read(buf, 0, buf.length);
+                len = Math.max(n, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            idx = 0;
+            return len == 0;
+        }
+
+        char peek() {
+            if (atEnd()) throw error("Beklenmeyen son");
+            return buf[idx];
+        }
+
+        char next() {
+            char ch = peek();
+            idx++;
+            pos++;
+            return ch;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("JSON hatası (" + pos + "): " + message);
+        }
+    }
+}
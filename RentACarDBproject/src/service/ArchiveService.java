@@ -0,0 +1,135 @@
+package service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ArchiveService Sınıfı (Sıcak / Soğuk Arşiv)
+ * -------------------------------------------
+ * Biten ve iptal edilen rezervasyonlar canlı tablolarda sonsuza kadar kalıyordu. Bu sınıf, belirli bir
+ * yaştan (varsayılan 365 gün) eski olanları kiralamalarıyla birlikte arşiv tablolarına TAŞIR
+ * (bkz. db/12_archive.sql):
+ *
+ *   - CANCELLED: Bitiş tarihi eşikten eski olanlar.
+ *   - COMPLETED: Aracın iade tarihi eşikten eski olanlar.
+ *
+ * Taşıma, her biri BATCH_SIZE satırlık KÜÇÜK işlemler halinde yapılır: Adaylar 'FOR UPDATE SKIP LOCKED'
+ * ile kilitlenir, arşive INSERT ... SELECT ile yazılır ve canlı tablodan silinir (Liste, bildirim ve
+ * kiralama satırları ON DELETE CASCADE ile gider). Böylece uzun süren tek bir işlem tabloyu kilitlemez;
+ * arada bir hata olursa sadece o parça geri alınır, öncekiler arşivde kalır.
+ *
+ * Arşivlenen kayıtlar kaybolmaz: Rezervasyon aramasında "Arşivde de ara" seçilirse ve zaman çizelgesinde
+ * arşiv de okunur; raporlar ve talep tahmini geçmişi arşivle birlikte hesaplar.
+ *
+ * Arka plan iş kuyruğunda "reservation.archive" işi olarak günde bir çalışır (JobWorker).
+ * Elle: java service.ArchiveService [gün]   ('-Drentacar.archive.days' ile de değiştirilebilir)
+ */
+public final class ArchiveService {
+
+    // Bu kadar günden eski kayıtlar arşivlenir.
+    public static final int DEFAULT_AGE_DAYS = Integer.getInteger("rentacar.archive.days", 365);
+
+    // Tek işlemde taşınacak en fazla rezervasyon.
+    static final int BATCH_SIZE = 500;
+
+    // Arşivlenecek adaylar (En eskiden başlayarak; bkz. 12_archive.sql'deki kısmi indeksler).
+    // İptal edilmiş ama aracı hâlâ müşteride olan (açık kiralama) kayıtlar taşınmaz.
+    private static final String CANCELLED_CANDIDATES =
+            "SELECT r.reservation_id FROM reservation r " +
+            "WHERE r.reservation_status = 'CANCELLED' AND r.end_date < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM rental rt WHERE rt.reservation_id = r.reservation_id AND rt.return_date IS NULL) " +
+            "ORDER BY r.end_date LIMIT ? FOR UPDATE OF r SKIP LOCKED";
+
+    private static final String COMPLETED_CANDIDATES =
+            "SELECT r.reservation_id FROM rental rt JOIN reservation r ON r.reservation_id = rt.reservation_id " +
+            "WHERE rt.return_date IS NOT NULL AND rt.return_date < ? AND r.reservation_status = 'COMPLETED' " +
+            "ORDER BY rt.return_date LIMIT ? FOR UPDATE OF r SKIP LOCKED";
+
+    private ArchiveService() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_AGE_DAYS;
+        System.out.println("[Arşiv] " + archive(days) + " rezervasyon arşivlendi.");
+    }
+
+    // ==========================================
+    // 1. TAŞIMA
+    // ==========================================
+
+    // 'ageDays' günden eski, biten ve iptal edilen rezervasyonları arşive taşır. Taşınan sayıyı döner.
+    // Her parça kendi işlemidir; bir parça BATCH_SIZE'dan az satır taşıyınca o tür için iş bitmiştir.
+    public static int archive(int ageDays) throws SQLException {
+        if (ageDays < 1) throw new IllegalArgumentException("Arşiv yaşı en az 1 gün olmalıdır: " + ageDays);
+        LocalDate cutoff = LocalDate.now().minusDays(ageDays);
+        int total = 0;
+        for (String candidates : new String[]{CANCELLED_CANDIDATES, COMPLETED_CANDIDATES}) {
+            int moved;
+            do {
+                moved = archiveBatch(candidates, cutoff);
+                total += moved;
+            } while (moved == BATCH_SIZE);
+        }
+        return total;
+    }
+
+    // Tek parça: Adayları kilitle, arşive yaz, canlı tablodan sil.
+    private static int archiveBatch(String candidates, LocalDate cutoff) throws SQLException {
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(candidates)) {
+                    ps.setObject(1, cutoff);
+                    ps.setInt(2, BATCH_SIZE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) ids.add(rs.getInt(1));
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+                Array idArray = conn.createArrayOf("integer", ids.toArray());
+
+                // Müşteri adı, şube ve araç bilgileri de yazılır: Müşteri/araç sonradan silinse bile kayıt okunabilir.
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO reservation_archive(reservation_id, customer_id, vehicle_id, branch_id, start_date, end_date, " +
+                        "total_price, reservation_status, version, full_name, brand, model, plate) " +
+                        "SELECT r.reservation_id, r.customer_id, r.vehicle_id, v.branch_id, r.start_date, r.end_date, " +
+                        "r.total_price, r.reservation_status, r.version, c.full_name, v.brand, v.model, v.plate " +
+                        "FROM reservation r JOIN customer c ON c.customer_id = r.customer_id " +
+                        "JOIN vehicle v ON v.vehicle_id = r.vehicle_id WHERE r.reservation_id = ANY(?)")) {
+                    ps.setArray(1, idArray);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO rental_archive(rental_id, reservation_id, pickup_branch_id, dropoff_branch_id, " +
+                        "rental_date, return_date, payment_status) " +
+                        "SELECT rental_id, reservation_id, pickup_branch_id, dropoff_branch_id, rental_date, return_date, payment_status " +
+                        "FROM rental WHERE reservation_id = ANY(?)")) {
+                    ps.setArray(1, idArray);
+                    ps.executeUpdate();
+                }
+                int moved;
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM reservation WHERE reservation_id = ANY(?)")) {
+                    ps.setArray(1, idArray);
+                    moved = ps.executeUpdate();
+                }
+                conn.commit();
+                return moved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
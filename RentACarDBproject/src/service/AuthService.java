@@ -4,56 +4,69 @@ package service;
 // Connection, PreparedStatement, ResultSet gibi sınıfları içerir.
 import java.sql.*;
 
+import server.ApiClient;
+
 public class AuthService {
 
     // ==========================================
-    // OTURUM DEĞİŞKENİ (SESSION)
+    // OTURUM (SESSION)
     // ==========================================
-    // Sisteme giriş yapan kişinin rolünü (ADMIN veya STAFF) burada tutarız.
-    // 'static' olduğu için uygulama kapanana kadar bu bilgi hafızada kalır.
-    // Başlangıçta 'null'dur, yani kimse giriş yapmamıştır.
-    private static String currentRole = null;
+    // Giriş yapan kişinin bilgileri artık 'static' bir değişkende değil, 'Session' nesnesinde tutulur.
+    // Yetki kontrolleri o an çalışan koda bağlı oturuma (Session.current()) bakar.
+    // Böylece aynı JVM içinde birden fazla kullanıcıya hizmet verilebilir.
 
     // ==========================================
-    // LOGIN METODU (GİRİŞ İŞLEMİ)
+    // KİMLİK DOĞRULAMA (AUTHENTICATE)
     // ==========================================
-    // Kullanıcı adı ve şifreyi alır, veritabanına sorar.
-    // Doğruysa 'true' döner ve rolü hafızaya alır. Yanlışsa 'false' döner.
-    public static boolean login(String username, String password) throws Exception {
+    // Kullanıcı adı ve şifreyi veritabanına sorar.
+    // Doğruysa yeni bir 'Session' nesnesi döner, yanlışsa 'null' döner.
+    // Hiçbir global durumu değiştirmez; sunucu modunda her istemci için ayrı çağrılabilir.
+    public static Session authenticate(String username, String password) throws Exception {
 
-        // 1. Veritabanı bağlantısını al (Db sınıfımızdan)
-        Connection conn = Db.getConnection();
-
-        // 2. SQL Sorgusunu Hazırla
+        // 1. SQL Sorgusunu Hazırla
         // "users" tablosunda bu kullanıcı adı ve şifreye sahip biri var mı?
-        // Varsa onun 'role' (yetki) bilgisini getir.
-        PreparedStatement ps = conn.prepareStatement(
-                "SELECT role FROM users WHERE username=? AND password=?"
-        );
-
-        // 3. Soru işaretlerinin (?) yerine gerçek verileri koy
-        // Bu yöntem (PreparedStatement) "SQL Injection" denilen saldırıyı önler.
-        ps.setString(1, username);
-        ps.setString(2, password);
-
-        // 4. Sorguyu çalıştır ve sonucu al
-        ResultSet rs = ps.executeQuery();
-
-        // 5. Sonuç kontrolü
-        // rs.next() -> "Veritabanından en az bir satır kayıt döndü mü?" demektir.
-        if (rs.next()) {
-            // EVET, kayıt bulundu. Yani kullanıcı adı ve şifre doğru.
+        // Varsa kimlik, yetki (role) ve şube bilgisini getir.
+        String sql = "SELECT user_id, role, branch_id FROM users WHERE username=? AND password=?";
+
+        // 2. Bağlantıyı al (Db sınıfımızdan) ve sorguyu çalıştır
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            // 3. Soru işaretlerinin (?) yerine gerçek verileri koy
+            // Bu yöntem (PreparedStatement) "SQL Injection" denilen saldırıyı önler.
+            ps.setString(1, username);
+            ps.setString(2, password);
+
+            // 4. Sonuç kontrolü
+            // rs.next() -> "Veritabanından en az bir satır kayıt döndü mü?" demektir.
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    // Şube bilgisi boş (NULL) olabilir -> getObject ile Integer olarak alıyoruz.
+                    Integer branchId = (Integer) rs.getObject("branch_id");
+                    return new Session(rs.getInt("user_id"), username, rs.getString("role"), branchId);
+                }
+            }
+        }
 
-            // Veritabanındaki 'role' sütununu alıp hafızaya (currentRole) yazıyoruz.
-            currentRole = rs.getString("role");
+        // Kayıt bulunamadı. Şifre veya kullanıcı adı yanlış.
+        return null;
+    }
 
-            conn.close(); // Bağlantıyı kapat (İşimiz bitti)
-            return true;  // Giriş başarılı!
-        }
+    // ==========================================
+    // LOGIN / LOGOUT (MASAÜSTÜ UYGULAMASI)
+    // ==========================================
+    // Masaüstünde tek kullanıcı vardır: Giriş başarılıysa oturum "varsayılan oturum" yapılır.
+    public static boolean login(String username, String password) throws Exception {
+        // İstemci modunda kimlik doğrulamayı sunucu yapar.
+        Session session = ApiClient.isEnabled() ? ApiClient.login(username, password) : authenticate(username, password);
+        if (session == null) return false;
+        Session.setDefault(session);
+        return true;
+    }
 
-        // HAYIR, kayıt bulunamadı. Şifre veya kullanıcı adı yanlış.
-        conn.close();
-        return false; // Giriş başarısız!
+    public static void logout() {
+        if (ApiClient.isEnabled()) ApiClient.logout();
+        Session.setDefault(null);
     }
 
     // ==========================================
@@ -64,30 +77,31 @@ public class AuthService {
 
     // Sadece ADMIN'in yapabileceği işler için kontrol (Örn: Personel silmek)
     public static void requireAdmin() {
-        if (!"ADMIN".equals(currentRole)) {
+        if (!"ADMIN".equals(getRole())) {
             // Eğer rol 'ADMIN' değilse, hata fırlat ve işlemi durdur.
-            throw new RuntimeException("Bu işlem için ADMIN yetkisi gerekir");
+            throw new SecurityException("Bu işlem için ADMIN yetkisi gerekir");
         }
     }
 
     // Sadece STAFF'ın yapabileceği işler için kontrol
     // (Proje mantığına göre Staff işlemlerini Admin de yapabiliyorsa burası güncellenebilir)
     public static void requireStaff() {
-        if (!"STAFF".equals(currentRole)) {
-            throw new RuntimeException("Bu işlem için STAFF yetkisi gerekir");
+        if (!"STAFF".equals(getRole())) {
+            throw new SecurityException("Bu işlem için STAFF yetkisi gerekir");
         }
     }
 
     // Herhangi birinin giriş yapmış olması yeterli
     // (Sisteme giriş yapmadan işlem yapılmasını engeller)
     public static void requireLogin() {
-        if (currentRole == null) {
-            throw new RuntimeException("Önce giriş yapmalısın");
+        if (Session.current() == null) {
+            throw new SecurityException("Önce giriş yapmalısın");
         }
     }
 
-    // Şu anki rolü öğrenmek isteyen diğer sınıflar için (Getter)
+    // O anki oturumun rolünü öğrenmek isteyen diğer sınıflar için (Getter)
     public static String getRole() {
-        return currentRole;
+        Session session = Session.current();
+        return session != null ? session.getRole() : null;
     }
-}
\ No newline at end of file
+}
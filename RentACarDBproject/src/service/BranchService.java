@@ -0,0 +1,27 @@
+package service;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Branch;
+import server.ApiClient;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+public class BranchService {
+
+    // ==========================================
+    // TÜM ŞUBELERİ GETİR (READ)
+    // ==========================================
+    // Tek yön kiralamada dönüş şubesi seçimi ve filo dengeleme raporu için.
+    public static ObservableList<Branch> getAllBranches() {
+        if (ApiClient.isEnabled()) return ApiClient.branches();
+        ObservableList<Branch> list = FXCollections.observableArrayList();
+        String sql = "SELECT branch_id, branch_name, branch_city FROM branch ORDER BY branch_name";
+        try (Connection conn = Db.getReadConnection(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) list.add(new Branch(rs.getInt(1), rs.getString(2), rs.getString(3)));
+        } catch (Exception e) { e.printStackTrace(); }
+        return list;
+    }
+}
@@ -5,6 +5,8 @@ package service;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Customer;
+import server.ApiClient;
+import java.io.IOException;
 import java.sql.*;
 
 public class CustomerService {
@@ -15,36 +17,21 @@ public class CustomerService {
     // Amaç: Veritabanındaki tüm müşteri satırlarını çekip, Java nesnelerine çevirmek
     // ve ekrandaki tabloya doldurmak.
     public static ObservableList<Customer> getAllCustomers() {
+        // İstemci modunda veriyi sunucudan al (JDBC kullanılmaz).
+        if (ApiClient.isEnabled()) return ApiClient.customers(null);
+
         // 1. Boş bir "Gözlemlenebilir Liste" oluşturuyoruz.
         ObservableList<Customer> list = FXCollections.observableArrayList();
 
-        // 2. SQL Sorgusu: Müşterileri ID'si en büyük olan (en son eklenen) en üstte olacak şekilde getir.
-        String sql = "SELECT * FROM customer ORDER BY customer_id DESC";
-
-        // 3. Veritabanı Bağlantısı (Try-with-resources yapısı)
-        // Parantez içindeki (conn, st, rs) nesneleri iş bitince otomatik kapanır.
-        try (Connection conn = Db.getConnection();
-             Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) { // executeQuery: Sadece veri okumak için kullanılır.
-
-            // 4. Satır satır okuma döngüsü
-            // rs.next() her çalıştığında bir sonraki satıra geçer. Satır varsa 'true' döner.
-            while (rs.next()) {
-                // Veritabanından gelen satırı (rs), Java nesnesine (Customer) dönüştürüyoruz.
-                // rs.getInt("col_name") -> O sütundaki veriyi al.
-                list.add(new Customer(
-                        rs.getInt("customer_id"),
-                        rs.getString("full_name"),
-                        rs.getString("phone"),
-                        rs.getString("license_no")
-                ));
-            }
+        // 2. Her satır, sütun numarasıyla okunarak Java nesnesine (Customer) dönüştürülür ve listeye eklenir.
+        try {
+            streamCustomers(null, list::add);
         } catch (Exception e) {
             // Bir hata olursa (bağlantı kopması vs.) konsola kırmızı hata mesajı bas.
             e.printStackTrace();
         }
 
-        // 5. Dolu listeyi arayüze geri gönder.
+        // 3. Dolu listeyi arayüze geri gönder.
         return list;
     }
 
@@ -53,54 +40,116 @@ public class CustomerService {
     // ==========================================
     // Amaç: Kullanıcının arama kutusuna yazdığı metni veritabanında aramak.
     public static ObservableList<Customer> searchCustomers(String query) {
+        if (ApiClient.isEnabled()) return ApiClient.customers(query);
+
         ObservableList<Customer> list = FXCollections.observableArrayList();
+        try {
+            streamCustomers(query, list::add);
+        } catch (Exception e) { e.printStackTrace(); }
+        return list;
+    }
 
-        // SQL Sorgusu:
-        // ILIKE: PostgreSQL'e özel bir komuttur. Büyük/Küçük harf duyarsız arama yapar.
-        // '%...%' : Başı veya sonu ne olursa olsun, içinde bu kelime geçiyorsa bul demektir.
+    // Müşterileri (query null ise hepsini, değilse arama sonucunu) okundukları anda 'sink'e verir.
+    // Sunucu modu bununla listeyi belleğe toplamadan satırları doğrudan HTTP yanıtına yazar.
+    public static void streamCustomers(String query, RowSink<? super Customer> sink) throws SQLException, IOException {
+        // Tüm liste: ID'si en büyük olan (en son eklenen) en üstte.
+        // Arama: ILIKE büyük/küçük harf duyarsızdır; '%...%' içinde bu kelime geçiyorsa bul demektir.
         // Hem isme (full_name) hem de ehliyet no'ya (license_no) bakar.
-        String sql = "SELECT * FROM customer WHERE full_name ILIKE '%" + query + "%' OR license_no ILIKE '%" + query + "%'";
-
-        try (Connection conn = Db.getConnection();
-             Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-
-            while (rs.next()) {
-                list.add(new Customer(
-                        rs.getInt("customer_id"),
-                        rs.getString("full_name"),
-                        rs.getString("phone"),
-                        rs.getString("license_no")
-                ));
+        // Arama metni sunucu modunda ağdan da gelebildiği için '?' parametresiyle verilir (SQL Injection koruması).
+        // Sütunlar açıkça sayılır; sırası RowMappers.CUSTOMER ile aynıdır.
+        String sql = query == null
+                ? "SELECT " + RowMappers.CUSTOMER_COLUMNS + " FROM customer ORDER BY customer_id DESC"
+                : "SELECT " + RowMappers.CUSTOMER_COLUMNS + " FROM customer WHERE full_name ILIKE ? OR license_no ILIKE ?";
+        try (Connection conn = Db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (query != null) {
+                ps.setString(1, "%" + query + "%");
+                ps.setString(2, "%" + query + "%");
             }
-        } catch (Exception e) { e.printStackTrace(); }
-        return list;
+            RowMappers.CUSTOMER.stream(ps, sink);
+        }
     }
 
     // ==========================================
-    // 3. GÜNCELLEME (UPDATE)
+    // 3. GÜNCELLEME (UPDATE) - İyimser Kilitleme
     // ==========================================
     // Amaç: Mevcut bir müşterinin bilgilerini değiştirmek.
-    public static void updateCustomer(int id, String name, String phone, String license) throws Exception {
+    // 'original': Formun açıldığı andaki müşteri (sürümü ve eski değerleri ile).
+    //
+    // Satır kilitlenmez; güncelleme sadece sürüm hâlâ aynıysa yapılır.
+    // Arada başka biri kaydı değiştirdiyse, değişiklikler alan alan birleştirilir:
+    // - Bizim değiştirmediğimiz alanlarda karşı tarafın yeni değeri korunur.
+    // - Aynı alanı iki taraf FARKLI değerlerle değiştirdiyse StaleDataException fırlatılır.
+    public static void updateCustomer(Customer original, String name, String phone, String license) throws Exception {
         // Güvenlik Kontrolü: Giriş yapmamış kimse bu işlemi yapamaz.
         AuthService.requireLogin();
 
+        if (ApiClient.isEnabled()) {
+            ApiClient.updateCustomer(original, name, phone, license);
+            EventBus.publish(EntityEvent.saved(new Customer(original.getId(), name, phone, license, original.getVersion())));
+            return;
+        }
+
         // SQL Sorgusu:
         // Soru işaretleri (?) yer tutucudur (Placeholder).
-        // Verileri doğrudan string'e yapıştırmak yerine '?' kullanmak daha güvenlidir.
-        String sql = "UPDATE customer SET full_name=?, phone=?, license_no=? WHERE customer_id=?";
+        // 'version = ?' koşulu tutmazsa hiçbir satır güncellenmez (satır dönmez).
+        // RETURNING: Güncellenen satırın yeni hali (yeni sürüm numarasıyla) aynı sorguda döner.
+        String sql = "UPDATE customer SET full_name=?, phone=?, license_no=? WHERE customer_id=? AND version=? RETURNING "
+                + RowMappers.CUSTOMER_COLUMNS;
 
         try (Connection conn = Db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            // Soru işaretlerini sırasıyla dolduruyoruz:
-            ps.setString(1, name);    // 1. soru işareti: İsim
-            ps.setString(2, phone);   // 2. soru işareti: Telefon
-            ps.setString(3, license); // 3. soru işareti: Ehliyet
-            ps.setInt(4, id);         // 4. soru işareti: Hangi ID güncellenecek? (WHERE kısmı)
+            Customer base = original;
+            for (int attempt = 0; attempt < MAX_MERGE_ATTEMPTS; attempt++) {
+                // Soru işaretlerini sırasıyla dolduruyoruz:
+                ps.setString(1, name);    // 1. soru işareti: İsim
+                ps.setString(2, phone);   // 2. soru işareti: Telefon
+                ps.setString(3, license); // 3. soru işareti: Ehliyet
+                ps.setInt(4, base.getId());      // 4. soru işareti: Hangi ID güncellenecek? (WHERE kısmı)
+                ps.setInt(5, base.getVersion()); // 5. soru işareti: Okuduğumuz sürüm
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        Customer saved = RowMappers.CUSTOMER.map(rs);
+                        // Ehliyet indeksini güncelle (ehliyet no değişmiş olabilir).
+                        LicenseIndex.forget(base.getLicenseNo());
+                        LicenseIndex.remember(license, base.getId());
+                        DuplicateDetector.customerSaved(saved);
+                        EventBus.publish(EntityEvent.saved(saved));
+                        return;
+                    }
+                }
+
+                // Çakışma: Güncel satırı oku ve değişiklikleri birleştir.
+                Customer current = findById(conn, base.getId());
+                if (current == null) throw new StaleDataException("Müşteri kaydı başka bir kullanıcı tarafından silinmiş.");
+
+                name = merge("Ad Soyad", base.getFullName(), name, current.getFullName());
+                phone = merge("Telefon", base.getPhone(), phone, current.getPhone());
+                license = merge("Ehliyet No", base.getLicenseNo(), license, current.getLicenseNo());
+                base = current;
+            }
+            throw new StaleDataException("Müşteri kaydı sürekli değiştiriliyor. Lütfen listeyi yenileyip tekrar deneyin.");
+        }
+    }
+
+    // Birleştirme denemesi sınırı (Çok yoğun çakışmada sonsuz döngüye girmemek için).
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    // Üç yönlü birleştirme: base = ilk okunan, mine = kullanıcının yazdığı, theirs = veritabanındaki güncel değer.
+    private static String merge(String field, String base, String mine, String theirs) throws StaleDataException {
+        if (mine.equals(base)) return theirs;                        // Biz değiştirmedik -> onlarınki kalsın
+        if (theirs.equals(base) || theirs.equals(mine)) return mine; // Onlar değiştirmedi veya aynı değeri yazdı
+        throw new StaleDataException("'" + field + "' alanı başka bir kullanıcı tarafından '" + theirs
+                + "' olarak değiştirildi. Lütfen listeyi yenileyip tekrar deneyin.");
+    }
 
-            // Veritabanında değişikliği uygula (SELECT dışındaki işlemler için executeUpdate kullanılır)
-            ps.executeUpdate();
+    private static Customer findById(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT " + RowMappers.CUSTOMER_COLUMNS + " FROM customer WHERE customer_id=?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? RowMappers.CUSTOMER.map(rs) : null;
+            }
         }
     }
 
@@ -114,11 +163,22 @@ public class CustomerService {
         // NOT: Veritabanını kurarken "ON DELETE CASCADE" eklemiştik.
         // Bu sayede müşteri silinirse, ona ait tüm rezervasyonlar da otomatik silinir.
         // Ekstra kod yazmamıza gerek kalmaz.
-        String sql = "DELETE FROM customer WHERE customer_id=?";
+        if (ApiClient.isEnabled()) {
+            ApiClient.deleteCustomer(id);
+            EventBus.publish(EntityEvent.deleted(EntityEvent.Type.CUSTOMER, id));
+            return;
+        }
+
+        // RETURNING: Silinen satırın ehliyet no'su da döner (ehliyet indeksinden çıkarmak için).
+        String sql = "DELETE FROM customer WHERE customer_id=? RETURNING license_no";
 
         try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) LicenseIndex.forget(rs.getString(1));
+            }
+            DuplicateDetector.customerDeleted(id);
+            EventBus.publish(EntityEvent.deleted(EntityEvent.Type.CUSTOMER, id));
         }
     }
 
@@ -129,15 +189,29 @@ public class CustomerService {
     public static void addCustomer(String name, String phone, String license) throws Exception {
         AuthService.requireLogin();
 
-        // INSERT komutu ile yeni satır ekliyoruz.
-        String sql = "INSERT INTO customer (full_name, phone, license_no) VALUES (?, ?, ?)";
+        if (ApiClient.isEnabled()) {
+            ApiClient.addCustomer(name, phone, license);
+            EventBus.publish(EntityEvent.stale(EntityEvent.Type.CUSTOMER)); // Yeni ID sunucuda belli olur
+            return;
+        }
+
+        // INSERT komutu ile yeni satır ekliyoruz. RETURNING: Yeni satır ehliyet ve mükerrer indekslerine yazılır,
+        // açık pencerelere de olay olarak gider.
+        String sql = "INSERT INTO customer (full_name, phone, license_no) VALUES (?, ?, ?) RETURNING " + RowMappers.CUSTOMER_COLUMNS;
 
         try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, name);
             ps.setString(2, phone);
             ps.setString(3, license);
 
-            ps.executeUpdate(); // Kaydı gerçekleştir.
+            try (ResultSet rs = ps.executeQuery()) { // Kaydı gerçekleştir.
+                if (rs.next()) {
+                    Customer saved = RowMappers.CUSTOMER.map(rs);
+                    LicenseIndex.remember(license, saved.getId());
+                    DuplicateDetector.customerSaved(saved);
+                    EventBus.publish(EntityEvent.saved(saved));
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,21 @@ package service;
 
 // Java'nın veritabanı işlemlerini yöneten standart kütüphaneleri (JDBC).
 // 'Connection', 'DriverManager' ve 'SQLException' sınıflarını kullanabilmek için çağırıyoruz.
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Db {
 
@@ -19,7 +31,8 @@ public class Db {
     // "localhost"          -> Veritabanı bu bilgisayarın içinde (Uzak sunucuda değil).
     // "5432"               -> PostgreSQL'in varsayılan kapı numarası (Port).
     // "car_rental_db"      -> Bağlanmak istediğimiz veritabanının adı. (SQL dosyasında oluşturduğumuz ad).
-    private static final String URL = "jdbc:postgresql://localhost:5432/car_rental_db";
+    // '-Drentacar.db.url=...' ile değiştirilebilir.
+    private static final String URL = System.getProperty("rentacar.db.url", "jdbc:postgresql://localhost:5432/car_rental_db");
 
     // 2. KULLANICI ADI
     // PostgreSQL kurulumunda belirlenen kullanıcı adı. Varsayılan genelde 'postgres'tir.
@@ -30,16 +43,318 @@ public class Db {
     // !!! DİKKAT !!! -> Kendi bilgisayarındaki şifre neyse buraya onu yazmalısın.
     private static final String PASS = "1234";
 
+    // ==========================================
+    // BAĞLANTI HAVUZU (CONNECTION POOL)
+    // ==========================================
+    // Her 'getConnection()' çağrısında yeni bir TCP bağlantısı + kimlik doğrulama yapmak
+    // onlarca milisaniye sürer. Bu yüzden kapatılan bağlantılar gerçekten kapatılmaz,
+    // boştaki bağlantılar listesine (IDLE) geri konur ve bir sonraki çağrıda tekrar kullanılır.
+    // Çağıran kodlar hiçbir şey değiştirmeden 'try-with-resources' ile çalışmaya devam eder.
+    // Ana sunucunun (primary) ve her okuma kopyasının (replica) kendi havuzu vardır.
+
+    // Havuzda bekletilecek en fazla boş bağlantı sayısı.
+    private static final int MAX_IDLE = 8;
+
+    // Bu süreden uzun bekleyen bağlantı, kullanılmadan önce 'isValid' ile test edilir.
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // Aynı anda KULLANIMDA olabilecek en fazla bağlantı sayısı (havuz başına).
+    // Sunucu modunda yüzlerce istek aynı anda gelebilir; PostgreSQL'i bağlantıya boğmamak için
+    // fazlası burada sırada bekler (sanal iş parçacıklarında beklemek ucuzdur).
+    // '-Drentacar.db.maxActive=...' ile değiştirilebilir.
+    private static final int MAX_ACTIVE = Integer.getInteger("rentacar.db.maxActive", 20);
+
+    private static final Pool PRIMARY = new Pool(URL);
+
+    // ==========================================
+    // OKUMA KOPYALARI (READ REPLICAS)
+    // ==========================================
+    // Liste ve arama ekranları sadece okur. Bu okumalar PostgreSQL'in akışlı (streaming)
+    // kopyalarına yönlendirilirse, rezervasyon yazan işlemlerle aynı sunucuda yarışmazlar.
+    //
+    // '-Drentacar.db.replicas=jdbc:postgresql://host1:5433/car_rental_db,jdbc:postgresql://host2:5433/car_rental_db'
+    // Hiç kopya tanımlı değilse tüm okumalar ana sunucuya gider (eski davranış).
+    //
+    // KURALLAR:
+    // 1. Gecikmesi (lag) MAX_LAG_MILLIS'ten fazla olan kopya kullanılmaz, sıradakine geçilir.
+    // 2. Hiçbir kopya uygun değilse okuma ana sunucuya düşer (fallback).
+    // 3. Bir oturum ana sunucuyu kullandıktan (yazdıktan) sonraki MAX_LAG_MILLIS boyunca okumaları
+    //    da ana sunucudan yapar; kullanıcı kendi yaptığı değişikliği listede hemen görür (read-your-writes).
+    //    Kullanılan kopyanın gecikmesi bu süreden az olduğu için, süre dolunca kopya da güncel demektir.
+
+    private static final long MAX_LAG_MILLIS = Long.getLong("rentacar.db.maxLagMillis", 5000L);
+    private static final long STICKY_NANOS = TimeUnit.MILLISECONDS.toNanos(MAX_LAG_MILLIS);
+
+    // Bir kopyanın gecikmesi en fazla bu sıklıkla ölçülür; sağlıksız kopya da bu süre sonra tekrar denenir.
+    private static final long LAG_CHECK_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final List<Replica> REPLICAS = parseReplicas(System.getProperty("rentacar.db.replicas", ""));
+    private static final AtomicInteger NEXT_REPLICA = new AtomicInteger();
+
     // ==========================================
     // BAĞLANTI METODU (CONNECTION FACTORY)
     // ==========================================
     // Diğer sınıflar (CustomerService, AuthService vb.) veritabanına bağlanmak istediklerinde
     // bu metodu çağırırlar: Db.getConnection();
+    // Yazma yapan (veya yazmadan hemen önce okuyan) tüm işlemler bu metodu kullanır; her zaman ANA sunucuya gider.
 
     public static Connection getConnection() throws SQLException {
-        // DriverManager, Java'nın veritabanı sürücüsünü yöneten sınıfıdır.
-        // Adresi (URL), Kullanıcıyı (USER) ve Şifreyi (PASS) alıp bize açık bir hat (Connection) verir.
-        // Eğer şifre yanlışsa veya veritabanı kapalıysa burada hata (SQLException) patlar.
-        return DriverManager.getConnection(URL, USER, PASS);
+        Session session = Session.current();
+        if (session != null) session.markPrimaryUse();
+        return PRIMARY.acquire();
+    }
+
+    /**
+     * Sadece okuma yapan liste/arama sorguları için SALT-OKUNUR bağlantı verir.
+     * Uygun bir kopya varsa ona, yoksa ana sunucuya bağlanır (bkz. OKUMA KOPYALARI kuralları).
+     */
+    public static Connection getReadConnection() throws SQLException {
+        Session session = Session.current();
+        boolean sticky = session != null && session.usedPrimaryWithin(STICKY_NANOS);
+
+        if (!sticky && !REPLICAS.isEmpty()) {
+            // Sıradaki kopyadan başlayarak dolaş (yük kopyalara eşit dağılsın).
+            int start = Math.floorMod(NEXT_REPLICA.getAndIncrement(), REPLICAS.size());
+            for (int i = 0; i < REPLICAS.size(); i++) {
+                Connection conn = REPLICAS.get((start + i) % REPLICAS.size()).tryAcquire();
+                if (conn != null) return conn;
+            }
+        }
+
+        Connection conn = PRIMARY.acquire();
+        conn.setReadOnly(true);
+        return conn;
+    }
+
+    /**
+     * Uygulama açılırken (giriş ekranı gösterilirken) arka planda çağrılır.
+     * JDBC sürücüsünü yükler ve 'count' adet bağlantıyı önceden açıp havuza koyar.
+     * Böylece "Giriş" butonuna basıldığında bağlantı kurma maliyeti ödenmez.
+     */
+    public static void warmUp(int count) throws SQLException {
+        try {
+            Class.forName("org.postgresql.Driver"); // Sürücü sınıflarını şimdi yükle
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("PostgreSQL JDBC sürücüsü bulunamadı", e);
+        }
+        PRIMARY.warmUp(count);
+    }
+
+    private static List<Replica> parseReplicas(String urls) {
+        List<Replica> list = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) list.add(new Replica(url.trim()));
+        }
+        return List.copyOf(list);
+    }
+
+    private static void closeQuietly(Connection raw) {
+        try {
+            raw.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    // ==========================================
+    // HAVUZ (Tek bir veritabanı sunucusu için)
+    // ==========================================
+    private static final class Pool {
+        private final String url;
+        private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+        private final Semaphore active = new Semaphore(MAX_ACTIVE, true);
+
+        Pool(String url) {
+            this.url = url;
+        }
+
+        Connection acquire() throws SQLException {
+            // 0. Kullanım sınırı doluysa bir bağlantının iade edilmesini bekle.
+            try {
+                if (!active.tryAcquire(30, TimeUnit.SECONDS)) {
+                    throw new SQLException("Veritabanı bağlantı havuzu dolu (en fazla " + MAX_ACTIVE + ")");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Bağlantı beklerken kesildi", e);
+            }
+
+            try {
+                // 1. Önce havuzda hazır bekleyen bir bağlantı var mı bak.
+                IdleConnection candidate;
+                while ((candidate = idle.pollFirst()) != null) {
+                    Connection raw = candidate.connection;
+                    boolean stale = System.nanoTime() - candidate.since > VALIDATE_AFTER_NANOS;
+                    if (!raw.isClosed() && (!stale || raw.isValid(2))) {
+                        return wrap(raw);
+                    }
+                    closeQuietly(raw); // Kopmuş bağlantıyı at, sıradakine bak
+                }
+
+                // 2. Havuz boşsa yeni bağlantı aç.
+                // DriverManager, Java'nın veritabanı sürücüsünü yöneten sınıfıdır.
+                // Adresi (URL), Kullanıcıyı (USER) ve Şifreyi (PASS) alıp bize açık bir hat (Connection) verir.
+                // Eğer şifre yanlışsa veya veritabanı kapalıysa burada hata (SQLException) patlar.
+                return wrap(DriverManager.getConnection(url, USER, PASS));
+            } catch (SQLException | RuntimeException e) {
+                active.release(); // Bağlantı verilemedi, kullanım hakkını geri bırak
+                throw e;
+            }
+        }
+
+        void warmUp(int count) throws SQLException {
+            for (int i = idle.size(); i < Math.min(count, MAX_IDLE); i++) {
+                idle.offerFirst(new IdleConnection(DriverManager.getConnection(url, USER, PASS)));
+            }
+        }
+
+        // Bağlantı kapatıldığında havuza geri döner.
+        // Önceki kullanıcının bıraktığı işlem (transaction) ayarları sıfırlanır.
+        void release(Connection raw) {
+            active.release();
+            try {
+                if (!raw.getAutoCommit()) {
+                    raw.rollback();
+                    raw.setAutoCommit(true);
+                }
+                if (raw.isReadOnly()) {
+                    raw.setReadOnly(false);
+                }
+                if (idle.size() < MAX_IDLE) {
+                    idle.offerFirst(new IdleConnection(raw));
+                    return;
+                }
+            } catch (SQLException e) {
+                // Sıfırlanamayan bağlantı güvenilmezdir, kapatıyoruz.
+            }
+            closeQuietly(raw);
+        }
+
+        // Gerçek bağlantıyı, 'close()' çağrısını yakalayan bir vekil (Proxy) ile sarar.
+        private Connection wrap(Connection raw) {
+            return (Connection) Proxy.newProxyInstance(Db.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new PooledHandler(this, raw));
+        }
+    }
+
+    // ==========================================
+    // OKUMA KOPYASI (Havuz + gecikme takibi)
+    // ==========================================
+    private static final class Replica {
+        private final Pool pool;
+        private volatile boolean healthy = true;
+        private volatile long checkedAt = System.nanoTime() - LAG_CHECK_NANOS; // İlk kullanımda hemen ölç
+
+        Replica(String url) {
+            this.pool = new Pool(url);
+        }
+
+        // Kopya kullanılabilirse salt-okunur bağlantı, değilse 'null' döner (hata fırlatmaz).
+        Connection tryAcquire() {
+            long now = System.nanoTime();
+            boolean due = now - checkedAt >= LAG_CHECK_NANOS;
+            if (!healthy && !due) return null; // Yakın zamanda sağlıksız bulundu, bekle
+
+            Connection conn = null;
+            try {
+                conn = pool.acquire();
+                if (due) {
+                    long lag = lagMillis(conn);
+                    checkedAt = now;
+                    if (healthy != (lag != NOT_STREAMING && lag <= MAX_LAG_MILLIS)) {
+                        healthy = !healthy;
+                        System.out.println("[Db] Okuma kopyası " + pool.url + (healthy ? " tekrar kullanımda"
+                                : lag == NOT_STREAMING ? " devre dışı (ana sunucudan WAL almıyor)" : " devre dışı (gecikme " + lag + " ms)"));
+                    }
+                    if (!healthy) {
+                        conn.close();
+                        return null;
+                    }
+                }
+                conn.setReadOnly(true);
+                return conn;
+            } catch (SQLException e) {
+                checkedAt = now;
+                if (healthy) System.out.println("[Db] Okuma kopyasına bağlanılamadı: " + pool.url + " (" + e.getMessage() + ")");
+                healthy = false;
+                if (conn != null) closeQuietly(conn);
+                return null;
+            }
+        }
+
+        // lagMillis: Kopyanın WAL alıcısı ana sunucuya bağlı değil.
+        private static final long NOT_STREAMING = -1;
+
+        // Kopyanın ana sunucunun ne kadar gerisinde olduğunu (ms) ölçer.
+        // Aldığı tüm WAL kayıtlarını uygulamışsa gecikme 0'dır (ana sunucu boştayken de doğru sonuç verir).
+        // Ancak "aldığını uygulamış" olmak, WAL alıcısı (walreceiver) ana sunucuya bağlıyken anlamlıdır:
+        // Bağlantı koptuysa alınan ve uygulanan konumlar eşit kalır ama kopya geride kalmaya devam eder.
+        // Bu yüzden önce pg_stat_wal_receiver'a bakılır; akışta (streaming) alıcı yoksa NOT_STREAMING döner.
+        // (Yetkisiz kullanıcı bu görünümde sadece pid'yi görür, durum NULL gelir; satırın varlığı yeterli sayılır.)
+        // Saat farkıyla negatif çıkan gecikme 0 sayılır (-1 NOT_STREAMING'e ayrılmıştır).
+        // Kopya değil de ana sunucuysa (kurtarma modunda değilse) 0 döner.
+        private static long lagMillis(Connection conn) throws SQLException {
+            String sql = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+                    "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE COALESCE(status, 'streaming') = 'streaming') " +
+                    "THEN " + NOT_STREAMING + " " +
+                    "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                    "ELSE GREATEST(COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0), 0) END";
+            try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // Not: Bazı servis metotları PreparedStatement'ları açıkça kapatmıyor. Eskiden bağlantı
+    // kapanınca hepsi kapanıyordu; havuzda bağlantı yaşamaya devam ettiği için burada
+    // açılan tüm Statement'ları takip edip bağlantı iade edilirken kapatıyoruz.
+    private static final class PooledHandler implements InvocationHandler {
+        private final Pool pool;
+        private final Connection raw;
+        private final java.util.List<Statement> statements = new java.util.ArrayList<>();
+        private boolean closed;
+
+        PooledHandler(Pool pool, Connection raw) {
+            this.pool = pool;
+            this.raw = raw;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        for (Statement st : statements) {
+                            try {
+                                st.close();
+                            } catch (SQLException ignored) {
+                            }
+                        }
+                        pool.release(raw);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || raw.isClosed();
+                default:
+                    if (closed) throw new SQLException("Bağlantı havuza iade edilmiş, tekrar kullanılamaz.");
+                    try {
+                        Object result = method.invoke(raw, args);
+                        if (result instanceof Statement) statements.add((Statement) result);
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    private static final class IdleConnection {
+        final Connection connection;
+        final long since = System.nanoTime();
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
     }
-}
\ No newline at end of file
+}
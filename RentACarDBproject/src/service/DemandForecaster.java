@@ -0,0 +1,524 @@
+package service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * DemandForecaster Sınıfı (Şube + Model Bazında Talep Tahmini)
+ * -----------------------------------------------------------
+ * Rezervasyon geçmişinden her şube + marka + model için GÜNLÜK TALEP serisi çıkarır
+ * (o gün kirada olan araç sayısı) ve önümüzdeki 90 günü tahmin eder. Sonuç 'demand_forecast' tablosundadır.
+ *
+ * Model: Sönümlü eğilimli, haftalık mevsimsel Holt-Winters (toplamsal).
+ * - Seviye + eğilim + haftanın günü etkisi. Eğilim uzun ufukta sönümlenir (90 gün sonra patlamasın).
+ * - Yumuşatma katsayıları (alpha, beta, gamma) küçük bir ızgarada bir-adım-sonrası hatayı en aza indirerek seçilir.
+ * - Seriler birbirinden bağımsızdır; fork-join havuzunda tüm çekirdeklerde paralel eğitilir.
+ *
+ * Artımlı çalışma (günlük tekrar ucuz kalsın):
+ * 1. Sadece son işlenen rezervasyondan SONRAKİ kayıtlar okunur ve 'demand_daily' serilerine EKLENİR.
+ *    Küçük ID'si geç onaylanan rezervasyonlar kaçırılmasın diye okunan aralıktaki boşluklar 'demand_gap'
+ *    tablosunda saklanır ve sonraki çalıştırmalarda tekrar sorulur (bkz. IdGaps).
+ * 2. Modelin durumu (seviye, eğilim, mevsim) saklanır; sonraki çalıştırma sadece yeni günleri modele işler.
+ *    Katsayı araması sadece ilk eğitimde yapılır.
+ * 3. Yeni bir rezervasyon modele zaten işlenmiş bir GEÇMİŞ günü değiştirirse ya da seri iki haftadan kısaysa
+ *    o seri baştan eğitilir (sadece o serinin geçmişi indeksle okunur).
+ *
+ * Talep = yapılan rezervasyonlardır: sonradan iptal edilenler de sayılır (müşteri o gün araç istemişti).
+ * Silinen rezervasyonlar seriden düşülmez; baştan hesaplamak için: java service.DemandForecaster --full
+ */
+public final class DemandForecaster {
+
+    public static final int HORIZON_DAYS = 90;
+
+    static final int SEASON = 7;            // Haftalık mevsimsellik
+    private static final double PHI = 0.98; // Eğilim sönümleme katsayısı
+
+    // Katsayı arama ızgarası
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5};
+    private static final double[] BETAS = {0.01, 0.05, 0.1};
+    private static final double[] GAMMAS = {0.05, 0.1, 0.2, 0.3};
+
+    private static final int FETCH_SIZE = 5000;
+
+    private DemandForecaster() {
+    }
+
+    // Çalıştırma özeti
+    public static final class Result {
+        public final int reservations; // Bu çalıştırmada okunan yeni rezervasyon
+        public final int series;       // Tahmini üretilen seri
+        public final int refitted;     // Baştan eğitilen seri (geri kalanı artımlı)
+
+        Result(int reservations, int series, int refitted) {
+            this.reservations = reservations;
+            this.series = series;
+            this.refitted = refitted;
+        }
+
+        @Override
+        public String toString() {
+            return reservations + " yeni rezervasyon, " + series + " seri (" + refitted + " baştan eğitildi)";
+        }
+    }
+
+    // ==========================================
+    // 1. ÇALIŞTIR
+    // ==========================================
+
+    public static Result run(boolean full) throws Exception {
+        AuthService.requireAdmin();
+        return update(full);
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean full = args.length > 0 && args[0].equals("--full");
+        long start = System.nanoTime();
+        Result result = update(full);
+        System.out.printf("[Talep Tahmini] %s (%.1f sn)%n", result, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static Result update(boolean full) throws SQLException {
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Result result = update(conn, full);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // İş kuyruğu (JobWorker) kendi işlemiyle çağırır.
+    static Result update(Connection conn, boolean full) throws SQLException {
+        // İlerleme satırı kilitlenir: Aynı anda iki çalıştırma aynı rezervasyonu iki kez saymasın.
+        IdGaps loaded;
+        try (Statement st = conn.createStatement()) {
+            if (full) {
+                st.executeUpdate("DELETE FROM demand_daily");
+                st.executeUpdate("DELETE FROM demand_model");
+                st.executeUpdate("DELETE FROM demand_gap");
+            }
+            try (ResultSet rs = st.executeQuery("SELECT last_reservation_id FROM demand_progress FOR UPDATE")) {
+                if (!rs.next()) throw new SQLException("demand_progress satırı yok (07_demand_forecast.sql çalıştırılmalı)");
+                loaded = new IdGaps(full ? 0 : rs.getInt(1));
+            }
+            try (ResultSet rs = st.executeQuery("SELECT reservation_id, horizon FROM demand_gap")) {
+                while (rs.next()) loaded.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+
+        // 1. Yeni (ve geç onaylanmış) rezervasyonlar -> seri artışları
+        Map<Key, Map<Long, Integer>> added = new HashMap<>();
+        Map<Key, Long> firstChanged = new HashMap<>();
+        int[] read = new int[1];
+        streamReservations(conn, loaded, added, firstChanged, read);
+        saveAdded(conn, added);
+        saveGaps(conn, loaded);
+
+        // 2. Eğitilecek seriler: Kayıtlı tüm modeller + yeni seriler
+        long through = LocalDate.now().minusDays(1).toEpochDay(); // Dün: tamamlanmış son gün
+        Map<Key, Series> work = new HashMap<>();
+        loadModels(conn, work);
+        int refitted = 0;
+        for (Map.Entry<Key, Long> e : firstChanged.entrySet()) {
+            Series s = work.computeIfAbsent(e.getKey(), Series::new);
+            s.firstDay = Math.min(s.firstDay, e.getValue());
+            if (s.model != null && e.getValue() <= s.model.fittedThrough) s.model = null; // Geçmiş değişti
+        }
+        for (Series s : work.values()) {
+            if (s.model != null && s.model.fittedThrough - s.firstDay + 1 < 2 * SEASON) s.model = null; // Kısa seri
+            if (s.model == null) refitted++;
+        }
+        loadHistory(conn, work, through, full);
+
+        // 3. Paralel eğitim + tahmin
+        List<Series> list = new ArrayList<>(work.values());
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new FitTask(list, 0, list.size(), through));
+        } finally {
+            pool.shutdown();
+        }
+
+        // 4. Kaydet
+        int produced = save(conn, list, through);
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE demand_progress SET last_reservation_id = ?")) {
+            ps.setInt(1, loaded.lastId());
+            ps.executeUpdate();
+        }
+        return new Result(read[0], produced, refitted);
+    }
+
+    // ==========================================
+    // 2. VERİ OKUMA / YAZMA
+    // ==========================================
+
+    // Rezervasyonları ID sırasıyla parça parça okur; her gün (iki uç dahil) seriye 1 araç ekler.
+    // Son okunan ID'den büyükler ve önceki çalıştırmalarda boşluk kalan ID'ler (geç onaylananlar) okunur.
+    // Arşive taşınmış rezervasyonlar da okunur (Tam yeniden hesaplamada geçmiş eksik kalmasın).
+    private static void streamReservations(Connection conn, IdGaps loaded, Map<Key, Map<Long, Integer>> added,
+                                           Map<Key, Long> firstChanged, int[] read) throws SQLException {
+        String sql = "SELECT r.reservation_id, v.branch_id, v.brand, v.model, r.start_date, r.end_date " +
+                "FROM reservation r JOIN vehicle v ON v.vehicle_id = r.vehicle_id " +
+                "WHERE r.reservation_id > ? OR r.reservation_id = ANY(?) " +
+                "UNION ALL " +
+                "SELECT reservation_id, branch_id, brand, model, start_date, end_date " +
+                "FROM reservation_archive WHERE reservation_id > ? OR reservation_id = ANY(?) " +
+                "ORDER BY 1";
+        Map<Key, Key> keys = new HashMap<>(); // Aynı seri için tek Key nesnesi
+        loaded.begin();
+        long xminBefore = IdGaps.snapshot(conn)[0];
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE);
+            Array recheck = conn.createArrayOf("integer", loaded.recheck());
+            ps.setInt(1, loaded.lastId());
+            ps.setArray(2, recheck);
+            ps.setInt(3, loaded.lastId());
+            ps.setArray(4, recheck);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    loaded.seen(rs.getInt(1));
+                    Key key = keys.computeIfAbsent(new Key(rs.getInt(2), rs.getString(3), rs.getString(4)), k -> k);
+                    long start = rs.getDate(5).toLocalDate().toEpochDay();
+                    long end = rs.getDate(6).toLocalDate().toEpochDay();
+                    Map<Long, Integer> days = added.computeIfAbsent(key, k -> new HashMap<>());
+                    for (long d = start; d <= end; d++) days.merge(d, 1, Integer::sum);
+                    firstChanged.merge(key, start, Math::min);
+                    read[0]++;
+                }
+            }
+        }
+        loaded.finish(xminBefore, IdGaps.snapshot(conn)[1]);
+    }
+
+    // Boşlukları (ID -> ufuk) aynı işlemde yeniden yazar; işlem geri alınırsa önceki boşluklar kalır.
+    private static void saveGaps(Connection conn, IdGaps loaded) throws SQLException {
+        try (Statement st = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO demand_gap (reservation_id, horizon) VALUES (?, ?)")) {
+            st.executeUpdate("DELETE FROM demand_gap");
+            for (Map.Entry<Integer, Long> e : loaded.gaps().entrySet()) {
+                ps.setInt(1, e.getKey());
+                ps.setLong(2, e.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void saveAdded(Connection conn, Map<Key, Map<Long, Integer>> added) throws SQLException {
+        String sql = "INSERT INTO demand_daily (branch_id, brand, model, day, vehicles) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (branch_id, brand, model, day) DO UPDATE SET vehicles = demand_daily.vehicles + EXCLUDED.vehicles";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int batch = 0;
+            for (Map.Entry<Key, Map<Long, Integer>> e : added.entrySet()) {
+                for (Map.Entry<Long, Integer> day : e.getValue().entrySet()) {
+                    e.getKey().bind(ps);
+                    ps.setDate(4, Date.valueOf(LocalDate.ofEpochDay(day.getKey())));
+                    ps.setInt(5, day.getValue());
+                    ps.addBatch();
+                    if (++batch % FETCH_SIZE == 0) ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void loadModels(Connection conn, Map<Key, Series> work) throws SQLException {
+        String sql = "SELECT branch_id, brand, model, first_day, fitted_through, alpha, beta, gamma, level, trend, season FROM demand_model";
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                Series s = new Series(new Key(rs.getInt(1), rs.getString(2), rs.getString(3)));
+                s.firstDay = rs.getDate(4).toLocalDate().toEpochDay();
+                Model m = new Model(rs.getDouble(6), rs.getDouble(7), rs.getDouble(8));
+                m.fittedThrough = rs.getDate(5).toLocalDate().toEpochDay();
+                m.level = rs.getDouble(9);
+                m.trend = rs.getDouble(10);
+                Object[] season = (Object[]) rs.getArray(11).getArray();
+                for (int i = 0; i < SEASON; i++) m.season[i] = ((Number) season[i]).doubleValue();
+                s.model = m;
+                work.put(s.key, s);
+            }
+        }
+    }
+
+    /**
+     * Modellerin henüz işlemediği günleri okur:
+     * - Artımlı seriler: Tek sorguda, en eski 'fitted_through' sonrası günler (günlük çalıştırmada birkaç gün).
+     * - Baştan eğitilecek seriler: Serinin kendi geçmişi, birincil anahtar indeksiyle. Tam yeniden hesaplamada
+     *   (tüm seriler baştan) tablo tek seferde okunur.
+     */
+    private static void loadHistory(Connection conn, Map<Key, Series> work, long through, boolean full) throws SQLException {
+        long from = through;
+        for (Series s : work.values()) {
+            if (s.model != null) from = Math.min(from, s.model.fittedThrough);
+        }
+        String base = "SELECT branch_id, brand, model, day, vehicles FROM demand_daily ";
+        if (full) {
+            readHistory(conn, work, base + "WHERE day <= ?", through, null);
+            return;
+        }
+        if (from < through) readHistory(conn, work, base + "WHERE day > ? AND day <= ?", through, from);
+        try (PreparedStatement ps = conn.prepareStatement(base + "WHERE branch_id = ? AND brand = ? AND model = ? AND day <= ?")) {
+            for (Series s : work.values()) {
+                if (s.model != null) continue;
+                s.key.bind(ps);
+                ps.setDate(4, Date.valueOf(LocalDate.ofEpochDay(through)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) s.history.put(rs.getDate(4).toLocalDate().toEpochDay(), rs.getInt(5));
+                }
+            }
+        }
+    }
+
+    private static void readHistory(Connection conn, Map<Key, Series> work, String sql, long through, Long from) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE);
+            int i = 1;
+            if (from != null) ps.setDate(i++, Date.valueOf(LocalDate.ofEpochDay(from)));
+            ps.setDate(i, Date.valueOf(LocalDate.ofEpochDay(through)));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Series s = work.get(new Key(rs.getInt(1), rs.getString(2), rs.getString(3)));
+                    long day = rs.getDate(4).toLocalDate().toEpochDay();
+                    if (s == null || (s.model != null && day <= s.model.fittedThrough)) continue;
+                    if (s.model == null && from != null) continue; // Baştan eğitilecekler ayrıca okunur
+                    s.history.put(day, rs.getInt(5));
+                }
+            }
+        }
+    }
+
+    // Modelleri ve tahminleri yazar; tahmini üretilen seri sayısını döner.
+    private static int save(Connection conn, List<Series> list, long through) throws SQLException {
+        String upsert = "INSERT INTO demand_model (branch_id, brand, model, first_day, fitted_through, alpha, beta, gamma, level, trend, season) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (branch_id, brand, model) DO UPDATE SET " +
+                "first_day = EXCLUDED.first_day, fitted_through = EXCLUDED.fitted_through, alpha = EXCLUDED.alpha, beta = EXCLUDED.beta, gamma = EXCLUDED.gamma, " +
+                "level = EXCLUDED.level, trend = EXCLUDED.trend, season = EXCLUDED.season";
+        String insert = "INSERT INTO demand_forecast (branch_id, brand, model, day, expected) VALUES (?, ?, ?, ?, ?)";
+        int produced = 0;
+        try (Statement st = conn.createStatement();
+             PreparedStatement models = conn.prepareStatement(upsert);
+             PreparedStatement forecasts = conn.prepareStatement(insert)) {
+            st.executeUpdate("DELETE FROM demand_forecast");
+            int batch = 0;
+            for (Series s : list) {
+                Model m = s.model;
+                s.key.bind(models);
+                models.setDate(4, Date.valueOf(LocalDate.ofEpochDay(s.firstDay)));
+                models.setDate(5, Date.valueOf(LocalDate.ofEpochDay(m.fittedThrough)));
+                models.setDouble(6, m.alpha);
+                models.setDouble(7, m.beta);
+                models.setDouble(8, m.gamma);
+                models.setDouble(9, m.level);
+                models.setDouble(10, m.trend);
+                Double[] season = new Double[SEASON];
+                for (int i = 0; i < SEASON; i++) season[i] = m.season[i];
+                Array array = conn.createArrayOf("float8", season);
+                models.setArray(11, array);
+                models.addBatch();
+                if (m.fittedThrough < s.firstDay) continue; // Henüz tamamlanmış günü yok (sadece ileri tarihli rezervasyon)
+
+                double[] expected = m.forecast(through, HORIZON_DAYS);
+                for (int h = 0; h < HORIZON_DAYS; h++) {
+                    s.key.bind(forecasts);
+                    forecasts.setDate(4, Date.valueOf(LocalDate.ofEpochDay(through + 1 + h)));
+                    forecasts.setDouble(5, Math.round(expected[h] * 100) / 100.0);
+                    forecasts.addBatch();
+                }
+                produced++;
+                if (++batch % 100 == 0) {
+                    models.executeBatch();
+                    forecasts.executeBatch();
+                }
+            }
+            models.executeBatch();
+            forecasts.executeBatch();
+        }
+        return produced;
+    }
+
+    // ==========================================
+    // 3. PARALEL EĞİTİM
+    // ==========================================
+
+    // Seri listesini ikiye bölerek fork-join havuzunda eğitir.
+    private static final class FitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Görev hiçbir zaman serileştirilmez
+        private static final int LEAF = 16;
+
+        private final transient List<Series> list;
+        private final int from, to;
+        private final long through;
+
+        FitTask(List<Series> list, int from, int to, long through) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.through = through;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF) {
+                for (int i = from; i < to; i++) list.get(i).fit(through);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FitTask(list, from, mid, through), new FitTask(list, mid, to, through));
+        }
+    }
+
+    // Şube + marka + model
+    static final class Key {
+        final int branchId;
+        final String brand;
+        final String model;
+
+        Key(int branchId, String brand, String model) {
+            this.branchId = branchId;
+            this.brand = brand;
+            this.model = model;
+        }
+
+        void bind(PreparedStatement ps) throws SQLException {
+            ps.setInt(1, branchId);
+            ps.setString(2, brand);
+            ps.setString(3, model);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return branchId == k.branchId && brand.equals(k.brand) && model.equals(k.model);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(branchId, brand, model);
+        }
+    }
+
+    // Bir seri: Kayıtlı model (varsa) + modelin henüz görmediği günler.
+    static final class Series {
+        final Key key;
+        long firstDay = Long.MAX_VALUE;               // Serinin ilk günü (epoch)
+        Model model;                                  // null: baştan eğitilecek
+        final Map<Long, Integer> history = new HashMap<>(); // Gün (epoch) -> araç; olmayan gün = 0
+
+        Series(Key key) {
+            this.key = key;
+        }
+
+        void fit(long through) {
+            if (model != null) {
+                // Artımlı: Kayıtlı modele sadece yeni günler işlenir.
+                for (long d = model.fittedThrough + 1; d <= through; d++) model.step(d, history.getOrDefault(d, 0));
+                model.fittedThrough = Math.max(model.fittedThrough, through);
+                return;
+            }
+            double[] y = new double[(int) Math.max(0, through - firstDay + 1)];
+            for (Map.Entry<Long, Integer> e : history.entrySet()) y[(int) (e.getKey() - firstDay)] = e.getValue();
+            model = Model.fit(firstDay, y);
+        }
+    }
+
+    // ==========================================
+    // 4. HOLT-WINTERS MODELİ
+    // ==========================================
+
+    static final class Model {
+        final double alpha, beta, gamma;
+        double level, trend;
+        final double[] season = new double[SEASON]; // İndeks: epoch günü mod 7
+        long fittedThrough;
+
+        Model(double alpha, double beta, double gamma) {
+            this.alpha = alpha;
+            this.beta = beta;
+            this.gamma = gamma;
+        }
+
+        // Günü modele işler; bir-adım-sonrası tahmin hatasının karesini döner.
+        double step(long day, double y) {
+            int i = Math.floorMod(day, SEASON);
+            double s = season[i];
+            double error = y - (level + PHI * trend + s);
+            double previous = level;
+            level = alpha * (y - s) + (1 - alpha) * (level + PHI * trend);
+            trend = beta * (level - previous) + (1 - beta) * PHI * trend;
+            season[i] = gamma * (y - level) + (1 - gamma) * s;
+            return error * error;
+        }
+
+        // 'through' gününden sonraki 'days' gün (negatif tahmin 0'a çekilir).
+        double[] forecast(long through, int days) {
+            double[] out = new double[days];
+            double damp = 0;
+            for (int h = 1; h <= days; h++) {
+                damp += Math.pow(PHI, h);
+                out[h - 1] = Math.max(0, level + damp * trend + season[Math.floorMod(through + h, SEASON)]);
+            }
+            return out;
+        }
+
+        // İlk hafta seviye ve mevsimi, ikinci hafta eğilimi belirler; katsayılar ızgarada aranır.
+        static Model fit(long firstDay, double[] y) {
+            if (y.length < 2 * SEASON) {
+                // Kısa (veya henüz başlamamış) seri: Ortalama etrafında düz tahmin, katsayılar varsayılan.
+                Model m = new Model(0.2, 0.05, 0.1);
+                for (double v : y) m.level += v / y.length;
+                m.fittedThrough = firstDay + y.length - 1;
+                return m;
+            }
+            Model best = null;
+            double bestError = Double.MAX_VALUE;
+            for (double a : ALPHAS) {
+                for (double b : BETAS) {
+                    for (double g : GAMMAS) {
+                        Model m = new Model(a, b, g);
+                        double error = m.train(firstDay, y);
+                        if (error < bestError) {
+                            bestError = error;
+                            best = m;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        private double train(long firstDay, double[] y) {
+            double week1 = 0, week2 = 0;
+            for (int t = 0; t < SEASON; t++) {
+                week1 += y[t] / SEASON;
+                week2 += y[t + SEASON] / SEASON;
+            }
+            level = week1;
+            trend = (week2 - week1) / SEASON;
+            for (int t = 0; t < SEASON; t++) season[Math.floorMod(firstDay + t, SEASON)] = y[t] - week1;
+            double error = 0;
+            for (int t = SEASON; t < y.length; t++) error += step(firstDay + t, y[t]);
+            fittedThrough = firstDay + y.length - 1;
+            return error;
+        }
+    }
+}
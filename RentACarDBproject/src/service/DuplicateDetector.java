@@ -0,0 +1,504 @@
+package service;
+
+import model.Customer;
+import server.ApiClient;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * DuplicateDetector Sınıfı (Mükerrer Müşteri Tespiti)
+ * ---------------------------------------------------
+ * Veritabanı sadece ehliyet no'nun benzersiz olmasını zorlar. İsmi yanlış yazılmış
+ * ("Mehmet Yılmaz" / "Memet Yilmaz") veya telefonu farklı biçimde girilmiş ("0532 111 22 33" / "+905321112233")
+ * aynı kişi birden fazla müşteri olarak açılabiliyor ve geçmişi bölünüyordu.
+ *
+ * Müşteriler bellekte üç anahtarla indekslenir:
+ * 1. Normalize telefon: Sadece rakamlar, başındaki 0 / +90 atılır (son 10 hane).
+ * 2. Fonetik isim anahtarı (Türkçe'ye göre): Ünlüler, y, yumuşak g ve h atılır; sert/yumuşak ünsüz çiftleri
+ *    (b/p, c/ç, d/t, g/k ...) aynı sayılır; isimlerin sırası önemsizdir. "Ahmed Şahin" = "Ahmet Sahin".
+ * 3. BK-ağacı: Sadeleştirilmiş isimler üzerinde düzenleme mesafesine (Levenshtein) göre arama.
+ *    Fonetik anahtarı değiştiren yazım hatalarını da ("Kaya"/"Kara", "Mehmet"/"Mehemt") yakalar.
+ *
+ * KURAL: İsimler yakınsa (aynı fonetik anahtar veya en fazla 2 harf farkı) VE
+ *        telefon aynıysa ya da ehliyet no'da en fazla TEK hane farklıysa -> olası mükerrer.
+ * (Sadece isim benzerliği yetmez: Aynı isimde çok sayıda farklı kişi vardır.)
+ *
+ * Kullanım:
+ * - findLikelyDuplicates: Müşteri kaydedilirken anlık uyarı (CustomerView, AddReservationView).
+ * - findDuplicateGroups / main: Tüm müşteriler üzerinde paralel toplu tarama.
+ *   Çalıştırma: java service.DuplicateDetector
+ */
+public final class DuplicateDetector {
+
+    private static final Locale TR = Locale.forLanguageTag("tr");
+
+    private static final int MAX_NAME_DISTANCE = 2;
+    private static final int MAX_RESULTS = 5;
+
+    // Toplu taramada bundan büyük bloklar (örn. "0000000000" gibi sahte telefonlar) atlanır;
+    // blok içi karşılaştırma karesel olduğu için tek bir blok tüm taramayı kilitlemesin.
+    private static final int MAX_BLOCK = 2000;
+
+    private static Index live;                  // null = henüz kurulmadı
+    private static List<Runnable> pending;      // Kurulum sürerken gelen değişiklikler (sonra uygulanır)
+
+    private DuplicateDetector() {
+    }
+
+    // ==========================================
+    // 1. ANLIK KONTROL (Kaydetmeden önce)
+    // ==========================================
+
+    /**
+     * Kaydedilmek üzere olan müşteriye benzeyen mevcut müşterileri döner (en fazla 5).
+     *
+     * @param excludeId Güncellenen müşterinin kendi ID'si (yeni kayıtta 0)
+     * İndeks henüz kurulmadıysa boş liste döner (kontrol atlanır, kayıt engellenmez).
+     */
+    public static List<Customer> findLikelyDuplicates(String fullName, String phone, String licenseNo, int excludeId) throws Exception {
+        AuthService.requireLogin();
+        if (ApiClient.isEnabled()) return ApiClient.findLikelyDuplicates(fullName, phone, licenseNo, excludeId);
+
+        Entry probe = new Entry(new Customer(excludeId, fullName, phone, licenseNo));
+        List<Customer> result = new ArrayList<>();
+        synchronized (DuplicateDetector.class) {
+            if (live == null) return result;
+
+            Set<Integer> candidates = new LinkedHashSet<>();
+            if (probe.phone != null) candidates.addAll(live.byPhone.getOrDefault(probe.phone, List.of()));
+            candidates.addAll(live.byPhonetic.getOrDefault(probe.phonetic, List.of()));
+            live.names.query(probe.name, MAX_NAME_DISTANCE, candidates::add);
+
+            for (int id : candidates) {
+                if (id == excludeId) continue;
+                Entry e = live.byId.get(id);
+                // Aynı ehliyet no = aynı müşteri (UNIQUE); o kayıt zaten kullanılır, uyarıya gerek yok.
+                if (e == null || e.license.equals(probe.license) || !isDuplicate(probe, e)) continue;
+                result.add(e.customer);
+                if (result.size() == MAX_RESULTS) break;
+            }
+        }
+        return result;
+    }
+
+    // ==========================================
+    // 2. İNDEKSİN KURULMASI VE GÜNCEL TUTULMASI
+    // ==========================================
+
+    /**
+     * İndeksi veritabanından baştan kurar. Açılışta arka planda çağrılır (StartupPipeline, ApiServer).
+     */
+    public static void warmUp() {
+        synchronized (DuplicateDetector.class) {
+            if (pending != null) return; // Zaten kuruluyor
+            pending = new ArrayList<>();
+        }
+        Index index = new Index();
+        try {
+            for (Customer c : loadAll()) index.add(new Entry(c));
+        } catch (Exception e) {
+            System.out.println("Mükerrer müşteri indeksi kurulamadı: " + e.getMessage());
+            synchronized (DuplicateDetector.class) {
+                pending = null;
+            }
+            return;
+        }
+        synchronized (DuplicateDetector.class) {
+            live = index;
+            pending.forEach(Runnable::run);
+            pending = null;
+        }
+    }
+
+    // Eklenen veya güncellenen müşteri (CustomerService, ReservationService çağırır).
+    static synchronized void customerSaved(Customer customer) {
+        Runnable change = () -> {
+            live.remove(customer.getId());
+            live.add(new Entry(customer));
+        };
+        apply(change);
+    }
+
+    static synchronized void customerDeleted(int id) {
+        apply(() -> live.remove(id));
+    }
+
+    private static void apply(Runnable change) {
+        if (pending != null) pending.add(change);
+        else if (live != null) change.run();
+    }
+
+    private static List<Customer> loadAll() throws Exception {
+        List<Customer> all = new ArrayList<>();
+        try (Connection conn = Db.getReadConnection()) {
+            conn.setAutoCommit(false); // fetchSize'ın işe yaraması için (satırlar parça parça gelir)
+            try (Statement st = conn.createStatement()) {
+                st.setFetchSize(5000);
+                try (ResultSet rs = st.executeQuery("SELECT " + RowMappers.CUSTOMER_COLUMNS + " FROM customer")) {
+                    RowMappers.CUSTOMER.readAll(rs, all);
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+        return all;
+    }
+
+    // ==========================================
+    // 3. TOPLU TARAMA (Tüm müşteriler)
+    // ==========================================
+
+    /**
+     * Tüm müşterileri tarar ve olası mükerrer grupları döner (her grup en az 2 müşteri).
+     *
+     * BK-ağacı tek sorgu için hızlıdır ama milyon kez sorgulamak pahalıdır. Bu yüzden toplu taramada
+     * müşteriler BLOKLARA ayrılır ve sadece aynı bloktakiler karşılaştırılır:
+     * - Aynı telefon,
+     * - Aynı fonetik isim + ehliyet no'nun aynı ilk yarısı,
+     * - Aynı fonetik isim + ehliyet no'nun aynı ikinci yarısı.
+     * (Tek hanesi farklı iki ehliyet no'nun iki yarısından biri mutlaka aynıdır.)
+     * Bloklar tüm işlemci çekirdeklerinde paralel karşılaştırılır.
+     */
+    public static List<List<Customer>> findDuplicateGroups() throws Exception {
+        AuthService.requireLogin();
+        return groups(loadAll());
+    }
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        List<Customer> all = loadAll();
+        List<List<Customer>> groups = groups(all);
+        System.out.printf("%,d müşteri tarandı, %,d olası mükerrer grup bulundu (%.1f sn)%n",
+                all.size(), groups.size(), (System.nanoTime() - start) / 1e9);
+        for (List<Customer> group : groups) {
+            System.out.println(group.stream()
+                    .map(c -> c.getId() + ": " + c.getFullName() + " / " + c.getPhone() + " / " + c.getLicenseNo())
+                    .collect(Collectors.joining("  |  ")));
+        }
+    }
+
+    static List<List<Customer>> groups(List<Customer> customers) {
+        List<Entry> entries = customers.parallelStream().map(Entry::new).collect(Collectors.toList());
+
+        Map<String, List<Integer>> blocks = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            if (e.phone != null) addTo(blocks, "T" + e.phone, i);
+            int half = e.license.length() / 2;
+            addTo(blocks, "P" + e.phonetic + "|" + e.license.substring(0, half), i);
+            addTo(blocks, "S" + e.phonetic + "|" + e.license.substring(half), i);
+        }
+
+        // Her çift iki sayının tek bir long'a paketlenmiş halidir (i << 32 | j).
+        long[] pairs = blocks.values().parallelStream()
+                .filter(block -> block.size() > 1 && block.size() <= MAX_BLOCK)
+                .flatMapToLong(block -> pairsIn(entries, block))
+                .toArray();
+
+        // Birleşim-bul (union-find): A~B ve B~C ise A, B, C aynı gruptadır.
+        int[] parent = new int[entries.size()];
+        Arrays.setAll(parent, i -> i);
+        for (long pair : pairs) union(parent, (int) (pair >>> 32), (int) pair);
+
+        Map<Integer, List<Customer>> byRoot = new HashMap<>();
+        for (long pair : pairs) {
+            byRoot.computeIfAbsent(find(parent, (int) (pair >>> 32)), k -> new ArrayList<>());
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            List<Customer> group = byRoot.get(find(parent, i));
+            if (group != null) group.add(entries.get(i).customer);
+        }
+        return new ArrayList<>(byRoot.values());
+    }
+
+    private static LongStream pairsIn(List<Entry> entries, List<Integer> block) {
+        LongStream.Builder out = LongStream.builder();
+        for (int a = 0; a < block.size(); a++) {
+            Entry x = entries.get(block.get(a));
+            for (int b = a + 1; b < block.size(); b++) {
+                if (isDuplicate(x, entries.get(block.get(b)))) out.add((long) block.get(a) << 32 | block.get(b));
+            }
+        }
+        return out.build();
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]]; // Yol kısaltma
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a), rb = find(parent, b);
+        if (ra != rb) parent[Math.max(ra, rb)] = Math.min(ra, rb);
+    }
+
+    private static void addTo(Map<String, List<Integer>> map, String key, int value) {
+        map.computeIfAbsent(key, k -> new ArrayList<>(2)).add(value);
+    }
+
+    // ==========================================
+    // 4. BENZERLİK KURALLARI VE ANAHTARLAR
+    // ==========================================
+
+    static boolean isDuplicate(Entry a, Entry b) {
+        boolean nameClose = a.phonetic.equals(b.phonetic) || distance(a.name, b.name, MAX_NAME_DISTANCE) <= MAX_NAME_DISTANCE;
+        if (!nameClose) return false;
+        return (a.phone != null && a.phone.equals(b.phone)) || oneDigitApart(a.license, b.license);
+    }
+
+    // Aynı uzunlukta ve en fazla tek karakteri farklı mı? (Ehliyet no yazım hatası)
+    private static boolean oneDigitApart(String a, String b) {
+        if (a.isEmpty() || a.length() != b.length()) return false;
+        int diff = 0;
+        for (int i = 0; i < a.length() && diff <= 1; i++) {
+            if (a.charAt(i) != b.charAt(i)) diff++;
+        }
+        return diff <= 1;
+    }
+
+    // Telefon: sadece rakamlar; ülke kodu (90) ve baştaki 0 atılır, son 10 hane alınır. Hane yoksa null.
+    static String normalizePhone(String phone) {
+        if (phone == null) return null;
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() > 10) digits = digits.substring(digits.length() - 10);
+        return digits.length() < 7 ? null : digits; // Eksik/anlamsız numaralar eşleştirmede kullanılmaz
+    }
+
+    // İsim: Türkçe küçük harf, aksansız (ç->c, ğ->g, ı->i, ö->o, ş->s, ü->u), sadece harfler ve tek boşluk.
+    static String foldName(String name) {
+        String lower = name == null ? "" : name.trim().toLowerCase(TR);
+        StringBuilder out = new StringBuilder(lower.length());
+        boolean gap = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue; // "i̇" gibi birleşik noktalar
+            char f = switch (c) {
+                case 'ç' -> 'c';
+                case 'ğ' -> 'g';
+                case 'ı', 'î' -> 'i';
+                case 'ö' -> 'o';
+                case 'ş' -> 's';
+                case 'ü', 'û' -> 'u';
+                case 'â' -> 'a';
+                default -> c;
+            };
+            if (!Character.isLetter(f)) {
+                gap = true;
+                continue;
+            }
+            if (gap && out.length() > 0) out.append(' ');
+            gap = false;
+            out.append(f);
+        }
+        return out.toString();
+    }
+
+    // Fonetik anahtar: Her kelime için ilk harf + ünsüz sınıfları; kelimeler alfabetik sıralanır.
+    // Yumuşak g okunmadığı için sadeleştirmeden ÖNCE atılır ("Tuğba" = "Tuba").
+    static String phoneticKey(String name) {
+        String folded = foldName(name == null ? "" : name.toLowerCase(TR).replace("ğ", ""));
+        String[] words = folded.split(" ");
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            StringBuilder key = new StringBuilder(word.length());
+            char last = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                char cls = isVowel(c) ? 0 : consonantClass(c);
+                if (i == 0) {
+                    key.append(cls == 0 ? c : cls); // İlk harf (ünlü veya h ise kendisi) her zaman kalır
+                    last = cls;
+                    continue;
+                }
+                if (isVowel(c) || c == 'y') { // Kelime içindeki y, ünlü gibi okunur ("Ayşe" = "Aişe")
+                    last = 0;
+                    continue;
+                }
+                if (cls == 0 || cls == last) continue; // Sessiz harf veya tekrar eden ünsüz
+                key.append(cls);
+                last = cls;
+            }
+            words[w] = key.toString();
+        }
+        Arrays.sort(words);
+        return String.join(" ", words);
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    // Telaffuzda karışan harfler aynı sınıfa düşer. 0 = anahtarda yer almaz (h).
+    private static char consonantClass(char c) {
+        return switch (c) {
+            case 'b', 'p' -> 'p';
+            case 'c', 'j' -> 'c';
+            case 'd', 't' -> 't';
+            case 'g', 'k', 'q', 'x' -> 'k';
+            case 'f', 'v', 'w' -> 'f';
+            case 's', 'z' -> 's';
+            case 'h' -> 0;
+            default -> c;
+        };
+    }
+
+    /**
+     * Levenshtein düzenleme mesafesi. 'limit' aşıldığı anlaşılınca erken döner (limit + 1).
+     * BK-ağacında gerçek mesafe gerektiği için orada limit olarak Integer.MAX_VALUE verilir.
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) return limit + 1;
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > limit) return limit + 1;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    // ==========================================
+    // 5. VERİ YAPILARI
+    // ==========================================
+
+    // Bir müşteri ve hesaplanmış anahtarları.
+    static final class Entry {
+        final Customer customer;
+        final String name;      // Sadeleştirilmiş isim
+        final String phonetic;  // Fonetik anahtar
+        final String phone;     // Normalize telefon (yoksa null)
+        final String license;   // Boşluk/tire atılmış, büyük harf ehliyet no
+
+        Entry(Customer customer) {
+            this.customer = customer;
+            this.name = foldName(customer.getFullName());
+            this.phonetic = phoneticKey(customer.getFullName());
+            this.phone = normalizePhone(customer.getPhone());
+            String license = customer.getLicenseNo() == null ? "" : customer.getLicenseNo();
+            this.license = license.replaceAll("[\\s-]", "").toUpperCase(TR);
+        }
+    }
+
+    // Anlık kontrol için canlı indeks.
+    private static final class Index {
+        final Map<Integer, Entry> byId = new HashMap<>();
+        final Map<String, List<Integer>> byPhone = new HashMap<>();
+        final Map<String, List<Integer>> byPhonetic = new HashMap<>();
+        final BkTree names = new BkTree();
+
+        void add(Entry e) {
+            int id = e.customer.getId();
+            byId.put(id, e);
+            if (e.phone != null) addTo(byPhone, e.phone, id);
+            addTo(byPhonetic, e.phonetic, id);
+            names.add(e.name, id);
+        }
+
+        // BK-ağacından silinemez; ağaçta kalan eski isim, byId üzerinden güncel kayıtla yeniden kontrol edilir.
+        void remove(int id) {
+            Entry e = byId.remove(id);
+            if (e == null) return;
+            if (e.phone != null) removeFrom(byPhone, e.phone, id);
+            removeFrom(byPhonetic, e.phonetic, id);
+        }
+
+        private static void removeFrom(Map<String, List<Integer>> map, String key, int id) {
+            List<Integer> ids = map.get(key);
+            if (ids == null) return;
+            ids.remove(Integer.valueOf(id));
+            if (ids.isEmpty()) map.remove(key);
+        }
+    }
+
+    /**
+     * BK-ağacı (Burkhard-Keller): Her düğümün çocukları, düğüme olan düzenleme mesafesine göre ayrılır.
+     * Üçgen eşitsizliği sayesinde, 'd' mesafesindeki bir düğümde sadece [d - r, d + r] aralığındaki
+     * çocuklara inilir; ağacın büyük kısmı hiç ziyaret edilmez.
+     * Bellek için çocuklar harita yerine bağlı liste (ilk çocuk + kardeş) olarak tutulur.
+     */
+    private static final class BkTree {
+        private static final class Node {
+            final String word;
+            int[] ids;
+            final int distance;  // Ebeveyne olan mesafe
+            Node child;
+            Node sibling;
+
+            Node(String word, int id, int distance) {
+                this.word = word;
+                this.ids = new int[]{id};
+                this.distance = distance;
+            }
+        }
+
+        private Node root;
+
+        void add(String word, int id) {
+            if (root == null) {
+                root = new Node(word, id, 0);
+                return;
+            }
+            Node node = root;
+            while (true) {
+                int d = distance(word, node.word, Integer.MAX_VALUE);
+                if (d == 0) {
+                    node.ids = Arrays.copyOf(node.ids, node.ids.length + 1);
+                    node.ids[node.ids.length - 1] = id;
+                    return;
+                }
+                Node c = node.child;
+                while (c != null && c.distance != d) c = c.sibling;
+                if (c == null) {
+                    Node added = new Node(word, id, d);
+                    added.sibling = node.child;
+                    node.child = added;
+                    return;
+                }
+                node = c;
+            }
+        }
+
+        void query(String word, int radius, IntConsumer out) {
+            if (root == null) return;
+            List<Node> stack = new ArrayList<>();
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.remove(stack.size() - 1);
+                int d = distance(word, node.word, Integer.MAX_VALUE);
+                if (d <= radius) {
+                    for (int id : node.ids) out.accept(id);
+                }
+                for (Node c = node.child; c != null; c = c.sibling) {
+                    if (c.distance >= d - radius && c.distance <= d + radius) stack.add(c);
+                }
+            }
+        }
+    }
+}
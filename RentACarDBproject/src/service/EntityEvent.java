@@ -0,0 +1,83 @@
+package service;
+
+import model.Customer;
+import model.Vehicle;
+
+import java.time.LocalDate;
+
+/**
+ * EntityEvent Sınıfı (Kayıt Değişikliği Olayı)
+ * --------------------------------------------
+ * Servis katmanı başarılı her yazmadan sonra EventBus'a bir olay bırakır; açık pencereler (MasterLists,
+ * TimelineView) değişikliği veritabanına tekrar gitmeden kendi listelerine uygular.
+ *
+ * Olay, yazan tarafın ZATEN elinde olan bilgiyi taşır:
+ *   SAVED       Araç / müşteri satırının yeni hali (INSERT/UPDATE ... RETURNING ile aynı sorguda okunur)
+ *   DELETED     Silinen kaydın ID'si
+ *   CREATED     Yeni rezervasyonun sütunları (Marka, müşteri adı vb. pencerenin kendi listelerinden bulunur)
+ *   TRANSITION  Rezervasyona uygulanan işlem (Yeni durum ReservationStateMachine ile hesaplanır)
+ *   REASSIGNED  Bekleyen rezervasyonun başka bir araca kaydırılması (VehicleAssigner)
+ *   STALE       Ayrıntısı bilinmeyen değişiklik (Toplu işlemler, istemci modunda eklemeler): Liste yeniden yüklenir
+ */
+public final class EntityEvent {
+
+    public enum Type { VEHICLE, CUSTOMER, RESERVATION }
+
+    public enum Kind { SAVED, DELETED, CREATED, TRANSITION, REASSIGNED, STALE }
+
+    public final Type type;
+    public final Kind kind;
+    public final int id;                                // Kaydın ID'si (STALE için 0)
+    public final Object row;                            // SAVED: Vehicle veya Customer
+    public final ReservationStateMachine.Action action; // TRANSITION
+    public final int customerId;                        // CREATED
+    public final int vehicleId;                         // CREATED, REASSIGNED
+    public final LocalDate startDate;                   // CREATED
+    public final LocalDate endDate;                     // CREATED
+
+    private EntityEvent(Type type, Kind kind, int id, Object row, ReservationStateMachine.Action action,
+                        int customerId, int vehicleId, LocalDate startDate, LocalDate endDate) {
+        this.type = type;
+        this.kind = kind;
+        this.id = id;
+        this.row = row;
+        this.action = action;
+        this.customerId = customerId;
+        this.vehicleId = vehicleId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public static EntityEvent saved(Vehicle v) {
+        return new EntityEvent(Type.VEHICLE, Kind.SAVED, v.getId(), v, null, 0, 0, null, null);
+    }
+
+    public static EntityEvent saved(Customer c) {
+        return new EntityEvent(Type.CUSTOMER, Kind.SAVED, c.getId(), c, null, 0, 0, null, null);
+    }
+
+    public static EntityEvent deleted(Type type, int id) {
+        return new EntityEvent(type, Kind.DELETED, id, null, null, 0, 0, null, null);
+    }
+
+    public static EntityEvent reservationCreated(int id, int customerId, int vehicleId, LocalDate start, LocalDate end) {
+        return new EntityEvent(Type.RESERVATION, Kind.CREATED, id, null, null, customerId, vehicleId, start, end);
+    }
+
+    public static EntityEvent transition(int reservationId, ReservationStateMachine.Action action) {
+        return new EntityEvent(Type.RESERVATION, Kind.TRANSITION, reservationId, null, action, 0, 0, null, null);
+    }
+
+    public static EntityEvent reassigned(int reservationId, int vehicleId) {
+        return new EntityEvent(Type.RESERVATION, Kind.REASSIGNED, reservationId, null, null, 0, vehicleId, null, null);
+    }
+
+    public static EntityEvent stale(Type type) {
+        return new EntityEvent(type, Kind.STALE, 0, null, null, 0, 0, null, null);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + kind + (id != 0 ? " #" + id : "") + (action != null ? " " + action : "");
+    }
+}
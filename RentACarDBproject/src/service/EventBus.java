@@ -0,0 +1,137 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * EventBus Sınıfı (Uygulama İçi Olay Yolu)
+ * ----------------------------------------
+ * Bir pencerede araç/müşteri/rezervasyon kaydedilince diğer açık pencereler eskiden "Yenile" ile tüm tabloyu
+ * tekrar çekene kadar eski veriyi gösteriyordu. Artık servisler başarılı her yazmadan sonra bir EntityEvent
+ * yayınlar; aboneler (MasterLists, TimelineView) olayları JavaFX iş parçacığında TOPLU olarak alır ve
+ * listelerine sadece farkı uygular (Veritabanına gidilmez).
+ *
+ * HALKA TAMPON (Ring Buffer, kilitsiz):
+ * - Yayınlayan, sıradaki numarayı CAS (compareAndSet) ile alır ve olayı o numaranın yuvasına yazar.
+ *   Herhangi bir iş parçacığı (arka plan yüklemeleri, sanal iş parçacıkları) kilit beklemeden yayınlayabilir.
+ * - Yuvanın "yayınlandı" numarası olay yazıldıktan SONRA konur; okuyan, numarası tutmayan yuvada durur
+ *   (Numarayı almış ama henüz yazmamış yayıncıyı bekler; o yazınca yeni bir teslimat planlanır).
+ * - Okuyan TEK iş parçacığıdır (Teslimat yürütücüsü; arayüzde Platform.runLater). Kuyrukta bekleyen teslimat
+ *   varken yeni teslimat planlanmaz: Arka arkaya gelen yüzlerce olay tek bir runLater ile, tek listede gelir.
+ * - Tampon dolarsa (arayüz donmuşsa) yeni olaylar yazılmaz; bir sonraki teslimatta her tür için STALE olayı
+ *   gönderilir ve aboneler listelerini baştan yükler. Hiçbir değişiklik sessizce kaybolmaz.
+ *
+ * Abone veya teslimat yürütücüsü yoksa (sunucu modu, komut satırı araçları) yayınlama hiçbir şey yapmaz.
+ */
+public final class EventBus {
+
+    // Yuva sayısı (2'nin kuvveti: Numaradan yuva bulmak için bölme yerine maske kullanılır).
+    static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+
+    private static final AtomicReferenceArray<EntityEvent> slots = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY); // Yuvadaki olayın numarası
+    private static final AtomicLong claimed = new AtomicLong(-1);   // Son alınan numara (yayıncılar)
+    private static final AtomicLong consumed = new AtomicLong(-1);  // Son teslim edilen numara (okuyan)
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private static final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private static final List<Consumer<List<EntityEvent>>> subscribers = new CopyOnWriteArrayList<>();
+    private static volatile Executor deliverer;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) published.set(i, -1);
+    }
+
+    private EventBus() {
+    }
+
+    // ==========================================
+    // 1. ABONELİK
+    // ==========================================
+
+    // Olayların teslim edileceği TEK iş parçacıklı yürütücü (Arayüzde: Platform::runLater).
+    public static void deliverOn(Executor executor) {
+        deliverer = executor;
+    }
+
+    // Abone, olayları yayınlanma sırasıyla, toplu liste halinde alır.
+    public static void subscribe(Consumer<List<EntityEvent>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public static void unsubscribe(Consumer<List<EntityEvent>> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    // ==========================================
+    // 2. YAYINLAMA (Her iş parçacığından)
+    // ==========================================
+
+    public static void publish(EntityEvent event) {
+        if (deliverer == null || subscribers.isEmpty()) return;
+        long seq;
+        do {
+            seq = claimed.get() + 1;
+            // Yuva, okuyanın henüz teslim etmediği bir olayı taşıyorsa tampon doludur.
+            if (seq - consumed.get() > CAPACITY) {
+                overflowed.set(true);
+                scheduleDrain();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq - 1, seq));
+
+        int slot = (int) (seq & MASK);
+        slots.set(slot, event);
+        published.set(slot, seq); // Olay yazıldıktan sonra görünür olur
+        scheduleDrain();
+    }
+
+    public static void publish(EntityEvent... events) {
+        for (EntityEvent e : events) publish(e);
+    }
+
+    private static void scheduleDrain() {
+        Executor executor = deliverer;
+        if (executor != null && drainScheduled.compareAndSet(false, true)) executor.execute(EventBus::drain);
+    }
+
+    // ==========================================
+    // 3. TESLİMAT (Tek okuyan)
+    // ==========================================
+
+    private static void drain() {
+        // Bayrak okumadan ÖNCE indirilir: Okuma sırasında yayınlanan olay yeni bir teslimat planlar.
+        drainScheduled.set(false);
+        List<EntityEvent> batch = new ArrayList<>();
+        long next = consumed.get() + 1;
+        while (true) {
+            int slot = (int) (next & MASK);
+            if (published.get(slot) != next) break;
+            batch.add(slots.getAndSet(slot, null));
+            next++;
+        }
+        consumed.set(next - 1);
+        if (overflowed.getAndSet(false)) {
+            for (EntityEvent.Type type : EntityEvent.Type.values()) batch.add(EntityEvent.stale(type));
+        }
+        if (batch.isEmpty()) return;
+
+        List<EntityEvent> events = Collections.unmodifiableList(batch);
+        for (Consumer<List<EntityEvent>> s : subscribers) {
+            try {
+                s.accept(events);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // Bir abonenin hatası diğerlerini engellemesin
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package service;
+
+import model.Branch;
+import model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * FleetRebalancer Sınıfı (Filo Dengeleme)
+ * ---------------------------------------
+ * Tek yön kiralamalarda araçlar bırakıldıkları şubelerde birikir; alındıkları şubelerde ise eksik kalır.
+ * Bu sınıf, önümüzdeki birkaç gün için her şubenin FAZLA ve EKSİK araç sayısını tahmin eder ve
+ * fazlalıkları eksiklere EN DÜŞÜK TOPLAM TRANSFER MALİYETİYLE taşıyan planı hesaplar.
+ *
+ * Tahmin (ufuk = bugün + horizonDays):
+ * - Elde olan: Şubede fiziksel olarak duran kullanılabilir araçlar (AVAILABLE / RESERVED)
+ *              + ufuk içinde o şubeye bırakılacak açık kiralamalar.
+ * - Gereken:   Ufuk içinde başlayan rezervasyonlar için o şubeye ait araç sayısı (aynı araç bir kez sayılır).
+ * Fark pozitifse şube FAZLA, negatifse EKSİK verir.
+ *
+ * Plan, minimum maliyetli akış (min-cost flow) ile çözülür:
+ *   Kaynak -> fazla şubeler (kapasite = fazla) -> eksik şubeler (maliyet = transfer ücreti) -> Hedef (kapasite = eksik)
+ * En kısa artırma yolları (successive shortest paths) + Dijkstra (Johnson potansiyelleri) kullanılır.
+ * Yüzlerce şube ve binlerce araç için çözüm milisaniyeler sürer; birkaç dakikada bir yeniden çalıştırılabilir.
+ *
+ * Çalıştırma: java service.FleetRebalancer [ufuk gün]   [tekrar dakika]   (varsayılan 3 gün, tek sefer)
+ */
+public final class FleetRebalancer {
+
+    public static final int DEFAULT_HORIZON_DAYS = 3;
+
+    // branch_transfer_cost tablosunda olmayan şube çiftleri için araç başına varsayılan maliyet (kuruş).
+    static final long SAME_CITY_COST = 250_00;
+    static final long OTHER_CITY_COST = 2_500_00;
+
+    private FleetRebalancer() {
+    }
+
+    // ==========================================
+    // SONUÇ
+    // ==========================================
+
+    // Bir şubeden diğerine taşınacak araç sayısı.
+    public static final class Transfer {
+        public final Branch from;
+        public final Branch to;
+        public final int vehicles;
+        public final long costKurus; // Toplam (araç başı maliyet * araç sayısı)
+
+        Transfer(Branch from, Branch to, int vehicles, long costKurus) {
+            this.from = from;
+            this.to = to;
+            this.vehicles = vehicles;
+            this.costKurus = costKurus;
+        }
+
+        @Override
+        public String toString() {
+            return from.getName() + " -> " + to.getName() + ": " + vehicles + " araç (" + Money.format(costKurus) + ")";
+        }
+    }
+
+    public static final class Plan {
+        public final List<Transfer> transfers;
+        public final long totalCostKurus;
+        public final int unmetDeficit; // Fazla araç yetmediği için karşılanamayan eksik
+
+        Plan(List<Transfer> transfers, long totalCostKurus, int unmetDeficit) {
+            this.transfers = transfers;
+            this.totalCostKurus = totalCostKurus;
+            this.unmetDeficit = unmetDeficit;
+        }
+    }
+
+    // ==========================================
+    // 1. PLAN
+    // ==========================================
+
+    public static Plan plan(int horizonDays) throws Exception {
+        AuthService.requireAdmin();
+        try (Connection conn = Db.getReadConnection()) {
+            return plan(conn, horizonDays);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int horizon = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_HORIZON_DAYS;
+        int everyMinutes = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        while (true) {
+            long start = System.nanoTime();
+            Plan plan;
+            try (Connection conn = Db.getReadConnection()) {
+                plan = plan(conn, horizon);
+            }
+            System.out.printf("[Filo Dengeleme] %d günlük ufuk, %d transfer, toplam %s, karşılanamayan eksik: %d (%.0f ms)%n",
+                    horizon, plan.transfers.size(), Money.format(plan.totalCostKurus), plan.unmetDeficit,
+                    (System.nanoTime() - start) / 1e6);
+            plan.transfers.forEach(t -> System.out.println("  " + t));
+            if (everyMinutes <= 0) return;
+            Thread.sleep(everyMinutes * 60_000L);
+        }
+    }
+
+    private static Plan plan(Connection conn, int horizonDays) throws SQLException {
+        List<Branch> branches = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT branch_id, branch_name, branch_city FROM branch ORDER BY branch_id");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) branches.add(new Branch(rs.getInt(1), rs.getString(2), rs.getString(3)));
+        }
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < branches.size(); i++) index.put(branches.get(i).getId(), i);
+
+        int[] balance = new int[branches.size()];
+        // Elde olan: Şubede duran kullanılabilir araçlar + ufuk içinde o şubeye bırakılacaklar.
+        addCounts(conn, index, balance, +1, null,
+                "SELECT current_branch_id, COUNT(*) FROM vehicle " +
+                "WHERE vehicle_status IN ('AVAILABLE', 'RESERVED') GROUP BY current_branch_id");
+        addCounts(conn, index, balance, +1, horizonDays,
+                "SELECT rt.dropoff_branch_id, COUNT(*) FROM rental rt JOIN reservation r ON r.reservation_id = rt.reservation_id " +
+                "WHERE rt.return_date IS NULL AND r.end_date <= CURRENT_DATE + ? GROUP BY rt.dropoff_branch_id");
+        // Gereken: Ufuk içinde başlayan rezervasyonların şubeleri (aracın bağlı olduğu şube).
+        addCounts(conn, index, balance, -1, horizonDays,
+                "SELECT v.branch_id, COUNT(DISTINCT r.vehicle_id) FROM reservation r JOIN vehicle v ON v.vehicle_id = r.vehicle_id " +
+                "WHERE r.reservation_status IN ('PENDING', 'APPROVED') AND r.end_date >= CURRENT_DATE " +
+                "AND r.start_date <= CURRENT_DATE + ? GROUP BY v.branch_id");
+
+        return solve(branches, balance, loadCosts(conn, branches, index));
+    }
+
+    private static void addCounts(Connection conn, Map<Integer, Integer> index, int[] balance, int sign,
+                                  Integer horizonDays, String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (horizonDays != null) ps.setInt(1, horizonDays);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer i = index.get(rs.getInt(1));
+                    if (i != null) balance[i] += sign * rs.getInt(2);
+                }
+            }
+        }
+    }
+
+    // Şubeler arası araç başı maliyet (kuruş): Önce tablo, yoksa şehir bazlı varsayılan.
+    private static long[][] loadCosts(Connection conn, List<Branch> branches, Map<Integer, Integer> index) throws SQLException {
+        int n = branches.size();
+        long[][] cost = new long[n][n];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                if (a == b) continue;
+                boolean sameCity = branches.get(a).getCity() != null && branches.get(a).getCity().equalsIgnoreCase(branches.get(b).getCity());
+                cost[a][b] = sameCity ? SAME_CITY_COST : OTHER_CITY_COST;
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("SELECT from_branch_id, to_branch_id, cost FROM branch_transfer_cost");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Integer a = index.get(rs.getInt(1)), b = index.get(rs.getInt(2));
+                if (a != null && b != null) cost[a][b] = Money.toKurus(rs.getBigDecimal(3));
+            }
+        }
+        return cost;
+    }
+
+    // ==========================================
+    // 2. ÇÖZÜCÜ (Veritabanından bağımsız)
+    // ==========================================
+
+    /**
+     * @param balance Şube başına (elde olan - gereken). Pozitif = fazla, negatif = eksik.
+     * @param cost    cost[a][b] = a şubesinden b şubesine araç başı maliyet (kuruş)
+     */
+    static Plan solve(List<Branch> branches, int[] balance, long[][] cost) {
+        int n = branches.size();
+        List<Integer> surplus = new ArrayList<>(), deficit = new ArrayList<>();
+        int totalDeficit = 0;
+        for (int i = 0; i < n; i++) {
+            if (balance[i] > 0) surplus.add(i);
+            else if (balance[i] < 0) {
+                deficit.add(i);
+                totalDeficit -= balance[i];
+            }
+        }
+
+        // Düğümler: 0 = kaynak, 1..S = fazla şubeler, S+1..S+D = eksik şubeler, S+D+1 = hedef
+        int s = surplus.size(), d = deficit.size();
+        int source = 0, sink = s + d + 1;
+        MinCostFlow flow = new MinCostFlow(s + d + 2, s + d + s * d);
+        for (int i = 0; i < s; i++) flow.addEdge(source, 1 + i, balance[surplus.get(i)], 0);
+        for (int j = 0; j < d; j++) flow.addEdge(1 + s + j, sink, -balance[deficit.get(j)], 0);
+        int[][] edge = new int[s][d];
+        for (int i = 0; i < s; i++) {
+            for (int j = 0; j < d; j++) {
+                edge[i][j] = flow.addEdge(1 + i, 1 + s + j, Integer.MAX_VALUE, cost[surplus.get(i)][deficit.get(j)]);
+            }
+        }
+        int moved = flow.run(source, sink);
+
+        List<Transfer> transfers = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < s; i++) {
+            for (int j = 0; j < d; j++) {
+                int count = flow.flowOn(edge[i][j]);
+                if (count == 0) continue;
+                long c = count * cost[surplus.get(i)][deficit.get(j)];
+                transfers.add(new Transfer(branches.get(surplus.get(i)), branches.get(deficit.get(j)), count, c));
+                total += c;
+            }
+        }
+        return new Plan(transfers, total, totalDeficit - moved);
+    }
+
+    /**
+     * Minimum maliyetli akış: En kısa artırma yolları + potansiyelli Dijkstra.
+     * Kenarlar dizilerde tutulur; her kenarın ters kenarı bir sonraki indekstedir (e ^ 1).
+     */
+    static final class MinCostFlow {
+        private final int nodes;
+        private final int[] head, next, to, cap;
+        private final long[] cost;
+        private int edges;
+
+        MinCostFlow(int nodes, int maxEdges) {
+            this.nodes = nodes;
+            head = new int[nodes];
+            Arrays.fill(head, -1);
+            next = new int[maxEdges * 2];
+            to = new int[maxEdges * 2];
+            cap = new int[maxEdges * 2];
+            cost = new long[maxEdges * 2];
+        }
+
+        // Kenarın indeksini döner (akış sonradan flowOn ile okunur).
+        int addEdge(int from, int toNode, int capacity, long edgeCost) {
+            int e = edges;
+            link(from, toNode, capacity, edgeCost);
+            link(toNode, from, 0, -edgeCost);
+            return e;
+        }
+
+        private void link(int from, int toNode, int capacity, long edgeCost) {
+            to[edges] = toNode;
+            cap[edges] = capacity;
+            cost[edges] = edgeCost;
+            next[edges] = head[from];
+            head[from] = edges++;
+        }
+
+        int flowOn(int edge) {
+            return cap[edge ^ 1]; // Ters kenarın kapasitesi = geçen akış
+        }
+
+        // Kaynaktan hedefe gönderilebilen en fazla akışı en düşük maliyetle gönderir; gönderilen miktarı döner.
+        int run(int source, int sink) {
+            long[] potential = new long[nodes]; // Başlangıçta tüm maliyetler >= 0, potansiyel 0 olabilir
+            long[] dist = new long[nodes];
+            int[] prevEdge = new int[nodes];
+            int total = 0;
+            while (true) {
+                Arrays.fill(dist, Long.MAX_VALUE);
+                Arrays.fill(prevEdge, -1);
+                dist[source] = 0;
+                PriorityQueue<long[]> queue = new PriorityQueue<>((x, y) -> Long.compare(x[0], y[0]));
+                queue.add(new long[]{0, source});
+                while (!queue.isEmpty()) {
+                    long[] top = queue.poll();
+                    int u = (int) top[1];
+                    if (top[0] > dist[u]) continue;
+                    for (int e = head[u]; e != -1; e = next[e]) {
+                        if (cap[e] == 0) continue;
+                        int v = to[e];
+                        long nd = dist[u] + cost[e] + potential[u] - potential[v];
+                        if (nd < dist[v]) {
+                            dist[v] = nd;
+                            prevEdge[v] = e;
+                            queue.add(new long[]{nd, v});
+                        }
+                    }
+                }
+                if (dist[sink] == Long.MAX_VALUE) return total;
+                for (int v = 0; v < nodes; v++) {
+                    if (dist[v] != Long.MAX_VALUE) potential[v] += dist[v];
+                }
+
+                // Yol üzerindeki en dar kapasite kadar akış gönder.
+                int push = Integer.MAX_VALUE;
+                for (int v = sink; v != source; v = to[prevEdge[v] ^ 1]) push = Math.min(push, cap[prevEdge[v]]);
+                for (int v = sink; v != source; v = to[prevEdge[v] ^ 1]) {
+                    cap[prevEdge[v]] -= push;
+                    cap[prevEdge[v] ^ 1] += push;
+                }
+                total += push;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IdGaps Sınıfı (Artımlı Okumada Henüz Görünmeyen ID'ler)
+ * -------------------------------------------------------
+ * Artımlı okuyucular (ReservationColumnStore, DemandForecaster) rezervasyonları "son okunan ID'den büyük"
+ * diye çeker. Ancak ID, sıradan (sequence) işlem İÇİNDE alınır; satır ise işlem ONAYLANINCA görünür:
+ * Küçük ID alan bir işlem (addReservation, bookClass), büyük ID alan bir işlemden SONRA onaylanabilir.
+ * Sadece en büyük ID izlenseydi bu satır bir daha hiç okunmazdı.
+ *
+ * Bu yüzden okunan aralıktaki eksik ID'ler (boşluklar) saklanır ve sonraki okumalarda tekrar sorulur:
+ *   - Satır görünmüşse (geç onaylanan işlem) okunur ve boşluk kapanır.
+ *   - O ID'yi tutabilecek işlemlerin hepsi bitmişse (geri alınmış ekleme, silinmiş kayıt) boşluk unutulur.
+ *     Bu, işlem kimlikleriyle (txid) anlaşılır: Boşluk ilk tekrar sorulduğunda anlık görüntünün (snapshot) xmax'ı
+ *     "ufuk" olarak saklanır. Sonraki bir okumanın sorgusundan ÖNCE en eski açık işlem (xmin) ufku geçmişse,
+ *     boşluğu tutan işlem bitmiştir; onaylanmış olsaydı o sorguda görünürdü.
+ *     (Ufuk, boşluğun bulunduğu okumada değil ilk tekrar soruluşta alınır: ID'yi almış ama henüz işlem kimliği
+ *     almamış bir işlem de kapsansın.)
+ *
+ * Kullanım: begin() -> okuma sorgusu 'id > lastId() OR id = ANY(recheck())', ID SIRASIYLA -> her satır için seen()
+ * -> finish(). Okuma hata verirse finish() çağrılmaz; durum değişmez ve sonraki okuma aynı aralığı tekrar okur.
+ */
+final class IdGaps {
+
+    // Tek seferde bu kadardan büyük ID atlaması eşzamanlı işlemlerle açıklanamaz (Sıra elle ileri alınmış):
+    // Atlamanın bu kadarlık son kısmı boşluk olarak tutulur, geri kalanı için bellek harcanmaz.
+    private static final int MAX_GAP_RUN = 10_000;
+
+    private final Map<Integer, Long> gaps = new HashMap<>(); // ID -> ufuk (0: henüz tekrar sorulmadı)
+    private int lastId;
+
+    // Süren okumanın sonuçları (finish() ile uygulanır)
+    private int next;
+    private final List<Integer> found = new ArrayList<>();
+    private final List<Integer> added = new ArrayList<>();
+
+    IdGaps(int lastId) {
+        this.lastId = lastId;
+    }
+
+    // Tamamı okunmuş en büyük ID (Boşluklar hariç).
+    int lastId() {
+        return lastId;
+    }
+
+    // Kalıcı olarak saklanan boşluğu geri yükler (DemandForecaster).
+    void put(int id, long horizon) {
+        gaps.put(id, horizon);
+    }
+
+    // Saklanacak boşluklar (ID -> ufuk, 0: henüz tekrar sorulmadı).
+    Map<Integer, Long> gaps() {
+        return gaps;
+    }
+
+    // Bu okumada tekrar sorulacak ID'ler ('= ANY(?)' için).
+    Integer[] recheck() {
+        return gaps.keySet().toArray(new Integer[0]);
+    }
+
+    void begin() {
+        next = lastId + 1;
+        found.clear();
+        added.clear();
+    }
+
+    // Okunan satırın ID'si (ID sırasıyla çağrılmalıdır). Satır tekrar sorulan bir boşluksa true döner.
+    boolean seen(int id) {
+        if (id <= lastId) {
+            found.add(id);
+            return true;
+        }
+        for (int g = Math.max(next, id - MAX_GAP_RUN); g < id; g++) added.add(g);
+        next = Math.max(next, id + 1);
+        return false;
+    }
+
+    /**
+     * Okuma başarıyla bitti.
+     *
+     * @param xminBefore Okuma sorgusundan ÖNCE alınan anlık görüntünün en eski açık işlemi.
+     * @param xmaxAfter  Okuma sorgusundan SONRA alınan anlık görüntünün xmax'ı.
+     */
+    void finish(long xminBefore, long xmaxAfter) {
+        for (Integer id : found) gaps.remove(id);
+        gaps.values().removeIf(horizon -> horizon != 0 && xminBefore > horizon);
+        gaps.replaceAll((id, horizon) -> horizon == 0 ? xmaxAfter : horizon);
+        for (Integer id : added) gaps.put(id, 0L);
+        lastId = Math.max(lastId, next - 1);
+    }
+
+    // Bağlantının şu anki anlık görüntüsü: {xmin, xmax} (Yedek sunucuda da çalışır).
+    static long[] snapshot(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT txid_snapshot_xmin(s), txid_snapshot_xmax(s) FROM txid_current_snapshot() s")) {
+            rs.next();
+            return new long[]{rs.getLong(1), rs.getLong(2)};
+        }
+    }
+}
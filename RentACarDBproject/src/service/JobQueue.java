@@ -0,0 +1,187 @@
+package service;
+
+import server.Json;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JobQueue Sınıfı (Kalıcı İş Kuyruğu)
+ * -----------------------------------
+ * Arka plan işlerini PostgreSQL'deki 'job' tablosunda tutar (db/10_job_queue.sql). Ayrı bir mesaj kuyruğu
+ * sunucusu gerekmez; iş eklemek, onu tetikleyen değişiklikle AYNI işlemde (transaction) yapılabilir.
+ *
+ * - Alma (claim): Vadesi gelmiş işler tek bir UPDATE ile toplu alınır. Alt sorgu 'FOR UPDATE SKIP LOCKED'
+ *   kullanır; aynı anda kuyruğa bakan diğer çalışanlar (başka JVM'ler dahil) birbirini beklemez.
+ * - Görünmezlik süresi: Alınan işin vadesi şimdi + süre yapılır. Çalışan bu sürede bitiremezse iş
+ *   kendiliğinden tekrar alınabilir hale gelir (Ayrı bir temizlik süreci gerekmez).
+ * - Tekrar deneme: Hata alan iş üstel artan bekleme (backoff + rastgele sapma) ile tekrar sıraya girer;
+ *   deneme hakkı bitince FAILED olur.
+ * - Sahiplik: İş, alındığı deneme numarasıyla kapatılır. Süresi dolup başka çalışana geçmiş bir iş,
+ *   eski çalışan tarafından DONE yapılamaz (İşin veritabanı değişiklikleri de geri alınır).
+ */
+public final class JobQueue {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    // Tekrar denemeler arası bekleme: 10 sn, 20 sn, 40 sn ... en fazla 1 saat.
+    static final long BACKOFF_BASE_SECONDS = 10;
+    static final long BACKOFF_MAX_SECONDS = 3600;
+
+    private JobQueue() {
+    }
+
+    // Kuyruktan alınmış bir iş.
+    public static final class Job {
+        public final long id;
+        public final String type;
+        public final Map<String, Object> payload;
+        public final int attempt;      // Bu çalıştırma kaçıncı deneme (1'den başlar)
+        public final int maxAttempts;
+        public final String uniqueKey; // null olabilir
+        final String payloadJson;      // Periyodik işin sonraki çalışmasına aynen aktarılır
+
+        Job(long id, String type, String payloadJson, int attempt, int maxAttempts, String uniqueKey) {
+            this.id = id;
+            this.type = type;
+            this.payloadJson = payloadJson;
+            this.payload = Json.parseObject(payloadJson);
+            this.attempt = attempt;
+            this.maxAttempts = maxAttempts;
+            this.uniqueKey = uniqueKey;
+        }
+
+        @Override
+        public String toString() {
+            return type + " #" + id + " (deneme " + attempt + "/" + maxAttempts + ")";
+        }
+    }
+
+    // ==========================================
+    // 1. İŞ EKLEME
+    // ==========================================
+
+    // İşi hemen çalışacak şekilde sıraya koyar.
+    public static void enqueue(String type, String payloadJson) throws SQLException {
+        try (Connection conn = Db.getConnection()) {
+            enqueue(conn, type, payloadJson, Duration.ZERO, null, DEFAULT_MAX_ATTEMPTS);
+        }
+    }
+
+    /**
+     * İşi çağıranın bağlantısıyla (ve işlemiyle) sıraya koyar: İşlem geri alınırsa iş de eklenmez.
+     *
+     * @param delay     İşin en erken ne kadar sonra çalışacağı
+     * @param uniqueKey Doluysa, aynı anahtarla sırada/çalışan bir iş varken yenisi EKLENMEZ
+     * @return İş eklendiyse true
+     */
+    public static boolean enqueue(Connection conn, String type, String payloadJson, Duration delay,
+                                  String uniqueKey, int maxAttempts) throws SQLException {
+        String sql = "INSERT INTO job (job_type, payload, run_at, unique_key, max_attempts) " +
+                "VALUES (?, ?, now() + make_interval(secs => ?), ?, ?) " +
+                "ON CONFLICT (unique_key) WHERE status IN ('QUEUED', 'RUNNING') DO NOTHING";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, type);
+            ps.setString(2, payloadJson == null ? "{}" : payloadJson);
+            ps.setDouble(3, delay.toMillis() / 1000.0);
+            if (uniqueKey == null) ps.setNull(4, Types.VARCHAR); else ps.setString(4, uniqueKey);
+            ps.setInt(5, maxAttempts);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    // ==========================================
+    // 2. ALMA / BİTİRME (JobWorker kullanır)
+    // ==========================================
+
+    /**
+     * Vadesi gelmiş en fazla 'limit' işi alır (Sadece verilen türler). Alınan işler RUNNING olur ve
+     * 'visibility' süresi boyunca diğer çalışanlara görünmez. Bağlantı autoCommit modunda olmalıdır.
+     */
+    static List<Job> claim(Connection conn, Collection<String> types, int limit, String workerId, Duration visibility) throws SQLException {
+        String sql = "UPDATE job j SET status = 'RUNNING', attempts = j.attempts + 1, locked_by = ?, " +
+                "run_at = now() + make_interval(secs => ?) " +
+                "FROM (SELECT job_id FROM job WHERE status IN ('QUEUED', 'RUNNING') AND run_at <= now() AND job_type = ANY(?) " +
+                "ORDER BY run_at LIMIT ? FOR UPDATE SKIP LOCKED) due " +
+                "WHERE j.job_id = due.job_id " +
+                "RETURNING j.job_id, j.job_type, j.payload, j.attempts, j.max_attempts, j.unique_key";
+        List<Job> jobs = new ArrayList<>();
+        Array typeArray = conn.createArrayOf("varchar", types.toArray());
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, workerId);
+            ps.setDouble(2, visibility.toMillis() / 1000.0);
+            ps.setArray(3, typeArray);
+            ps.setInt(4, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    jobs.add(new Job(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getInt(4), rs.getInt(5), rs.getString(6)));
+                }
+            }
+        } finally {
+            typeArray.free();
+        }
+        return jobs;
+    }
+
+    /**
+     * İşi DONE yapar. İşin kendi değişiklikleriyle AYNI işlemde çağrılır.
+     * @return false: İşin görünmezlik süresi dolmuş ve başka bir çalışana geçmiş (İşlem geri alınmalı)
+     */
+    static boolean complete(Connection conn, Job job) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE job SET status = 'DONE', finished_at = now(), locked_by = NULL " +
+                "WHERE job_id = ? AND attempts = ? AND status = 'RUNNING'")) {
+            ps.setLong(1, job.id);
+            ps.setInt(2, job.attempt);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Hata alan işi bekleme süresi sonunda tekrar sıraya koyar; deneme hakkı bittiyse FAILED yapar.
+     * @return İş kalıcı olarak FAILED olduysa true
+     */
+    static boolean fail(Connection conn, Job job, String error) throws SQLException {
+        boolean last = job.attempt >= job.maxAttempts;
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE job SET status = ?, last_error = ?, locked_by = NULL, " +
+                "run_at = now() + make_interval(secs => ?), finished_at = CASE WHEN ? THEN now() END " +
+                "WHERE job_id = ? AND attempts = ? AND status = 'RUNNING'")) {
+            ps.setString(1, last ? "FAILED" : "QUEUED");
+            ps.setString(2, error);
+            ps.setDouble(3, last ? 0 : backoffSeconds(job.attempt));
+            ps.setBoolean(4, last);
+            ps.setLong(5, job.id);
+            ps.setInt(6, job.attempt);
+            return ps.executeUpdate() == 1 && last;
+        }
+    }
+
+    // n. denemeden sonra bekleme: taban * 2^(n-1), üst sınırlı, +-%20 rastgele (Aynı anda düşen işler aynı anda dönmesin).
+    static double backoffSeconds(int attempt) {
+        double seconds = Math.min(BACKOFF_MAX_SECONDS, BACKOFF_BASE_SECONDS * Math.pow(2, Math.min(attempt - 1, 20)));
+        return seconds * ThreadLocalRandom.current().nextDouble(0.8, 1.2);
+    }
+
+    // ==========================================
+    // 3. TEMİZLİK (job.purge)
+    // ==========================================
+
+    // Belirtilen günden eski DONE/FAILED kayıtları siler.
+    static int purgeFinished(Connection conn, int keepDays) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM job WHERE status IN ('DONE', 'FAILED') " +
+                "AND finished_at < now() - make_interval(days => ?)")) {
+            ps.setInt(1, keepDays);
+            return ps.executeUpdate();
+        }
+    }
+}
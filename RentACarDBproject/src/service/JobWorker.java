@@ -0,0 +1,224 @@
+package service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JobWorker Sınıfı (İş Kuyruğu Çalışan Havuzu)
+ * --------------------------------------------
+ * 'job' tablosundaki işleri (JobQueue) alıp çalıştıran iş parçacıkları. Aynı veritabanına bağlı istediğiniz
+ * kadar JVM'de çalıştırılabilir; işler SKIP LOCKED ile paylaşıldığı için aynı iş iki çalışana düşmez.
+ *
+ * Her iş parçacığı:
+ *   1. Vadesi gelmiş TEK işi alır (Sıra boşsa kısa bir süre uyur). Görünmezlik süresi iş alınınca başlar;
+ *      toplu alınsaydı sıradaki işlerin süresi öncekiler çalışırken dolar, iş iki çalışana düşebilirdi,
+ *   2. Her işi kendi işleminde (transaction) çalıştırır; işin değişiklikleri ve DONE işareti birlikte kaydedilir,
+ *   3. Hata olursa değişiklikler geri alınır, iş bekleme süresiyle tekrar sıraya girer.
+ *
+ * Periyodik işler (registerRecurring) tekil anahtarla kuyruğa konur; biten iş bir sonraki çalışmayı
+ * aynı işlemde sıraya koyar. Böylece birden çok JVM olsa da periyodik iş aynı anda tek kopya çalışır.
+ *
+ * Hazır iş türleri (registerDefaults):
+ *   reservation.expire-pending  Başlangıç günü geçmiş, onaylanmamış rezervasyonları iptal eder (saatte bir)
+ *   demand.forecast             Talep tahminini artımlı günceller (günde bir)
+ *   job.purge                   Bir haftadan eski biten işleri siler (günde bir)
+ *   notification.reminders      Teslim/iade SMS hatırlatmalarını gönderir (beş dakikada bir, ReminderDispatcher;
+ *                               sadece '-Drentacar.sms.gateway' tanımlıysa)
+ *   reservation.archive         Eski biten/iptal rezervasyonları arşive taşır (günde bir, ArchiveService)
+ *   telemetry.partitions        Telemetri tablosunun gelecek ay bölümünü açar, eskilerini siler (günde bir, TelemetryService)
+ *
+ * Başlatma: java service.JobWorker [iş parçacığı sayısı]   (varsayılan 2)
+ * Sunucu modunda (ApiServer) havuz kendiliğinden başlar; '-Drentacar.jobs.workers=0' ile kapatılır.
+ */
+public final class JobWorker {
+
+    public static final int DEFAULT_THREADS = 2;
+
+    // İş bu süre içinde bitmezse başka bir çalışan tarafından tekrar alınabilir.
+    static final Duration VISIBILITY_TIMEOUT = Duration.ofMinutes(5);
+
+    // Sıra boşken yoklama aralığı (Her boş yoklamada iki katına çıkar, iş gelince sıfırlanır).
+    static final long MIN_POLL_MILLIS = 500;
+    static final long MAX_POLL_MILLIS = 10_000;
+
+    // İşin yapacağı asıl iş. Verilen bağlantı açık bir işlem içindedir (autoCommit = false);
+    // commit/rollback'i JobWorker yapar. Hata fırlatan iş tekrar denenir.
+    @FunctionalInterface
+    public interface Handler {
+        void run(Connection conn, JobQueue.Job job) throws Exception;
+    }
+
+    private final Map<String, Handler> handlers = new LinkedHashMap<>();
+    private final Map<String, Duration> recurring = new LinkedHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName(); // "pid@host"
+    private volatile boolean running;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        JobWorker worker = new JobWorker();
+        worker.registerDefaults();
+        worker.start(threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(worker::stop));
+        System.out.println("[İş Kuyruğu] " + threads + " çalışan başladı: " + worker.handlers.keySet());
+    }
+
+    // ==========================================
+    // 1. İŞ TÜRLERİ
+    // ==========================================
+
+    public void register(String type, Handler handler) {
+        handlers.put(type, handler);
+    }
+
+    // Her 'every' sürede bir çalışan iş. İlk çalışma havuz başlar başlamaz yapılır.
+    public void registerRecurring(String type, Duration every, Handler handler) {
+        register(type, handler);
+        recurring.put(type, every);
+    }
+
+    public void registerDefaults() {
+        registerRecurring("reservation.expire-pending", Duration.ofHours(1), (conn, job) -> {
+            Object grace = job.payload.get("graceDays");
+            int cancelled = ReservationService.expireStalePending(conn, grace instanceof Number ? ((Number) grace).intValue() : 0);
+            if (cancelled > 0) System.out.println("[İş Kuyruğu] Süresi dolan " + cancelled + " bekleyen rezervasyon iptal edildi.");
+        });
+        registerRecurring("demand.forecast", Duration.ofDays(1), (conn, job) ->
+                System.out.println("[İş Kuyruğu] Talep tahmini: " + DemandForecaster.update(conn, false)));
+        registerRecurring("job.purge", Duration.ofDays(1), (conn, job) -> JobQueue.purgeFinished(conn, 7));
+
+        // Dağıtıcı kendi bağlantılarını kullanır: Gönderim durumu, iş geri alınsa bile kalıcı olmalıdır.
+        // Gerçek sağlayıcı tanımlı değilse iş kaydedilmez (Hatırlatmalar QUEUED bekler, sahte gönderimle SENT olmaz).
+        NotificationGateway gateway;
+        try {
+            gateway = ReminderDispatcher.configuredGateway();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("SMS sağlayıcısı yüklenemedi: " + e.getMessage(), e);
+        }
+        if (gateway != null) {
+            ReminderDispatcher reminders = new ReminderDispatcher(gateway);
+            registerRecurring("notification.reminders", Duration.ofMinutes(5), (conn, job) -> {
+                ReminderDispatcher.Result result = reminders.tick();
+                if (result.created + result.sent + result.retried + result.failed + result.skipped > 0) System.out.println("[İş Kuyruğu] Hatırlatmalar: " + result);
+            });
+        }
+
+        // Arşiv de kendi bağlantılarını kullanır: Her parça ayrı işlemdir, taşınanlar iş hata verse bile arşivde kalır.
+        registerRecurring("reservation.archive", Duration.ofDays(1), (conn, job) -> {
+            Object days = job.payload.get("ageDays");
+            int moved = ArchiveService.archive(days instanceof Number ? ((Number) days).intValue() : ArchiveService.DEFAULT_AGE_DAYS);
+            if (moved > 0) System.out.println("[İş Kuyruğu] " + moved + " eski rezervasyon arşivlendi.");
+        });
+        registerRecurring("telemetry.partitions", Duration.ofDays(1), (conn, job) -> {
+            int dropped = TelemetryService.maintainPartitions(conn);
+            if (dropped > 0) System.out.println("[İş Kuyruğu] " + dropped + " eski telemetri bölümü silindi.");
+        });
+    }
+
+    // ==========================================
+    // 2. BAŞLAT / DURDUR
+    // ==========================================
+
+    public void start(int threadCount) throws SQLException {
+        // Periyodik işlerin ilk kopyası (Zaten sırada/çalışıyorsa tekil anahtar yenisini engeller).
+        try (Connection conn = Db.getConnection()) {
+            for (String type : recurring.keySet()) {
+                JobQueue.enqueue(conn, type, "{}", Duration.ZERO, type, JobQueue.DEFAULT_MAX_ATTEMPTS);
+            }
+        }
+        running = true;
+        for (int i = 0; i < threadCount; i++) {
+            Thread t = new Thread(this::loop, "job-worker-" + i);
+            threads.add(t);
+            t.start();
+        }
+    }
+
+    // Çalışanlar ellerindeki işi bitirip durur (Yarım kalan iş görünmezlik süresi sonunda başkasına geçer).
+    public void stop() {
+        running = false;
+        for (Thread t : threads) t.interrupt();
+        for (Thread t : threads) {
+            try {
+                t.join(VISIBILITY_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ==========================================
+    // 3. ÇALIŞMA DÖNGÜSÜ
+    // ==========================================
+
+    private void loop() {
+        String owner = workerId + "/" + Thread.currentThread().getName();
+        long idle = MIN_POLL_MILLIS;
+        while (running) {
+            List<JobQueue.Job> jobs;
+            try (Connection conn = Db.getConnection()) {
+                // Her seferinde tek iş: Süresi, çalıştırılmadan hemen önce başlar.
+                jobs = JobQueue.claim(conn, handlers.keySet(), 1, owner, VISIBILITY_TIMEOUT);
+                for (JobQueue.Job job : jobs) execute(conn, job);
+            } catch (SQLException e) {
+                System.err.println("[İş Kuyruğu] Veritabanı hatası: " + e.getMessage());
+                jobs = List.of();
+            }
+            if (!jobs.isEmpty()) {
+                idle = MIN_POLL_MILLIS;
+                continue;
+            }
+            try {
+                // Rastgele sapma: Aynı anda başlayan JVM'ler kuyruğu hep aynı anda yoklamasın.
+                Thread.sleep(idle + ThreadLocalRandom.current().nextLong(idle / 2 + 1));
+            } catch (InterruptedException e) {
+                return;
+            }
+            idle = Math.min(MAX_POLL_MILLIS, idle * 2);
+        }
+    }
+
+    private void execute(Connection conn, JobQueue.Job job) throws SQLException {
+        // Görünmezlik süresi defalarca dolan iş (Örn: her seferinde JVM'i çökerten iş) artık çalıştırılmaz.
+        if (job.attempt > job.maxAttempts) {
+            finishFailed(conn, job, "Görünmezlik süresi içinde bitirilemedi");
+            return;
+        }
+        conn.setAutoCommit(false);
+        try {
+            handlers.get(job.type).run(conn, job);
+            if (!JobQueue.complete(conn, job)) {
+                throw new StaleDataException(job + " görünmezlik süresi dolduğu için başka bir çalışana geçti.");
+            }
+            scheduleNext(conn, job, false);
+            conn.commit();
+        } catch (Exception e) {
+            conn.rollback();
+            conn.setAutoCommit(true); // Hata kaydı işin geri alınan işleminden bağımsız yazılır
+            System.err.println("[İş Kuyruğu] " + job + " hata: " + e.getMessage());
+            finishFailed(conn, job, String.valueOf(e.getMessage()));
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void finishFailed(Connection conn, JobQueue.Job job, String error) throws SQLException {
+        // Deneme hakkı biten periyodik iş zinciri kopmasın: Bir sonraki çalışma yine sıraya girer.
+        if (JobQueue.fail(conn, job, error)) scheduleNext(conn, job, true);
+    }
+
+    private void scheduleNext(Connection conn, JobQueue.Job job, boolean afterFailure) throws SQLException {
+        Duration every = recurring.get(job.type);
+        if (every == null || !job.type.equals(job.uniqueKey)) return; // Tek seferlik iş
+        JobQueue.enqueue(conn, job.type, job.payloadJson, every, job.type, JobQueue.DEFAULT_MAX_ATTEMPTS);
+        if (afterFailure) System.err.println("[İş Kuyruğu] " + job.type + " kalıcı olarak başarısız; sonraki çalışma " + every + " sonra.");
+    }
+}
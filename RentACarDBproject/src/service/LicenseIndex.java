@@ -0,0 +1,161 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LicenseIndex Sınıfı (Ehliyet No Ön Kontrolü)
+ * --------------------------------------------
+ * Yeni rezervasyonda müşteri ehliyet numarasıyla bulunur, yoksa eklenir.
+ * Eskiden bunun için HER SEFERİNDE önce 'SELECT ... WHERE license_no = ?' atılıyordu;
+ * oysa havalimanı şubelerinde gelenlerin çoğu YENİ müşteridir ve bu sorgu boşa gider.
+ *
+ * Bellekte iki yapı tutulur:
+ * 1. Bloom filtresi: Veritabanındaki TÜM ehliyet numaralarını kompakt bir bit dizisinde tutar
+ *    (kayıt başına ~10 bit). "Kesinlikle yok" cevabı kesindir; "olabilir" cevabı ise %1 civarında
+ *    yanlış olabilir (false positive).
+ * 2. Ehliyet -> Müşteri ID önbelleği: Son kullanılan kayıtlar (LRU, en fazla CACHE_SIZE adet).
+ *
+ * Karar (ReservationService.createCustomerAndGetId):
+ * - Önbellekte var          -> Birincil anahtarla tek satırlık kontrol (Müşteri başka bir istemcide silinmiş
+ *                              veya ehliyeti değişmiş olabilir); tutmazsa kayıt unutulur, aşağıdaki yola düşülür.
+ * - Bloom "kesinlikle yok"  -> Tek sorgu: INSERT ... ON CONFLICT DO NOTHING RETURNING.
+ * - Bloom "olabilir"        -> Eskisi gibi önce SELECT.
+ *
+ * Filtre yanlışlıkla "yok" derse bile (örn. başka bir istemci az önce ekledi) ON CONFLICT sayesinde
+ * çift kayıt oluşmaz; sonuç doğru kalır, sadece bir sorgu fazla atılır.
+ * Açılışta warmUp() ile kurulur; kurulmadan önce her ehliyet "olabilir" kabul edilir.
+ */
+public final class LicenseIndex {
+
+    // Hedef yanlış pozitif oranı %1: kayıt başına ~9.6 bit ve 7 özet (hash) fonksiyonu.
+    private static final double BITS_PER_ENTRY = 9.6;
+    private static final int HASHES = 7;
+
+    // Açılıştaki müşteri sayısının bu katı kadar kayda yer ayrılır (oturum içinde eklenenler için pay).
+    private static final int GROWTH_FACTOR = 2;
+    private static final int MIN_CAPACITY = 10_000;
+
+    private static final int CACHE_SIZE = 10_000;
+
+    private static long[] bits;   // null = henüz kurulmadı
+    private static long bitCount;
+
+    // Erişim sırasına göre tutulan LinkedHashMap = en az kullanılanı atan (LRU) önbellek.
+    private static final Map<String, Integer> ID_BY_LICENSE = new LinkedHashMap<>(CACHE_SIZE * 4 / 3, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private LicenseIndex() {
+    }
+
+    // ==========================================
+    // KURULUM
+    // ==========================================
+
+    /**
+     * Filtreyi ve önbelleği veritabanından baştan kurar.
+     * Açılışta arka planda çağrılır (StartupPipeline, ApiServer); hata olursa sadece loglanır.
+     */
+    public static void warmUp() {
+        try (Connection conn = Db.getReadConnection()) {
+            rebuild(conn);
+        } catch (Exception e) {
+            System.out.println("Ehliyet indeksi kurulamadı: " + e.getMessage());
+        }
+    }
+
+    private static void rebuild(Connection conn) throws SQLException {
+        int count;
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT count(*) FROM customer")) {
+            rs.next();
+            count = rs.getInt(1);
+        }
+        long size = Math.max((long) Math.max(count, 1) * GROWTH_FACTOR, MIN_CAPACITY);
+        long m = (long) Math.ceil(size * BITS_PER_ENTRY);
+        long[] newBits = new long[(int) ((m + 63) / 64)];
+        long newBitCount = newBits.length * 64L;
+        Map<String, Integer> recent = new LinkedHashMap<>();
+
+        // En yeni müşteriler önce gelir; önbelleğe onlar alınır.
+        conn.setAutoCommit(false); // fetchSize'ın işe yaraması için (satırlar parça parça gelir)
+        try (Statement st = conn.createStatement()) {
+            st.setFetchSize(5000);
+            try (ResultSet rs = st.executeQuery("SELECT customer_id, license_no FROM customer ORDER BY customer_id DESC")) {
+                while (rs.next()) {
+                    String license = rs.getString(2);
+                    set(newBits, newBitCount, license);
+                    if (recent.size() < CACHE_SIZE) recent.put(license, rs.getInt(1));
+                }
+            }
+        } finally {
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+
+        synchronized (LicenseIndex.class) {
+            bits = newBits;
+            bitCount = newBitCount;
+            ID_BY_LICENSE.clear();
+            ID_BY_LICENSE.putAll(recent);
+        }
+    }
+
+    // ==========================================
+    // SORGULAMA VE GÜNCELLEME
+    // ==========================================
+
+    // Önbellekteki müşteri ID'si; yoksa null.
+    static synchronized Integer cachedId(String license) {
+        return ID_BY_LICENSE.get(license);
+    }
+
+    // false = bu ehliyet veritabanında KESİNLİKLE yok. (Filtre kurulmadıysa her zaman true.)
+    static synchronized boolean mightExist(String license) {
+        if (bits == null) return true;
+        long[] h = hash(license);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h[0] + i * h[1], bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // Yeni eklenen veya veritabanında bulunan müşteri.
+    static synchronized void remember(String license, int customerId) {
+        if (bits != null) set(bits, bitCount, license);
+        ID_BY_LICENSE.put(license, customerId);
+    }
+
+    // Silinen müşteri veya değişen ehliyet no. (Bloom filtresinden silinemez; en fazla bir SELECT fazla atılır.)
+    static synchronized void forget(String license) {
+        ID_BY_LICENSE.remove(license);
+    }
+
+    private static void set(long[] target, long size, String license) {
+        long[] h = hash(license);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h[0] + i * h[1], size);
+            target[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // Çift özetleme (double hashing): 64 bitlik FNV-1a özetinin iki yarısından k adet konum üretilir.
+    private static long[] hash(String license) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : license.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        long h2 = (h >>> 32) | 1; // Tek sayı: adım 0 olmasın
+        return new long[]{h & 0xffffffffL, h2};
+    }
+}
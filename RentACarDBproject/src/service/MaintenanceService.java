@@ -0,0 +1,362 @@
+package service;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.MaintenanceWindow;
+import server.ApiClient;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MaintenanceService Sınıfı (Bakım Pencereleri)
+ * ---------------------------------------------
+ * Bakım artık aracın süresiz 'MAINTENANCE' bayrağı değil, tarih aralığıdır: [başlangıç, bitiş] (iki gün de dahil).
+ * Servisteki araç sadece bu tarihlerde kiralanamaz; planlı bakım da aylar öncesinden takvime konabilir.
+ * (Bayrak, tarihi belli olmayan arızalar için aynen kullanılmaya devam eder.)
+ *
+ * - Rezervasyon oluşturma ve onaylama, aracın o tarihlerdeki bakımlarını, onaylı rezervasyonlarını ve
+ *   açık kiralamasını TEK sorguda kontrol eder (checkAvailability). Sorgular (araç, tarih aralığı) GiST
+ *   indekslerini kullanır; aracın eski kayıtları taranmaz.
+ * - Kontrol ile kayıt arasında başka bir işlemin araya girmemesi için aracın satırı işlem boyunca kilitlenir
+ *   (VehicleAssigner ile aynı yöntem). Veritabanındaki trigger'lar doğrudan SQL ile yapılan kayıtları da korur.
+ * - Periyodik bakım planlayıcısı (scheduleRecurring) tüm filonun dolu günlerini bir kez okur, her araca
+ *   belirli aralıklarla bakım yerleştirir ve sonucu toplu (batch) INSERT ile tek işlemde yazar.
+ */
+public final class MaintenanceService {
+
+    // Toplu INSERT'te kaç satırda bir sunucuya gönderilir.
+    private static final int BATCH_SIZE = 500;
+
+    private MaintenanceService() {
+    }
+
+    // ==========================================
+    // 1. LİSTE
+    // ==========================================
+
+    // Aracın bugün ve sonrasındaki bakımları (Tarih sırasıyla).
+    public static ObservableList<MaintenanceWindow> getWindows(int vehicleId) {
+        if (ApiClient.isEnabled()) return ApiClient.maintenanceWindows(vehicleId);
+        ObservableList<MaintenanceWindow> list = FXCollections.observableArrayList();
+        String sql = "SELECT window_id, vehicle_id, start_date, end_date, reason, recurring FROM maintenance_window " +
+                "WHERE vehicle_id = ? AND end_date >= CURRENT_DATE ORDER BY start_date";
+        try (Connection conn = Db.getReadConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, vehicleId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new MaintenanceWindow(rs.getInt(1), rs.getInt(2), rs.getObject(3, LocalDate.class),
+                            rs.getObject(4, LocalDate.class), rs.getString(5), rs.getBoolean(6)));
+                }
+            }
+        } catch (Exception e) { e.printStackTrace(); }
+        return list;
+    }
+
+    // ==========================================
+    // 2. EKLEME / SİLME (Sadece Admin)
+    // ==========================================
+
+    // Bekleyen veya onaylı bir rezervasyonla ya da başka bir bakımla çakışan bakım eklenemez.
+    public static void addWindow(int vehicleId, LocalDate start, LocalDate end, String reason) throws Exception {
+        AuthService.requireAdmin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.addMaintenanceWindow(vehicleId, start, end, reason);
+            return;
+        }
+        if (end.isBefore(start)) throw new Exception("HATA: Bitiş tarihi başlangıçtan önce olamaz!");
+        if (reason == null || reason.isBlank()) reason = "Bakım";
+
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                lockVehicle(conn, vehicleId);
+                String conflict = findConflict(conn, vehicleId, start, end, 0, true);
+                if (conflict != null) throw new Exception(conflict);
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO maintenance_window (vehicle_id, start_date, end_date, reason) VALUES (?, ?, ?, ?)")) {
+                    ps.setInt(1, vehicleId);
+                    ps.setObject(2, start);
+                    ps.setObject(3, end);
+                    ps.setString(4, reason.trim());
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    public static void deleteWindow(int windowId) throws Exception {
+        AuthService.requireAdmin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.deleteMaintenanceWindow(windowId);
+            return;
+        }
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM maintenance_window WHERE window_id = ?")) {
+            ps.setInt(1, windowId);
+            if (ps.executeUpdate() == 0) throw new StaleDataException("Bakım kaydı başka bir kullanıcı tarafından silinmiş.");
+        }
+    }
+
+    // ==========================================
+    // 3. MÜSAİTLİK KONTROLÜ (Rezervasyon oluşturma ve onaylama)
+    // ==========================================
+
+    /**
+     * Aracı kilitler ve [start, end] günlerinde kiralanabilir olduğunu doğrular: Bakım yok, başka bir ONAYLI
+     * rezervasyon yok, araç müşteride değil. (Aynı tarihlere bekleyen talepler birbirini engellemez;
+     * aralarından hangisinin onaylanacağına yetkili karar verir.)
+     * Açık bir işlem (autoCommit = false) içinde çağrılmalıdır; kilit işlem bitene kadar sürer.
+     *
+     * @param excludeReservationId Onaylanan rezervasyonun kendisi (yeni kayıt için 0)
+     */
+    static void checkAvailability(Connection conn, int vehicleId, LocalDate start, LocalDate end, int excludeReservationId) throws Exception {
+        lockVehicle(conn, vehicleId);
+        String conflict = findConflict(conn, vehicleId, start, end, excludeReservationId, false);
+        if (conflict != null) throw new Exception(conflict);
+    }
+
+    private static void lockVehicle(Connection conn, int vehicleId) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM vehicle WHERE vehicle_id = ? FOR UPDATE")) {
+            ps.setInt(1, vehicleId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new Exception("HATA: Araç bulunamadı! (ID: " + vehicleId + ")");
+            }
+        }
+    }
+
+    // İlk çakışmanın açıklaması; çakışma yoksa null.
+    // Üç kaynak tek sorguda sorulur: bakımlar, rezervasyonlar (araç + tarih aralığı indeksi) ve açık kiralama.
+    private static String findConflict(Connection conn, int vehicleId, LocalDate start, LocalDate end,
+                                       int excludeReservationId, boolean includePending) throws SQLException {
+        String sql = "(SELECT 'M', start_date, end_date, reason, 0 FROM maintenance_window " +
+                "WHERE vehicle_id = ? AND daterange(start_date, end_date, '[]') && daterange(?, ?, '[]') LIMIT 1) " +
+                "UNION ALL (SELECT 'R', start_date, end_date, reservation_status, reservation_id FROM reservation " +
+                "WHERE vehicle_id = ? AND reservation_id <> ? " +
+                "AND (reservation_status = 'APPROVED' OR (? AND reservation_status = 'PENDING')) " +
+                "AND daterange(start_date, end_date, '[]') && daterange(?, ?, '[]') LIMIT 1) " +
+                "UNION ALL (SELECT 'K', r.start_date, GREATEST(r.end_date, CURRENT_DATE), r.reservation_status, r.reservation_id " +
+                "FROM rental rt JOIN reservation r ON r.reservation_id = rt.reservation_id " +
+                "WHERE r.vehicle_id = ? AND rt.return_date IS NULL AND r.reservation_id <> ? " +
+                "AND r.start_date <= ? AND GREATEST(r.end_date, CURRENT_DATE) >= ? LIMIT 1) " +
+                "LIMIT 1";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, vehicleId);
+            ps.setObject(2, start);
+            ps.setObject(3, end);
+            ps.setInt(4, vehicleId);
+            ps.setInt(5, excludeReservationId);
+            ps.setBoolean(6, includePending);
+            ps.setObject(7, start);
+            ps.setObject(8, end);
+            ps.setInt(9, vehicleId);
+            ps.setInt(10, excludeReservationId);
+            ps.setObject(11, end);
+            ps.setObject(12, start);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                String from = rs.getObject(2, LocalDate.class).toString();
+                String to = rs.getObject(3, LocalDate.class).toString();
+                switch (rs.getString(1)) {
+                    case "M":
+                        return "HATA: Araç " + from + " - " + to + " tarihleri arasında BAKIMDA (" + rs.getString(4) + ")!";
+                    case "R":
+                        return "HATA: Araç " + from + " - " + to + " tarihleri arasında #" + rs.getInt(5)
+                                + " numaralı " + ("APPROVED".equals(rs.getString(4)) ? "ONAYLANMIŞ" : "BEKLEYEN") + " rezervasyona ayrılmış!";
+                    default:
+                        return "HATA: Araç #" + rs.getInt(5) + " numaralı rezervasyonla müşteride; en erken " + to
+                                + " tarihinde iade edilecek!";
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // 4. PERİYODİK BAKIM PLANLAYICISI (Tüm filo, tek geçiş)
+    // ==========================================
+
+    /**
+     * [from, until] aralığında her araca 'intervalDays' günde bir, 'durationDays' gün süren bakım yerleştirir.
+     *
+     * - Bir sonraki bakım, aracın son bakımının bitişinden 'intervalDays' gün sonradır. Hiç bakımı olmayan
+     *   araçların ilk bakımı şube içinde aralığa eşit dağıtılır (Hepsi aynı gün servise gitmesin).
+     * - Vade günü rezervasyona veya başka bir bakıma denk gelirse bakım ilk boş güne kaydırılır.
+     *   Önceden (elle) planlanmış bir bakım vadeden önce başlıyorsa o bakım sayılır, yenisi eklenmez.
+     * - Bir şubede aynı gün en fazla 'maxPerBranchPerDay' araç bakımda olabilir (Servis kapasitesi).
+     *
+     * Filonun araçları, rezervasyonları ve bakımları birer sorguyla okunur; plan bellekte çıkarılır ve
+     * toplu INSERT ile yazılır. Araç satırları işlem boyunca kilitli kalır (Araya rezervasyon girmesin).
+     *
+     * @return Eklenen bakım sayısı
+     */
+    public static int scheduleRecurring(int intervalDays, int durationDays, LocalDate from, LocalDate until,
+                                        int maxPerBranchPerDay) throws Exception {
+        AuthService.requireAdmin();
+        if (ApiClient.isEnabled()) return ApiClient.scheduleRecurringMaintenance(intervalDays, durationDays, from, until, maxPerBranchPerDay);
+        if (durationDays < 1 || intervalDays < 1 || maxPerBranchPerDay < 1) {
+            throw new Exception("HATA: Bakım aralığı, süresi ve şube kapasitesi en az 1 olmalıdır!");
+        }
+        if (until.isBefore(from)) throw new Exception("HATA: Bitiş tarihi başlangıçtan önce olamaz!");
+
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int created = scheduleRecurring(conn, intervalDays, durationDays, from.toEpochDay(), until.toEpochDay(), maxPerBranchPerDay);
+                conn.commit();
+                return created;
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int scheduleRecurring(Connection conn, int interval, int duration, long from, long until, int capacity) throws SQLException {
+        // 1. Filo (Kilitli). Sıra sabit: Paralel rezervasyonlarla kilitlenme (deadlock) olmasın.
+        List<Integer> vehicles = new ArrayList<>();
+        Map<Integer, Integer> branchOf = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT vehicle_id, branch_id FROM vehicle ORDER BY vehicle_id FOR UPDATE");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                vehicles.add(rs.getInt(1));
+                branchOf.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+        if (vehicles.isEmpty()) return 0;
+
+        // 2. Dolu günler ve şubelerin günlük bakım yükü.
+        VehicleAssigner.Schedule busy = new VehicleAssigner.Schedule(vehicles);
+        Map<Integer, TreeMap<Long, Long>> services = new HashMap<>(); // Araç -> mevcut bakımları (başlangıç -> bitiş)
+        Map<Integer, int[]> load = new HashMap<>();                     // Şube -> gün başına bakımdaki araç (from'dan itibaren)
+        for (int branch : branchOf.values()) load.computeIfAbsent(branch, b -> new int[(int) (until - from + 1)]);
+
+        String bookings = "SELECT r.vehicle_id, r.start_date, r.end_date FROM reservation r " +
+                "WHERE r.reservation_status IN ('PENDING', 'APPROVED') AND daterange(r.start_date, r.end_date, '[]') && daterange(?, ?, '[]') " +
+                "UNION ALL SELECT r.vehicle_id, r.start_date, GREATEST(r.end_date, CURRENT_DATE) " +
+                "FROM rental rt JOIN reservation r ON r.reservation_id = rt.reservation_id WHERE rt.return_date IS NULL";
+        try (PreparedStatement ps = conn.prepareStatement(bookings)) {
+            ps.setObject(1, LocalDate.ofEpochDay(from));
+            ps.setObject(2, LocalDate.ofEpochDay(until));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    busy.occupy(rs.getInt(1), rs.getObject(2, LocalDate.class).toEpochDay(), rs.getObject(3, LocalDate.class).toEpochDay());
+                }
+            }
+        }
+
+        // Son bakımı bulmak için aralığın bir periyot öncesinden itibaren okunur.
+        String windows = "SELECT vehicle_id, start_date, end_date FROM maintenance_window " +
+                "WHERE daterange(start_date, end_date, '[]') && daterange(?, ?, '[]')";
+        try (PreparedStatement ps = conn.prepareStatement(windows)) {
+            ps.setObject(1, LocalDate.ofEpochDay(from - interval - duration));
+            ps.setObject(2, LocalDate.ofEpochDay(until));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int vehicleId = rs.getInt(1);
+                    long start = rs.getObject(2, LocalDate.class).toEpochDay();
+                    long end = rs.getObject(3, LocalDate.class).toEpochDay();
+                    busy.occupy(vehicleId, start, end);
+                    services.computeIfAbsent(vehicleId, v -> new TreeMap<>()).put(start, end);
+                    addLoad(load.get(branchOf.get(vehicleId)), from, start, end);
+                }
+            }
+        }
+
+        // 3. Plan. Hiç bakımı olmayan araçların ilk vadesi şube içindeki sırasına göre dağıtılır.
+        Map<Integer, Integer> branchSize = new HashMap<>();
+        for (int branch : branchOf.values()) branchSize.merge(branch, 1, Integer::sum);
+        Map<Integer, Integer> branchRank = new HashMap<>();
+
+        List<long[]> planned = new ArrayList<>(); // {vehicleId, start, end}
+        for (int vehicleId : vehicles) {
+            int branch = branchOf.get(vehicleId);
+            int rank = branchRank.merge(branch, 1, Integer::sum) - 1;
+            int[] branchLoad = load.get(branch);
+            TreeMap<Long, Long> existing = services.getOrDefault(vehicleId, new TreeMap<>());
+
+            Map.Entry<Long, Long> last = existing.lowerEntry(from);
+            long lastEnd = last != null ? last.getValue() : Long.MIN_VALUE;
+            long due = last != null ? lastEnd + 1 + interval : from + (long) rank * interval / branchSize.get(branch);
+            due = Math.max(due, from);
+
+            while (due + duration - 1 <= until) {
+                Map.Entry<Long, Long> next = existing.higherEntry(lastEnd);
+                long start = next != null && next.getKey() <= due ? next.getKey() : findSlot(busy, branchLoad, vehicleId, due, duration, from, until, capacity);
+                if (start == Long.MIN_VALUE) break; // Aralığın sonuna kadar yer yok
+                if (next != null && next.getKey() <= start) {
+                    // Mevcut bakım bu periyodu karşılıyor.
+                    lastEnd = next.getValue();
+                } else {
+                    long end = start + duration - 1;
+                    busy.occupy(vehicleId, start, end);
+                    addLoad(branchLoad, from, start, end);
+                    planned.add(new long[]{vehicleId, start, end});
+                    lastEnd = end;
+                }
+                due = Math.max(lastEnd + 1 + interval, from);
+            }
+        }
+
+        // 4. Toplu yazma.
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO maintenance_window (vehicle_id, start_date, end_date, reason, recurring) VALUES (?, ?, ?, 'Periyodik bakım', TRUE)")) {
+            int batch = 0;
+            for (long[] w : planned) {
+                ps.setInt(1, (int) w[0]);
+                ps.setObject(2, LocalDate.ofEpochDay(w[1]));
+                ps.setObject(3, LocalDate.ofEpochDay(w[2]));
+                ps.addBatch();
+                if (++batch % BATCH_SIZE == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+        return planned.size();
+    }
+
+    // 'due' gününden itibaren aracın boş olduğu ve şube kapasitesinin dolmadığı ilk başlangıç günü; yoksa Long.MIN_VALUE.
+    private static long findSlot(VehicleAssigner.Schedule busy, int[] branchLoad, int vehicleId, long due, int duration,
+                         long from, long until, int capacity) {
+        long start = due;
+        while (start + duration - 1 <= until) {
+            long end = start + duration - 1;
+            long busyUntil = busy.busyUntil(vehicleId, start, end);
+            if (busyUntil != Long.MIN_VALUE) {
+                start = busyUntil + 1; // Dolu dönemin sonrasına atla
+                continue;
+            }
+            long full = Long.MIN_VALUE;
+            for (long day = end; day >= start; day--) {
+                if (branchLoad[(int) (day - from)] >= capacity) {
+                    full = day;
+                    break;
+                }
+            }
+            if (full == Long.MIN_VALUE) return start;
+            start = full + 1; // Kapasitesi dolu günün sonrasına atla
+        }
+        return Long.MIN_VALUE;
+    }
+
+    // Şubenin [start, end] günlerindeki bakım yükünü bir artırır (Aralık dışında kalan günler atlanır).
+    private static void addLoad(int[] branchLoad, long from, long start, long end) {
+        for (long day = Math.max(start, from); day <= end && day - from < branchLoad.length; day++) {
+            branchLoad[(int) (day - from)]++;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package service;
+
+import java.util.List;
+
+/**
+ * NotificationGateway Arayüzü (SMS Sağlayıcısı)
+ * ---------------------------------------------
+ * ReminderDispatcher mesajları bu arayüz üzerinden, toplu olarak gönderir. Gerçek sağlayıcı (SMS firmasının
+ * HTTP API'si vb.) bu arayüzü uygular ve '-Drentacar.sms.gateway=paket.SinifAdi' ile seçilir.
+ * Sağlayıcı tanımlı değilse hatırlatma işi çalışmaz; StubSmsGateway mesajları sadece konsola yazar (Elle çalıştırma ve test için).
+ *
+ * Sözleşme:
+ * - send() istisna fırlatırsa, toplunun HİÇBİR mesajı sağlayıcıya ulaşmamış sayılır (Tekrar denenir).
+ * - Dönen listede her mesaj için, aynı sırada bir sonuç bulunur.
+ */
+public interface NotificationGateway {
+
+    // Tek istekte gönderilebilecek en fazla mesaj.
+    int maxBatchSize();
+
+    List<Result> send(List<Message> batch) throws Exception;
+
+    // Gönderilecek SMS.
+    final class Message {
+        public final long id;      // notification_id
+        public final String phone; // Uluslararası biçimde: +905551234567
+        public final String text;
+
+        public Message(long id, String phone, String text) {
+            this.id = id;
+            this.phone = phone;
+            this.text = text;
+        }
+    }
+
+    // Tek mesajın sonucu.
+    final class Result {
+        public final boolean sent;
+        public final String providerId; // Sağlayıcının mesaj numarası (Gönderildiyse)
+        public final String error;      // Hata açıklaması (Gönderilmediyse)
+
+        private Result(boolean sent, String providerId, String error) {
+            this.sent = sent;
+            this.providerId = providerId;
+            this.error = error;
+        }
+
+        public static Result sent(String providerId) {
+            return new Result(true, providerId, null);
+        }
+
+        public static Result failed(String error) {
+            return new Result(false, null, error);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ReminderDispatcher Sınıfı (SMS Hatırlatma Dağıtıcısı)
+ * -----------------------------------------------------
+ * Aracı yakında teslim alınacak (PICKUP) ve iadesi yaklaşan (RETURN) müşterilere SMS gönderir.
+ * Rezervasyon başına arayüzden tek tek göndermek yerine her "tur" (tick) şunları yapar:
+ *
+ *   1. Oluşturma: Vadesi gelen hatırlatmalar TEK bir INSERT ... SELECT ile 'notification' tablosuna yazılır.
+ *      (rezervasyon, tür) tekil olduğu için daha önce oluşturulmuş hatırlatma tekrar eklenmez.
+ *   2. Gönderim, sağlayıcının toplu gönderim sınırı kadar parçalar halinde yapılır. Her parça için:
+ *      a. Hız sınırı: Saniyede en fazla RATE_PER_SECOND mesaj (token bucket). Beklemek, satırlar alınmadan
+ *         ÖNCE yapılır.
+ *      b. Alma: Zamanı gelmiş (next_attempt_at) bir parça kadar QUEUED satır SENDING yapılır ('FOR UPDATE SKIP LOCKED';
+ *         birden çok dağıtıcı birbirini beklemez, aynı satırı iki dağıtıcı alamaz). Alırken rezervasyon ve kiralama
+ *         da okunur: Artık geçerli olmayan hatırlatma (rezervasyon iptal edilmiş / araç zaten teslim alınmış /
+ *         araç iade edilmiş) gönderilmez, SKIPPED olur.
+ *      c. Metin: Mesajlar paralel olarak oluşturulur (Telefon numarası uluslararası biçime çevrilir).
+ *      d. Sonuç: Parça gönderilir; SENT / tekrar QUEUED / FAILED durumları toplu UPDATE ile yazılır.
+ *      Tur, CLAIM_LIMIT mesaja ulaşınca veya sırada mesaj kalmayınca biter.
+ *
+ * Aynı SMS asla iki kez gönderilmez: Satır, gönderimden ÖNCE SENDING olarak kaydedilir. Gönderim sırasında
+ * JVM çökerse satır SENDING kalır ve bir daha alınmaz (Mesajın gidip gitmediği bilinmez; iki kez
+ * göndermek yerine hiç göndermemek tercih edilir). Satırlar parça parça, gönderimden hemen önce alındığı için
+ * bir çökmede en fazla TEK parça bu durumda kalır. Sağlayıcının açıkça reddettiği mesajlar tekrar denenir:
+ * Her denemede iki katına çıkan bir bekleme süresiyle (RETRY_BASE_SECONDS) sıraya döner ve aynı turda tekrar
+ * alınmaz (Tur sadece başladığı anda zamanı gelmiş satırları alır). Böylece sağlayıcının kısa bir kesintisi
+ * deneme hakkını tek turda bitirmez.
+ *
+ * Arka plan iş kuyruğunda "notification.reminders" işi olarak birkaç dakikada bir çalışır (JobWorker); iş
+ * sadece '-Drentacar.sms.gateway' ile gerçek bir sağlayıcı tanımlanmışsa kaydedilir.
+ * Elle tek tur: java service.ReminderDispatcher   (Sağlayıcı tanımlı değilse StubSmsGateway: Mesajlar konsola yazılır)
+ */
+public final class ReminderDispatcher {
+
+    // Vadeden kaç gün önce hatırlatılır (Bugün veya yarın başlayan/biten).
+    static final int LEAD_DAYS = 1;
+
+    // Tek turda en fazla kaç hatırlatma gönderilir (Kalanları sonraki tur alır).
+    static final int CLAIM_LIMIT = 1000;
+
+    // Sağlayıcının reddettiği mesaj en fazla kaç kez denenir.
+    static final int MAX_ATTEMPTS = 3;
+
+    // Reddedilen mesajın ilk tekrar denemesinden önceki bekleme (Her denemede iki katına çıkar: 10, 20 dk).
+    static final long RETRY_BASE_SECONDS = 600;
+
+    // Saniyede en fazla gönderilecek mesaj ('-Drentacar.sms.ratePerSecond' ile değiştirilebilir).
+    static final int RATE_PER_SECOND = Integer.getInteger("rentacar.sms.ratePerSecond", 20);
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final NotificationGateway gateway;
+    private final TokenBucket bucket = new TokenBucket(RATE_PER_SECOND);
+
+    public ReminderDispatcher(NotificationGateway gateway) {
+        this.gateway = gateway;
+    }
+
+    // '-Drentacar.sms.gateway' ile seçilen sağlayıcı; tanımlı değilse null.
+    // (Sahte sağlayıcı varsayılan yapılmaz: Konsola yazılan mesaj kalıcı olarak SENT işaretlenir, müşteriye hiç gitmez.)
+    public static NotificationGateway configuredGateway() throws ReflectiveOperationException {
+        String name = System.getProperty("rentacar.sms.gateway");
+        if (name == null || name.isBlank()) return null;
+        return (NotificationGateway) Class.forName(name.trim()).getDeclaredConstructor().newInstance();
+    }
+
+    public static void main(String[] args) throws Exception {
+        NotificationGateway gateway = configuredGateway();
+        System.out.println("[Hatırlatma] " + new ReminderDispatcher(gateway != null ? gateway : new StubSmsGateway()).tick());
+    }
+
+    // Bir turun özeti.
+    public static final class Result {
+        public final int created;
+        public final int sent;
+        public final int retried;
+        public final int failed;
+        public final int skipped;
+
+        Result(int created, int sent, int retried, int failed, int skipped) {
+            this.created = created;
+            this.sent = sent;
+            this.retried = retried;
+            this.failed = failed;
+            this.skipped = skipped;
+        }
+
+        @Override
+        public String toString() {
+            return created + " yeni hatırlatma, " + sent + " gönderildi, " + retried + " tekrar denenecek, " + failed + " başarısız, "
+                    + skipped + " artık geçersiz";
+        }
+    }
+
+    // Hatırlatmanın mesaj oluşturmak için gereken bilgileri (notification satırı).
+    private static final class Reminder {
+        final long id;
+        final String kind;
+        final String phone;
+        final String customerName;
+        final String vehicle;
+        final String branchName;
+        final LocalDate dueDate;
+        final int attempts;
+        final boolean applies; // false: Rezervasyon/kiralama değişti, gönderilmez (SKIPPED)
+
+        Reminder(ResultSet rs) throws SQLException {
+            id = rs.getLong(1);
+            kind = rs.getString(2);
+            phone = rs.getString(3);
+            customerName = rs.getString(4);
+            vehicle = rs.getString(5);
+            branchName = rs.getString(6);
+            dueDate = rs.getObject(7, LocalDate.class);
+            attempts = rs.getInt(8);
+            applies = rs.getBoolean(9);
+        }
+    }
+
+    // ==========================================
+    // 1. TUR
+    // ==========================================
+
+    public Result tick() throws Exception {
+        int created, sent = 0, retried = 0, failed = 0, skipped = 0;
+        Timestamp tickStart; // Bu turda sadece bu andan önce zamanı gelmiş satırlar alınır
+        try (Connection conn = Db.getConnection()) {
+            created = createDue(conn);
+            try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT now()")) {
+                rs.next();
+                tickStart = rs.getTimestamp(1);
+            }
+        }
+
+        int batchSize = Math.max(1, gateway.maxBatchSize());
+        for (int total = 0; total < CLAIM_LIMIT; ) {
+            int limit = Math.min(batchSize, CLAIM_LIMIT - total);
+            bucket.acquire(limit); // Önce bekle, sonra al: Alınan satırlar hız sınırı yüzünden SENDING'de beklemesin
+            List<Reminder> claimed;
+            try (Connection conn = Db.getConnection()) {
+                claimed = claim(conn, limit, tickStart);
+            }
+            if (claimed.isEmpty()) break;
+            total += claimed.size();
+            List<Reminder> reminders = claimed.stream().filter(r -> r.applies).collect(Collectors.toList());
+            skipped += claimed.size() - reminders.size();
+            if (reminders.isEmpty()) continue;
+
+            // Metinler paralel oluşturulur; sıra korunur (sonuçlar aynı sırayla eşleştirilir).
+            List<NotificationGateway.Message> batch = reminders.parallelStream()
+                    .map(r -> new NotificationGateway.Message(r.id, normalizePhone(r.phone), render(r)))
+                    .collect(Collectors.toList());
+
+            List<NotificationGateway.Result> results;
+            try {
+                results = gateway.send(batch);
+                if (results.size() != batch.size()) throw new IllegalStateException("Sağlayıcı " + results.size() + " sonuç döndü, " + batch.size() + " bekleniyordu.");
+            } catch (IllegalStateException e) {
+                // Sonuçlar eşleştirilemez: Mesajların gidip gitmediği bilinmediği için SENDING bırakılır.
+                System.err.println("[Hatırlatma] " + e.getMessage());
+                continue;
+            } catch (Exception e) {
+                // Sözleşme: İstisna = hiçbiri gönderilmedi.
+                results = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) results.add(NotificationGateway.Result.failed(String.valueOf(e.getMessage())));
+            }
+
+            int[] counts = record(reminders, results);
+            sent += counts[0];
+            retried += counts[1];
+            failed += counts[2];
+        }
+        return new Result(created, sent, retried, failed, skipped);
+    }
+
+    // ==========================================
+    // 2. VERİTABANI ADIMLARI
+    // ==========================================
+
+    // Vadesi gelen hatırlatmaları tek sorguda oluşturur.
+    // Teslim: Bugün veya önümüzdeki LEAD_DAYS gün içinde başlayan ONAYLI rezervasyonlar (Aracın şubesinden teslim).
+    // İade:   Bitişi bu aralıkta olan, iadesi alınmamış kiralamalar (Bırakılacak şube).
+    private static int createDue(Connection conn) throws SQLException {
+        String sql = "INSERT INTO notification (reservation_id, kind, phone, customer_name, vehicle, branch_name, due_date) " +
+                "SELECT r.reservation_id, 'PICKUP', c.phone, c.full_name, v.brand || ' ' || v.model || ' (' || v.plate || ')', b.branch_name, r.start_date " +
+                "FROM reservation r JOIN customer c ON c.customer_id = r.customer_id " +
+                "JOIN vehicle v ON v.vehicle_id = r.vehicle_id JOIN branch b ON b.branch_id = v.branch_id " +
+                "WHERE r.reservation_status = 'APPROVED' AND r.start_date BETWEEN CURRENT_DATE AND CURRENT_DATE + ? " +
+                "UNION ALL " +
+                "SELECT r.reservation_id, 'RETURN', c.phone, c.full_name, v.brand || ' ' || v.model || ' (' || v.plate || ')', b.branch_name, r.end_date " +
+                "FROM rental rt JOIN reservation r ON r.reservation_id = rt.reservation_id " +
+                "JOIN customer c ON c.customer_id = r.customer_id JOIN vehicle v ON v.vehicle_id = r.vehicle_id " +
+                "JOIN branch b ON b.branch_id = rt.dropoff_branch_id " +
+                "WHERE rt.return_date IS NULL AND r.end_date BETWEEN CURRENT_DATE AND CURRENT_DATE + ? " +
+                "ON CONFLICT (reservation_id, kind) DO NOTHING";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, LEAD_DAYS);
+            ps.setInt(2, LEAD_DAYS);
+            return ps.executeUpdate();
+        }
+    }
+
+    // Zamanı 'tickStart'tan önce gelmiş en fazla 'limit' hatırlatmayı alır (Gönderimden hemen ÖNCE, bir parça kadar).
+    // Hâlâ geçerli olanlar SENDING, olmayanlar SKIPPED yapılır (Hepsi döner; 'applies' hangisi olduğunu söyler):
+    //   Teslim: Rezervasyon hâlâ ONAYLI, araç henüz teslim alınmamış (kiralama yok) ve teslim günü geçmemiş.
+    //   İade:   Kiralama hâlâ açık (iade alınmamış).
+    private static List<Reminder> claim(Connection conn, int limit, Timestamp tickStart) throws SQLException {
+        String sql = "UPDATE notification n SET status = CASE WHEN q.applies THEN 'SENDING' ELSE 'SKIPPED' END, " +
+                "attempts = n.attempts + CASE WHEN q.applies THEN 1 ELSE 0 END " +
+                "FROM (SELECT x.notification_id, CASE WHEN x.kind = 'PICKUP' " +
+                "THEN r.reservation_status = 'APPROVED' AND rt.rental_id IS NULL AND x.due_date >= CURRENT_DATE " +
+                "ELSE rt.rental_id IS NOT NULL AND rt.return_date IS NULL END AS applies " +
+                "FROM notification x JOIN reservation r ON r.reservation_id = x.reservation_id " +
+                "LEFT JOIN rental rt ON rt.reservation_id = x.reservation_id " +
+                "WHERE x.status = 'QUEUED' AND x.next_attempt_at <= ? " +
+                "ORDER BY x.next_attempt_at, x.notification_id LIMIT ? FOR UPDATE OF x SKIP LOCKED) q " +
+                "WHERE n.notification_id = q.notification_id " +
+                "RETURNING n.notification_id, n.kind, n.phone, n.customer_name, n.vehicle, n.branch_name, n.due_date, n.attempts, q.applies";
+        List<Reminder> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, tickStart);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(new Reminder(rs));
+            }
+        }
+        return list;
+    }
+
+    // Gönderim sonuçlarını toplu yazar. Dönüş: {gönderilen, tekrar denenecek, başarısız}
+    // Tekrar sıraya giren (QUEUED) satır, deneme sayısına göre artan bir süre sonra tekrar alınabilir.
+    private static int[] record(List<Reminder> reminders, List<NotificationGateway.Result> results) throws SQLException {
+        int[] counts = new int[3];
+        String sql = "UPDATE notification SET status = ?, provider_id = ?, last_error = ?, " +
+                "sent_at = CASE WHEN ? THEN now() END, next_attempt_at = now() + make_interval(secs => ?) " +
+                "WHERE notification_id = ? AND status = 'SENDING'";
+        try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < reminders.size(); i++) {
+                Reminder r = reminders.get(i);
+                NotificationGateway.Result res = results.get(i);
+                String status = res.sent ? "SENT" : r.attempts >= MAX_ATTEMPTS ? "FAILED" : "QUEUED";
+                counts[res.sent ? 0 : status.equals("QUEUED") ? 1 : 2]++;
+                ps.setString(1, status);
+                ps.setString(2, res.providerId);
+                ps.setString(3, res.error);
+                ps.setBoolean(4, res.sent);
+                ps.setLong(5, retryDelaySeconds(r.attempts));
+                ps.setLong(6, r.id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return counts;
+    }
+
+    // 'attempts'. denemesi reddedilen mesajın bekleme süresi.
+    static long retryDelaySeconds(int attempts) {
+        return RETRY_BASE_SECONDS << Math.min(Math.max(attempts - 1, 0), 10);
+    }
+
+    // ==========================================
+    // 3. MESAJ METNİ
+    // ==========================================
+
+    static String render(Reminder r) {
+        String date = r.dueDate.format(DATE);
+        if (r.kind.equals("PICKUP")) {
+            return "Sayın " + r.customerName + ", " + r.vehicle + " aracınızı " + date + " tarihinde " + r.branchName
+                    + " şubemizden teslim alabilirsiniz. İyi yolculuklar!";
+        }
+        return "Sayın " + r.customerName + ", kiraladığınız " + r.vehicle + " aracının iade tarihi " + date
+                + ". Lütfen aracı " + r.branchName + " şubemize teslim ediniz.";
+    }
+
+    // "0555 123 45 67", "555-123-4567", "+90 555 ..." -> "+905551234567". Tanınmayan biçim olduğu gibi bırakılır
+    // (Sağlayıcı reddeder, satır FAILED olur).
+    static String normalizePhone(String phone) {
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() == 12 && digits.startsWith("90")) return "+" + digits;
+        if (digits.length() == 11 && digits.startsWith("0")) return "+90" + digits.substring(1);
+        if (digits.length() == 10) return "+90" + digits;
+        return phone;
+    }
+
+    // ==========================================
+    // 4. HIZ SINIRI (Token Bucket)
+    // ==========================================
+    // Kova saniyede 'rate' jeton dolar (en fazla 'rate' jeton birikir). Her mesaj bir jeton harcar;
+    // jeton yetmezse eksik jetonlar dolana kadar beklenir. Sağlayıcının hız sınırı aşılmaz.
+    private static final class TokenBucket {
+        private final double rate;
+        private double tokens;
+        private long last = System.nanoTime();
+
+        TokenBucket(int ratePerSecond) {
+            this.rate = Math.max(1, ratePerSecond);
+            this.tokens = rate;
+        }
+
+        synchronized void acquire(int permits) throws InterruptedException {
+            long now = System.nanoTime();
+            tokens = Math.min(rate, tokens + (now - last) / 1e9 * rate);
+            last = now;
+            tokens -= permits; // Borçlanılabilir: Toplu istek kova boyutundan büyük olabilir
+            if (tokens < 0) {
+                TimeUnit.NANOSECONDS.sleep((long) (-tokens / rate * 1e9));
+            }
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package service;
+
+import model.Money;
+import model.ReservationStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ReservationColumnStore Sınıfı
+ * -----------------------------
+ * Rezervasyon geçmişini rapor amaçlı, SÜTUN BAZLI (columnar) olarak bellekte tutar.
+ *
+ * NEDEN?
+ * Milyonlarca satırlık bir raporda her satır için bir 'Reservation' nesnesi üretmek
+ * hem belleği hem de çöp toplayıcıyı (GC) yorar. Burada her sütun ayrı bir ilkel dizidir:
+ *   - id, araç, müşteri, şube  -> int[]
+ *   - başlangıç / bitiş tarihi -> int[] (epoch day)
+ *   - toplam tutar             -> long[] (kuruş)
+ *   - durum                    -> byte[] (ReservationStatus.ordinal())
+ *   - marka / model            -> int[] (sözlük kodu, metinler sadece bir kez tutulur)
+ * Raporlar bu diziler üzerinde basit döngülerle (JIT tarafından vektörleştirilebilir)
+ * ve ForkJoin havuzunda paralel olarak çalışır.
+ *
+ * YÜKLEME:
+ * Veriler 'ReservationService.loadHistoryInto' ile sadece son yüklenen ID'den sonraki
+ * satırlar çekilerek artımlı (incremental) olarak eklenir. Geç onaylanan işlemlerin küçük ID'leri
+ * atlanmasın diye okunan aralıktaki boşluklar tekrar sorulur (bkz. IdGaps).
+ * Satırlar yayımlanmış dizilerin boş kısmına yerinde yazılır; yeni görüntü yükleme başına BİR kez yayımlanır.
+ *
+ * Raporlar komut satırından: java service.ReservationColumnStore [başlangıç] [bitiş]
+ * (Tarihler YYYY-AA-GG; varsayılan son 12 ay.)
+ */
+public class ReservationColumnStore {
+
+    // Uygulama genelinde paylaşılan tek örnek.
+    private static final ReservationColumnStore SHARED = new ReservationColumnStore();
+
+    // Bu sayıdan küçük parçalar tek iş parçacığında taranır (bölme maliyetine değmez).
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    // ==========================================
+    // SÜTUNLAR
+    // ==========================================
+    // Okuyucular diziler büyütülürken bile tutarlı bir görüntü görsün diye
+    // tüm diziler ve satır sayısı tek bir değişmez 'Columns' nesnesinde yayımlanır.
+    private volatile Columns columns = new Columns(1024);
+
+    // Marka ve model sözlükleri (metin <-> kod).
+    private final Dictionary brands = new Dictionary();
+    private final Dictionary models = new Dictionary();
+
+    // Artımlı yükleme: En son okunan reservation_id ve henüz görünmemiş ID'ler.
+    private final IdGaps loaded = new IdGaps(0);
+
+    // Süren yüklemenin taslağı: Satırlar yayımlanmış dizilerin 'columns.size' sonrasına yazılır
+    // (Okuyucular oraya bakmaz), dizi dolarsa büyütülmüş kopyaya geçilir.
+    private Columns draft;
+    private int draftSize;
+    private int draftMaxVehicleId;
+    private int draftMaxBranchId;
+
+    public static ReservationColumnStore shared() {
+        return SHARED;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LocalDate to = args.length > 1 ? LocalDate.parse(args[1]) : LocalDate.now();
+        LocalDate from = args.length > 0 ? LocalDate.parse(args[0]) : to.minusYears(1);
+        ReservationColumnStore store = new ReservationColumnStore();
+
+        long start = System.nanoTime();
+        int rows = store.loadIncremental();
+        System.out.printf("[Rapor] %,d rezervasyon yüklendi (%.1f sn)%n", rows, (System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        Map<Integer, Long> byBranch = store.revenueByBranch(from, to);
+        Map<String, Long> byBrand = store.revenueByBrand(from, to);
+        Map<Integer, Double> utilization = store.utilizationByVehicle(from, to);
+        System.out.printf("[Rapor] %s - %s (%.0f ms)%n", from, to, (System.nanoTime() - start) / 1e6);
+
+        System.out.println("Şube cirosu:");
+        byBranch.forEach((branch, kurus) -> System.out.println("  Şube " + branch + ": " + Money.format(kurus)));
+        System.out.println("Marka cirosu:");
+        byBrand.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> System.out.println("  " + e.getKey() + ": " + Money.format(e.getValue())));
+        System.out.printf("Araç doluluğu (%d araç, ortalama %%%.1f; en dolu 20):%n", utilization.size(),
+                utilization.values().stream().mapToDouble(Double::doubleValue).average().orElse(0) * 100);
+        utilization.entrySet().stream().sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()).limit(20)
+                .forEach(e -> System.out.printf("  Araç %d: %%%.1f%n", e.getKey(), e.getValue() * 100));
+    }
+
+    /**
+     * Veritabanından sadece yeni (ve daha önce görünmeyen) satırları çeker ve sütunlara ekler.
+     * Okuma hata verirse yayımlanmış görüntü değişmez.
+     *
+     * @return Eklenen satır sayısı.
+     */
+    public synchronized int loadIncremental() throws Exception {
+        Columns published = columns;
+        draft = published;
+        draftSize = published.size;
+        draftMaxVehicleId = published.maxVehicleId;
+        draftMaxBranchId = published.maxBranchId;
+        try {
+            int count = ReservationService.loadHistoryInto(loaded, this);
+            Columns next = draft.withSize(draftSize, draftMaxVehicleId, draftMaxBranchId);
+            // Geç görünen satırlar (küçük ID'ler) sona eklendi: ID sırası bozulduysa iki sıralı parça birleştirilir.
+            if (draftSize > published.size && published.size > 0
+                    && next.ids[published.size] < next.ids[published.size - 1]) {
+                next = next.mergeRuns(published.size);
+            }
+            columns = next; // Tek yayım (volatile yazma -> okuyucular tüm değerleri görür)
+            return count;
+        } finally {
+            draft = null;
+        }
+    }
+
+    /**
+     * Daha önce yüklenmiş satırların durumlarını (onay, iptal vb.) tazeler.
+     * Artımlı yükleme sadece yeni ID'leri getirdiği için durum değişiklikleri bu metotla alınır.
+     */
+    public synchronized void refreshStatuses() throws Exception {
+        ReservationService.loadStatusesInto(this);
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    // ==========================================
+    // YÜKLEME (ReservationService tarafından çağrılır)
+    // ==========================================
+
+    // Sadece loadIncremental sırasında (aynı kilit altında) çağrılır; satır yayımlanmaz.
+    synchronized void append(int id, int vehicleId, int customerId, int branchId,
+                             LocalDate start, LocalDate end, long totalKurus,
+                             ReservationStatus status, String brand, String model) {
+        if (draftSize == draft.ids.length) {
+            draft = draft.grow();
+        }
+        Columns c = draft;
+        int n = draftSize++;
+        c.ids[n] = id;
+        c.vehicleIds[n] = vehicleId;
+        c.customerIds[n] = customerId;
+        c.branchIds[n] = branchId;
+        c.startDays[n] = (int) start.toEpochDay();
+        c.endDays[n] = (int) end.toEpochDay();
+        c.prices[n] = totalKurus;
+        c.statuses[n] = (byte) status.ordinal();
+        c.brandCodes[n] = brands.encode(brand);
+        c.modelCodes[n] = models.encode(model);
+        draftMaxVehicleId = Math.max(draftMaxVehicleId, vehicleId);
+        draftMaxBranchId = Math.max(draftMaxBranchId, branchId);
+    }
+
+    synchronized void updateStatus(int id, ReservationStatus status) {
+        Columns c = columns;
+        // ID'ler artan sırada yüklendiği için ikili arama yapılabilir.
+        int idx = Arrays.binarySearch(c.ids, 0, c.size, id);
+        if (idx >= 0) {
+            c.statuses[idx] = (byte) status.ordinal();
+        }
+    }
+
+    // ==========================================
+    // RAPORLAR
+    // ==========================================
+
+    /**
+     * Şube bazında ciro (kuruş). Başlangıç tarihi [from, to) aralığında olan,
+     * iptal edilmemiş rezervasyonların toplamıdır.
+     */
+    public Map<Integer, Long> revenueByBranch(LocalDate from, LocalDate to) {
+        Columns c = columns;
+        long[] sums = sumPrices(c, c.branchIds, c.maxBranchId + 1, from, to);
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        for (int k = 0; k < sums.length; k++) {
+            if (sums[k] != 0) result.put(k, sums[k]);
+        }
+        return result;
+    }
+
+    /**
+     * Marka bazında ciro (kuruş). Kurallar 'revenueByBranch' ile aynıdır.
+     */
+    public Map<String, Long> revenueByBrand(LocalDate from, LocalDate to) {
+        Columns c = columns;
+        long[] sums = sumPrices(c, c.brandCodes, brands.size(), from, to);
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int k = 0; k < sums.length; k++) {
+            if (sums[k] != 0) result.put(brands.decode(k), sums[k]);
+        }
+        return result;
+    }
+
+    /**
+     * Araç bazında doluluk oranı (0.0 - 1.0).
+     * [from, to) penceresindeki her gün için araç onaylı veya tamamlanmış bir
+     * rezervasyondaysa "dolu" sayılır.
+     */
+    public Map<Integer, Double> utilizationByVehicle(LocalDate from, LocalDate to) {
+        Columns c = columns;
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int windowDays = toDay - fromDay;
+        Map<Integer, Double> result = new LinkedHashMap<>();
+        if (windowDays <= 0) return result;
+
+        long[] bookedDays = ForkJoinPool.commonPool().invoke(
+                new AggregateTask(c, c.vehicleIds, c.maxVehicleId + 1, fromDay, toDay, true, 0, c.size));
+        for (int k = 0; k < bookedDays.length; k++) {
+            if (bookedDays[k] != 0) {
+                result.put(k, Math.min(1.0, bookedDays[k] / (double) windowDays));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Verilen durumdaki ve başlangıcı [from, to) aralığında olan rezervasyon sayısı.
+     */
+    public int count(ReservationStatus status, LocalDate from, LocalDate to) {
+        Columns c = columns;
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        byte code = (byte) status.ordinal();
+        int count = 0;
+        for (int i = 0; i < c.size; i++) {
+            int d = c.startDays[i];
+            // Dallanmasız toplama: JIT bu döngüyü SIMD komutlarına çevirebilir.
+            count += (c.statuses[i] == code & d >= fromDay & d < toDay) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static long[] sumPrices(Columns c, int[] keys, int keyCount, LocalDate from, LocalDate to) {
+        return ForkJoinPool.commonPool().invoke(new AggregateTask(c, keys, keyCount,
+                (int) from.toEpochDay(), (int) to.toEpochDay(), false, 0, c.size));
+    }
+
+    // ==========================================
+    // PARALEL GRUPLAMA GÖREVİ
+    // ==========================================
+    // Satır aralığını ikiye bölerek alt görevlere dağıtır, her parça kendi
+    // long[] toplam dizisini üretir, sonra diziler birleştirilir.
+    // 'occupancy' = false -> tutar toplar (başlangıç tarihi pencerede olanlar)
+    // 'occupancy' = true  -> pencereyle kesişen gün sayısını toplar (doluluk)
+    private static final class AggregateTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L; // Görev hiçbir zaman serileştirilmez
+        private final transient Columns c;
+        private final int[] keys;
+        private final int keyCount;
+        private final int fromDay;
+        private final int toDay;
+        private final boolean occupancy;
+        private final int lo;
+        private final int hi;
+
+        AggregateTask(Columns c, int[] keys, int keyCount, int fromDay, int toDay, boolean occupancy, int lo, int hi) {
+            this.c = c;
+            this.keys = keys;
+            this.keyCount = keyCount;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.occupancy = occupancy;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                return occupancy ? scanOccupancy() : scanRevenue();
+            }
+            int mid = (lo + hi) >>> 1;
+            AggregateTask left = new AggregateTask(c, keys, keyCount, fromDay, toDay, occupancy, lo, mid);
+            AggregateTask right = new AggregateTask(c, keys, keyCount, fromDay, toDay, occupancy, mid, hi);
+            left.fork();
+            long[] r = right.compute();
+            long[] l = left.join();
+            for (int k = 0; k < l.length; k++) {
+                l[k] += r[k];
+            }
+            return l;
+        }
+
+        private long[] scanRevenue() {
+            long[] sums = new long[keyCount];
+            byte cancelled = (byte) ReservationStatus.CANCELLED.ordinal();
+            for (int i = lo; i < hi; i++) {
+                int d = c.startDays[i];
+                if (d >= fromDay && d < toDay && c.statuses[i] != cancelled) {
+                    sums[keys[i]] += c.prices[i];
+                }
+            }
+            return sums;
+        }
+
+        private long[] scanOccupancy() {
+            long[] days = new long[keyCount];
+            byte approved = (byte) ReservationStatus.APPROVED.ordinal();
+            byte completed = (byte) ReservationStatus.COMPLETED.ordinal();
+            for (int i = lo; i < hi; i++) {
+                byte s = c.statuses[i];
+                if (s != approved && s != completed) continue;
+                // Aynı gün alıp bırakma en az 1 gün sayılır (fiyat hesabıyla aynı kural).
+                int start = c.startDays[i];
+                int end = Math.max(c.endDays[i], start + 1);
+                int overlap = Math.min(end, toDay) - Math.max(start, fromDay);
+                if (overlap > 0) days[keys[i]] += overlap;
+            }
+            return days;
+        }
+    }
+
+    // ==========================================
+    // YARDIMCI YAPILAR
+    // ==========================================
+
+    // Tüm sütun dizileri + geçerli satır sayısı.
+    private static final class Columns {
+        final int[] ids;
+        final int[] vehicleIds;
+        final int[] customerIds;
+        final int[] branchIds;
+        final int[] startDays;
+        final int[] endDays;
+        final long[] prices;
+        final byte[] statuses;
+        final int[] brandCodes;
+        final int[] modelCodes;
+        final int size;
+        final int maxVehicleId;
+        final int maxBranchId;
+
+        Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new int[capacity],
+                    new int[capacity], new int[capacity], new long[capacity], new byte[capacity],
+                    new int[capacity], new int[capacity], 0, 0, 0);
+        }
+
+        private Columns(int[] ids, int[] vehicleIds, int[] customerIds, int[] branchIds,
+                        int[] startDays, int[] endDays, long[] prices, byte[] statuses,
+                        int[] brandCodes, int[] modelCodes, int size, int maxVehicleId, int maxBranchId) {
+            this.ids = ids;
+            this.vehicleIds = vehicleIds;
+            this.customerIds = customerIds;
+            this.branchIds = branchIds;
+            this.startDays = startDays;
+            this.endDays = endDays;
+            this.prices = prices;
+            this.statuses = statuses;
+            this.brandCodes = brandCodes;
+            this.modelCodes = modelCodes;
+            this.size = size;
+            this.maxVehicleId = maxVehicleId;
+            this.maxBranchId = maxBranchId;
+        }
+
+        // Kapasiteyi iki katına çıkarır. Eski diziler, onları tutan okuyucular için geçerli kalır.
+        Columns grow() {
+            int cap = ids.length * 2;
+            return new Columns(Arrays.copyOf(ids, cap), Arrays.copyOf(vehicleIds, cap),
+                    Arrays.copyOf(customerIds, cap), Arrays.copyOf(branchIds, cap),
+                    Arrays.copyOf(startDays, cap), Arrays.copyOf(endDays, cap),
+                    Arrays.copyOf(prices, cap), Arrays.copyOf(statuses, cap),
+                    Arrays.copyOf(brandCodes, cap), Arrays.copyOf(modelCodes, cap),
+                    size, maxVehicleId, maxBranchId);
+        }
+
+        Columns withSize(int newSize, int newMaxVehicleId, int newMaxBranchId) {
+            return new Columns(ids, vehicleIds, customerIds, branchIds, startDays, endDays,
+                    prices, statuses, brandCodes, modelCodes, newSize, newMaxVehicleId, newMaxBranchId);
+        }
+
+        // Ayrı ayrı ID sıralı [0, split) ve [split, size) parçalarını yeni dizilerde birleştirir
+        // (İkili arama ID sırasına dayanır; eski diziler onları tutan okuyucular için geçerli kalır).
+        Columns mergeRuns(int split) {
+            Columns m = new Columns(ids.length);
+            int i = 0, j = split;
+            for (int k = 0; k < size; k++) {
+                int from = j >= size || (i < split && ids[i] < ids[j]) ? i++ : j++;
+                m.ids[k] = ids[from];
+                m.vehicleIds[k] = vehicleIds[from];
+                m.customerIds[k] = customerIds[from];
+                m.branchIds[k] = branchIds[from];
+                m.startDays[k] = startDays[from];
+                m.endDays[k] = endDays[from];
+                m.prices[k] = prices[from];
+                m.statuses[k] = statuses[from];
+                m.brandCodes[k] = brandCodes[from];
+                m.modelCodes[k] = modelCodes[from];
+            }
+            return m.withSize(size, maxVehicleId, maxBranchId);
+        }
+    }
+
+    // Metin sözlüğü: her farklı metne sıfırdan başlayan bir kod verir.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        synchronized int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        synchronized String decode(int code) {
+            return values.get(code);
+        }
+
+        synchronized int size() {
+            return values.size();
+        }
+    }
+}
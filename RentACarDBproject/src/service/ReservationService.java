@@ -2,162 +2,482 @@ package service;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import model.Money;
 import model.Reservation;
+import model.ReservationStatus;
 import model.Customer;
+import model.TimelineBar;
+import model.Vehicle;
+import server.ApiClient;
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ReservationService {
 
+    // Liste ve arama ekranlarının ortak SELECT kısmı.
+    // Sadece trigger'larla güncel tutulan 'reservation_listing' tablosundan okunur (JOIN yok).
+    // Araç durumu ve açık kiralama bilgisi de çekilir; durum makinesi butonları bunlarla açar/kapatır.
+    // Sütun sırası RowMappers.RESERVATION_LIST ile aynıdır.
+    private static final String LIST_SELECT =
+            "SELECT " + RowMappers.RESERVATION_LIST_COLUMNS + " FROM reservation_listing ";
+
     public static ObservableList<Reservation> getReservationsForUI() {
+        // İstemci modunda veriyi sunucudan al (JDBC kullanılmaz).
+        if (ApiClient.isEnabled()) return ApiClient.reservations(null);
         ObservableList<Reservation> list = FXCollections.observableArrayList();
-        String sql = "SELECT r.reservation_id, r.vehicle_id, r.reservation_status, r.start_date, v.brand, v.model, c.full_name " +
-                "FROM reservation r JOIN vehicle v ON r.vehicle_id = v.vehicle_id JOIN customer c ON r.customer_id = c.customer_id " +
-                "ORDER BY r.reservation_id DESC";
-        try (Connection conn = Db.getConnection(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                list.add(new Reservation(rs.getInt("reservation_id"), rs.getInt("vehicle_id"), rs.getString("reservation_status"),
-                        rs.getDate("start_date"), rs.getString("brand"), rs.getString("model"), rs.getString("full_name")));
-            }
+        try {
+            streamReservations(null, list::add);
         } catch (Exception e) { e.printStackTrace(); }
         return list;
     }
 
-    // Onaylama aşamasında bakım kontrolü yapar
+    // ==========================================
+    // DURUM GEÇİŞLERİ (ReservationStateMachine kurallarıyla)
+    // ==========================================
+    // Her işlem, kuralını WHERE koşulunda taşıyan TEK bir SQL cümlesidir.
+    // Koşul tutmazsa hiçbir satır etkilenmez; ancak o zaman nedenini bulmak için
+    // satırın güncel durumu okunur ve durum makinesinin mesajı gösterilir.
+
+    // Onaylama: Sadece PENDING rezervasyon ve müsait (AVAILABLE) araç için.
+    // Rezervasyon tarihlerinde araçta bakım, başka bir onaylı rezervasyon veya açık kiralama olmamalıdır.
     public static void approveReservation(int reservationId) throws Exception {
         AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.reservationAction(reservationId, "approve");
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.APPROVE));
+            return;
+        }
+        String sql = "UPDATE reservation r SET reservation_status = 'APPROVED' FROM vehicle v " +
+                "WHERE r.reservation_id = ? AND r.reservation_status = 'PENDING' " +
+                "AND v.vehicle_id = r.vehicle_id AND v.vehicle_status = 'AVAILABLE'";
         try (Connection conn = Db.getConnection()) {
-            // 1. Önce aracın durumunu kontrol et
-            String sqlCheck = "SELECT v.vehicle_status, v.plate FROM reservation r " +
-                    "JOIN vehicle v ON r.vehicle_id = v.vehicle_id WHERE r.reservation_id = ?";
-            PreparedStatement psCheck = conn.prepareStatement(sqlCheck);
-            psCheck.setInt(1, reservationId);
-            ResultSet rs = psCheck.executeQuery();
-
-            if (rs.next()) {
-                String status = rs.getString("vehicle_status");
-                // Eğer araç AVAILABLE (Müsait) değilse Java tarafında hata fırlatıyoruz
-                if (!"AVAILABLE".equalsIgnoreCase(status)) {
-                    throw new Exception("HATA: " + rs.getString("plate") + " plakalı araç şu an müsait değil! (Durum: " + status + ")");
+            conn.setAutoCommit(false);
+            try {
+                // Bekleyen rezervasyonun tarihleri (Değilse durum makinesi aşağıda nedenini söyler).
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT vehicle_id, start_date, end_date FROM reservation WHERE reservation_id = ? AND reservation_status = 'PENDING'")) {
+                    ps.setInt(1, reservationId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            MaintenanceService.checkAvailability(conn, rs.getInt(1), rs.getObject(2, LocalDate.class),
+                                    rs.getObject(3, LocalDate.class), reservationId);
+                        }
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, reservationId);
+                    if (ps.executeUpdate() == 0) rejectTransition(conn, reservationId, ReservationStateMachine.Action.APPROVE);
                 }
+                conn.commit();
+                EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.APPROVE));
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-
-            // 2. Eğer müsaitse güncelleme işlemini yap
-            PreparedStatement psUpdate = conn.prepareStatement("UPDATE reservation SET reservation_status='APPROVED' WHERE reservation_id=?");
-            psUpdate.setInt(1, reservationId);
-            psUpdate.executeUpdate();
         }
     }
 
-    // Kiralama başlatır (pickup_branch_id hatasını çözer)
+    // Kiralama başlatır: Sadece APPROVED rezervasyon ve kirada/bakımda olmayan araç için.
+    // Alış şubesi aracın o an bulunduğu şubedir (current_branch_id, aynı sorguda bulunur); dönüş şubesi de aynıdır.
     public static void startRental(int reservationId) throws Exception {
-        AuthService.requireLogin();
-        try (Connection conn = Db.getConnection()) {
-            // 1. ARACIN GÜNCEL DURUMUNU SORGULA
-            String checkSql = "SELECT v.vehicle_status, v.plate FROM reservation r " +
-                    "JOIN vehicle v ON r.vehicle_id = v.vehicle_id WHERE r.reservation_id = ?";
-            PreparedStatement psCheck = conn.prepareStatement(checkSql);
-            psCheck.setInt(1, reservationId);
-            ResultSet rs = psCheck.executeQuery();
-
-            if (rs.next()) {
-                String status = rs.getString("vehicle_status");
-                // Eğer araç zaten kiradaysa, Java tarafında hata fırlat
-                if ("RENTED".equalsIgnoreCase(status)) {
-                    throw new Exception("HATA: " + rs.getString("plate") + " plakalı araç şu an zaten kirada!");
-                }
-            }
+        startRental(reservationId, null);
+    }
 
-            // 2. EĞER ARAÇ KİRADA DEĞİLSE İŞLEME DEVAM ET (Mevcut kodun)
-            String findBranch = "SELECT v.branch_id FROM reservation r JOIN vehicle v ON r.vehicle_id = v.vehicle_id WHERE r.reservation_id = ?";
-            PreparedStatement psFind = conn.prepareStatement(findBranch);
-            psFind.setInt(1, reservationId);
-            ResultSet rsBranch = psFind.executeQuery();
-
-            if (rsBranch.next()) {
-                int bId = rsBranch.getInt("branch_id");
-                String sql = "INSERT INTO rental (reservation_id, pickup_branch_id, dropoff_branch_id, rental_date, payment_status) VALUES (?, ?, ?, CURRENT_DATE, 'UNPAID')";
-                PreparedStatement psInsert = conn.prepareStatement(sql);
-                psInsert.setInt(1, reservationId);
-                psInsert.setInt(2, bId);
-                psInsert.setInt(3, bId);
-                psInsert.executeUpdate();
-            }
+    // Tek yön kiralama: Araç 'dropoffBranchId' şubesine bırakılacak (null ise alış şubesi).
+    // Alış şubesi aracın ev şubesi (branch_id) DEĞİL, fiziksel konumudur: Önceki tek yön kiralamadan sonra
+    // araç başka şubede olabilir; ev şubesi yazılırsa iade trigger'ı aracı hiç gitmediği şubeye "taşır".
+    // İade alınınca aracın fiziksel konumu (current_branch_id) trigger ile dönüş şubesi olur.
+    public static void startRental(int reservationId, Integer dropoffBranchId) throws Exception {
+        AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.startRental(reservationId, dropoffBranchId);
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.START_RENTAL));
+            return;
+        }
+        String sql = "INSERT INTO rental (reservation_id, pickup_branch_id, dropoff_branch_id, rental_date, payment_status) " +
+                "SELECT r.reservation_id, v.current_branch_id, COALESCE(?, v.current_branch_id), CURRENT_DATE, 'UNPAID' " +
+                "FROM reservation r JOIN vehicle v ON r.vehicle_id = v.vehicle_id " +
+                "WHERE r.reservation_id = ? AND r.reservation_status = 'APPROVED' " +
+                "AND v.vehicle_status NOT IN ('RENTED', 'MAINTENANCE')";
+        try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, dropoffBranchId, Types.INTEGER);
+            ps.setInt(2, reservationId);
+            if (ps.executeUpdate() == 0) rejectTransition(conn, reservationId, ReservationStateMachine.Action.START_RENTAL);
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.START_RENTAL));
         }
     }
 
-    public static void finishRental(int reservationId) throws Exception {
+    // Kiralama bitirir: Sadece henüz iade alınmamış (açık) kiralama için.
+    // Trigger aracı AVAILABLE yapar; tek yön kiralamada fiziksel konumunu (current_branch_id) da dönüş şubesi yapar.
+    // Bu değişiklikler olayda taşınmadığı için aracın güncel satırı aynı bağlantıyla okunur ve SAVED olarak
+    // yayınlanır (Tüm araç listesi yeniden yüklenmez). Dönüş: Aracın güncel hali (Sunucu bunu istemciye gönderir).
+    public static Vehicle finishRental(int reservationId) throws Exception {
         AuthService.requireLogin();
-        try (Connection conn = Db.getConnection()) {
-            PreparedStatement ps = conn.prepareStatement("UPDATE rental SET return_date = CURRENT_DATE, payment_status = 'PAID' WHERE reservation_id = ?");
+        if (ApiClient.isEnabled()) {
+            Vehicle vehicle = ApiClient.finishRental(reservationId);
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.FINISH_RENTAL));
+            if (vehicle != null) EventBus.publish(EntityEvent.saved(vehicle));
+            return vehicle;
+        }
+        String sql = "UPDATE rental rt SET return_date = CURRENT_DATE, payment_status = 'PAID' FROM reservation r " +
+                "WHERE rt.reservation_id = ? AND rt.return_date IS NULL AND r.reservation_id = rt.reservation_id " +
+                "RETURNING r.vehicle_id";
+        try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, reservationId);
-            ps.executeUpdate();
+            int vehicleId;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    rejectTransition(conn, reservationId, ReservationStateMachine.Action.FINISH_RENTAL);
+                    return null; // rejectTransition her zaman hata fırlatır
+                }
+                vehicleId = rs.getInt(1);
+            }
+            Vehicle vehicle = VehicleService.findById(conn, vehicleId);
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.FINISH_RENTAL));
+            if (vehicle != null) EventBus.publish(EntityEvent.saved(vehicle));
+            return vehicle;
         }
     }
 
     // AddReservationView içindeki "cannot find symbol" hatasını çözer
+    // Ehliyet no ile müşteriyi bulur, yoksa ekler. Önce bellekteki ehliyet indeksine bakılır (bkz. LicenseIndex).
     public static int createCustomerAndGetId(String fullName, String phone, String licenseNo) throws Exception {
         AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            int id = ApiClient.createCustomerAndGetId(fullName, phone, licenseNo);
+            EventBus.publish(EntityEvent.stale(EntityEvent.Type.CUSTOMER)); // Yeni müşteri eklenmiş olabilir
+            return id;
+        }
+
+        Integer cached = LicenseIndex.cachedId(licenseNo);
         try (Connection conn = Db.getConnection()) {
-            PreparedStatement check = conn.prepareStatement("SELECT customer_id FROM customer WHERE license_no = ?");
-            check.setString(1, licenseNo);
-            ResultSet rsCheck = check.executeQuery();
-            if (rsCheck.next()) return rsCheck.getInt("customer_id");
+            // Önbellek bu işleme özeldir: Başka bir istemci müşteriyi silmiş veya ehliyetini değiştirmiş olabilir.
+            // Birincil anahtarla tek satırlık bir kontrol yapılır; tutmazsa kayıt unutulur ve normal yola düşülür.
+            if (cached != null) {
+                if (customerHasLicense(conn, cached, licenseNo)) return cached;
+                LicenseIndex.forget(licenseNo);
+            }
 
-            PreparedStatement ps = conn.prepareStatement("INSERT INTO customer (full_name, phone, license_no) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, fullName);
-            ps.setString(2, phone);
-            ps.setString(3, licenseNo);
-            ps.executeUpdate();
-            ResultSet rs = ps.getGeneratedKeys();
-            return rs.next() ? rs.getInt(1) : -1;
+            // Filtre "olabilir" diyorsa (veya henüz kurulmadıysa) önce ara.
+            if (LicenseIndex.mightExist(licenseNo)) {
+                Integer existing = findCustomerId(conn, licenseNo);
+                if (existing != null) {
+                    LicenseIndex.remember(licenseNo, existing);
+                    return existing;
+                }
+            }
+
+            // Kesinlikle yeni: Tek sorguda ekle ve ID'yi al.
+            // Arada başka biri aynı ehliyetle eklediyse (UNIQUE çakışması) satır dönmez; o kaydı okuruz.
+            String sql = "INSERT INTO customer (full_name, phone, license_no) VALUES (?, ?, ?) " +
+                    "ON CONFLICT (license_no) DO NOTHING RETURNING " + RowMappers.CUSTOMER_COLUMNS;
+            Integer id;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, fullName);
+                ps.setString(2, phone);
+                ps.setString(3, licenseNo);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        Customer saved = RowMappers.CUSTOMER.map(rs);
+                        id = saved.getId();
+                        DuplicateDetector.customerSaved(saved);
+                        EventBus.publish(EntityEvent.saved(saved));
+                    } else {
+                        id = findCustomerId(conn, licenseNo);
+                    }
+                }
+            }
+            if (id == null) throw new Exception("HATA: Müşteri kaydedilemedi! (Ehliyet No: " + licenseNo + ")");
+            LicenseIndex.remember(licenseNo, id);
+            return id;
         }
     }
 
-    // AddReservationView içindeki tarih parametresi hatasını çözer
-    public static void addReservation(int customerId, int vehicleId, java.sql.Date start, java.sql.Date end, double price) throws Exception {
-        AuthService.requireLogin();
-        String sql = "INSERT INTO reservation (customer_id, vehicle_id, start_date, end_date, total_price, reservation_status) VALUES (?, ?, ?, ?, ?, 'PENDING')";
-        try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+    private static boolean customerHasLicense(Connection conn, int customerId, String licenseNo) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM customer WHERE customer_id = ? AND license_no = ?")) {
             ps.setInt(1, customerId);
-            ps.setInt(2, vehicleId);
-            ps.setDate(3, start);
-            ps.setDate(4, end);
-            ps.setDouble(5, price);
-            ps.executeUpdate();
+            ps.setString(2, licenseNo);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
-    public static void cancelReservation(int reservationId) throws Exception {
+    private static Integer findCustomerId(Connection conn, String licenseNo) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT customer_id FROM customer WHERE license_no = ?")) {
+            ps.setString(1, licenseNo);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    // Fiyat kuruş cinsinden gelir, tarihler LocalDate olarak gelir.
+    // Araç bu tarihlerde bakımda, başka bir onaylı rezervasyonda veya müşterideyse kayıt yapılmaz.
+    public static void addReservation(int customerId, int vehicleId, java.time.LocalDate start, java.time.LocalDate end, long priceKurus) throws Exception {
         AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.addReservation(customerId, vehicleId, start, end, priceKurus);
+            EventBus.publish(EntityEvent.stale(EntityEvent.Type.RESERVATION)); // Yeni ID sunucuda belli olur
+            return;
+        }
+        if (end.isBefore(start)) throw new Exception("HATA: Bitiş tarihi başlangıçtan önce olamaz!");
+        String sql = "INSERT INTO reservation (customer_id, vehicle_id, start_date, end_date, total_price, reservation_status) " +
+                "VALUES (?, ?, ?, ?, ?, 'PENDING') RETURNING reservation_id";
         try (Connection conn = Db.getConnection()) {
-            PreparedStatement ps = conn.prepareStatement("UPDATE reservation SET reservation_status='CANCELLED' WHERE reservation_id=?");
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                MaintenanceService.checkAvailability(conn, vehicleId, start, end, 0);
+                ps.setInt(1, customerId);
+                ps.setInt(2, vehicleId);
+                ps.setObject(3, start); // PostgreSQL sürücüsü LocalDate'i doğrudan DATE olarak yazar
+                ps.setObject(4, end);
+                ps.setBigDecimal(5, Money.toDecimal(priceKurus));
+                int id;
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    id = rs.getInt(1);
+                }
+                conn.commit();
+                EventBus.publish(EntityEvent.reservationCreated(id, customerId, vehicleId, start, end));
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Başlangıç gününün üzerinden 'graceDays' gün geçtiği hâlde onaylanmamış rezervasyonları iptal eder.
+    // Arka plan iş kuyruğundan (JobWorker, "reservation.expire-pending") çağrılır; işlemi çağıran yönetir.
+    // Aynı anda onaylanan bir kayıt satır kilidi bırakılınca tekrar değerlendirilir (PENDING değilse atlanır).
+    static int expireStalePending(Connection conn, int graceDays) throws SQLException {
+        String sql = "UPDATE reservation SET reservation_status = 'CANCELLED' " +
+                "WHERE reservation_status = 'PENDING' AND start_date < CURRENT_DATE - ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, graceDays);
+            return ps.executeUpdate();
+        }
+    }
+
+    public static void cancelReservation(int reservationId) throws Exception {
+        AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.reservationAction(reservationId, "cancel");
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.CANCEL));
+            return;
+        }
+        String sql = "UPDATE reservation SET reservation_status = 'CANCELLED' WHERE reservation_id = ? AND reservation_status IN ('PENDING', 'APPROVED')";
+        try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, reservationId);
-            ps.executeUpdate();
+            if (ps.executeUpdate() == 0) rejectTransition(conn, reservationId, ReservationStateMachine.Action.CANCEL);
+            EventBus.publish(EntityEvent.transition(reservationId, ReservationStateMachine.Action.CANCEL));
         }
     }
 
     public static void deleteReservation(int id) throws Exception {
         AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            ApiClient.deleteReservation(id);
+            EventBus.publish(EntityEvent.deleted(EntityEvent.Type.RESERVATION, id));
+            return;
+        }
         try (Connection conn = Db.getConnection()) {
+            // Araç müşterideyken (açık kiralama) kayıt silinemez; önce iade alınmalıdır.
+            ReservationStateMachine.check(loadState(conn, id), ReservationStateMachine.Action.DELETE);
             PreparedStatement ps1 = conn.prepareStatement("DELETE FROM rental WHERE reservation_id=?");
             ps1.setInt(1, id); ps1.executeUpdate();
             PreparedStatement ps2 = conn.prepareStatement("DELETE FROM reservation WHERE reservation_id=?");
             ps2.setInt(1, id); ps2.executeUpdate();
+            EventBus.publish(EntityEvent.deleted(EntityEvent.Type.RESERVATION, id));
         }
     }
 
     public static ObservableList<Reservation> searchReservations(String query) {
+        if (ApiClient.isEnabled()) return ApiClient.reservations(query);
         ObservableList<Reservation> list = FXCollections.observableArrayList();
-        String sql = "SELECT r.reservation_id, r.vehicle_id, r.reservation_status, r.start_date, v.brand, v.model, c.full_name FROM reservation r JOIN vehicle v ON r.vehicle_id = v.vehicle_id JOIN customer c ON r.customer_id = c.customer_id WHERE r.reservation_status ILIKE ? OR c.full_name ILIKE ?";
-        try (Connection conn = Db.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, "%" + query + "%");
-            ps.setString(2, "%" + query + "%");
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(new Reservation(rs.getInt("reservation_id"), rs.getInt("vehicle_id"), rs.getString("reservation_status"),
-                        rs.getDate("start_date"), rs.getString("brand"), rs.getString("model"), rs.getString("full_name")));
+        try {
+            streamReservations(query, list::add);
+        } catch (Exception e) { e.printStackTrace(); }
+        return list;
+    }
+
+    // Rezervasyonları (query null ise hepsini, değilse arama sonucunu) okundukları anda 'sink'e verir.
+    // Sunucu modu bununla listeyi belleğe toplamadan satırları doğrudan HTTP yanıtına yazar.
+    public static void streamReservations(String query, RowSink<? super Reservation> sink) throws SQLException, IOException {
+        String sql = query == null ? LIST_SELECT + "ORDER BY reservation_id DESC"
+                : LIST_SELECT + "WHERE reservation_status ILIKE ? OR full_name ILIKE ?";
+        try (Connection conn = Db.getReadConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (query != null) {
+                ps.setString(1, "%" + query + "%");
+                ps.setString(2, "%" + query + "%");
             }
+            RowMappers.RESERVATION_LIST.stream(ps, sink);
+        }
+    }
+
+    // ==========================================
+    // ARŞİV (bkz. ArchiveService)
+    // ==========================================
+
+    // Arşiv aramasında en fazla kaç kayıt döner (Arşiv canlı tablodan çok daha büyüktür).
+    private static final int ARCHIVE_SEARCH_LIMIT = 1000;
+
+    // Arşive taşınmış (eski, biten/iptal) rezervasyonlarda arama. Sütunlar RowMappers.RESERVATION_LIST ile aynıdır:
+    // Araç silinmişse durumu AVAILABLE sayılır; arşivdeki kaydın açık kiralaması olamaz.
+    // Arşivdeki kayıtlar salt okunurdur (Durum makinesi COMPLETED/CANCELLED için işlem açmaz).
+    public static ObservableList<Reservation> searchArchive(String query) {
+        if (ApiClient.isEnabled()) return ApiClient.archivedReservations(query);
+        ObservableList<Reservation> list = FXCollections.observableArrayList();
+        try {
+            streamArchive(query, list::add);
         } catch (Exception e) { e.printStackTrace(); }
         return list;
     }
-}
\ No newline at end of file
+
+    public static void streamArchive(String query, RowSink<? super Reservation> sink) throws SQLException, IOException {
+        String sql = "SELECT a.reservation_id, a.vehicle_id, a.reservation_status, a.start_date, a.brand, a.model, a.full_name, " +
+                "COALESCE(v.vehicle_status, 'AVAILABLE'), FALSE, a.customer_id " +
+                "FROM reservation_archive a LEFT JOIN vehicle v ON v.vehicle_id = a.vehicle_id " +
+                "WHERE a.reservation_status ILIKE ? OR a.full_name ILIKE ? ORDER BY a.reservation_id DESC LIMIT " + ARCHIVE_SEARCH_LIMIT;
+        try (Connection conn = Db.getReadConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, "%" + query + "%");
+            ps.setString(2, "%" + query + "%");
+            RowMappers.RESERVATION_LIST.stream(ps, sink);
+        }
+    }
+
+    // ==========================================
+    // ZAMAN ÇİZELGESİ (TimelineView)
+    // ==========================================
+    // [from, to] tarih aralığıyla kesişen (iptal edilmemiş) rezervasyon ve kiralamalar.
+    // Ekran sadece görünen tarih penceresini ister; kesişim sorgusu tarih aralığı indeksini kullanır
+    // (bkz. db/08_booking_timeline.sql). Geçmişe kaydırılınca arşivdeki biten rezervasyonlar da gösterilir.
+    public static List<TimelineBar> getTimeline(LocalDate from, LocalDate to) throws Exception {
+        if (ApiClient.isEnabled()) {
+            AuthService.requireLogin();
+            return ApiClient.timeline(from, to);
+        }
+        List<TimelineBar> bars = new ArrayList<>();
+        streamTimeline(from, to, bars::add);
+        return bars;
+    }
+
+    // Zaman çizelgesi satırlarını okundukları anda 'sink'e verir (Sunucu modu doğrudan yanıta yazar).
+    public static void streamTimeline(LocalDate from, LocalDate to, RowSink<? super TimelineBar> sink) throws Exception {
+        AuthService.requireLogin();
+        String sql = "SELECT r.reservation_id, r.vehicle_id, r.start_date, r.end_date, r.reservation_status, " +
+                "(rt.rental_id IS NOT NULL AND rt.return_date IS NULL), c.full_name " +
+                "FROM reservation r JOIN customer c ON c.customer_id = r.customer_id " +
+                "LEFT JOIN rental rt ON rt.reservation_id = r.reservation_id " +
+                "WHERE daterange(r.start_date, r.end_date, '[]') && daterange(?, ?, '[]') " +
+                "AND r.reservation_status <> 'CANCELLED' " +
+                "UNION ALL " +
+                "SELECT reservation_id, vehicle_id, start_date, end_date, reservation_status, FALSE, full_name " +
+                "FROM reservation_archive " +
+                "WHERE daterange(start_date, end_date, '[]') && daterange(?, ?, '[]') " +
+                "AND reservation_status <> 'CANCELLED'";
+        try (Connection conn = Db.getReadConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            ps.setObject(3, from);
+            ps.setObject(4, to);
+            RowMapper<TimelineBar> mapper = rs -> new TimelineBar(rs.getInt(1), rs.getInt(2),
+                    (int) rs.getObject(3, LocalDate.class).toEpochDay(), (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                    ReservationStatus.derive(rs.getString(5), rs.getBoolean(6)), rs.getString(7));
+            mapper.stream(ps, sink);
+        }
+    }
+
+    // ==========================================
+    // RAPOR DEPOSU İÇİN ARTIMLI YÜKLEME
+    // ==========================================
+    // ReservationColumnStore'u doldurur. Sadece son okunan ID'den büyük ID'ler ve daha önce görünmemiş
+    // ID'ler (geç onaylanan işlemler, bkz. IdGaps) çekilir; satırlar ID sırasıyla gelir.
+    // PostgreSQL sürücüsü, autoCommit kapalıyken fetchSize kadar satırı parça parça getirir;
+    // böylece milyonlarca satır tek seferde belleğe alınmaz.
+    // Arşivdeki kayıtlar da okunur (Raporlar tüm geçmişi kapsar); arşivlenmiş satırın durumu artık değişmez.
+    static int loadHistoryInto(IdGaps loaded, ReservationColumnStore store) throws SQLException {
+        String sql = "SELECT r.reservation_id, r.vehicle_id, r.customer_id, v.branch_id, r.start_date, r.end_date, " +
+                "r.total_price, r.reservation_status, v.brand, v.model " +
+                "FROM reservation r JOIN vehicle v ON r.vehicle_id = v.vehicle_id " +
+                "WHERE r.reservation_id > ? OR r.reservation_id = ANY(?) " +
+                "UNION ALL " +
+                "SELECT reservation_id, vehicle_id, customer_id, branch_id, start_date, end_date, " +
+                "total_price, reservation_status, brand, model " +
+                "FROM reservation_archive WHERE reservation_id > ? OR reservation_id = ANY(?) " +
+                "ORDER BY 1";
+        int count = 0;
+        try (Connection conn = Db.getReadConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                loaded.begin();
+                long xminBefore = IdGaps.snapshot(conn)[0];
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setFetchSize(5000);
+                    Array recheck = conn.createArrayOf("integer", loaded.recheck());
+                    ps.setInt(1, loaded.lastId());
+                    ps.setArray(2, recheck);
+                    ps.setInt(3, loaded.lastId());
+                    ps.setArray(4, recheck);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            loaded.seen(rs.getInt(1));
+                            store.append(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                                    rs.getObject(5, java.time.LocalDate.class), rs.getObject(6, java.time.LocalDate.class),
+                                    Money.toKurus(rs.getBigDecimal(7)), ReservationStatus.fromDb(rs.getString(8)),
+                                    rs.getString(9), rs.getString(10));
+                            count++;
+                        }
+                    }
+                }
+                long xmaxAfter = IdGaps.snapshot(conn)[1];
+                conn.commit();
+                loaded.finish(xminBefore, xmaxAfter);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return count;
+    }
+
+    // Daha önce yüklenmiş satırların güncel durumlarını depoya yazar (sadece 2 sütun okunur).
+    static void loadStatusesInto(ReservationColumnStore store) throws SQLException {
+        try (Connection conn = Db.getReadConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement()) {
+                st.setFetchSize(5000);
+                try (ResultSet rs = st.executeQuery("SELECT reservation_id, reservation_status FROM reservation")) {
+                    while (rs.next()) {
+                        store.updateStatus(rs.getInt(1), ReservationStatus.fromDb(rs.getString(2)));
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    // Tek bir rezervasyonun güncel durumunu (durum makinesinin ihtiyaç duyduğu kadarını) okur.
+    private static Reservation loadState(Connection conn, int reservationId) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(LIST_SELECT + "WHERE reservation_id = ?")) {
+            ps.setInt(1, reservationId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new Exception("HATA: Rezervasyon bulunamadı! (ID: " + reservationId + ")");
+                return RowMappers.RESERVATION_LIST.map(rs);
+            }
+        }
+    }
+
+    // Koşullu SQL hiçbir satırı etkilemediğinde nedenini bulup hata fırlatır.
+    private static void rejectTransition(Connection conn, int reservationId, ReservationStateMachine.Action action) throws Exception {
+        ReservationStateMachine.check(loadState(conn, reservationId), action);
+        // Kurallar şimdi geçiyorsa, satır biz okurken başka bir kullanıcı tarafından değiştirilmiştir.
+        throw new Exception("HATA: Kayıt başka bir kullanıcı tarafından değiştirildi. Lütfen listeyi yenileyip tekrar deneyin.");
+    }
+}
@@ -0,0 +1,141 @@
+package service;
+
+import model.Reservation;
+import model.ReservationStatus;
+import model.VehicleStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ReservationStateMachine Sınıfı (Rezervasyon Durum Makinesi)
+ * -----------------------------------------------------------
+ * Bir rezervasyonun hangi durumdan hangi duruma geçebileceğini TEK bir yerde tanımlar.
+ *
+ *   PENDING  --Onayla-------> APPROVED --Kiralama Başlat--> RENTED --Kiralama Bitir--> COMPLETED
+ *      |                         |
+ *      +--İptal--> CANCELLED <---+
+ *
+ * NEDEN?
+ * Eskiden "iptal edilmiş kaydı onaylamak" veya "hiç başlamamış kiralamayı bitirmek" gibi
+ * geçersiz işlemler ancak veritabanına gidip tetikleyiciden hata alınca fark ediliyordu.
+ * Artık ekrandaki (önbellekteki) satır bilgisiyle bu kararlar ANINDA verilir:
+ * - Arayüz, seçili satıra göre butonları açıp kapatır.
+ * - Servis, imkansız işlemleri veritabanına hiç gitmeden reddeder.
+ * Veritabanı tetikleyicileri son savunma hattı olarak yerinde durmaya devam eder.
+ */
+public final class ReservationStateMachine {
+
+    // Kullanıcının bir rezervasyon üzerinde yapabileceği işlemler.
+    public enum Action {
+        APPROVE("Onaylama"),
+        START_RENTAL("Kiralama başlatma"),
+        FINISH_RENTAL("Kiralama bitirme"),
+        CANCEL("İptal"),
+        DELETE("Silme");
+
+        private final String label;
+
+        Action(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    // ==========================================
+    // GEÇİŞ TABLOSU (TRANSITION TABLE)
+    // ==========================================
+    // Satır: mevcut durum, Sütun: işlem, Değer: işlem sonrası yeni durum.
+    // Tabloda olmayan (durum, işlem) çifti GEÇERSİZDİR.
+    // DELETE için değer, kaydın silinmeden önceki durumudur (satır zaten yok olur).
+    private static final Map<ReservationStatus, Map<Action, ReservationStatus>> TRANSITIONS = new EnumMap<>(ReservationStatus.class);
+
+    static {
+        allow(ReservationStatus.PENDING, Action.APPROVE, ReservationStatus.APPROVED);
+        allow(ReservationStatus.PENDING, Action.CANCEL, ReservationStatus.CANCELLED);
+        allow(ReservationStatus.PENDING, Action.DELETE, ReservationStatus.PENDING);
+
+        allow(ReservationStatus.APPROVED, Action.START_RENTAL, ReservationStatus.RENTED);
+        allow(ReservationStatus.APPROVED, Action.CANCEL, ReservationStatus.CANCELLED);
+        allow(ReservationStatus.APPROVED, Action.DELETE, ReservationStatus.APPROVED);
+
+        // Araç müşterideyken kayıt iptal edilemez veya silinemez; önce iade alınmalıdır.
+        allow(ReservationStatus.RENTED, Action.FINISH_RENTAL, ReservationStatus.COMPLETED);
+
+        allow(ReservationStatus.COMPLETED, Action.DELETE, ReservationStatus.COMPLETED);
+        allow(ReservationStatus.CANCELLED, Action.DELETE, ReservationStatus.CANCELLED);
+    }
+
+    private ReservationStateMachine() {
+    }
+
+    private static void allow(ReservationStatus from, Action action, ReservationStatus to) {
+        TRANSITIONS.computeIfAbsent(from, k -> new EnumMap<>(Action.class)).put(action, to);
+    }
+
+    // ==========================================
+    // KONTROL METOTLARI
+    // ==========================================
+
+    /**
+     * İşlem yapılamıyorsa kullanıcıya gösterilecek nedeni, yapılabiliyorsa 'null' döner.
+     * Hem geçiş tablosuna hem de araç durumuna bağlı koşullara (guard) bakar.
+     */
+    public static String rejectReason(ReservationStatus state, VehicleStatus vehicle, Action action) {
+        Map<Action, ReservationStatus> row = TRANSITIONS.get(state);
+        if (row == null || !row.containsKey(action)) {
+            return action.getLabel() + " işlemi " + state + " durumundaki rezervasyon için yapılamaz.";
+        }
+
+        // Araç durumuna bağlı koşullar (Veritabanı tetikleyicileriyle aynı kurallar)
+        if (vehicle != null) {
+            if (action == Action.APPROVE && vehicle != VehicleStatus.AVAILABLE) {
+                return "Araç şu an müsait değil! (Durum: " + vehicle + ")";
+            }
+            if (action == Action.START_RENTAL && vehicle == VehicleStatus.RENTED) {
+                return "Araç şu an zaten kirada!";
+            }
+            if (action == Action.START_RENTAL && vehicle == VehicleStatus.MAINTENANCE) {
+                return "Araç şu an BAKIMDA. Teslimat yapılamaz!";
+            }
+        }
+        return null;
+    }
+
+    public static boolean canApply(Reservation r, Action action) {
+        return r != null && rejectReason(r.getStatus(), r.getVehicleStatus(), action) == null;
+    }
+
+    /**
+     * İşlem geçersizse hata fırlatır, geçerliyse işlem sonrası yeni durumu döner.
+     */
+    public static ReservationStatus check(ReservationStatus state, VehicleStatus vehicle, Action action) throws Exception {
+        String reason = rejectReason(state, vehicle, action);
+        if (reason != null) throw new Exception("HATA: " + reason);
+        return TRANSITIONS.get(state).get(action);
+    }
+
+    public static ReservationStatus check(Reservation r, Action action) throws Exception {
+        return check(r.getStatus(), r.getVehicleStatus(), action);
+    }
+
+    // İşlemden sonra ARACIN yeni durumu (Veritabanı tetikleyicileriyle aynı: trgReserve, trgRentalInsert,
+    // trgReturnDate). İşlem aracı etkilemiyorsa 'null'. Açık pencereler listelerini bununla günceller (EventBus).
+    public static VehicleStatus vehicleStatusAfter(Action action) {
+        switch (action) {
+            case APPROVE: return VehicleStatus.RESERVED;
+            case START_RENTAL: return VehicleStatus.RENTED;
+            case FINISH_RENTAL: return VehicleStatus.AVAILABLE;
+            default: return null;
+        }
+    }
+
+    // İşlemden sonra rezervasyonun yeni durumu (Geçersiz işlemse 'null').
+    public static ReservationStatus statusAfter(ReservationStatus state, Action action) {
+        Map<Action, ReservationStatus> row = TRANSITIONS.get(state);
+        return row == null ? null : row.get(action);
+    }
+}
@@ -0,0 +1,407 @@
+package service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * RoaringBitmap Sınıfı (Sıkıştırılmış Tamsayı Kümesi)
+ * ---------------------------------------------------
+ * Pozitif tamsayı kümesi (Örn: araç ID'leri). Filo filtrelerinde her öznitelik değeri
+ * (şube, durum, marka, fiyat aralığı...) bir küme olarak tutulur; filtre = küme kesişimi/birleşimi.
+ *
+ * Roaring düzeni: Sayının üst 16 biti bir "kova" seçer, alt 16 biti kovanın içinde tutulur.
+ * Her kova içeriğine göre iki biçimden biridir:
+ * - SEYREK (ArrayContainer): Sıralı char[] dizisi. 4096 elemana kadar (eleman başına 2 bayt).
+ * - YOĞUN  (BitmapContainer): 65536 bitlik long[1024] (sabit 8 KB). 4096 elemandan fazlası için.
+ * Böylece küçük kümeler az yer kaplar, büyük kümelerde kesişim 64'er bit birden yapılır.
+ *
+ * and / or yeni bir küme döner (girdiler değişmez). add / remove kümeyi yerinde değiştirir.
+ * Eşzamanlı kullanım için tasarlanmamıştır (Tek iş parçacığından kullanılmalıdır).
+ */
+public final class RoaringBitmap {
+
+    private static final int ARRAY_MAX = 4096; // Seyrek kovanın en fazla eleman sayısı
+
+    private char[] keys = new char[4];              // Kova anahtarları (üst 16 bit), sıralı
+    private Container[] containers = new Container[4];
+    private int size;                               // Kova sayısı
+
+    // ==========================================
+    // 1. TEMEL İŞLEMLER
+    // ==========================================
+
+    public void add(int x) {
+        char high = (char) (x >>> 16);
+        int i = find(high);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) x);
+        } else {
+            insertAt(-i - 1, high, new ArrayContainer().add((char) x));
+        }
+    }
+
+    public void remove(int x) {
+        int i = find((char) (x >>> 16));
+        if (i < 0) return;
+        Container c = containers[i].remove((char) x);
+        if (c.cardinality() == 0) removeAt(i);
+        else containers[i] = c;
+    }
+
+    public boolean contains(int x) {
+        int i = find((char) (x >>> 16));
+        return i >= 0 && containers[i].contains((char) x);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality();
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Elemanları küçükten büyüğe gezer.
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            containers[i].forEach(low -> action.accept(high | low));
+        }
+    }
+
+    // ==========================================
+    // 2. KÜME İŞLEMLERİ
+    // ==========================================
+
+    // Kesişim (VE)
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap out = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                Container c = a.containers[i].and(b.containers[j]);
+                if (c.cardinality() > 0) out.insertAt(out.size, a.keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    // Birleşim (VEYA)
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap out = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                out.insertAt(out.size, a.keys[i], a.containers[i++].copy());
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                out.insertAt(out.size, b.keys[j], b.containers[j++].copy());
+            } else {
+                out.insertAt(out.size, a.keys[i], a.containers[i++].or(b.containers[j++]));
+            }
+        }
+        return out;
+    }
+
+    // |a ∩ b|: Kesişim kümesini oluşturmadan sayar (Filtre sayaçları için).
+    public static int andCardinality(RoaringBitmap a, RoaringBitmap b) {
+        int total = 0, i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else total += a.containers[i++].andCardinality(b.containers[j++]);
+        }
+        return total;
+    }
+
+    // ==========================================
+    // 3. KOVA DİZİSİ
+    // ==========================================
+
+    private int find(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertAt(int i, char high, Container c) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = high;
+        containers[i] = c;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    // ==========================================
+    // 4. KOVALAR
+    // ==========================================
+
+    // Değiştiren işlemler kovanın kendisini ya da (biçim değiştiyse) yerine geçen kovayı döner.
+    private abstract static class Container {
+        abstract Container add(char x);
+        abstract Container remove(char x);
+        abstract boolean contains(char x);
+        abstract int cardinality();
+        abstract Container and(Container other);
+        abstract Container or(Container other);
+        abstract int andCardinality(Container other);
+        abstract Container copy();
+        abstract void forEach(IntConsumer action);
+    }
+
+    // Seyrek kova: Sıralı dizi
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char x) {
+            int i = Arrays.binarySearch(values, 0, size, x);
+            if (i >= 0) return this;
+            if (size == ARRAY_MAX) return toBitmap().add(x);
+            i = -i - 1;
+            if (size == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, size * 2)));
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = x;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = Arrays.binarySearch(values, 0, size, x);
+            if (i < 0) return this;
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+            return this;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return Arrays.binarySearch(values, 0, size, x) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] out = new char[size];
+            int n = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer o = (ArrayContainer) other;
+                int i = 0, j = 0;
+                while (i < size && j < o.size) {
+                    if (values[i] < o.values[j]) i++;
+                    else if (values[i] > o.values[j]) j++;
+                    else {
+                        out[n++] = values[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) out[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) return other.or(this);
+            ArrayContainer o = (ArrayContainer) other;
+            char[] out = new char[size + o.size];
+            int n = 0, i = 0, j = 0;
+            while (i < size || j < o.size) {
+                if (j == o.size || (i < size && values[i] < o.values[j])) out[n++] = values[i++];
+                else if (i == size || values[i] > o.values[j]) out[n++] = o.values[j++];
+                else {
+                    out[n++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(out, n);
+            return n > ARRAY_MAX ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int n = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer o = (ArrayContainer) other;
+                int i = 0, j = 0;
+                while (i < size && j < o.size) {
+                    if (values[i] < o.values[j]) i++;
+                    else if (values[i] > o.values[j]) j++;
+                    else {
+                        n++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) n++;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 4)), size);
+        }
+
+        @Override
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < size; i++) action.accept(values[i]);
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer b = new BitmapContainer();
+            for (int i = 0; i < size; i++) b.add(values[i]);
+            return b;
+        }
+    }
+
+    // Yoğun kova: 65536 bit
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0) {
+                words[x >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) != 0) {
+                words[x >>> 6] &= ~bit;
+                if (--cardinality <= ARRAY_MAX) return toArray();
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] o = ((BitmapContainer) other).words;
+            long[] out = new long[1024];
+            int n = 0;
+            for (int i = 0; i < 1024; i++) {
+                out[i] = words[i] & o[i];
+                n += Long.bitCount(out[i]);
+            }
+            BitmapContainer result = new BitmapContainer(out, n);
+            return n <= ARRAY_MAX ? result.toArray() : result;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] out = words.clone();
+            int n = cardinality;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer o = (ArrayContainer) other;
+                for (int i = 0; i < o.size; i++) {
+                    char x = o.values[i];
+                    long bit = 1L << x;
+                    if ((out[x >>> 6] & bit) == 0) {
+                        out[x >>> 6] |= bit;
+                        n++;
+                    }
+                }
+            } else {
+                long[] o = ((BitmapContainer) other).words;
+                n = 0;
+                for (int i = 0; i < 1024; i++) {
+                    out[i] |= o[i];
+                    n += Long.bitCount(out[i]);
+                }
+            }
+            return new BitmapContainer(out, n);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) return other.andCardinality(this);
+            long[] o = ((BitmapContainer) other).words;
+            int n = 0;
+            for (int i = 0; i < 1024; i++) n += Long.bitCount(words[i] & o[i]);
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < 1024; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    action.accept((i << 6) + Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        ArrayContainer toArray() {
+            char[] out = new char[cardinality];
+            int[] n = {0};
+            forEach(x -> out[n[0]++] = (char) x);
+            return new ArrayContainer(out, cardinality);
+        }
+    }
+}
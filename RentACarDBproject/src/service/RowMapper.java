@@ -0,0 +1,45 @@
+package service;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * RowMapper (Satır Dönüştürücü)
+ * -----------------------------
+ * Bir ResultSet satırını Java nesnesine çeviren fonksiyon.
+ * Hazır dönüştürücüler ve bunlara ait sütun listeleri 'RowMappers' sınıfındadır.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+
+    // Kalan tüm satırları dönüştürüp listeye ekler.
+    default void readAll(ResultSet rs, List<? super T> out) throws SQLException {
+        while (rs.next()) {
+            out.add(map(rs));
+        }
+    }
+
+    // Sorguyu çalıştırır ve her satırı okunduğu anda 'sink'e verir; satırlar listede toplanmaz.
+    // PostgreSQL sürücüsü, autoCommit kapalıyken fetchSize kadar satırı parça parça getirir.
+    default void stream(PreparedStatement ps, RowSink<? super T> sink) throws SQLException, IOException {
+        Connection conn = ps.getConnection();
+        conn.setAutoCommit(false);
+        try {
+            ps.setFetchSize(500);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(map(rs));
+                }
+            }
+        } finally {
+            conn.rollback(); // Sadece okuma yapıldı
+            conn.setAutoCommit(true);
+        }
+    }
+}
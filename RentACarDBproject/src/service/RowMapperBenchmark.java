@@ -0,0 +1,103 @@
+package service;
+
+import model.Money;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Vehicle;
+import model.VehicleStatus;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RowMapperBenchmark (Satır Dönüştürme Ölçümü)
+ * --------------------------------------------
+ * Eski yöntemi ('SELECT *' + sütunu adıyla okuma) yeni yöntemle (açık sütun listesi + RowMappers)
+ * aynı veritabanı ve aynı sorgu (FROM/JOIN) üzerinde karşılaştırır ve saniyedeki satır sayısını yazar.
+ * Rezervasyonda ayrıca JOIN yerine 'reservation_listing' tablosundan okumanın hızı da ayrı bir satırda ölçülür.
+ *
+ * Çalıştırma: java service.RowMapperBenchmark [tekrar sayısı]   (varsayılan 20)
+ * Anlamlı bir sonuç için rezervasyon tablosunda en az birkaç yüz bin satır olmalıdır.
+ */
+public final class RowMapperBenchmark {
+
+    private interface Query {
+        int run(Connection conn) throws SQLException;
+    }
+
+    private RowMapperBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        String oldVehicles = "SELECT * FROM vehicle ORDER BY vehicle_id";
+        String newVehicles = "SELECT " + RowMappers.VEHICLE_COLUMNS + " FROM vehicle ORDER BY vehicle_id";
+        // Rezervasyonda iki yöntem de AYNI 4 tabloluk JOIN'i okur; fark sadece sütun seçimi ve okuma biçimidir.
+        String reservationJoin = "FROM reservation r JOIN vehicle v ON r.vehicle_id = v.vehicle_id JOIN customer c ON r.customer_id = c.customer_id "
+                + "LEFT JOIN rental rt ON rt.reservation_id = r.reservation_id";
+        String oldReservations = "SELECT r.*, v.*, c.*, (rt.rental_id IS NOT NULL AND rt.return_date IS NULL) AS rental_open "
+                + reservationJoin;
+        // Sütun sırası RowMappers.RESERVATION_LIST_COLUMNS ile aynıdır.
+        String newReservations = "SELECT r.reservation_id, r.vehicle_id, r.reservation_status, r.start_date, v.brand, v.model, "
+                + "c.full_name, v.vehicle_status, (rt.rental_id IS NOT NULL AND rt.return_date IS NULL), r.customer_id "
+                + reservationJoin;
+        // Ayrı karşılaştırma: Aynı satırlar, JOIN yerine trigger'larla tutulan 'reservation_listing' tablosundan.
+        String listingReservations = "SELECT " + RowMappers.RESERVATION_LIST_COLUMNS + " FROM reservation_listing";
+
+        measure("Araç (ada göre)", rounds, conn -> read(conn, oldVehicles, RowMapperBenchmark::vehicleByName));
+        measure("Araç (sıraya göre)", rounds, conn -> read(conn, newVehicles, RowMappers.VEHICLE));
+        measure("Rezervasyon (ada göre)", rounds, conn -> read(conn, oldReservations, RowMapperBenchmark::reservationByName));
+        measure("Rezervasyon (sıraya göre)", rounds, conn -> read(conn, newReservations, RowMappers.RESERVATION_LIST));
+        measure("Rezervasyon (listing tablosu)", rounds, conn -> read(conn, listingReservations, RowMappers.RESERVATION_LIST));
+    }
+
+    private static void measure(String label, int rounds, Query query) throws SQLException {
+        try (Connection conn = Db.getReadConnection()) {
+            conn.setAutoCommit(false); // fetchSize'ın işe yaraması için (satırlar parça parça gelir)
+            query.run(conn); // Isınma (JIT derlemesi ve sorgu planı)
+
+            long rows = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                rows += query.run(conn);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-30s %,12.0f satır/sn  (%,d satır, %.2f sn)%n", label, rows / seconds, rows, seconds);
+        }
+    }
+
+    // İki yöntem için de aynı okuma döngüsü; sadece sorgu ve dönüştürücü farklıdır.
+    private static <T> int read(Connection conn, String sql, RowMapper<T> mapper) throws SQLException {
+        List<T> out = new ArrayList<>();
+        try (Statement st = conn.createStatement()) {
+            st.setFetchSize(5000);
+            try (ResultSet rs = st.executeQuery(sql)) {
+                mapper.readAll(rs, out);
+            }
+        }
+        return out.size();
+    }
+
+    // ==========================================
+    // ESKİ DÖNÜŞTÜRÜCÜLER (Karşılaştırma için)
+    // ==========================================
+
+    private static Vehicle vehicleByName(ResultSet rs) throws SQLException {
+        return new Vehicle(rs.getInt("vehicle_id"), rs.getString("plate"), rs.getString("brand"), rs.getString("model"),
+                Money.toKurus(rs.getBigDecimal("daily_price")), VehicleStatus.fromDb(rs.getString("vehicle_status")),
+                rs.getInt("version"), rs.getInt("branch_id"), rs.getInt("current_branch_id"));
+    }
+
+    private static Reservation reservationByName(ResultSet rs) throws SQLException {
+        return new Reservation(rs.getInt("reservation_id"), rs.getInt("vehicle_id"), rs.getInt("customer_id"),
+                ReservationStatus.derive(rs.getString("reservation_status"), rs.getBoolean("rental_open")),
+                rs.getObject("start_date", java.time.LocalDate.class),
+                rs.getString("brand"), rs.getString("model"), rs.getString("full_name"),
+                VehicleStatus.fromDb(rs.getString("vehicle_status")));
+    }
+}
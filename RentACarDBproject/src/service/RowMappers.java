@@ -0,0 +1,75 @@
+package service;
+
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Vehicle;
+import model.VehicleStatus;
+
+/**
+ * RowMappers Sınıfı (Sütun Sırasına Göre Dönüştürücüler)
+ * ------------------------------------------------------
+ * Her model için SABİT bir sütun listesi ve o listeye göre yazılmış bir dönüştürücü tutar.
+ *
+ * NEDEN?
+ * Eskiden sorgular 'SELECT *' ile tüm sütunları çekiyor, dönüştürücüler de her satırda
+ * sütunu ADIYLA arıyordu (rs.getInt("vehicle_id")). Sürücü her çağrıda adı küçük harfe çevirip
+ * bir tabloda arar; milyonlarca satırda bu gereksiz bir yüktür.
+ * Artık sorgu, sütunları buradaki listeyle AÇIKÇA sayar ("SELECT " + VEHICLE_COLUMNS + " FROM ...");
+ * böylece her sütunun sırası derleme anında bellidir ve dönüştürücü doğrudan numarasıyla (1, 2, 3...) okur.
+ *
+ * KURAL: Sütun listesi ile dönüştürücü her zaman BİRLİKTE değiştirilmelidir.
+ */
+final class RowMappers {
+
+    private RowMappers() {
+    }
+
+    // ==========================================
+    // ARAÇ (vehicle)
+    // ==========================================
+    static final String VEHICLE_COLUMNS = "vehicle_id, plate, brand, model, daily_price, vehicle_status, version, "
+            + "branch_id, current_branch_id";
+
+    static final RowMapper<Vehicle> VEHICLE = rs -> new Vehicle(
+            rs.getInt(1),                                  // vehicle_id
+            rs.getString(2),                               // plate
+            rs.getString(3),                               // brand
+            rs.getString(4),                               // model
+            Money.toKurus(rs.getBigDecimal(5)),            // daily_price (kuruşa çevrilir)
+            VehicleStatus.fromDb(rs.getString(6)),         // vehicle_status
+            rs.getInt(7),                                  // version
+            rs.getInt(8),                                  // branch_id
+            rs.getInt(9));                                 // current_branch_id
+
+    // ==========================================
+    // MÜŞTERİ (customer)
+    // ==========================================
+    static final String CUSTOMER_COLUMNS = "customer_id, full_name, phone, license_no, version";
+
+    static final RowMapper<Customer> CUSTOMER = rs -> new Customer(
+            rs.getInt(1),       // customer_id
+            rs.getString(2),    // full_name
+            rs.getString(3),    // phone
+            rs.getString(4),    // license_no
+            rs.getInt(5));      // version
+
+    // ==========================================
+    // REZERVASYON LİSTESİ (reservation_listing)
+    // ==========================================
+    // Trigger'larla güncel tutulan denormalize tablo (bkz. db/05_reservation_listing.sql); JOIN gerekmez.
+    static final String RESERVATION_LIST_COLUMNS = "reservation_id, vehicle_id, reservation_status, start_date, "
+            + "brand, model, full_name, vehicle_status, rental_open, customer_id";
+
+    static final RowMapper<Reservation> RESERVATION_LIST = rs -> new Reservation(
+            rs.getInt(1),                                                  // reservation_id
+            rs.getInt(2),                                                  // vehicle_id
+            rs.getInt(10),                                                 // customer_id
+            ReservationStatus.derive(rs.getString(3), rs.getBoolean(9)),   // reservation_status (+ açık kiralama)
+            rs.getObject(4, java.time.LocalDate.class),                    // start_date
+            rs.getString(5),                                               // brand
+            rs.getString(6),                                               // model
+            rs.getString(7),                                               // full_name
+            VehicleStatus.fromDb(rs.getString(8)));                        // vehicle_status
+}
@@ -0,0 +1,16 @@
+package service;
+
+import java.io.IOException;
+
+/**
+ * RowSink (Satır Alıcı)
+ * ---------------------
+ * Akan (streaming) okumalarda her satırı okunduğu anda alan fonksiyon.
+ * Sunucu modu bununla satırları listede toplamadan doğrudan HTTP yanıtına yazar;
+ * arayüzün liste metotları ise 'list::add' verir.
+ */
+@FunctionalInterface
+public interface RowSink<T> {
+
+    void accept(T row) throws IOException;
+}
@@ -0,0 +1,108 @@
+package service;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Session Sınıfı (Oturum)
+ * -----------------------
+ * Giriş yapmış BİR kullanıcının kimlik bilgilerini taşır: kullanıcı ID'si, adı, rolü ve şubesi.
+ *
+ * Eskiden rol bilgisi 'static' bir değişkende tutuluyordu; bu yüzden bir JVM aynı anda
+ * sadece tek bir kullanıcıya hizmet edebiliyordu. Artık her kullanıcının kendi Session nesnesi var:
+ * - Masaüstü (JavaFX) uygulamasında: Giriş yapan kullanıcının oturumu "varsayılan oturum" olur.
+ * - Sunucu modunda: Her istek, ilgili kullanıcının oturumuyla 'runAs' içinde çalıştırılır.
+ *   Böylece aynı anda birçok kullanıcı tek bağlantı havuzunu ve tek önbelleği paylaşır.
+ *
+ * Servis metotları yetki kontrolü için 'Session.current()' ile o anki oturuma bakar.
+ */
+public final class Session {
+
+    private final int userId;
+    private final String username;
+    private final String role;       // "ADMIN" veya "STAFF"
+    private final Integer branchId;  // Kullanıcının bağlı olduğu şube (Merkez kullanıcılar için null)
+
+    // Bu oturumun ana veritabanı sunucusunu en son kullandığı an (System.nanoTime).
+    // Db.getReadConnection(), yazmadan hemen sonra okumaları da ana sunucuya yönlendirmek için bakar.
+    // 0: Henüz hiç kullanmadı.
+    private volatile long lastPrimaryUse;
+
+    // İş parçacığına (thread) bağlı oturum. Sunucu modunda her istek kendi oturumunu buraya bağlar.
+    private static final ThreadLocal<Session> BOUND = new ThreadLocal<>();
+
+    // Masaüstü uygulamasında giriş yapan kullanıcının oturumu (iş parçacığına bağlı oturum yoksa kullanılır).
+    private static volatile Session defaultSession;
+
+    public Session(int userId, String username, String role, Integer branchId) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.branchId = branchId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Integer getBranchId() {
+        return branchId;
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+
+    void markPrimaryUse() {
+        lastPrimaryUse = System.nanoTime();
+    }
+
+    boolean usedPrimaryWithin(long nanos) {
+        long last = lastPrimaryUse;
+        return last != 0 && System.nanoTime() - last < nanos;
+    }
+
+    // ==========================================
+    // OTURUM BAĞLAMA (BINDING)
+    // ==========================================
+
+    /**
+     * O an çalışan kodun oturumunu verir. Giriş yapılmamışsa 'null' döner.
+     */
+    public static Session current() {
+        Session bound = BOUND.get();
+        return bound != null ? bound : defaultSession;
+    }
+
+    /**
+     * Verilen işi, verilen oturumla çalıştırır. İş bitince (hata olsa bile) önceki oturum geri yüklenir.
+     * Sunucu modunda her istek bu metotla çalıştırılır.
+     */
+    public static <T> T runAs(Session session, Callable<T> work) throws Exception {
+        Session previous = BOUND.get();
+        BOUND.set(session);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) BOUND.remove();
+            else BOUND.set(previous);
+        }
+    }
+
+    // Masaüstü uygulaması: giriş/çıkışta varsayılan oturumu ayarlar.
+    static void setDefault(Session session) {
+        defaultSession = session;
+    }
+
+    @Override
+    public String toString() {
+        return username + " (" + role + ")";
+    }
+}
@@ -0,0 +1,18 @@
+package service;
+
+/**
+ * StaleDataException (Eski Veri Hatası)
+ * -------------------------------------
+ * Ekranda okunan kayıt, kaydedilmeden önce başka bir kullanıcı tarafından değiştirildiğinde
+ * ve değişiklikler otomatik olarak birleştirilemediğinde fırlatılır.
+ * Arayüz bu durumda kullanıcıdan listeyi yenileyip işlemi tekrar yapmasını ister.
+ * Sunucu modunda HTTP 409 (Conflict) olarak taşınır.
+ */
+public class StaleDataException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public StaleDataException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StubSmsGateway Sınıfı (Sahte SMS Sağlayıcısı)
+ * ---------------------------------------------
+ * Mesajları göndermek yerine konsola yazar ve son SENT_HISTORY tanesini bellekte tutar. Elle çalıştırılan
+ * ReminderDispatcher turlarında (gerçek sağlayıcı tanımlı değilse) ve denemelerde kullanılır; böylece
+ * hatırlatmalar SMS ücreti ödemeden denenebilir. Arka plan işi bu sağlayıcıyla çalışmaz (bkz. JobWorker).
+ * Geçersiz numaralar (+90 ile başlayıp 10 hane içermeyen) gerçek sağlayıcı gibi reddedilir.
+ */
+public class StubSmsGateway implements NotificationGateway {
+
+    // Bellekte tutulan en fazla mesaj sayısı (Eskiler atılır; uzun süre açık kalan süreçte bellek büyümez).
+    static final int SENT_HISTORY = 1000;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Deque<Message> sent = new ArrayDeque<>();
+
+    @Override
+    public int maxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public List<Result> send(List<Message> batch) {
+        List<Result> results = new ArrayList<>(batch.size());
+        for (Message m : batch) {
+            if (!m.phone.matches("\\+90\\d{10}")) {
+                results.add(Result.failed("Geçersiz telefon numarası: " + m.phone));
+                continue;
+            }
+            synchronized (sent) {
+                if (sent.size() == SENT_HISTORY) sent.removeFirst();
+                sent.addLast(m);
+            }
+            System.out.println("[SMS] " + m.phone + ": " + m.text);
+            results.add(Result.sent("stub-" + nextId.getAndIncrement()));
+        }
+        return results;
+    }
+
+    // Son "gönderilen" mesajlar (En fazla SENT_HISTORY, eskiden yeniye).
+    public List<Message> getSent() {
+        synchronized (sent) {
+            return new ArrayList<>(sent);
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package service;
+
+import model.TelemetryReading;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TelemetryIngestor Sınıfı (Yüksek Hacimli Telemetri Alıcısı)
+ * -----------------------------------------------------------
+ * Araç cihazlarından gelen kilometre, yakıt ve konum okumalarını alır ve vehicle_telemetry tablosuna yazar
+ * (bkz. db/13_telemetry.sql). Saniyede on binlerce okumayı sabit bellekle karşılayacak şekilde kurulmuştur:
+ *
+ * GİRİŞ (İkisi birlikte de açılabilir):
+ *   - Yerel soket (TCP, sadece localhost): Her satır bir okuma. Her bağlantı kendi sanal iş parçacığında okunur.
+ *   - Bırakma klasörü: '*.csv' dosyaları isim sırasıyla okunur. Her dosya kuyruğa girmeden TEK bir işlemde yazılır;
+ *     dosyanın adı aynı işlemde vehicle_telemetry_file tablosuna eklenir ve dosya sonra 'done/' altına taşınır.
+ *     Taşınamadan çökülürse dosya tekrar okunur ama tabloda bulunduğu için okumaları ikinci kez eklenmez.
+ *     Yazan taraf dosyayı önce başka bir uzantıyla yazıp sonra '.csv' olarak yeniden adlandırmalıdır; dosya adları
+ *     benzersiz olmalıdır (örn. zaman damgası içermeli).
+ *
+ *   Satır biçimi: aracId,zaman,kilometre,yakıtYüzdesi[,enlem,boylam]
+ *   (zaman: epoch milisaniye veya ISO-8601, örn. 2026-10-19T08:30:00Z). Boş ve '#' ile başlayan satırlar atlanır,
+ *   hatalı satırlar sayılıp atılır.
+ *
+ * TAMPON VE GERİ BASKI (Backpressure):
+ *   - Soketten gelen okumalar CHUNK_ROWS'luk parçalar halinde SINIRLI bir kuyruğa konur (Varsayılan en fazla 200.000 okuma,
+ *     '-Drentacar.telemetry.bufferRows'). Parça parça koymak, kuyruktaki kilit yarışını satır başına değil
+ *     parça başına indirir.
+ *   - Kuyruk doluysa (veritabanı yetişemiyor veya erişilemiyor) okuyan iş parçacıkları bekler ve soketten okumayı
+ *     bırakır; TCP penceresi dolar ve gönderen yavaşlar. Bellekte kuyruk + yazılmakta olan parça kadar okuma
+ *     bulunur (En fazla BUFFER_ROWS + BATCH_ROWS); okuma atılmaz.
+ *
+ * YAZMA (Tek yazıcı iş parçacığı):
+ *   - Kuyrukta ne varsa (en fazla BATCH_ROWS okuma) alınır ve TEK bir COPY ile yazılır. Yük arttıkça parçalar
+ *     kendiliğinden büyür: Yazıcı meşgulken biriken her şey bir sonraki COPY'ye girer.
+ *   - Aynı işlemde her aracın bu parçadaki en yeni okuması vehicle_telemetry_latest tablosuna işlenir.
+ *   - Parçanın ayına ait bölüm (partition) yoksa önce o açılır.
+ *   - Yazma hata verirse parça artan bekleme süreleriyle tekrar denenir; bu sırada kuyruk dolar ve geri baskı devreye girer.
+ *
+ * Her aracın son okuması bellekte de tutulur (latest; başlarken vehicle_telemetry_latest tablosundan doldurulur);
+ * araç listesi bunu TelemetryService üzerinden okur.
+ *
+ * Başlatma: java service.TelemetryIngestor [port] [bırakma klasörü]   (varsayılan port 9095)
+ * Sunucu modunda (ApiServer) '-Drentacar.telemetry.port' veya '-Drentacar.telemetry.dir' verilirse birlikte başlar.
+ */
+public final class TelemetryIngestor {
+
+    public static final int DEFAULT_PORT = 9095;
+
+    // Üreticinin kuyruğa tek seferde koyduğu en fazla okuma.
+    static final int CHUNK_ROWS = 512;
+
+    // Tek COPY'de yazılacak en fazla okuma.
+    static final int BATCH_ROWS = 50_000;
+
+    // Bellekte bekleyebilecek en fazla okuma (Kuyruk kapasitesi = BUFFER_ROWS / CHUNK_ROWS parça).
+    private static final int BUFFER_ROWS = Integer.getInteger("rentacar.telemetry.bufferRows", 200_000);
+
+    private static final long DROP_SCAN_MILLIS = 1000;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+
+    private static final String COPY_SQL =
+            "COPY vehicle_telemetry (vehicle_id, recorded_at, odometer_km, fuel_pct, lat, lon) FROM STDIN (FORMAT csv)";
+
+    // Zaman milisaniye olarak gelir; PostgreSQL tarafında timestamptz'ye çevrilir.
+    private static final String UPSERT_LATEST =
+            "INSERT INTO vehicle_telemetry_latest AS l (vehicle_id, recorded_at, odometer_km, fuel_pct, lat, lon) " +
+            "SELECT v, to_timestamp(ms / 1000.0), o, f, la, lo " +
+            "FROM unnest(?::int[], ?::bigint[], ?::int[], ?::smallint[], ?::float8[], ?::float8[]) AS t(v, ms, o, f, la, lo) " +
+            "ON CONFLICT (vehicle_id) DO UPDATE SET recorded_at = EXCLUDED.recorded_at, odometer_km = EXCLUDED.odometer_km, " +
+            "fuel_pct = EXCLUDED.fuel_pct, lat = EXCLUDED.lat, lon = EXCLUDED.lon " +
+            "WHERE EXCLUDED.recorded_at > l.recorded_at";
+
+    // Dosya daha önce yüklenmişse satır eklenmez (0 döner).
+    private static final String MARK_FILE =
+            "INSERT INTO vehicle_telemetry_file (file_name) VALUES (?) ON CONFLICT (file_name) DO NOTHING";
+
+    // Dosya COPY'ye bu büyüklükte parçalar halinde akıtılır.
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    // DEFAULT bölümünde yeni bölümün aralığına düşen satır var (Bölüm açılamaz).
+    private static final String CHECK_VIOLATION = "23514";
+
+    // Bu JVM'de çalışan alıcı (TelemetryService son okumaları buradan alır).
+    private static volatile TelemetryIngestor current;
+
+    private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(Math.max(1, BUFFER_ROWS / CHUNK_ROWS));
+    private final Map<Integer, TelemetryReading> latest = new ConcurrentHashMap<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet(); // Yazıcı ve klasör iş parçacıkları
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private volatile boolean stopping;
+    private ServerSocket server;
+    private ExecutorService readers;
+    private Thread writer;
+    private Thread dropWatcher;
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path dropDir = args.length > 1 ? Path.of(args[1]) : null;
+        TelemetryIngestor ingestor = new TelemetryIngestor();
+        ingestor.start(port, dropDir);
+        Runtime.getRuntime().addShutdownHook(new Thread(ingestor::stop));
+        System.out.println("[Telemetri] localhost:" + port + " dinleniyor" + (dropDir != null ? ", klasör: " + dropDir : ""));
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("[Telemetri] " + ingestor.stats());
+        }
+    }
+
+    public static TelemetryIngestor current() {
+        return current;
+    }
+
+    // ==========================================
+    // 1. BAŞLAT / DURDUR
+    // ==========================================
+
+    // port <= 0 ise soket, dropDir null ise klasör izleme açılmaz.
+    public synchronized void start(int port, Path dropDir) throws IOException {
+        if (writer != null) throw new IllegalStateException("Telemetri alıcısı zaten çalışıyor");
+        if (port > 0) {
+            server = new ServerSocket();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)); // Port doluysa hiçbir şey başlamaz
+        }
+        if (dropDir != null) Files.createDirectories(dropDir.resolve("done"));
+
+        // Son okumalar tablodan yüklenir: Yeniden başlatılınca araç listesi, yeni okuma gelene kadar boş kalmaz.
+        latest.putAll(TelemetryService.loadLatest());
+
+        writer = new Thread(this::writeLoop, "telemetry-writer");
+        writer.start();
+        if (server != null) {
+            readers = Executors.newVirtualThreadPerTaskExecutor();
+            Thread acceptor = new Thread(this::acceptLoop, "telemetry-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+        if (dropDir != null) {
+            dropWatcher = new Thread(() -> watchLoop(dropDir), "telemetry-drop");
+            dropWatcher.setDaemon(true);
+            dropWatcher.start();
+        }
+        current = this;
+    }
+
+    // Yeni okuma kabul etmeyi bırakır, kuyrukta kalanları yazar ve döner.
+    public synchronized void stop() {
+        if (writer == null || stopping) return;
+        stopping = true;
+        try {
+            if (server != null) server.close();
+        } catch (IOException ignored) {
+        }
+        for (Socket s : connections) {
+            try {
+                s.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (readers != null) readers.shutdown();
+        if (dropWatcher != null) dropWatcher.interrupt();
+        try {
+            if (readers != null) readers.awaitTermination(5, TimeUnit.SECONDS);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current == this) current = null;
+    }
+
+    // Her aracın bu JVM'de yazılmış en yeni okuması (Anlık kopya).
+    public Map<Integer, TelemetryReading> latest() {
+        return new HashMap<>(latest);
+    }
+
+    public String stats() {
+        return "kabul=" + accepted.get() + ", hatalı=" + rejected.get() + ", yazılan=" + written.get()
+                + ", kuyrukta≈" + queue.size() * CHUNK_ROWS;
+    }
+
+    // ==========================================
+    // 2. GİRİŞ (Soket ve bırakma klasörü)
+    // ==========================================
+
+    private void acceptLoop() {
+        while (!stopping) {
+            try {
+                Socket socket = server.accept();
+                connections.add(socket);
+                readers.execute(() -> readSocket(socket));
+            } catch (IOException e) {
+                if (!stopping) System.err.println("[Telemetri] Bağlantı kabul edilemedi: " + e.getMessage());
+            }
+        }
+    }
+
+    private void readSocket(Socket socket) {
+        Batcher out = new Batcher();
+        try (socket; BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 64 * 1024)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.add(line);
+                // Okunacak başka veri yoksa yarım parçayı da gönder: Az veri gelen bağlantıda okumalar beklemesin.
+                if (!in.ready()) out.flush();
+            }
+        } catch (IOException e) {
+            if (!stopping) System.err.println("[Telemetri] Bağlantı koptu: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(socket);
+        }
+        try {
+            out.flush(); // Bağlantı kapanmadan önce okunanlar da yazılır
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watchLoop(Path dir) {
+        while (!stopping) {
+            try {
+                List<Path> files = new ArrayList<>();
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.csv")) {
+                    for (Path p : ds) files.add(p);
+                }
+                Collections.sort(files);
+                for (Path file : files) {
+                    if (stopping) return;
+                    try {
+                        loadFile(file);
+                        Files.move(file, dir.resolve("done").resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException | SQLException e) {
+                        // İşlem geri alınmıştır (veya dosya zaten yüklenmiştir): Dosya bir sonraki taramada tekrar denenir.
+                        // Sonraki dosyalara geçilmez; dosyalar isim sırasıyla yazılır.
+                        System.err.println("[Telemetri] " + file.getFileName() + " yüklenemedi: " + e.getMessage());
+                        break;
+                    }
+                }
+                Thread.sleep(DROP_SCAN_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("[Telemetri] Klasör okunamadı: " + e.getMessage());
+            }
+        }
+    }
+
+    // Dosyayı kuyruğa koymadan TEK işlemde yazar: Dosyanın adı vehicle_telemetry_file tablosuna eklenir, okumalar
+    // COPY'ye akıtılır ve her aracın en yeni okuması vehicle_telemetry_latest'e işlenir. Dosya daha önce yüklenmişse
+    // hiçbir şey yazılmaz. Bellek dosya boyundan bağımsızdır: Dosya iki kez okunur (Önce bölümleri açmak için
+    // ay aralığı, sonra COPY). Sayaçlar sadece işlem onaylanınca artar (Tekrar denenen dosya iki kez sayılmaz).
+    private void loadFile(Path file) throws IOException, SQLException {
+        long minMillis = Long.MAX_VALUE, maxMillis = Long.MIN_VALUE;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    TelemetryReading r = parse(line);
+                    if (r == null) continue;
+                    minMillis = Math.min(minMillis, r.getRecordedAtMillis());
+                    maxMillis = Math.max(maxMillis, r.getRecordedAtMillis());
+                } catch (RuntimeException ignored) { // İkinci okumada sayılır
+                }
+            }
+        }
+
+        Map<Integer, TelemetryReading> newest = new HashMap<>();
+        int rows = 0, bad = 0;
+        try (Connection conn = Db.getConnection()) {
+            if (minMillis <= maxMillis) ensurePartitions(conn, minMillis, maxMillis);
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(MARK_FILE)) {
+                    ps.setString(1, file.getFileName().toString());
+                    if (ps.executeUpdate() == 0) { // Önceki çalışmada yazılmış, sadece taşınamamış
+                        conn.rollback();
+                        return;
+                    }
+                }
+                CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+                    StringBuilder csv = new StringBuilder(COPY_BUFFER_CHARS + 128);
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        TelemetryReading r;
+                        try {
+                            r = parse(line);
+                        } catch (RuntimeException e) {
+                            bad++;
+                            continue;
+                        }
+                        if (r == null) continue;
+                        appendCsv(csv, r);
+                        newest.merge(r.getVehicleId(), r, TelemetryIngestor::newer);
+                        rows++;
+                        if (csv.length() >= COPY_BUFFER_CHARS) writeToCopy(copy, csv);
+                    }
+                    writeToCopy(copy, csv);
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) copy.cancelCopy();
+                }
+                if (!newest.isEmpty()) upsertLatest(conn, newest.values());
+                conn.commit();
+            } catch (SQLException | IOException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        accepted.addAndGet(rows);
+        written.addAndGet(rows);
+        rejected.addAndGet(bad);
+        for (TelemetryReading r : newest.values()) latest.merge(r.getVehicleId(), r, TelemetryIngestor::newer);
+    }
+
+    private static void writeToCopy(CopyIn copy, StringBuilder csv) throws SQLException {
+        if (csv.length() == 0) return;
+        byte[] data = csv.toString().getBytes(StandardCharsets.US_ASCII);
+        copy.writeToCopy(data, 0, data.length);
+        csv.setLength(0);
+    }
+
+    // Bir soket bağlantısının okumalarını parçalara doldurup kuyruğa koyan yardımcısı.
+    private final class Batcher {
+        private Chunk chunk = new Chunk();
+
+        void add(String line) throws InterruptedException {
+            TelemetryReading r;
+            try {
+                r = parse(line);
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet();
+                return;
+            }
+            if (r == null) return;
+            chunk.rows[chunk.size++] = r;
+            if (chunk.size == CHUNK_ROWS) flush();
+        }
+
+        // Kuyruk doluysa burada bekler (Geri baskı).
+        void flush() throws InterruptedException {
+            if (chunk.size == 0) return;
+            queue.put(chunk);
+            accepted.addAndGet(chunk.size);
+            chunk = new Chunk();
+        }
+    }
+
+    // Satırı okumaya çevirir. Boş/yorum satırında null döner, hatalı satırda RuntimeException fırlatır.
+    private static TelemetryReading parse(String line) {
+        if (line.isEmpty() || line.charAt(0) == '#') return null;
+        String[] f = line.split(",", -1);
+        if (f.length != 4 && f.length != 6) throw new IllegalArgumentException();
+        int vehicleId = Integer.parseInt(f[0].trim());
+        String time = f[1].trim();
+        long millis = time.indexOf('T') >= 0 ? Instant.parse(time).toEpochMilli() : Long.parseLong(time);
+        int odometer = Integer.parseInt(f[2].trim());
+        int fuel = Integer.parseInt(f[3].trim());
+        double lat = f.length == 6 && !f[4].isBlank() ? Double.parseDouble(f[4]) : Double.NaN;
+        double lon = f.length == 6 && !f[5].isBlank() ? Double.parseDouble(f[5]) : Double.NaN;
+        if (vehicleId <= 0 || odometer < 0 || fuel < 0 || fuel > 100
+                || Math.abs(lat) > 90 || Math.abs(lon) > 180 || Double.isNaN(lat) != Double.isNaN(lon)) {
+            throw new IllegalArgumentException();
+        }
+        return new TelemetryReading(vehicleId, millis, odometer, fuel, lat, lon);
+    }
+
+    // ==========================================
+    // 3. YAZMA (Tek yazıcı)
+    // ==========================================
+
+    private void writeLoop() {
+        List<Chunk> batch = new ArrayList<>();
+        while (true) {
+            Chunk first;
+            try {
+                first = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = null;
+            }
+            if (first == null) {
+                if (stopping) return; // Kuyruk boşaldı, kapanabiliriz
+                continue;
+            }
+            // Bekleyen her şeyi (en fazla BATCH_ROWS) aynı COPY'ye al.
+            batch.add(first);
+            int rows = first.size;
+            Chunk next;
+            while (rows < BATCH_ROWS && (next = queue.poll()) != null) {
+                batch.add(next);
+                rows += next.size;
+            }
+            writeWithRetry(batch, rows);
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(List<Chunk> batch, int rows) {
+        long delay = 500;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (rows > 0) write(batch, rows);
+                written.addAndGet(rows);
+                return;
+            } catch (SQLException e) {
+                System.err.println("[Telemetri] " + rows + " okuma yazılamadı (deneme " + attempt + "): " + e.getMessage());
+                // Kapanırken veritabanı hâlâ yoksa sonsuza kadar beklenmez.
+                if (stopping && attempt >= 3) {
+                    System.err.println("[Telemetri] Kapanış: " + rows + " okuma yazılamadan atıldı.");
+                    return;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                delay = Math.min(delay * 2, MAX_RETRY_MILLIS);
+            }
+        }
+    }
+
+    // Parçayı tek işlemde yazar: COPY + her aracın en yeni okumasının vehicle_telemetry_latest'e işlenmesi.
+    private void write(List<Chunk> batch, int rows) throws SQLException {
+        Map<Integer, TelemetryReading> newest = new HashMap<>();
+        StringBuilder csv = new StringBuilder(rows * 64);
+        long minMillis = Long.MAX_VALUE, maxMillis = Long.MIN_VALUE;
+        for (Chunk c : batch) {
+            for (int i = 0; i < c.size; i++) {
+                TelemetryReading r = c.rows[i];
+                appendCsv(csv, r);
+                newest.merge(r.getVehicleId(), r, TelemetryIngestor::newer);
+                minMillis = Math.min(minMillis, r.getRecordedAtMillis());
+                maxMillis = Math.max(maxMillis, r.getRecordedAtMillis());
+            }
+        }
+        byte[] data = csv.toString().getBytes(StandardCharsets.US_ASCII);
+
+        try (Connection conn = Db.getConnection()) {
+            ensurePartitions(conn, minMillis, maxMillis);
+            conn.setAutoCommit(false);
+            try {
+                CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+                try {
+                    copy.writeToCopy(data, 0, data.length);
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) copy.cancelCopy();
+                }
+                upsertLatest(conn, newest.values());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        for (TelemetryReading r : newest.values()) latest.merge(r.getVehicleId(), r, TelemetryIngestor::newer);
+    }
+
+    private static void appendCsv(StringBuilder csv, TelemetryReading r) {
+        csv.append(r.getVehicleId()).append(',').append(r.getRecordedAt()).append(',')
+                .append(r.getOdometerKm()).append(',').append(r.getFuelPct()).append(',');
+        if (r.hasLocation()) csv.append(r.getLat()).append(',').append(r.getLon());
+        else csv.append(','); // Boş alan = NULL
+        csv.append('\n');
+    }
+
+    private static void upsertLatest(Connection conn, Collection<TelemetryReading> readings) throws SQLException {
+        int n = readings.size();
+        Integer[] ids = new Integer[n], odometers = new Integer[n], fuels = new Integer[n];
+        Long[] times = new Long[n];
+        Double[] lats = new Double[n], lons = new Double[n];
+        int i = 0;
+        for (TelemetryReading r : readings) {
+            ids[i] = r.getVehicleId();
+            times[i] = r.getRecordedAtMillis();
+            odometers[i] = r.getOdometerKm();
+            fuels[i] = r.getFuelPct();
+            lats[i] = r.hasLocation() ? r.getLat() : null;
+            lons[i] = r.hasLocation() ? r.getLon() : null;
+            i++;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(UPSERT_LATEST)) {
+            Array[] arrays = {conn.createArrayOf("integer", ids), conn.createArrayOf("bigint", times),
+                    conn.createArrayOf("integer", odometers), conn.createArrayOf("integer", fuels),
+                    conn.createArrayOf("float8", lats), conn.createArrayOf("float8", lons)};
+            for (int k = 0; k < arrays.length; k++) ps.setArray(k + 1, arrays[k]);
+            ps.executeUpdate();
+        }
+    }
+
+    // Parçanın kapsadığı ayların bölümlerini açar. Sadece saklama süresi içindeki aylar ve gelecek ay açılır;
+    // bunun dışındaki (tarihi bozuk) okumalar DEFAULT bölümüne düşer. DEFAULT bölümünde o aya ait satır olduğu için
+    // açılamayan ay tekrar denenmez; bağlantı hatası gibi diğer hatalarda bir sonraki parçada yeniden denenir.
+    private void ensurePartitions(Connection conn, long minMillis, long maxMillis) {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        YearMonth from = TelemetryService.monthOf(minMillis), to = TelemetryService.monthOf(maxMillis);
+        if (from.isBefore(now.minusMonths(TelemetryService.RETENTION_MONTHS))) from = now.minusMonths(TelemetryService.RETENTION_MONTHS);
+        if (to.isAfter(now.plusMonths(1))) to = now.plusMonths(1);
+        for (YearMonth m = from; !m.isAfter(to); m = m.plusMonths(1)) {
+            if (knownPartitions.contains(m)) continue;
+            try {
+                TelemetryService.createPartition(conn, m);
+                knownPartitions.add(m);
+            } catch (SQLException e) {
+                if (CHECK_VIOLATION.equals(e.getSQLState())) knownPartitions.add(m);
+                System.err.println("[Telemetri] " + TelemetryService.partitionName(m) + " açılamadı, okumalar DEFAULT bölümüne yazılacak: "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    private static TelemetryReading newer(TelemetryReading a, TelemetryReading b) {
+        return b.getRecordedAtMillis() >= a.getRecordedAtMillis() ? b : a;
+    }
+
+    // Kuyruğun elemanı: Bir üreticiden gelen en fazla CHUNK_ROWS okuma.
+    private static final class Chunk {
+        final TelemetryReading[] rows = new TelemetryReading[CHUNK_ROWS];
+        int size;
+    }
+}
@@ -0,0 +1,122 @@
+package service;
+
+import model.TelemetryReading;
+import server.ApiClient;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TelemetryService Sınıfı (Araç Telemetrisi: Okuma ve Bölüm Bakımı)
+ * -----------------------------------------------------------------
+ * Okumaları TelemetryIngestor yazar; bu sınıf yazılanları okur ve tabloyu düzenli tutar
+ * (bkz. db/13_telemetry.sql):
+ *
+ *   - getLatest: Her aracın son okuması (Araç listesi). Sunucu modunda alıcı aynı JVM'de çalışıyorsa
+ *     bellekteki tablodan, değilse vehicle_telemetry_latest tablosundan okunur; istemci modunda API'den gelir.
+ *   - maintainPartitions: Bu ayın ve gelecek ayın bölümlerini açar, saklama süresinden (varsayılan 12 ay)
+ *     eski bölümleri DROP eder. Arka plan iş kuyruğunda "telemetry.partitions" işi olarak günde bir çalışır.
+ *
+ * Ay sınırları UTC'dir: Bölümler sunucunun ve istemcinin saat diliminden bağımsız olarak aynı aralıkları kapsar.
+ */
+public final class TelemetryService {
+
+    // Bu kadar aydan eski bölümler silinir ('-Drentacar.telemetry.retentionMonths' ile değiştirilebilir).
+    public static final int RETENTION_MONTHS = Integer.getInteger("rentacar.telemetry.retentionMonths", 12);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("vehicle_telemetry_(\\d{4})_(\\d{2})");
+
+    private TelemetryService() {
+    }
+
+    // ==========================================
+    // 1. SON OKUMALAR (Araç ID -> okuma)
+    // ==========================================
+
+    public static Map<Integer, TelemetryReading> getLatest() {
+        if (ApiClient.isEnabled()) return ApiClient.telemetryLatest();
+        TelemetryIngestor local = TelemetryIngestor.current();
+        if (local != null) return local.latest();
+        return loadLatest();
+    }
+
+    // vehicle_telemetry_latest tablosunun tamamı (Alıcı da başlarken bellekteki tabloyu bununla doldurur).
+    static Map<Integer, TelemetryReading> loadLatest() {
+        Map<Integer, TelemetryReading> map = new HashMap<>();
+        String sql = "SELECT vehicle_id, recorded_at, odometer_km, fuel_pct, lat, lon FROM vehicle_telemetry_latest";
+        try (Connection conn = Db.getReadConnection(); PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                double lat = rs.getDouble(5);
+                if (rs.wasNull()) lat = Double.NaN;
+                double lon = rs.getDouble(6);
+                if (rs.wasNull()) lon = Double.NaN;
+                map.put(rs.getInt(1), new TelemetryReading(rs.getInt(1), rs.getTimestamp(2).getTime(),
+                        rs.getInt(3), rs.getInt(4), lat, lon));
+            }
+        } catch (SQLException e) {
+            // 13_telemetry.sql henüz çalıştırılmamışsa (42P01: tablo yok) telemetri sessizce boş kalır.
+            if (!"42P01".equals(e.getSQLState())) e.printStackTrace();
+        }
+        return map;
+    }
+
+    // ==========================================
+    // 2. AYLIK BÖLÜMLER (Partition)
+    // ==========================================
+
+    // Okumanın düştüğü ay (UTC).
+    static YearMonth monthOf(long epochMillis) {
+        return YearMonth.from(Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC));
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("vehicle_telemetry_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    // Ayın bölümünü açar (Varsa bir şey yapmaz). DEFAULT bölümünde o aya ait satır varsa PostgreSQL reddeder;
+    // çağıran bu durumda okumaları DEFAULT bölümünde bırakır.
+    static void createPartition(Connection conn, YearMonth month) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF vehicle_telemetry FOR VALUES FROM ('"
+                    + month.atDay(1) + " 00:00+00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00+00')");
+        }
+    }
+
+    // Bu ayın ve gelecek ayın bölümlerini açar, saklama süresinden eski bölümleri siler. Silinen bölüm sayısını döner.
+    public static int maintainPartitions(Connection conn) throws SQLException {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        createPartition(conn, now);
+        createPartition(conn, now.plusMonths(1));
+
+        YearMonth oldest = now.minusMonths(RETENTION_MONTHS);
+        List<String> expired = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'vehicle_telemetry'::regclass");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Matcher m = PARTITION_NAME.matcher(rs.getString(1));
+                if (m.matches() && YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))).isBefore(oldest)) {
+                    expired.add(rs.getString(1));
+                }
+            }
+        }
+        try (Statement st = conn.createStatement()) {
+            for (String name : expired) st.execute("DROP TABLE " + name);
+        }
+        return expired.size();
+    }
+}
@@ -0,0 +1,331 @@
+package service;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Money;
+import model.VehicleClass;
+import server.ApiClient;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * VehicleAssigner Sınıfı (Sınıf Bazlı Rezervasyon ve Araç Atama)
+ * --------------------------------------------------------------
+ * Eskiden müşteri belirli bir PLAKAYI rezerve ediyordu. İki rezervasyon arasında boşta kalan bir araç,
+ * bu boşluğa tam sığmayan yeni bir talebi alamıyordu; oysa aynı sınıftaki araçlar arasında
+ * rezervasyonları kaydırınca talep çoğu zaman karşılanabilir.
+ *
+ * Artık rezervasyon bir ARAÇ SINIFINA (şube + marka + model) yapılır ve somut araç burada seçilir.
+ * Problem, aralık çizelgeleme (interval scheduling) olarak çözülür:
+ * - Her araç bir "makine", her rezervasyon [başlangıç, bitiş] gün aralığıdır (iki uç dahil).
+ * - ONAYLANMIŞ rezervasyonlar ve iadesi alınmamış kiralamalar araçlarına SABİTTİR (müşteriye plaka bildirilmiş olabilir).
+ * - BEKLEYEN (PENDING) rezervasyonlar sınıf içinde başka araca kaydırılabilir.
+ * - Bakım pencereleri (maintenance_window) de aracına sabit birer dolu dönemdir.
+ *
+ * Artımlı çözüm:
+ * 1. Hızlı yol: Yeni talep, mevcut atamalara dokunmadan bir araca sığıyorsa oraya konur (hiç kaydırma yok).
+ *    Boş araçlar arasından önceki rezervasyonu talebe EN YAKIN biten seçilir (best-fit); böylece
+ *    uzun boşluklar sonraki uzun talepler için korunur.
+ * 2. Sığmıyorsa sınıfın bekleyen rezervasyonları başlangıç sırasıyla yeniden yerleştirilir. Her rezervasyon
+ *    mümkünse MEVCUT aracında bırakılır (en az kaydırma), değilse best-fit araca taşınır.
+ *    Sabit kayıt yokken başlangıç sırasıyla "boş olan herhangi bir araca" yerleştirmek en iyi sonucu verir:
+ *    talep ancak o gün tüm araçlar gerçekten doluysa reddedilir.
+ * Çözüm O(n log n) olduğu için şube başına binlerce rezervasyon milisaniyeler içinde çözülür.
+ *
+ * Aynı sınıfa aynı anda iki rezervasyon yapılmasın diye sınıfın araç satırları işlem boyunca kilitlenir (FOR UPDATE).
+ */
+public final class VehicleAssigner {
+
+    private VehicleAssigner() {
+    }
+
+    // ==========================================
+    // 1. SINIF LİSTESİ
+    // ==========================================
+
+    // Bakımda olmayan araçların şube + marka + model grupları. Şubeye bağlı kullanıcı sadece kendi şubesini görür.
+    public static ObservableList<VehicleClass> getVehicleClasses() {
+        if (ApiClient.isEnabled()) return ApiClient.vehicleClasses();
+        ObservableList<VehicleClass> list = FXCollections.observableArrayList();
+        Integer branchId = Session.current() == null ? null : Session.current().getBranchId();
+        String sql = "SELECT v.branch_id, b.branch_name, v.brand, v.model, MIN(v.daily_price), COUNT(*) " +
+                "FROM vehicle v JOIN branch b ON b.branch_id = v.branch_id " +
+                "WHERE v.vehicle_status <> 'MAINTENANCE' AND (?::int IS NULL OR v.branch_id = ?) " +
+                "GROUP BY v.branch_id, b.branch_name, v.brand, v.model " +
+                "ORDER BY b.branch_name, v.brand, v.model";
+        try (Connection conn = Db.getReadConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, branchId, java.sql.Types.INTEGER);
+            ps.setObject(2, branchId, java.sql.Types.INTEGER);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new VehicleClass(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            Money.toKurus(rs.getBigDecimal(5)), rs.getInt(6)));
+                }
+            }
+        } catch (Exception e) { e.printStackTrace(); }
+        return list;
+    }
+
+    // ==========================================
+    // 2. SINIFA REZERVASYON
+    // ==========================================
+
+    /**
+     * Sınıfa yeni bir (PENDING) rezervasyon ekler ve araç atar. Gerekirse bekleyen rezervasyonlar
+     * sınıf içinde başka araçlara kaydırılır.
+     *
+     * @return Yeni rezervasyona atanan aracın ID'si
+     */
+    public static int bookClass(int customerId, VehicleClass vehicleClass, LocalDate start, LocalDate end, long priceKurus) throws Exception {
+        AuthService.requireLogin();
+        if (ApiClient.isEnabled()) {
+            int vehicleId = ApiClient.bookClass(customerId, vehicleClass, start, end, priceKurus);
+            EventBus.publish(EntityEvent.stale(EntityEvent.Type.RESERVATION)); // Yeni ID ve kaydırmalar sunucuda belli olur
+            return vehicleId;
+        }
+        if (end.isBefore(start)) throw new Exception("HATA: Bitiş tarihi başlangıçtan önce olamaz!");
+
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<EntityEvent> events = new ArrayList<>();
+                int vehicleId = bookClass(conn, customerId, vehicleClass, start, end, priceKurus, events);
+                conn.commit();
+                events.forEach(EventBus::publish); // Sadece kalıcı olan değişiklikler yayınlanır
+                return vehicleId;
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Yapılan değişiklikler 'events' listesine eklenir; çağıran, işlem kalıcı olunca yayınlar.
+    private static int bookClass(Connection conn, int customerId, VehicleClass vc, LocalDate start, LocalDate end, long priceKurus,
+                                 List<EntityEvent> events) throws Exception {
+        // 1. Sınıfın araçlarını kilitle (Aynı sınıfa paralel rezervasyonlar sırayla çözülür).
+        List<Integer> vehicles = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT vehicle_id FROM vehicle " +
+                "WHERE branch_id = ? AND brand = ? AND model = ? AND vehicle_status <> 'MAINTENANCE' ORDER BY vehicle_id FOR UPDATE")) {
+            ps.setInt(1, vc.getBranchId());
+            ps.setString(2, vc.getBrand());
+            ps.setString(3, vc.getModel());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) vehicles.add(rs.getInt(1));
+            }
+        }
+        if (vehicles.isEmpty()) throw new Exception("HATA: Bu sınıfta kiralanabilir araç yok! (" + vc.getBrand() + " " + vc.getModel() + ")");
+
+        // 2. Bu araçların bugünden sonraki dolulukları.
+        List<Booking> bookings = loadBookings(conn, vehicles);
+        Booking request = new Booking(0, start.toEpochDay(), end.toEpochDay(), false, 0);
+
+        // 3. Hızlı yol, olmazsa yeniden çözüm.
+        Map<Integer, Integer> moves = new HashMap<>();
+        int vehicleId = placeWithoutMoves(vehicles, bookings, request);
+        if (vehicleId == 0) {
+            bookings.add(request);
+            Map<Integer, Integer> plan = solve(vehicles, bookings);
+            if (plan == null) {
+                throw new Exception("HATA: " + start + " - " + end + " tarihleri arasında bu sınıfta boş araç yok!");
+            }
+            vehicleId = plan.remove(0);
+            for (Booking b : bookings) {
+                Integer assigned = plan.get(b.reservationId);
+                if (assigned != null && assigned != b.vehicleId) moves.put(b.reservationId, assigned);
+            }
+        }
+
+        // 4. Kaydırmaları yaz. Sadece okuduğumuz araçta hâlâ BEKLEYEN rezervasyonlar taşınır.
+        if (!moves.isEmpty()) {
+            Map<Integer, Integer> from = new HashMap<>();
+            for (Booking b : bookings) from.put(b.reservationId, b.vehicleId);
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE reservation SET vehicle_id = ? " +
+                    "WHERE reservation_id = ? AND vehicle_id = ? AND reservation_status = 'PENDING'")) {
+                for (Map.Entry<Integer, Integer> m : moves.entrySet()) {
+                    ps.setInt(1, m.getValue());
+                    ps.setInt(2, m.getKey());
+                    ps.setInt(3, from.get(m.getKey()));
+                    ps.addBatch();
+                }
+                for (int updated : ps.executeBatch()) {
+                    if (updated == 0) throw new StaleDataException("Rezervasyonlar bu sırada değişti. Lütfen tekrar deneyin.");
+                }
+            }
+            for (Map.Entry<Integer, Integer> m : moves.entrySet()) events.add(EntityEvent.reassigned(m.getKey(), m.getValue()));
+        }
+
+        // 5. Yeni rezervasyon.
+        String sql = "INSERT INTO reservation (customer_id, vehicle_id, start_date, end_date, total_price, reservation_status) " +
+                "VALUES (?, ?, ?, ?, ?, 'PENDING') RETURNING reservation_id";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, customerId);
+            ps.setInt(2, vehicleId);
+            ps.setObject(3, start);
+            ps.setObject(4, end);
+            ps.setBigDecimal(5, Money.toDecimal(priceKurus));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                events.add(EntityEvent.reservationCreated(rs.getInt(1), customerId, vehicleId, start, end));
+            }
+        }
+        return vehicleId;
+    }
+
+    // Onaylanmış ve bekleyen rezervasyonlar + iadesi alınmamış kiralamalar (bitişi geçmişse bugüne kadar dolu sayılır).
+    // Bakım pencereleri de aracına SABİT birer rezervasyon gibi okunur (ID'leri eksi işaretli; plana hiç girmezler).
+    private static List<Booking> loadBookings(Connection conn, List<Integer> vehicles) throws SQLException {
+        String sql = "SELECT r.reservation_id, r.vehicle_id, r.start_date, GREATEST(r.end_date, CURRENT_DATE), r.reservation_status " +
+                "FROM reservation r LEFT JOIN rental rt ON rt.reservation_id = r.reservation_id " +
+                "WHERE r.vehicle_id = ANY(?) AND (" +
+                "(r.reservation_status IN ('PENDING', 'APPROVED') AND r.end_date >= CURRENT_DATE) " +
+                "OR (r.reservation_status = 'COMPLETED' AND rt.rental_id IS NOT NULL AND rt.return_date IS NULL)) " +
+                "UNION ALL SELECT -m.window_id, m.vehicle_id, m.start_date, m.end_date, 'MAINTENANCE' " +
+                "FROM maintenance_window m WHERE m.vehicle_id = ANY(?) AND m.end_date >= CURRENT_DATE";
+        List<Booking> list = new ArrayList<>();
+        Array ids = conn.createArrayOf("int4", vehicles.toArray());
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setArray(1, ids);
+            ps.setArray(2, ids);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Booking(rs.getInt(1), rs.getObject(3, LocalDate.class).toEpochDay(),
+                            rs.getObject(4, LocalDate.class).toEpochDay(), !"PENDING".equals(rs.getString(5)), rs.getInt(2)));
+                }
+            }
+        } finally {
+            ids.free();
+        }
+        return list;
+    }
+
+    // ==========================================
+    // 3. ÇÖZÜCÜ (Veritabanından bağımsız)
+    // ==========================================
+
+    // Bir rezervasyon: [start, end] gün numaraları (epochDay, iki uç dahil).
+    static final class Booking {
+        final int reservationId;  // Yeni talep için 0
+        final long start;
+        final long end;
+        final boolean pinned;     // true = aracı değiştirilemez
+        final int vehicleId;      // Şu anki aracı (yeni talep için 0)
+
+        Booking(int reservationId, long start, long end, boolean pinned, int vehicleId) {
+            this.reservationId = reservationId;
+            this.start = start;
+            this.end = end;
+            this.pinned = pinned;
+            this.vehicleId = vehicleId;
+        }
+    }
+
+    /**
+     * Hızlı yol: Mevcut atamalara dokunmadan talebi bir araca yerleştirir.
+     * @return Araç ID'si, sığmıyorsa 0
+     */
+    static int placeWithoutMoves(List<Integer> vehicles, List<Booking> bookings, Booking request) {
+        Schedule schedule = new Schedule(vehicles);
+        for (Booking b : bookings) schedule.occupy(b.vehicleId, b.start, b.end);
+        return schedule.bestFit(request.start, request.end, 0);
+    }
+
+    /**
+     * Tüm bekleyen rezervasyonları (ve yeni talebi) başlangıç sırasıyla yeniden yerleştirir.
+     * @return rezervasyon ID -> araç ID (yeni talep 0 anahtarıyla), yerleştirilemeyen varsa null
+     */
+    static Map<Integer, Integer> solve(List<Integer> vehicles, List<Booking> bookings) {
+        Schedule schedule = new Schedule(vehicles);
+        List<Booking> movable = new ArrayList<>();
+        for (Booking b : bookings) {
+            if (b.pinned) schedule.occupy(b.vehicleId, b.start, b.end);
+            else movable.add(b);
+        }
+        movable.sort(Comparator.comparingLong((Booking b) -> b.start).thenComparingLong(b -> b.end));
+
+        Map<Integer, Integer> plan = new LinkedHashMap<>();
+        for (Booking b : movable) {
+            int vehicleId = schedule.bestFit(b.start, b.end, b.vehicleId);
+            if (vehicleId == 0) return null;
+            schedule.occupy(vehicleId, b.start, b.end);
+            plan.put(b.reservationId, vehicleId);
+        }
+        return plan;
+    }
+
+    // Her aracın dolu günleri: başlangıç -> bitiş (çakışan aralıklar birleştirilerek tutulur).
+    // MaintenanceService'in periyodik bakım planlayıcısı da kullanır.
+    static final class Schedule {
+        private final Map<Integer, TreeMap<Long, Long>> busy = new LinkedHashMap<>();
+
+        Schedule(List<Integer> vehicles) {
+            for (int id : vehicles) busy.put(id, new TreeMap<>());
+        }
+
+        void occupy(int vehicleId, long start, long end) {
+            TreeMap<Long, Long> days = busy.get(vehicleId);
+            if (days == null) return; // Sınıf dışı / bakımdaki araç
+            Map.Entry<Long, Long> prev = days.floorEntry(start);
+            if (prev != null && prev.getValue() >= start) {
+                start = prev.getKey();
+                end = Math.max(end, prev.getValue());
+                days.remove(prev.getKey());
+            }
+            Map.Entry<Long, Long> next;
+            while ((next = days.ceilingEntry(start)) != null && next.getKey() <= end) {
+                end = Math.max(end, next.getValue());
+                days.remove(next.getKey());
+            }
+            days.put(start, end);
+        }
+
+        boolean isFree(int vehicleId, long start, long end) {
+            return busyUntil(vehicleId, start, end) < start;
+        }
+
+        // Aralıkla çakışan SON dolu dönemin bitiş günü; çakışma yoksa Long.MIN_VALUE.
+        // Aralık bu günden önce başlayan hiçbir yere sığmaz (Boşluk aramasında oraya atlanır).
+        long busyUntil(int vehicleId, long start, long end) {
+            Map.Entry<Long, Long> last = busy.get(vehicleId).floorEntry(end);
+            return last == null || last.getValue() < start ? Long.MIN_VALUE : last.getValue();
+        }
+
+        /**
+         * Talebin sığdığı araçlardan birini seçer: 'preferred' boşsa o (kaydırma olmasın),
+         * değilse önceki dolu günü talebe en yakın biten araç (eşitlikte sonraki dolu günü en yakın başlayan).
+         * @return Araç ID'si, hiçbirine sığmıyorsa 0
+         */
+        int bestFit(long start, long end, int preferred) {
+            if (busy.containsKey(preferred) && isFree(preferred, start, end)) return preferred;
+            int best = 0;
+            long bestBefore = Long.MAX_VALUE, bestAfter = Long.MAX_VALUE;
+            for (Map.Entry<Integer, TreeMap<Long, Long>> v : busy.entrySet()) {
+                if (!isFree(v.getKey(), start, end)) continue;
+                Map.Entry<Long, Long> before = v.getValue().lowerEntry(start);
+                Map.Entry<Long, Long> after = v.getValue().higherEntry(end);
+                long gapBefore = before == null ? Long.MAX_VALUE : start - before.getValue();
+                long gapAfter = after == null ? Long.MAX_VALUE : after.getKey() - end;
+                if (best == 0 || gapBefore < bestBefore || (gapBefore == bestBefore && gapAfter < bestAfter)) {
+                    best = v.getKey();
+                    bestBefore = gapBefore;
+                    bestAfter = gapAfter;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -4,8 +4,12 @@ package service;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 // Veritabanından çekilen verileri nesne olarak tutacak model sınıfımız.
+import model.Money;
 import model.Vehicle;
+import model.VehicleStatus;
+import server.ApiClient;
 // Veritabanı bağlantısı (JDBC) işlemleri için gerekli kütüphaneler (Connection, PreparedStatement, vb.).
+import java.io.IOException;
 import java.sql.*;
 
 /**
@@ -25,27 +29,15 @@ public class VehicleService {
      * @return ObservableList<Vehicle> -> Tüm araçların listesi.
      */
     public static ObservableList<Vehicle> getAllVehiclesForUI() {
+        // İstemci modunda veriyi sunucudan al (JDBC kullanılmaz).
+        if (ApiClient.isEnabled()) return ApiClient.vehicles(null);
+
         // UI'ın dinleyebileceği boş bir liste oluşturuyoruz.
         ObservableList<Vehicle> list = FXCollections.observableArrayList();
-
-        // Veritabanı sorgusu: Tüm araçları ID sırasına göre getir.
-        String sql = "SELECT * FROM vehicle ORDER BY vehicle_id";
-
-        // "Try-with-resources" yapısı:
-        // Connection, Statement ve ResultSet işlemleri bittiğinde otomatik olarak kapatılır (close).
-        // Bu, bellek sızıntılarını ve açık kalan bağlantı sorunlarını önler.
-        try (Connection conn = Db.getConnection();          // Veritabanı bağlantısını al
-             Statement st = conn.createStatement();         // Sorgu çalıştırmak için ifade oluştur
-             ResultSet rs = st.executeQuery(sql)) {         // Sorguyu çalıştır ve sonuçları al
-
-            // Veritabanından dönen her bir satır (row) için döngü çalışır.
-            while (rs.next()) {
-                // O satırdaki veriyi bir Vehicle nesnesine dönüştürüp listeye ekliyoruz.
-                // Kod tekrarını önlemek için 'mapResultSetToVehicle' yardımcı metodunu kullanıyoruz.
-                list.add(mapResultSetToVehicle(rs));
-            }
-
-        } catch (SQLException e) {
+        try {
+            // Veritabanından dönen her bir satır (row) Vehicle nesnesine dönüştürülüp listeye eklenir.
+            streamVehicles(null, list::add);
+        } catch (SQLException | IOException e) {
             // Hata oluşursa konsola yazdır (Gerçek projelerde loglama yapılmalıdır).
             e.printStackTrace();
         }
@@ -64,33 +56,45 @@ public class VehicleService {
      * @return Arama kriterine uyan araçların listesi.
      */
     public static ObservableList<Vehicle> searchVehicles(String searchText) {
+        if (ApiClient.isEnabled()) return ApiClient.vehicles(searchText);
+
         ObservableList<Vehicle> list = FXCollections.observableArrayList();
+        try {
+            streamVehicles(searchText, list::add);
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
 
+    /**
+     * --- ARAÇLARI AKAN OLARAK OKU ---
+     * Araçları (searchText null ise hepsini, değilse arama sonucunu) okundukları anda 'sink'e verir.
+     * Sunucu modu bununla listeyi belleğe toplamadan satırları doğrudan HTTP yanıtına yazar.
+     */
+    public static void streamVehicles(String searchText, RowSink<? super Vehicle> sink) throws SQLException, IOException {
+        // Sütunlar açıkça sayılır; sırası RowMappers.VEHICLE ile aynıdır.
         // '?' karakterleri yer tutucudur (placeholder).
         // ILIKE: PostgreSQL'de büyük/küçük harf duyarsız arama yapar.
-        String sql = "SELECT * FROM vehicle WHERE brand ILIKE ? OR model ILIKE ? OR plate ILIKE ?";
-
-        try (Connection conn = Db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) { // Sorguyu hazırla
-
-            // Aranacak metni SQL'in LIKE formatına (%aranan%) çeviriyoruz.
-            String searchPattern = "%" + searchText + "%";
-
-            // Soru işaretlerinin yerine güvenli bir şekilde veriyi koyuyoruz.
-            ps.setString(1, searchPattern); // 1. soru işareti (brand)
-            ps.setString(2, searchPattern); // 2. soru işareti (model)
-            ps.setString(3, searchPattern); // 3. soru işareti (plate)
+        String sql = searchText == null
+                ? "SELECT " + RowMappers.VEHICLE_COLUMNS + " FROM vehicle ORDER BY vehicle_id"
+                : "SELECT " + RowMappers.VEHICLE_COLUMNS + " FROM vehicle WHERE brand ILIKE ? OR model ILIKE ? OR plate ILIKE ?";
 
-            // Sorguyu çalıştır ve sonuçları al.
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    list.add(mapResultSetToVehicle(rs));
-                }
+        // "Try-with-resources" yapısı:
+        // Connection ve Statement işlemleri bittiğinde otomatik olarak kapatılır (close).
+        // Bu, bellek sızıntılarını ve açık kalan bağlantı sorunlarını önler.
+        try (Connection conn = Db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (searchText != null) {
+                // Aranacak metni SQL'in LIKE formatına (%aranan%) çeviriyoruz.
+                String searchPattern = "%" + searchText + "%";
+                ps.setString(1, searchPattern); // 1. soru işareti (brand)
+                ps.setString(2, searchPattern); // 2. soru işareti (model)
+                ps.setString(3, searchPattern); // 3. soru işareti (plate)
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            // Kod tekrarını önlemek için ortak dönüştürücü 'RowMappers.VEHICLE' kullanılır.
+            RowMappers.VEHICLE.stream(ps, sink);
         }
-        return list;
     }
 
     /**
@@ -98,15 +102,23 @@ public class VehicleService {
      * Yeni bir aracı veritabanına ekler.
      * İşlemden önce kullanıcının Admin olup olmadığı kontrol edilir.
      */
-    public static void addVehicle(int branchId, String brand, String model, String plate, double price, String status) throws Exception {
+    public static void addVehicle(int branchId, String brand, String model, String plate, long priceKurus, VehicleStatus status) throws Exception {
         // 1. Güvenlik Kontrolü: İşlemi yapan admin mi?
         AuthService.requireAdmin();
 
         // 2. Basit Veri Doğrulama (Validation)
-        if (price < 0) throw new IllegalArgumentException("Fiyat negatif olamaz.");
+        if (priceKurus < 0) throw new IllegalArgumentException("Fiyat negatif olamaz.");
+
+        if (ApiClient.isEnabled()) {
+            ApiClient.addVehicle(branchId, brand, model, plate, priceKurus, status);
+            EventBus.publish(EntityEvent.stale(EntityEvent.Type.VEHICLE)); // Yeni ID sunucuda belli olur
+            return;
+        }
 
         // Veri ekleme sorgusu (INSERT). Parametreler için yine '?' kullanıyoruz.
-        String sql = "INSERT INTO vehicle (branch_id, brand, model, plate, daily_price, vehicle_status) VALUES (?, ?, ?, ?, ?, ?)";
+        // RETURNING: Eklenen satırın son hali (ID, sürüm) aynı sorguda döner; açık pencerelere olay olarak gider.
+        String sql = "INSERT INTO vehicle (branch_id, brand, model, plate, daily_price, vehicle_status) VALUES (?, ?, ?, ?, ?, ?) " +
+                "RETURNING " + RowMappers.VEHICLE_COLUMNS;
 
         try (Connection conn = Db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -116,11 +128,13 @@ public class VehicleService {
             ps.setString(2, brand);
             ps.setString(3, model);
             ps.setString(4, plate);
-            ps.setDouble(5, price);
-            ps.setString(6, status);
+            ps.setBigDecimal(5, Money.toDecimal(priceKurus)); // Kuruş -> NUMERIC(10,2), yuvarlama kaybı yok
+            ps.setString(6, status.name());
 
-            // executeUpdate(): Veri değiştiren (INSERT, UPDATE, DELETE) sorgular için kullanılır.
-            ps.executeUpdate();
+            // RETURNING olduğu için executeQuery(): Sorgu hem ekler hem de yeni satırı döner.
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) EventBus.publish(EntityEvent.saved(RowMappers.VEHICLE.map(rs)));
+            }
         }
     }
 
@@ -131,51 +145,90 @@ public class VehicleService {
     public static void deleteVehicle(int id) throws Exception {
         AuthService.requireAdmin(); // Yetki kontrolü
 
+        if (ApiClient.isEnabled()) {
+            ApiClient.deleteVehicle(id);
+            EventBus.publish(EntityEvent.deleted(EntityEvent.Type.VEHICLE, id));
+            return;
+        }
+
         String sql = "DELETE FROM vehicle WHERE vehicle_id=?";
 
         try (Connection conn = Db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id); // Silinecek ID'yi ata
-            ps.executeUpdate(); // Silme işlemini uygula
+            if (ps.executeUpdate() == 1) EventBus.publish(EntityEvent.deleted(EntityEvent.Type.VEHICLE, id)); // Silme işlemini uygula
         }
     }
 
     /**
      * --- GÜNCELLEME (Status Update - Sadece Admin) ---
      * Aracın durumunu (Müsait, Kirada, Bakımda vb.) günceller.
+     *
+     * İYİMSER KİLİTLEME:
+     * 'original' ekranda seçilen araçtır. Güncelleme sadece satırın sürümü (version) hâlâ
+     * okunduğu gibiyse yapılır. Arada başka biri aracı değiştirdiyse:
+     * - Durum zaten istenen değerdeyse işlem başarılı sayılır.
+     * - Durum değişmemişse (örn. sadece fiyat değişmişse) yeni sürümle tekrar denenir.
+     * - Durum başka bir değere çekilmişse StaleDataException fırlatılır.
      */
-    public static void updateVehicleStatus(int id, String newStatus) throws Exception {
+    public static void updateVehicleStatus(Vehicle original, VehicleStatus newStatus) throws Exception {
         AuthService.requireAdmin(); // Yetki kontrolü
 
-        String sql = "UPDATE vehicle SET vehicle_status=? WHERE vehicle_id=?";
+        if (ApiClient.isEnabled()) {
+            ApiClient.updateVehicleStatus(original, newStatus);
+            // Yeni sürüm numarası bilinmez; eskisiyle kalır (Bir sonraki güncellemede çakışma yolu güncel satırı okur).
+            EventBus.publish(EntityEvent.saved(new Vehicle(original.getId(), original.getPlate(), original.getBrand(),
+                    original.getModel(), original.getPriceKurus(), newStatus, original.getVersion(),
+                    original.getBranchId(), original.getCurrentBranchId())));
+            return;
+        }
+
+        // RETURNING: Güncellenen satırın yeni hali (yeni sürüm numarasıyla) aynı sorguda döner.
+        String sql = "UPDATE vehicle SET vehicle_status=? WHERE vehicle_id=? AND version=? RETURNING " + RowMappers.VEHICLE_COLUMNS;
 
         try (Connection conn = Db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setString(1, newStatus); // Yeni durumu ata
-            ps.setInt(2, id);           // Hangi araç olduğunu belirt
-            ps.executeUpdate();         // Güncellemeyi uygula
+            int version = original.getVersion();
+            for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+                ps.setString(1, newStatus.name()); // Yeni durumu ata
+                ps.setInt(2, original.getId());    // Hangi araç olduğunu belirt
+                ps.setInt(3, version);             // Okuduğumuz sürüm
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) { // Güncelleme uygulandı
+                        EventBus.publish(EntityEvent.saved(RowMappers.VEHICLE.map(rs)));
+                        return;
+                    }
+                }
+
+                // Çakışma: Aracın güncel durumunu oku.
+                Vehicle current = findById(conn, original.getId());
+                if (current == null) throw new StaleDataException("Araç başka bir kullanıcı tarafından silinmiş.");
+                if (current.getStatus() == newStatus) {
+                    EventBus.publish(EntityEvent.saved(current));
+                    return;
+                }
+                if (current.getStatus() != original.getStatus()) {
+                    throw new StaleDataException(current.getPlate() + " plakalı aracın durumu başka bir kullanıcı tarafından "
+                            + current.getStatus() + " olarak değiştirildi. Lütfen listeyi yenileyin.");
+                }
+                version = current.getVersion();
+            }
+            throw new StaleDataException("Araç kaydı sürekli değiştiriliyor. Lütfen listeyi yenileyip tekrar deneyin.");
         }
     }
 
-    /**
-     * --- YARDIMCI METOT (Helper Method) ---
-     * Veritabanından gelen ham satırı (ResultSet), Java nesnesine (Vehicle) dönüştürür.
-     *
-     * NEDEN GEREKLİ?
-     * "getAllVehiclesForUI" ve "searchVehicles" metotlarında aynı dönüştürme işlemi yapılıyor.
-     * Kod tekrarını önlemek (DRY Prensibi) ve Vehicle sınıfında bir değişiklik olduğunda
-     * sadece burayı değiştirmek için bu işlemi ayırdık.
-     */
-    private static Vehicle mapResultSetToVehicle(ResultSet rs) throws SQLException {
-        return new Vehicle(
-                rs.getInt("vehicle_id"),       // DB sütun adı: vehicle_id
-                rs.getString("plate"),         // DB sütun adı: plate
-                rs.getString("brand"),         // DB sütun adı: brand
-                rs.getString("model"),         // DB sütun adı: model
-                rs.getDouble("daily_price"),   // DB sütun adı: daily_price
-                rs.getString("vehicle_status") // DB sütun adı: vehicle_status
-        );
+    // Çakışmada tekrar deneme sınırı.
+    private static final int MAX_RETRY = 3;
+
+    // Aracın güncel satırı (Yoksa null). ReservationService de iadeden sonra kullanır.
+    static Vehicle findById(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT " + RowMappers.VEHICLE_COLUMNS + " FROM vehicle WHERE vehicle_id=?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? RowMappers.VEHICLE.map(rs) : null;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package ui;
 
+import service.DuplicateDetector;
 import service.ReservationService;
-import service.VehicleService;
+import service.VehicleAssigner;
+import model.Money;
 import model.Vehicle;
+import model.VehicleClass;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -10,7 +13,6 @@ import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
 import javafx.util.Callback;
 
-import java.sql.Date;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
@@ -20,15 +22,20 @@ import java.time.temporal.ChronoUnit;
  * Bu sınıf, yeni bir rezervasyon oluşturmak için açılan pencereyi (Stage) tasarlar.
  * İki temel işlevi tek ekranda birleştirir:
  * 1. Hızlı Müşteri Kaydı (Ad, Tel, Ehliyet).
- * 2. Rezervasyon Detayları (Araç seçimi, Tarih aralığı, Fiyat).
+ * 2. Rezervasyon Detayları (Araç sınıfı seçimi, Tarih aralığı, Fiyat).
+ *
+ * Müşteri belirli bir plakayı değil, bir araç SINIFINI (şube + marka + model) seçer.
+ * Hangi aracın verileceğine kayıt sırasında VehicleAssigner karar verir.
  */
 public class AddReservationView {
 
     // Sınıf seviyesinde tanımladık çünkü hesaplama metodunda (calculatePrice) bunlara erişmemiz gerekecek.
-    private ComboBox<Vehicle> cmbVehicle;
+    private ComboBox<VehicleClass> cmbVehicle;
     private DatePicker dpStart;
     private DatePicker dpEnd;
     private TextField txtPrice;
+    // Hesaplanan toplam tutar (kuruş). Metin kutusundan geri okumak yerine doğrudan bunu kaydediyoruz.
+    private long totalKurus;
 
     /**
      * Pencereyi oluşturur ve ekrana getirir.
@@ -63,49 +70,14 @@ public class AddReservationView {
         // ==========================================
         // 2. BÖLÜM: ARAÇ SEÇİMİ VE ÖZELLEŞTİRME
         // ==========================================
-        Label lblVeh = new Label("Araç Seç:");
+        Label lblVeh = new Label("Araç Sınıfı:");
 
         // ComboBox'ı oluşturuyoruz.
         cmbVehicle = new ComboBox<>();
 
-        // Veritabanından gelen araçları (ObservableList) ComboBox'a yüklüyoruz.
-        // NOT: VehicleService.getAllVehiclesForUI() metodu daha önce yazdığımız güvenli metot olmalıdır.
-        cmbVehicle.setItems(VehicleService.getAllVehiclesForUI());
-        cmbVehicle.setPromptText("Listeden bir araç seçiniz...");
-
-        /* --- HÜCRE ÖZELLEŞTİRME (CELL FACTORY) ---
-           ComboBox normalde nesnenin 'toString()' metodunu gösterir.
-           Ancak biz 'Vehicle' nesnesinin içinden Marka, Model ve Plaka'yı alıp
-           özel bir formatta göstermek istiyoruz.
-        */
-
-        // 1. Açılır listedeki görünüm (Dropdown List):
-        cmbVehicle.setCellFactory(param -> new ListCell<Vehicle>() {
-            @Override
-            protected void updateItem(Vehicle item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    // Örn: Ford Focus - 34 ABC 123
-                    setText(item.getBrand() + " " + item.getModel() + " - " + item.getPlate());
-                }
-            }
-        });
-
-        // 2. Seçildikten sonra kutunun içinde görünen metin (Button Cell):
-        cmbVehicle.setButtonCell(new ListCell<Vehicle>() {
-            @Override
-            protected void updateItem(Vehicle item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    // Seçilince sadece Plaka ve Marka görünsün.
-                    setText(item.getPlate() + " (" + item.getBrand() + ")");
-                }
-            }
-        });
+        // Şube + marka + model grupları (Örn: "Ford Focus - Kizilay Subesi (3 araç)", bkz. VehicleClass.toString).
+        cmbVehicle.setItems(VehicleAssigner.getVehicleClasses());
+        cmbVehicle.setPromptText("Listeden bir araç sınıfı seçiniz...");
 
         // ==========================================
         // 3. BÖLÜM: TARİH VE FİYAT
@@ -184,7 +156,7 @@ public class AddReservationView {
                     return; // İşlemi durdur
                 }
                 if (cmbVehicle.getValue() == null) {
-                    showAlert(Alert.AlertType.WARNING, "Araç Seçilmedi", "Lütfen bir araç seçin!");
+                    showAlert(Alert.AlertType.WARNING, "Araç Seçilmedi", "Lütfen bir araç sınıfı seçin!");
                     return;
                 }
                 if (dpStart.getValue() == null || dpEnd.getValue() == null) {
@@ -198,7 +170,13 @@ public class AddReservationView {
                     return;
                 }
 
-                // 2. İş Mantığı: Önce Müşteriyi Oluştur
+                // 2. Mükerrer Kontrolü: Müşteri farklı yazımla (isim/telefon) zaten kayıtlı olabilir.
+                if (!CustomerView.confirmPossibleDuplicates(DuplicateDetector.findLikelyDuplicates(
+                        txtName.getText().trim(), txtPhone.getText().trim(), txtLicense.getText().trim(), 0))) {
+                    return;
+                }
+
+                // 3. İş Mantığı: Önce Müşteriyi Oluştur
                 // Bu metot ReservationService'de olmalı ve oluşturduğu müşterinin ID'sini dönmeli.
                 int customerId = ReservationService.createCustomerAndGetId(
                         txtName.getText().trim(),
@@ -206,18 +184,15 @@ public class AddReservationView {
                         txtLicense.getText().trim()
                 );
 
-                // 3. İş Mantığı: Rezervasyonu Kaydet
-                Vehicle selectedVeh = cmbVehicle.getValue();
-                double price = Double.parseDouble(txtPrice.getText());
-
-                // LocalDate -> java.sql.Date dönüşümü (Veritabanı için)
-                Date start = Date.valueOf(dpStart.getValue());
-                Date end = Date.valueOf(dpEnd.getValue());
-
-                ReservationService.addReservation(customerId, selectedVeh.getId(), start, end, price);
+                // 4. İş Mantığı: Rezervasyonu Kaydet (Sınıftaki uygun araç sistem tarafından atanır)
+                // Tarihler LocalDate olarak, tutar kuruş olarak servise gider.
+                // Açık Rezervasyon/Müşteri pencereleri yeni kaydı servisin yayınladığı olayla hemen gösterir.
+                int vehicleId = VehicleAssigner.bookClass(customerId, cmbVehicle.getValue(), dpStart.getValue(), dpEnd.getValue(), totalKurus);
 
-                // 4. Başarılı sonuç
-                showAlert(Alert.AlertType.INFORMATION, "Başarılı", "Müşteri ve Rezervasyon başarıyla kaydedildi!");
+                // 5. Başarılı sonuç (Atanan aracın plakası ile)
+                String plate = MasterLists.vehicles().stream().filter(v -> v.getId() == vehicleId)
+                        .map(Vehicle::getPlate).findFirst().orElse("#" + vehicleId);
+                showAlert(Alert.AlertType.INFORMATION, "Başarılı", "Müşteri ve Rezervasyon başarıyla kaydedildi!\nAtanan araç: " + plate);
                 stage.close(); // Pencereyi kapat
 
             } catch (Exception ex) {
@@ -263,11 +238,11 @@ public class AddReservationView {
             // Eğer aynı gün alıp bırakıyorsa (0 gün) en az 1 günlük ücret alalım.
             if (days == 0) days = 1;
 
-            // Hesaplama: Gün Sayısı * Aracın Günlük Fiyatı
-            double total = days * cmbVehicle.getValue().getPrice();
+            // Hesaplama: Gün Sayısı * Sınıfın Günlük Fiyatı (kuruş cinsinden, yuvarlama kaybı yok)
+            totalKurus = days * cmbVehicle.getValue().getPriceKurus();
 
             // Sonucu metin kutusuna yaz
-            txtPrice.setText(String.valueOf(total));
+            txtPrice.setText(Money.format(totalKurus));
         } else {
             // Herhangi biri eksikse fiyat kutusunu temizle
             txtPrice.setText("");
@@ -1,5 +1,7 @@
 package ui;
 
+import model.Money;
+import model.VehicleStatus;
 import service.VehicleService;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
@@ -59,11 +61,11 @@ public class AddVehicleView {
 
         // 6. Durum (ComboBox)
         Label lblStatus = new Label("Durum:");
-        ComboBox<String> cmbStatus = new ComboBox<>();
-        // Veritabanındaki ENUM değerleriyle birebir aynı olmalı
-        cmbStatus.getItems().addAll("AVAILABLE", "MAINTENANCE", "RENTED");
+        ComboBox<VehicleStatus> cmbStatus = new ComboBox<>();
+        // Değerler VehicleStatus enum'undan gelir, veritabanı kısıtlamasıyla birebir aynıdır
+        cmbStatus.getItems().addAll(VehicleStatus.AVAILABLE, VehicleStatus.MAINTENANCE, VehicleStatus.RENTED);
         // Kullanıcı seçmeyi unutursa diye varsayılan olarak ilki seçilsin
-        cmbStatus.getSelectionModel().select("AVAILABLE");
+        cmbStatus.getSelectionModel().select(VehicleStatus.AVAILABLE);
 
         // 7. Kaydet Butonu
         Button btnSave = new Button("Kaydet");
@@ -97,10 +99,10 @@ public class AddVehicleView {
                 // Kullanıcı "Fiyat" kısmına "bin lira" yazarsa uygulama çöker.
                 // Bunu önlemek için try-catch içinde parse işlemi yapıyoruz.
                 int branchId;
-                double price;
+                long priceKurus;
                 try {
                     branchId = Integer.parseInt(txtBranchId.getText().trim());
-                    price = Double.parseDouble(txtPrice.getText().trim());
+                    priceKurus = Money.parse(txtPrice.getText()); // "1500.50" -> 150050 kuruş
                 } catch (NumberFormatException nfe) {
                     showAlert(Alert.AlertType.ERROR, "Format Hatası", "Şube ID ve Fiyat alanlarına sadece sayı giriniz.");
                     return; // İşlemi durdur
@@ -112,7 +114,7 @@ public class AddVehicleView {
                         txtBrand.getText().trim(),  // Başındaki/sonundaki boşlukları temizle
                         txtModel.getText().trim(),
                         txtPlate.getText().trim().toUpperCase(), // Plakayı büyük harfe çevir
-                        price,
+                        priceKurus,
                         cmbStatus.getValue()
                 );
 
@@ -1,5 +1,10 @@
 package ui;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -8,13 +13,27 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.Money;
+import model.TelemetryReading;
 import model.Vehicle;
+import model.VehicleStatus;
 import service.AuthService;
+import service.RoaringBitmap;
+import service.TelemetryService;
 import service.VehicleService;
+import ui.FleetIndex.Facet;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * CarListView Sınıfı
@@ -22,11 +41,28 @@ import java.util.Optional;
  * Bu sınıf, uygulamadaki tüm araçların listelendiği ana yönetim ekranıdır.
  * - Araçları Tablo (TableView) içinde gösterir.
  * - Arama (Filtreleme) yapılmasını sağlar.
+ * - Sol panelde şube, durum, marka, fiyat aralığı ve müsaitlik filtreleri vardır (bkz. FleetIndex).
+ *   Filtreler birlikte kullanılabilir; her seçeneğin yanında o seçimle kaç araç kalacağı yazar.
  * - Admin yetkisi varsa Ekleme, Silme ve Durum Güncelleme butonlarını gösterir.
+ * - Araçlardan telemetri geliyorsa son kilometre ve yakıt seviyesi de gösterilir (10 saniyede bir yenilenir).
  */
 public class CarListView {
 
     private TableView<Vehicle> table; // Diğer metotlardan erişilebilmesi için sınıf seviyesinde tanımladık.
+    private FilteredList<Vehicle> view; // Ortak araç listesinin bu penceredeki (filtreli) görünümü
+
+    // Filtre paneli durumu
+    private final FleetIndex index = FleetIndex.get();
+    private final Map<Facet, Set<String>> selected = new EnumMap<>(Facet.class); // Filtre başına seçili değerler
+    private final Map<Facet, VBox> facetBoxes = new EnumMap<>(Facet.class);
+    private String searchText = "";
+    private RoaringBitmap searchIds;  // Metin aramasına uyan araçlar (null: arama yok)
+    private Label lblCount;
+
+    // Araç ID -> son telemetri okuması (Arka planda yüklenir; gelmeyen araçta hücre boş kalır).
+    private static final Duration TELEMETRY_REFRESH = Duration.seconds(10);
+    private Map<Integer, TelemetryReading> telemetry = Collections.emptyMap();
+    private boolean telemetryLoading;
 
     public void show() {
         Stage stage = new Stage();
@@ -79,17 +115,73 @@ public class CarListView {
         TableColumn<Vehicle, String> colPlate = new TableColumn<>("Plaka");
         colPlate.setCellValueFactory(new PropertyValueFactory<>("plate"));
 
-        TableColumn<Vehicle, Double> colPrice = new TableColumn<>("Günlük Ücret");
-        colPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+        // Fiyat modelde kuruş (long) olarak tutulur; hücre değeri sayı kalır (Başlığa tıklayınca sayısal sıralanır),
+        // ekranda "1250.50" biçiminde gösterilir.
+        TableColumn<Vehicle, Long> colPrice = new TableColumn<>("Günlük Ücret");
+        colPrice.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(cd.getValue().getPriceKurus()));
+        colPrice.setCellFactory(c -> formattedCell(Money::format));
 
-        TableColumn<Vehicle, String> colStatus = new TableColumn<>("Durum");
+        TableColumn<Vehicle, VehicleStatus> colStatus = new TableColumn<>("Durum");
         colStatus.setCellValueFactory(new PropertyValueFactory<>("status"));
 
+        // Telemetri: Son okunan kilometre ve yakıt yüzdesi. Fiyat gibi hücre değeri sayıdır (Sayısal sıralanır);
+        // okuması olmayan araçta hücre boş kalır.
+        TableColumn<Vehicle, Integer> colOdometer = new TableColumn<>("Kilometre");
+        colOdometer.setCellValueFactory(cd -> {
+            TelemetryReading r = telemetry.get(cd.getValue().getId());
+            return new ReadOnlyObjectWrapper<>(r == null ? null : r.getOdometerKm());
+        });
+        colOdometer.setCellFactory(c -> formattedCell(km -> km + " km"));
+
+        TableColumn<Vehicle, Integer> colFuel = new TableColumn<>("Yakıt");
+        colFuel.setCellValueFactory(cd -> {
+            TelemetryReading r = telemetry.get(cd.getValue().getId());
+            return new ReadOnlyObjectWrapper<>(r == null ? null : r.getFuelPct());
+        });
+        colFuel.setCellFactory(c -> formattedCell(pct -> "%" + pct));
+        colFuel.setMaxWidth(70);
+
         // Sütunları tabloya ekle
-        table.getColumns().addAll(colId, colBrand, colModel, colPlate, colPrice, colStatus);
+        table.getColumns().addAll(colId, colBrand, colModel, colPlate, colPrice, colStatus, colOdometer, colFuel);
 
-        // İlk açılışta verileri yükle
-        refreshTable();
+        // Tabloyu ortak araç listesine bağla (Diğer pencerelerle aynı veri, kopya yok).
+        view = MasterLists.bind(table, MasterLists.vehicles());
+
+        // ==========================================
+        // 2b. FİLTRE PANELİ (Sol taraf)
+        // ==========================================
+        VBox facetPanel = new VBox(10);
+        for (Facet f : Facet.values()) {
+            VBox box = new VBox(4);
+            facetBoxes.put(f, box);
+            selected.put(f, new HashSet<>());
+            TitledPane pane = new TitledPane(f.title, box);
+            facetPanel.getChildren().add(pane);
+        }
+        ScrollPane facetScroll = new ScrollPane(facetPanel);
+        facetScroll.setFitToWidth(true);
+        facetScroll.setPrefWidth(230);
+        facetScroll.setMinWidth(230);
+
+        lblCount = new Label();
+
+        // Araç listesi değişince (ekleme/silme/durum) sayılar ve görünüm güncellensin.
+        Runnable onFleetChanged = () -> {
+            if (!searchText.isBlank()) searchIds = index.search(searchText);
+            applyFilters();
+        };
+        index.addListener(onFleetChanged);
+        applyFilters();
+
+        // Telemetri pencere açıkken düzenli yenilenir; pencere kapanınca durur.
+        Timeline telemetryTimer = new Timeline(new KeyFrame(TELEMETRY_REFRESH, e -> loadTelemetry()));
+        telemetryTimer.setCycleCount(Timeline.INDEFINITE);
+        telemetryTimer.play();
+        loadTelemetry();
+        stage.setOnHidden(e -> {
+            index.removeListener(onFleetChanged);
+            telemetryTimer.stop();
+        });
 
         // ==========================================
         // 3. YÖNETİM BUTONLARI (Sadece Admin)
@@ -97,8 +189,9 @@ public class CarListView {
         Button btnAdd = new Button("Yeni Araç Ekle");
         Button btnDelete = new Button("Seçili Aracı Sil");
         Button btnUpdate = new Button("Durum Değiştir...");
+        Button btnMaintenance = new Button("Bakım Planı...");
 
-        HBox actionBox = new HBox(10, btnAdd, btnDelete, btnUpdate);
+        HBox actionBox = new HBox(10, btnAdd, btnDelete, btnUpdate, btnMaintenance);
         actionBox.setPadding(new Insets(10, 0, 0, 0)); // Üstten biraz boşluk bırak
 
         // YETKİ KONTROLÜ:
@@ -114,24 +207,29 @@ public class CarListView {
 
         // --- ARAMA İŞLEMİ ---
         btnSearch.setOnAction(e -> {
-            String searchText = txtSearch.getText();
-            // Service katmanındaki güvenli arama metodunu çağır
-            table.setItems(VehicleService.searchVehicles(searchText));
+            // Veritabanına gitmeden, bu penceredeki görünümü filtrele (Marka, Model veya Plaka)
+            // Arama sonucu da bir kümedir; sol paneldeki filtrelerle kesiştirilir.
+            searchText = txtSearch.getText() == null ? "" : txtSearch.getText();
+            searchIds = searchText.isBlank() ? null : index.search(searchText);
+            applyFilters();
         });
 
         // --- YENİLEME İŞLEMİ ---
         btnRefresh.setOnAction(e -> {
-            txtSearch.clear(); // Arama kutusunu temizle
-            refreshTable();    // Tüm veriyi tekrar çek
+            txtSearch.clear();        // Arama kutusunu temizle
+            searchText = "";
+            searchIds = null;
+            selected.values().forEach(Set::clear); // Filtreleri kaldır
+            applyFilters();
+            refreshTable();           // Tüm veriyi tekrar çek
+            loadTelemetry();
         });
 
         // --- EKLEME İŞLEMİ ---
         btnAdd.setOnAction(e -> {
             // Yeni ekleme penceresini aç
             new AddVehicleView().show();
-            // Not: AddVehicleView kapandığında tablonun otomatik güncellenmesi için
-            // daha ileri teknikler (Callback veya ShowAndWait) gerekebilir.
-            // Şimdilik kullanıcı manuel "Yenile" butonuna basacaktır.
+            // Kaydedilen araç, VehicleService'in yayınladığı olayla bu tabloya (ve açık tüm pencerelere) eklenir.
         });
 
         // --- SİLME İŞLEMİ (Onaylı) ---
@@ -148,8 +246,7 @@ public class CarListView {
                 Optional<ButtonType> result = confirm.showAndWait();
                 if (result.isPresent() && result.get() == ButtonType.OK) {
                     try {
-                        VehicleService.deleteVehicle(selected.getId());
-                        refreshTable(); // Tabloyu güncelle
+                        VehicleService.deleteVehicle(selected.getId()); // Tablo, servisin yayınladığı olayla güncellenir
                         new Alert(Alert.AlertType.INFORMATION, "Araç sistemden silindi.").show();
                     } catch (Exception ex) {
                         new Alert(Alert.AlertType.ERROR, "Hata: " + ex.getMessage()).show();
@@ -166,22 +263,21 @@ public class CarListView {
             Vehicle selected = table.getSelectionModel().getSelectedItem();
             if (selected != null) {
                 // Seçenekler Listesi
-                List<String> choices = Arrays.asList("AVAILABLE", "MAINTENANCE", "RENTED");
+                List<VehicleStatus> choices = Arrays.asList(VehicleStatus.AVAILABLE, VehicleStatus.MAINTENANCE, VehicleStatus.RENTED);
 
                 // ChoiceDialog: Kullanıcıya listeden seçim yaptıran hazır pencere
-                ChoiceDialog<String> dialog = new ChoiceDialog<>(selected.getStatus(), choices);
+                ChoiceDialog<VehicleStatus> dialog = new ChoiceDialog<>(selected.getStatus(), choices);
                 dialog.setTitle("Durum Güncelle");
                 dialog.setHeaderText(selected.getBrand() + " " + selected.getModel() + " (" + selected.getPlate() + ")");
                 dialog.setContentText("Yeni Durumu Seçiniz:");
 
                 // Diyaloğu göster ve sonucu bekle
-                Optional<String> result = dialog.showAndWait();
+                Optional<VehicleStatus> result = dialog.showAndWait();
 
                 // Eğer kullanıcı bir seçim yapıp OK dediyse:
                 result.ifPresent(newStatus -> {
                     try {
-                        VehicleService.updateVehicleStatus(selected.getId(), newStatus);
-                        refreshTable(); // Tabloyu anında güncelle
+                        VehicleService.updateVehicleStatus(selected, newStatus); // Tablo olayla anında güncellenir
                     } catch (Exception ex) {
                         new Alert(Alert.AlertType.ERROR, "Güncelleme Hatası: " + ex.getMessage()).show();
                     }
@@ -191,22 +287,88 @@ public class CarListView {
             }
         });
 
+        // --- BAKIM PLANI (Tarih aralıklı bakımlar) ---
+        btnMaintenance.setOnAction(e -> {
+            Vehicle selected = table.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                new MaintenanceView(selected).show();
+            } else {
+                new Alert(Alert.AlertType.WARNING, "Lütfen bakım planını görmek istediğiniz aracı seçiniz.").show();
+            }
+        });
+
         // Elemanları ana kök panele ekle
         // VBox.setVgrow(table, Priority.ALWAYS) -> Tablo dikeyde kalan tüm boşluğu doldursun
-        VBox.setVgrow(table, Priority.ALWAYS);
-        root.getChildren().addAll(searchBox, table, actionBox);
+        HBox.setHgrow(table, Priority.ALWAYS);
+        HBox content = new HBox(10, facetScroll, table);
+        VBox.setVgrow(content, Priority.ALWAYS);
+        root.getChildren().addAll(searchBox, content, lblCount, actionBox);
 
-        Scene scene = new Scene(root, 800, 600); // Pencere boyutu biraz büyütüldü
+        Scene scene = new Scene(root, 1050, 600); // Filtre paneli için pencere genişletildi
         stage.setScene(scene);
         stage.setTitle("Araç Filo Yönetimi");
         stage.show();
     }
 
+    /**
+     * Seçili filtrelere (ve arama metnine) göre görünümü ve filtre sayılarını günceller.
+     * Aynı filtrede seçilen değerler VEYA, farklı filtreler VE ile birleşir. Veritabanına gidilmez.
+     */
+    private void applyFilters() {
+        boolean filtering = searchIds != null || selected.values().stream().anyMatch(v -> !v.isEmpty());
+        RoaringBitmap ids = index.filter(selected, searchIds);
+        view.setPredicate(filtering ? v -> ids.contains(v.getId()) : null);
+        lblCount.setText(ids.cardinality() + " araç listeleniyor");
+
+        // Filtre seçeneklerini yeniden çiz (Yeni değerler eklenmiş, boşalanlar kalkmış olabilir).
+        for (Facet f : Facet.values()) {
+            Set<String> chosen = selected.get(f);
+            chosen.retainAll(index.values(f));
+            Map<String, Integer> counts = index.counts(f, selected, searchIds);
+            VBox box = facetBoxes.get(f);
+            box.getChildren().clear();
+            for (String value : index.values(f)) {
+                CheckBox cb = new CheckBox(value + " (" + counts.get(value) + ")");
+                cb.setSelected(chosen.contains(value));
+                cb.setOnAction(e -> {
+                    if (cb.isSelected()) chosen.add(value);
+                    else chosen.remove(value);
+                    applyFilters();
+                });
+                box.getChildren().add(cb);
+            }
+        }
+    }
+
+    // Son telemetri okumalarını arka planda çeker ve tabloyu yeniden çizer (Satırlar değişmez, sadece hücreler).
+    private void loadTelemetry() {
+        if (telemetryLoading) return;
+        telemetryLoading = true;
+        CompletableFuture.supplyAsync(TelemetryService::getLatest).whenComplete((latest, error) -> Platform.runLater(() -> {
+            telemetryLoading = false;
+            if (error != null || latest == null) return; // Bir sonraki turda tekrar denenir
+            telemetry = latest;
+            table.refresh();
+        }));
+    }
+
+    // Değeri biçimlendirerek gösteren hücre: Sütunun değeri sayı olarak kalır, sıralama sayısal olur.
+    private static <T> TableCell<Vehicle, T> formattedCell(Function<T, String> format) {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : format.apply(item));
+            }
+        };
+    }
+
     /**
      * Tablodaki verileri veritabanından yeniden çeker.
      * Kod tekrarını önlemek için ayrı metoda alındı.
      */
+    // Ortak listeyi yeniler; açık olan tüm pencereler (ve araç seçim kutuları) birlikte güncellenir.
     private void refreshTable() {
-        table.setItems(VehicleService.getAllVehiclesForUI());
+        MasterLists.refreshVehicles();
     }
 }
\ No newline at end of file
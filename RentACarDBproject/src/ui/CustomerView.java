@@ -1,5 +1,6 @@
 package ui;
 
+import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -12,6 +13,8 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.Customer;
 import service.CustomerService;
+import service.DuplicateDetector;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -76,8 +79,8 @@ public class CustomerView {
         // Sütunları tabloya ekle
         table.getColumns().addAll(colId, colName, colPhone, colLicense);
 
-        // Başlangıç verilerini servisten çek ve yükle
-        table.setItems(CustomerService.getAllCustomers());
+        // Tabloyu ortak müşteri listesine bağla (Diğer pencerelerle aynı veri, kopya yok).
+        FilteredList<Customer> view = MasterLists.bind(table, MasterLists.customers());
 
         // ==========================================
         // 3. AKSİYON BUTONLARI
@@ -94,13 +97,15 @@ public class CustomerView {
         // ARAMA BUTONU
         btnSearch.setOnAction(e -> {
             String query = txtSearch.getText();
-            table.setItems(CustomerService.searchCustomers(query));
+            // Veritabanına gitmeden, bu penceredeki görünümü filtrele (İsim veya Ehliyet No)
+            view.setPredicate(c -> MasterLists.matches(query, c.getFullName(), c.getLicenseNo()));
         });
 
         // YENİLE BUTONU
         btnRefresh.setOnAction(e -> {
             txtSearch.clear(); // Arama metnini temizle
-            table.setItems(CustomerService.getAllCustomers()); // Tüm listeyi getir
+            view.setPredicate(null); // Filtreyi kaldır
+            MasterLists.refreshCustomers(); // Tüm listeyi yeniden çek
         });
 
         // EKLEME BUTONU
@@ -131,8 +136,7 @@ public class CustomerView {
                 Optional<ButtonType> result = alert.showAndWait();
                 if (result.isPresent() && result.get() == ButtonType.OK) {
                     try {
-                        CustomerService.deleteCustomer(selected.getId());
-                        table.setItems(CustomerService.getAllCustomers()); // Tabloyu güncelle
+                        CustomerService.deleteCustomer(selected.getId()); // Tablo (ve açık diğer pencereler) olayla güncellenir
                         showAlert(Alert.AlertType.INFORMATION, "Başarılı", "Müşteri silindi.");
                     } catch (Exception ex) {
                         showAlert(Alert.AlertType.ERROR, "Hata", "Silme işlemi başarısız: " + ex.getMessage());
@@ -210,6 +214,13 @@ public class CustomerView {
             }
 
             try {
+                // 2. Mükerrer Kontrolü: Aynı kişi farklı yazımla zaten kayıtlı olabilir.
+                if (!confirmPossibleDuplicates(DuplicateDetector.findLikelyDuplicates(
+                        txtName.getText().trim(), txtPhone.getText().trim(), txtLicense.getText().trim(),
+                        customer == null ? 0 : customer.getId()))) {
+                    return;
+                }
+
                 if (customer == null) {
                     // YENİ KAYIT (INSERT)
                     CustomerService.addCustomer(
@@ -220,15 +231,14 @@ public class CustomerView {
                 } else {
                     // GÜNCELLEME (UPDATE)
                     CustomerService.updateCustomer(
-                            customer.getId(),
+                            customer,
                             txtName.getText().trim(),
                             txtPhone.getText().trim(),
                             txtLicense.getText().trim()
                     );
                 }
 
-                // İşlem başarılıysa tabloyu yenile ve pencereyi kapat
-                table.setItems(CustomerService.getAllCustomers());
+                // İşlem başarılıysa pencereyi kapat (Tablo, servisin yayınladığı olayla güncellenir)
                 formStage.close();
 
             } catch (Exception ex) {
@@ -240,6 +250,29 @@ public class CustomerView {
         formStage.show();
     }
 
+    /**
+     * Olası mükerrer müşteriler varsa listeler ve kullanıcıya yine de kaydetmek isteyip istemediğini sorar.
+     * AddReservationView de aynı soruyu sorar.
+     *
+     * @return Kayda devam edilecekse true
+     */
+    static boolean confirmPossibleDuplicates(List<Customer> duplicates) {
+        if (duplicates.isEmpty()) return true;
+        StringBuilder text = new StringBuilder("Bu müşteriye çok benzeyen kayıtlar var:\n\n");
+        for (Customer c : duplicates) {
+            text.append("• ").append(c.getFullName()).append("  (Tel: ").append(c.getPhone())
+                    .append(", Ehliyet: ").append(c.getLicenseNo()).append(")\n");
+        }
+        text.append("\nAynı kişiyse mevcut kaydı kullanın. Yine de yeni bilgilerle kaydedilsin mi?");
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Olası Mükerrer Kayıt");
+        alert.setHeaderText(null);
+        alert.setContentText(text.toString());
+        Optional<ButtonType> result = alert.showAndWait();
+        return result.isPresent() && result.get() == ButtonType.OK;
+    }
+
     // Kod tekrarını azaltmak için yardımcı metot
     private void showAlert(Alert.AlertType type, String title, String content) {
         Alert alert = new Alert(type);
@@ -0,0 +1,197 @@
+package ui;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import model.Branch;
+import model.Money;
+import model.Vehicle;
+import service.BranchService;
+import service.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * FleetIndex Sınıfı (Filo Filtre İndeksi)
+ * ---------------------------------------
+ * Araç Yönetimi ekranındaki filtreler (şube, durum, marka, fiyat aralığı, müsaitlik) için bellek içi indeks.
+ *
+ * Her filtre değeri için o değere sahip araçların ID kümesi sıkıştırılmış bitmap (RoaringBitmap) olarak tutulur:
+ *   Durum=AVAILABLE -> {1, 4, 9, ...}    Marka=Ford -> {2, 4, 7, ...}
+ * - Aynı filtrede birden çok değer seçilirse kümeler BİRLEŞTİRİLİR (VEYA),
+ * - Farklı filtreler KESİŞTİRİLİR (VE).
+ * - Her değerin yanındaki sayı, diğer filtrelerin sonucu ile o değerin kümesinin kesişim büyüklüğüdür;
+ *   kesişim oluşturulmadan sayılır. Böylece hiçbir filtre kombinasyonu için veritabanına gidilmez.
+ *
+ * İndeks ortak araç listesini (MasterLists.vehicles) dinler: VehicleService ile yapılan her değişiklikten sonra
+ * liste yenilenince sadece değişen araçlar indekste güncellenir, açık pencerelere haber verilir.
+ *
+ * Tüm metotlar JavaFX iş parçacığında (UI thread) çağrılmalıdır.
+ */
+public final class FleetIndex {
+
+    public enum Facet {
+        BRANCH("Şube"),
+        STATUS("Durum"),
+        BRAND("Marka"),
+        PRICE("Günlük Ücret"),
+        AVAILABILITY("Müsaitlik");
+
+        public final String title;
+
+        Facet(String title) {
+            this.title = title;
+        }
+    }
+
+    // Fiyat aralıklarının alt sınırları (kuruş) ve etiketleri
+    private static final long[] PRICE_BANDS = {0, 1_000_00, 2_000_00, 5_000_00};
+    private static final List<String> PRICE_LABELS = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < PRICE_BANDS.length; i++) {
+            PRICE_LABELS.add(i == PRICE_BANDS.length - 1
+                    ? Money.format(PRICE_BANDS[i]) + " TL ve üzeri"
+                    : Money.format(PRICE_BANDS[i]) + " - " + Money.format(PRICE_BANDS[i + 1]) + " TL");
+        }
+    }
+
+    private static FleetIndex instance;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Facet, Map<String, RoaringBitmap>> bitmaps = new EnumMap<>(Facet.class);
+    private final Map<Integer, Vehicle> indexed = new HashMap<>(); // Çıkarırken eski değerleri bulmak için
+    private final Map<Integer, String> branchNames = new HashMap<>();
+    private final List<Runnable> listeners = new ArrayList<>();
+
+    private FleetIndex(ObservableList<Vehicle> master) {
+        // Değerler alfabetik, fiyat aralıkları küçükten büyüğe görünsün.
+        for (Facet f : Facet.values()) {
+            bitmaps.put(f, f == Facet.PRICE ? new TreeMap<>(Comparator.comparingInt(PRICE_LABELS::indexOf)) : new TreeMap<>());
+        }
+        for (Branch b : BranchService.getAllBranches()) branchNames.put(b.getId(), b.getName());
+        master.forEach(this::add);
+        master.addListener((ListChangeListener<Vehicle>) c -> {
+            while (c.next()) {
+                c.getRemoved().forEach(this::remove); // Güncellenen satır: önce eski hali çıkar,
+                c.getAddedSubList().forEach(this::add); // sonra yeni halini ekle
+            }
+            // Pencereler liste değişikliği bildirimi bittikten sonra güncellensin
+            // (Aynı listeyi dinleyen FilteredList'ler değişikliği henüz işliyor olabilir).
+            Platform.runLater(() -> new ArrayList<>(listeners).forEach(Runnable::run));
+        });
+    }
+
+    public static FleetIndex get() {
+        if (instance == null) instance = new FleetIndex(MasterLists.vehicles());
+        return instance;
+    }
+
+    // İndeks değişince (araç eklendi/silindi/güncellendi) çağrılır. Pencere kapanınca kaldırılmalıdır.
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    // ==========================================
+    // 1. İNDEKS GÜNCELLEME
+    // ==========================================
+
+    private void add(Vehicle v) {
+        remove(indexed.get(v.getId())); // Aynı ID iki kez eklenmesin
+        indexed.put(v.getId(), v);
+        all.add(v.getId());
+        for (Facet f : Facet.values()) bitmaps.get(f).computeIfAbsent(value(f, v), k -> new RoaringBitmap()).add(v.getId());
+    }
+
+    private void remove(Vehicle v) {
+        if (v == null || indexed.get(v.getId()) != v) return;
+        indexed.remove(v.getId());
+        all.remove(v.getId());
+        for (Facet f : Facet.values()) {
+            Map<String, RoaringBitmap> values = bitmaps.get(f);
+            String value = value(f, v);
+            RoaringBitmap ids = values.get(value);
+            ids.remove(v.getId());
+            if (ids.isEmpty()) values.remove(value); // Artık hiç aracı olmayan değer filtrede görünmesin
+        }
+    }
+
+    private String value(Facet f, Vehicle v) {
+        switch (f) {
+            case BRANCH: return branchNames.getOrDefault(v.getBranchId(), "Şube #" + v.getBranchId());
+            case STATUS: return v.getStatus().name();
+            case BRAND: return v.getBrand();
+            case PRICE: return priceBand(v.getPriceKurus());
+            default: return v.isRentableNow() ? "Hemen kiralanabilir" : "Kiralanamaz";
+        }
+    }
+
+    private static String priceBand(long kurus) {
+        int i = PRICE_BANDS.length - 1;
+        while (i > 0 && kurus < PRICE_BANDS[i]) i--;
+        return PRICE_LABELS.get(i);
+    }
+
+    // ==========================================
+    // 2. SORGULAR
+    // ==========================================
+
+    // Filtrede seçilebilecek değerler (sıralı)
+    public Set<String> values(Facet f) {
+        return bitmaps.get(f).keySet();
+    }
+
+    /**
+     * Seçimlere uyan araç ID'leri.
+     * @param selected Filtre başına seçili değerler (boş/eksik filtre = kısıt yok)
+     * @param base     Ek kısıt (Örn: metin araması sonucu); null = tüm araçlar
+     */
+    public RoaringBitmap filter(Map<Facet, Set<String>> selected, RoaringBitmap base) {
+        return filterExcept(null, selected, base);
+    }
+
+    // Filtredeki her değerin yanında gösterilecek araç sayısı: O filtre hariç diğer seçimlerle kesişim.
+    public Map<String, Integer> counts(Facet f, Map<Facet, Set<String>> selected, RoaringBitmap base) {
+        RoaringBitmap others = filterExcept(f, selected, base);
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, RoaringBitmap> e : bitmaps.get(f).entrySet()) {
+            counts.put(e.getKey(), RoaringBitmap.andCardinality(e.getValue(), others));
+        }
+        return counts;
+    }
+
+    // Marka, model veya plakasında metin geçen araçlar (Tek tarama; sonuç filtrelerle kesiştirilir).
+    public RoaringBitmap search(String query) {
+        RoaringBitmap ids = new RoaringBitmap();
+        for (Vehicle v : indexed.values()) {
+            if (MasterLists.matches(query, v.getBrand(), v.getModel(), v.getPlate())) ids.add(v.getId());
+        }
+        return ids;
+    }
+
+    private RoaringBitmap filterExcept(Facet skip, Map<Facet, Set<String>> selected, RoaringBitmap base) {
+        RoaringBitmap result = base != null ? base : all;
+        for (Facet f : Facet.values()) {
+            Set<String> chosen = selected.get(f);
+            if (f == skip || chosen == null || chosen.isEmpty()) continue;
+            RoaringBitmap union = new RoaringBitmap();
+            for (String value : chosen) {
+                RoaringBitmap ids = bitmaps.get(f).get(value);
+                if (ids != null) union = RoaringBitmap.or(union, ids);
+            }
+            result = RoaringBitmap.and(result, union);
+        }
+        return result;
+    }
+}
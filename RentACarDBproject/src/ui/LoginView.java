@@ -16,8 +16,6 @@ import java.io.File;
 
 public class LoginView {
 
-    private AuthService authService = new AuthService();
-
     public void show(Stage stage) {
 
         StackPane root = new StackPane();
@@ -42,7 +40,8 @@ public class LoginView {
             File file = new File(localPath);
 
             if (file.exists()) {
-                Image carImage = new Image(file.toURI().toString());
+                // 'true' -> Görsel arka planda yüklenir, ekranın açılmasını bekletmez.
+                Image carImage = new Image(file.toURI().toString(), true);
                 ImageView carView = new ImageView(carImage);
                 carView.setFitWidth(320);
                 carView.setPreserveRatio(true);
@@ -96,11 +95,13 @@ public class LoginView {
         stage.setTitle("Car Rental System - Login");
         stage.setMaximized(true);
         stage.show();
+        StartupPipeline.loginScreenShown();
 
         // Giriş Aksiyonu
         btnLogin.setOnAction(e -> {
+            StartupPipeline.loginClicked();
             try {
-                if (authService.login(txtUser.getText(), txtPass.getText())) {
+                if (AuthService.login(txtUser.getText(), txtPass.getText())) {
                     stage.close();
                     new MainView().show();
                 } else {
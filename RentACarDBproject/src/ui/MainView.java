@@ -62,18 +62,21 @@ public class MainView {
         Button btnCars = new Button("Araç Yönetimi");
         Button btnReservations = new Button("Rezervasyon Yönetimi");
         Button btnCustomers = new Button("Müşteri Yönetimi");
+        Button btnTimeline = new Button("Araç Takvimi");
 
         // Butonların hepsini aynı genişliğe ayarla (Görsel bütünlük için)
         double buttonWidth = 250;
         btnCars.setMinWidth(buttonWidth);
         btnReservations.setMinWidth(buttonWidth);
         btnCustomers.setMinWidth(buttonWidth);
+        btnTimeline.setMinWidth(buttonWidth);
 
         // Butonları biraz süsleyelim (İsteğe bağlı CSS)
         String btnStyle = "-fx-font-size: 14px; -fx-padding: 10px;";
         btnCars.setStyle(btnStyle);
         btnReservations.setStyle(btnStyle);
         btnCustomers.setStyle(btnStyle);
+        btnTimeline.setStyle(btnStyle);
 
         // --- BUTON AKSİYONLARI ---
 
@@ -93,9 +96,14 @@ public class MainView {
             new CustomerView().show();
         });
 
+        // 4. Araç Takvimi (Hangi araç ne zaman kimde?)
+        btnTimeline.setOnAction(e -> {
+            new TimelineView().show();
+        });
+
         // Butonları dikey bir kutuya (VBox) koy
         VBox menuBox = new VBox(15); // Butonlar arası 15px boşluk
-        menuBox.getChildren().addAll(btnCars, btnReservations, btnCustomers);
+        menuBox.getChildren().addAll(btnCars, btnReservations, btnCustomers, btnTimeline);
         menuBox.setAlignment(Pos.CENTER); // Kutuyu ortala
 
         // BorderPane'in ortasına (CENTER) yerleştir
@@ -111,7 +119,9 @@ public class MainView {
         btnLogout.setStyle("-fx-background-color: #ffcccc; -fx-text-fill: darkred; -fx-border-color: darkred; -fx-border-radius: 5; -fx-background-radius: 5;");
 
         btnLogout.setOnAction(e -> {
-            // 1. Kullanıcı oturumunu temizle (Opsiyonel: AuthService.logout() metodu yazılabilir)
+            // 1. Kullanıcı oturumunu temizle
+            AuthService.logout();
+            MasterLists.clear(); // Ortak listeler bir sonraki kullanıcı için boşaltılır
             System.out.println("Kullanıcı çıkış yaptı.");
 
             // 2. Ana menüyü kapat
@@ -137,5 +147,6 @@ public class MainView {
         stage.setTitle("Rent A Car - Ana Menü");
         stage.centerOnScreen(); // Pencereyi ekranın ortasında aç
         stage.show();
+        StartupPipeline.mainMenuShown(); // Açılış süresini ölç ve yazdır
     }
 }
\ No newline at end of file
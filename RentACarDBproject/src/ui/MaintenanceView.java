@@ -0,0 +1,143 @@
+package ui;
+
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import model.MaintenanceWindow;
+import model.Vehicle;
+import service.MaintenanceService;
+
+import java.time.LocalDate;
+
+/**
+ * MaintenanceView Sınıfı (Bakım Planı)
+ * ------------------------------------
+ * Seçili aracın planlı bakımlarını (tarih aralıkları) listeler; yeni bakım eklenir veya silinir.
+ * Alt bölümdeki "Periyodik Bakım Planla" ise TÜM filoya belirli aralıklarla bakım yerleştirir.
+ * Sadece Admin açabilir (Araç Yönetimi ekranındaki yönetim butonlarından).
+ */
+public class MaintenanceView {
+
+    private final Vehicle vehicle;
+    private final TableView<MaintenanceWindow> table = new TableView<>();
+
+    public MaintenanceView(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    public void show() {
+        Stage stage = new Stage();
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(15));
+
+        // ==========================================
+        // 1. ARACIN BAKIMLARI
+        // ==========================================
+        TableColumn<MaintenanceWindow, LocalDate> colStart = new TableColumn<>("Başlangıç");
+        colStart.setCellValueFactory(new PropertyValueFactory<>("startDate"));
+        TableColumn<MaintenanceWindow, LocalDate> colEnd = new TableColumn<>("Bitiş");
+        colEnd.setCellValueFactory(new PropertyValueFactory<>("endDate"));
+        TableColumn<MaintenanceWindow, String> colReason = new TableColumn<>("Açıklama");
+        colReason.setCellValueFactory(new PropertyValueFactory<>("reason"));
+        colReason.setPrefWidth(200);
+        TableColumn<MaintenanceWindow, String> colType = new TableColumn<>("Tür");
+        colType.setCellValueFactory(cd -> new ReadOnlyStringWrapper(cd.getValue().isRecurring() ? "Periyodik" : "Elle"));
+        table.getColumns().addAll(colStart, colEnd, colReason, colType);
+        table.setPlaceholder(new Label("Planlı bakım yok"));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        // --- Yeni bakım ---
+        DatePicker dpStart = new DatePicker(LocalDate.now());
+        DatePicker dpEnd = new DatePicker(LocalDate.now());
+        TextField txtReason = new TextField();
+        txtReason.setPromptText("Örn: Lastik değişimi");
+        Button btnAdd = new Button("Bakım Ekle");
+        Button btnDelete = new Button("Seçili Bakımı Sil");
+        HBox addBox = new HBox(10, new Label("Tarih:"), dpStart, new Label("-"), dpEnd, txtReason, btnAdd);
+
+        btnAdd.setOnAction(e -> {
+            if (dpStart.getValue() == null || dpEnd.getValue() == null) {
+                new Alert(Alert.AlertType.WARNING, "Lütfen başlangıç ve bitiş tarihlerini seçiniz.").show();
+                return;
+            }
+            try {
+                MaintenanceService.addWindow(vehicle.getId(), dpStart.getValue(), dpEnd.getValue(), txtReason.getText());
+                txtReason.clear();
+                refresh();
+            } catch (Exception ex) {
+                new Alert(Alert.AlertType.ERROR, ex.getMessage()).show();
+            }
+        });
+
+        btnDelete.setOnAction(e -> {
+            MaintenanceWindow selected = table.getSelectionModel().getSelectedItem();
+            if (selected == null) {
+                new Alert(Alert.AlertType.WARNING, "Lütfen silmek istediğiniz bakımı seçiniz.").show();
+                return;
+            }
+            try {
+                MaintenanceService.deleteWindow(selected.getId());
+                refresh();
+            } catch (Exception ex) {
+                new Alert(Alert.AlertType.ERROR, "Hata: " + ex.getMessage()).show();
+            }
+        });
+
+        // ==========================================
+        // 2. PERİYODİK BAKIM (Tüm filo)
+        // ==========================================
+        TextField txtInterval = new TextField("90");
+        TextField txtDuration = new TextField("1");
+        TextField txtCapacity = new TextField("2");
+        DatePicker dpFrom = new DatePicker(LocalDate.now());
+        DatePicker dpUntil = new DatePicker(LocalDate.now().plusYears(1));
+        Button btnSchedule = new Button("Tüm Filo İçin Planla");
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(8);
+        grid.add(new Label("Kaç günde bir:"), 0, 0);           grid.add(txtInterval, 1, 0);
+        grid.add(new Label("Süre (gün):"), 2, 0);              grid.add(txtDuration, 3, 0);
+        grid.add(new Label("Tarih aralığı:"), 0, 1);           grid.add(dpFrom, 1, 1);   grid.add(dpUntil, 3, 1);
+        grid.add(new Label("Şube başına günde en fazla:"), 0, 2); grid.add(txtCapacity, 1, 2); grid.add(btnSchedule, 3, 2);
+        TitledPane recurringPane = new TitledPane("Periyodik Bakım Planla (Tüm Filo)", grid);
+        recurringPane.setExpanded(false);
+
+        btnSchedule.setOnAction(e -> {
+            int interval, duration, capacity;
+            try {
+                interval = Integer.parseInt(txtInterval.getText().trim());
+                duration = Integer.parseInt(txtDuration.getText().trim());
+                capacity = Integer.parseInt(txtCapacity.getText().trim());
+            } catch (NumberFormatException nfe) {
+                new Alert(Alert.AlertType.ERROR, "Aralık, süre ve kapasite alanlarına sadece sayı giriniz.").show();
+                return;
+            }
+            try {
+                int created = MaintenanceService.scheduleRecurring(interval, duration, dpFrom.getValue(), dpUntil.getValue(), capacity);
+                refresh();
+                new Alert(Alert.AlertType.INFORMATION, created + " bakım planlandı.").show();
+            } catch (Exception ex) {
+                new Alert(Alert.AlertType.ERROR, ex.getMessage()).show();
+            }
+        });
+
+        root.getChildren().addAll(table, addBox, btnDelete, recurringPane);
+        refresh();
+
+        stage.setScene(new Scene(root, 760, 500));
+        stage.setTitle("Bakım Planı - " + vehicle.getBrand() + " " + vehicle.getModel() + " (" + vehicle.getPlate() + ")");
+        stage.show();
+    }
+
+    private void refresh() {
+        table.setItems(MaintenanceService.getWindows(vehicle.getId()));
+    }
+}
@@ -0,0 +1,443 @@
+package ui;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+import model.Customer;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Vehicle;
+import model.VehicleStatus;
+import service.CustomerService;
+import service.EntityEvent;
+import service.EventBus;
+import service.ReservationService;
+import service.ReservationStateMachine;
+import service.VehicleService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * MasterLists Sınıfı (Ortak Ana Listeler)
+ * ---------------------------------------
+ * Araç, müşteri ve rezervasyonlar için uygulama genelinde TEK bir canlı liste tutar.
+ *
+ * NEDEN?
+ * Eskiden her pencere (Araç Yönetimi, Müşteriler, Rezervasyonlar, Yeni Rezervasyon) açıldığında
+ * tüm tabloyu kendi listesine ayrıca çekiyordu. Aynı anda birkaç pencere açık olunca
+ * aynı veri bellekte birkaç kez tutuluyor ve ayrı ayrı sorgulanıyordu.
+ *
+ * Artık:
+ * - Her pencere, ana listenin üzerinde kendi FİLTRELİ ve SIRALI görünümünü (FilteredList + SortedList) kullanır.
+ *   Görünümler satırları kopyalamaz, sadece sıra numaralarını tutar.
+ * - Servisler her yazmadan sonra EventBus'a olay bırakır; ana listeler olayları toplu olarak, veritabanına
+ *   gitmeden uygular ve açık olan TÜM pencereler kendiliğinden güncellenir (bkz. applyEvents).
+ * - "Yenile" butonları ana listeyi veritabanından tekrar çeker (sadece farkı uygulanır, bkz. TableDiff).
+ * - Arama kutuları veritabanına gitmez, görünümün filtresini değiştirir.
+ *
+ * Tüm metotlar JavaFX iş parçacığında (UI thread) çağrılmalıdır.
+ */
+public final class MasterLists {
+
+    // Pencere açılırken ana liste bu süreden eskiyse arka planda değişmiş olabilecek satırlar için yenilenir.
+    private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // Arama metni Türkçe büyük/küçük harf kurallarıyla karşılaştırılır (İ/i, I/ı).
+    private static final Locale TR = Locale.forLanguageTag("tr");
+
+    // Yeni satırlar listenin yükleme sırasına uygun uca eklenir (Araçlar ID artan, diğerleri ID azalan sırada).
+    private static final Master<Vehicle> VEHICLES = new Master<>(VehicleService::getAllVehiclesForUI,
+            Vehicle::getId, (a, b) -> a.getVersion() == b.getVersion(), false);
+
+    private static final Master<Customer> CUSTOMERS = new Master<>(CustomerService::getAllCustomers,
+            Customer::getId, (a, b) -> a.getVersion() == b.getVersion(), true);
+
+    private static final Master<Reservation> RESERVATIONS = new Master<>(ReservationService::getReservationsForUI,
+            Reservation::getId, MasterLists::sameReservation, true);
+
+    static {
+        EventBus.subscribe(MasterLists::applyEvents);
+    }
+
+    private MasterLists() {
+    }
+
+    // ==========================================
+    // ANA LİSTELER
+    // ==========================================
+
+    public static ObservableList<Vehicle> vehicles() {
+        if (!VEHICLES.loaded) {
+            // Giriş ekranındayken arka planda çekilmiş liste varsa onu kullan (veritabanına tekrar gitme).
+            ObservableList<Vehicle> preloaded = StartupPipeline.takePreloadedFleet();
+            if (preloaded != null) VEHICLES.fill(preloaded);
+        }
+        return VEHICLES.get();
+    }
+
+    public static ObservableList<Customer> customers() {
+        return CUSTOMERS.get();
+    }
+
+    public static ObservableList<Reservation> reservations() {
+        return RESERVATIONS.get();
+    }
+
+    public static void refreshVehicles() {
+        VEHICLES.refresh();
+    }
+
+    public static void refreshCustomers() {
+        CUSTOMERS.refresh();
+    }
+
+    public static void refreshReservations() {
+        RESERVATIONS.refresh();
+    }
+
+    // Müşterinin adı (Müşteri listesi yüklenmemişse veya müşteri yoksa null; veritabanına gidilmez).
+    public static String customerName(int customerId) {
+        if (!CUSTOMERS.loaded) return null;
+        for (Customer c : CUSTOMERS.list) if (c.getId() == customerId) return c.getFullName();
+        return null;
+    }
+
+    // Çıkış yapılınca listeler boşaltılır (bir sonraki kullanıcı kendi verisini yükler).
+    public static void clear() {
+        VEHICLES.clear();
+        CUSTOMERS.clear();
+        RESERVATIONS.clear();
+    }
+
+    // ==========================================
+    // PENCERE GÖRÜNÜMLERİ
+    // ==========================================
+
+    /**
+     * Tabloyu, ana listenin bu pencereye özel filtreli ve sıralı görünümüne bağlar.
+     * Sütun başlığına tıklanarak yapılan sıralama sadece bu pencereyi etkiler.
+     * Dönen FilteredList'in 'predicate'i arama için değiştirilir.
+     */
+    public static <T> FilteredList<T> bind(TableView<T> table, ObservableList<T> master) {
+        FilteredList<T> filtered = new FilteredList<>(master);
+        SortedList<T> sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+        return filtered;
+    }
+
+    // Metin, verilen alanlardan herhangi birinde geçiyor mu? (Büyük/küçük harf duyarsız, SQL'deki ILIKE gibi)
+    public static boolean matches(String query, String... fields) {
+        if (query == null || query.isBlank()) return true;
+        String needle = query.trim().toLowerCase(TR);
+        for (String field : fields) {
+            if (field != null && field.toLowerCase(TR).contains(needle)) return true;
+        }
+        return false;
+    }
+
+    // ==========================================
+    // KAYIT DEĞİŞİKLİĞİ OLAYLARI (EventBus)
+    // ==========================================
+
+    /**
+     * Bir teslimattaki olayları (yayınlanma sırasıyla) ana listelere uygular. Veritabanına gidilmez:
+     * Yeni rezervasyonun marka/müşteri adı araç ve müşteri listelerinden, işlem sonrası durumlar
+     * ReservationStateMachine'den bulunur. Her liste, teslimattaki olay sayısından bağımsız olarak BİR kez
+     * taranır ve tek seferde değiştirilir.
+     *
+     * Ayrıntısı bilinmeyen değişiklikte (STALE) veya gerekli bilgi listelerde yoksa (örn. yeni rezervasyonun
+     * aracı henüz yüklenmemiş) o liste veritabanından yeniden yüklenir. Hiç yüklenmemiş listelere dokunulmaz;
+     * ilk açıldıklarında zaten güncel hali çekilir.
+     */
+    static void applyEvents(List<EntityEvent> events) {
+        // 1. Ayrıntısı bilinmeyen değişiklikler: İlgili liste önce yeniden yüklenir
+        //    (Sonraki olaylar, örneğin yeni müşterinin rezervasyonu, güncel listede çözülebilsin).
+        EnumSet<EntityEvent.Type> reloaded = EnumSet.noneOf(EntityEvent.Type.class);
+        for (EntityEvent e : events) {
+            if (e.kind == EntityEvent.Kind.STALE && reloaded.add(e.type)) master(e.type).reloadIfLoaded();
+        }
+
+        // 2. Diğer olaylar bekleyen değişikliklere yazılır. Yeniden yüklenmiş liste zaten günceldir (salt okunur).
+        Pending<Vehicle> vehicles = new Pending<>(VEHICLES, reloaded.contains(EntityEvent.Type.VEHICLE));
+        Pending<Customer> customers = new Pending<>(CUSTOMERS, reloaded.contains(EntityEvent.Type.CUSTOMER));
+        Pending<Reservation> reservations = new Pending<>(RESERVATIONS, reloaded.contains(EntityEvent.Type.RESERVATION));
+
+        // Araç/müşteri değişikliklerinin rezervasyon satırlarına etkisi burada toplanır; rezervasyonlar olay başına
+        // değil, sonda BİR kez taranır (bkz. applyToReservations). Aynı kayıt için sonraki olay öncekini ezer.
+        Map<Integer, VehicleStatus> vehicleStatuses = new HashMap<>();
+        Map<Integer, String> customerNames = new HashMap<>();
+        Set<Integer> deletedVehicles = new HashSet<>();
+        Set<Integer> deletedCustomers = new HashSet<>();
+
+        for (EntityEvent e : events) {
+            switch (e.kind) {
+                case SAVED:
+                    if (e.type == EntityEvent.Type.VEHICLE) {
+                        Vehicle v = (Vehicle) e.row;
+                        vehicles.put(v);
+                        vehicleStatuses.put(v.getId(), v.getStatus());
+                    } else {
+                        Customer c = (Customer) e.row;
+                        customers.put(c);
+                        customerNames.put(c.getId(), c.getFullName());
+                    }
+                    break;
+
+                case DELETED:
+                    // Araç veya müşteri silinince rezervasyonları da silinir (ON DELETE CASCADE).
+                    if (e.type == EntityEvent.Type.VEHICLE) {
+                        vehicles.remove(e.id);
+                        deletedVehicles.add(e.id);
+                    } else if (e.type == EntityEvent.Type.CUSTOMER) {
+                        customers.remove(e.id);
+                        deletedCustomers.add(e.id);
+                    } else {
+                        reservations.remove(e.id);
+                    }
+                    break;
+
+                case CREATED: {
+                    Vehicle v = vehicles.get(e.vehicleId);
+                    Customer c = customers.get(e.customerId);
+                    if (v == null || c == null) {
+                        reservations.invalidate();
+                        break;
+                    }
+                    reservations.put(new Reservation(e.id, v.getId(), c.getId(), ReservationStatus.PENDING, e.startDate,
+                            v.getBrand(), v.getModel(), c.getFullName(), v.getStatus()));
+                    break;
+                }
+
+                case TRANSITION: {
+                    Reservation r = reservations.get(e.id);
+                    if (r == null) break;
+                    ReservationStatus status = ReservationStateMachine.statusAfter(r.getStatus(), e.action);
+                    if (status == null) { // Listedeki durum eski: Geçişi hesaplayamayız
+                        reservations.invalidate();
+                        break;
+                    }
+                    reservations.put(new Reservation(r.getId(), r.getVehicleId(), r.getCustomerId(), status, r.getStartDate(),
+                            r.getBrand(), r.getModel(), r.getCustomerName(), r.getVehicleStatus()));
+                    VehicleStatus vehicleStatus = ReservationStateMachine.vehicleStatusAfter(e.action);
+                    if (vehicleStatus != null) {
+                        // Tetikleyicinin araçta yaptığı değişiklik. Sürüm numarası bilinmez ve eski kalır:
+                        // Araç bir sonraki güncellemede çakışma yolundan güncel satırı okur (VehicleService).
+                        // İadede değişen fiziksel konum (current_branch_id) burada bilinmez; servis FINISH_RENTAL'dan
+                        // sonra aracın güncel satırını SAVED olarak yayınlar (Sürüm ve konum da onunla düzelir).
+                        Vehicle v = vehicles.get(r.getVehicleId());
+                        if (v != null) {
+                            vehicles.put(new Vehicle(v.getId(), v.getPlate(), v.getBrand(), v.getModel(), v.getPriceKurus(),
+                                    vehicleStatus, v.getVersion(), v.getBranchId(), v.getCurrentBranchId()));
+                        }
+                        vehicleStatuses.put(r.getVehicleId(), vehicleStatus);
+                    }
+                    break;
+                }
+
+                case REASSIGNED: {
+                    Reservation r = reservations.get(e.id);
+                    Vehicle v = vehicles.get(e.vehicleId);
+                    if (r == null) break;
+                    reservations.put(new Reservation(r.getId(), e.vehicleId, r.getCustomerId(), r.getStatus(), r.getStartDate(),
+                            r.getBrand(), r.getModel(), r.getCustomerName(), v != null ? v.getStatus() : r.getVehicleStatus()));
+                    break;
+                }
+
+                default:
+                    break;
+            }
+        }
+
+        if (!vehicleStatuses.isEmpty() || !customerNames.isEmpty() || !deletedVehicles.isEmpty() || !deletedCustomers.isEmpty()) {
+            applyToReservations(reservations, vehicleStatuses, customerNames, deletedVehicles, deletedCustomers);
+        }
+
+        vehicles.commit();
+        customers.commit();
+        reservations.commit();
+    }
+
+    // Toplanan araç/müşteri değişikliklerini rezervasyonlara TEK geçişte uygular:
+    //   - Listede araç durumu ve müşteri adı da tutulduğu için (reservation_listing gibi) ilgili satırlar yenilenir.
+    //   - Araç veya müşteri silinince rezervasyonları da silinir (ON DELETE CASCADE).
+    private static void applyToReservations(Pending<Reservation> reservations, Map<Integer, VehicleStatus> vehicleStatuses,
+                                            Map<Integer, String> customerNames, Set<Integer> deletedVehicles,
+                                            Set<Integer> deletedCustomers) {
+        reservations.forEach(r -> {
+            if (deletedVehicles.contains(r.getVehicleId()) || deletedCustomers.contains(r.getCustomerId())) {
+                reservations.remove(r.getId());
+                return;
+            }
+            VehicleStatus status = vehicleStatuses.getOrDefault(r.getVehicleId(), r.getVehicleStatus());
+            String name = customerNames.getOrDefault(r.getCustomerId(), r.getCustomerName());
+            if (status != r.getVehicleStatus() || !name.equals(r.getCustomerName())) {
+                reservations.put(new Reservation(r.getId(), r.getVehicleId(), r.getCustomerId(), r.getStatus(), r.getStartDate(),
+                        r.getBrand(), r.getModel(), name, status));
+            }
+        });
+    }
+
+    private static Master<?> master(EntityEvent.Type type) {
+        switch (type) {
+            case VEHICLE: return VEHICLES;
+            case CUSTOMER: return CUSTOMERS;
+            default: return RESERVATIONS;
+        }
+    }
+
+    // Tabloda görünen (ve butonları etkileyen) alanlardan biri değiştiyse satır yenilenir.
+    private static boolean sameReservation(Reservation a, Reservation b) {
+        return a.getStatus() == b.getStatus()
+                && a.getVehicleStatus() == b.getVehicleStatus()
+                && a.getStartEpochDay() == b.getStartEpochDay()
+                && a.getBrand().equals(b.getBrand())
+                && a.getModel().equals(b.getModel())
+                && a.getCustomerName().equals(b.getCustomerName());
+    }
+
+    // Tek bir varlık türü için ana liste.
+    private static final class Master<T> {
+        private final ObservableList<T> list = FXCollections.observableArrayList();
+        private final Supplier<List<T>> loader;
+        private final ToIntFunction<T> key;
+        private final BiPredicate<T, T> same;
+        private final boolean newestFirst;
+        private boolean loaded;
+        private long loadedAt;
+
+        Master(Supplier<List<T>> loader, ToIntFunction<T> key, BiPredicate<T, T> same, boolean newestFirst) {
+            this.loader = loader;
+            this.key = key;
+            this.same = same;
+            this.newestFirst = newestFirst;
+        }
+
+        ObservableList<T> get() {
+            if (!loaded || System.nanoTime() - loadedAt > MAX_AGE_NANOS) refresh();
+            return list;
+        }
+
+        void refresh() {
+            fill(loader.get());
+        }
+
+        void fill(List<T> fresh) {
+            TableDiff.apply(list, fresh, key, same);
+            loaded = true;
+            loadedAt = System.nanoTime();
+        }
+
+        void reloadIfLoaded() {
+            if (loaded) refresh();
+        }
+
+        void clear() {
+            list.clear();
+            loaded = false;
+        }
+    }
+
+    // Bir teslimat boyunca bir ana listeye yapılacak değişiklikler (ID -> yeni satır; null: silinecek).
+    // Olaylar birbirinin sonucunu görür (get), liste ise sadece commit'te ve bir kez değiştirilir.
+    private static final class Pending<T> {
+        private final Master<T> master;
+        private final boolean writable;
+        private final Map<Integer, T> changes = new LinkedHashMap<>();
+        private Map<Integer, T> byId; // Listenin ID indeksi (İlk ihtiyaçta bir kez kurulur)
+        private boolean invalid;
+
+        Pending(Master<T> master, boolean reloaded) {
+            this.master = master;
+            this.writable = master.loaded && !reloaded;
+        }
+
+        // Satırın (bu teslimattaki değişikliklerle birlikte) güncel hali. Liste yüklenmemişse null.
+        T get(int id) {
+            if (changes.containsKey(id)) return changes.get(id);
+            return master.loaded ? index().get(id) : null;
+        }
+
+        void put(T row) {
+            if (writable) changes.put(master.key.applyAsInt(row), row);
+        }
+
+        void remove(int id) {
+            if (writable) changes.put(id, null);
+        }
+
+        // Listedeki bilgi olayı uygulamaya yetmiyor: Değişiklikler bırakılır, liste yeniden yüklenir.
+        void invalidate() {
+            if (writable) invalid = true;
+        }
+
+        // Güncel satırların hepsi (Eklenenler dahil, silinenler hariç). Sadece yazılabilir listede gezilir.
+        // Her çağrı tüm listenin anlık kopyasını kurar: Teslimat başına bir kez çağrılmalıdır.
+        void forEach(Consumer<T> action) {
+            if (!writable) return;
+            List<T> rows = new ArrayList<>(index().size() + changes.size());
+            for (Map.Entry<Integer, T> e : index().entrySet()) {
+                T row = changes.containsKey(e.getKey()) ? changes.get(e.getKey()) : e.getValue();
+                if (row != null) rows.add(row);
+            }
+            for (Map.Entry<Integer, T> e : changes.entrySet()) {
+                if (e.getValue() != null && !index().containsKey(e.getKey())) rows.add(e.getValue());
+            }
+            rows.forEach(action);
+        }
+
+        private Map<Integer, T> index() {
+            if (byId == null) {
+                byId = new HashMap<>(master.list.size() * 2);
+                for (T row : master.list) byId.put(master.key.applyAsInt(row), row);
+            }
+            return byId;
+        }
+
+        // Değişiklikleri listeye uygular: Değişen satırlar yerinde değiştirilir, silinenler tek seferde çıkarılır,
+        // yeniler listenin uygun ucuna eklenir.
+        void commit() {
+            if (!writable) return;
+            if (invalid) {
+                master.refresh();
+                return;
+            }
+            if (changes.isEmpty()) return;
+            ObservableList<T> list = master.list;
+            Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < list.size(); i++) {
+                T row = list.get(i);
+                int id = master.key.applyAsInt(row);
+                if (!changes.containsKey(id)) continue;
+                T fresh = changes.remove(id);
+                if (fresh == null) removed.add(row);
+                else if (fresh != row) list.set(i, fresh);
+            }
+            if (!removed.isEmpty()) list.removeAll(removed);
+            List<T> added = new ArrayList<>();
+            for (T row : changes.values()) if (row != null) added.add(row);
+            if (master.newestFirst) Collections.reverse(added);
+            if (!added.isEmpty()) {
+                if (master.newestFirst) list.addAll(0, added);
+                else list.addAll(added);
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package ui;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
+import service.EventBus;
 
 /**
  * RentACarApp Sınıfı (Ana Başlatıcı)
@@ -12,6 +14,18 @@ import javafx.stage.Stage;
  */
 public class RentACarApp extends Application {
 
+    /**
+     * init() Metodu:
+     * --------------
+     * JavaFX, pencereleri oluşturmadan ÖNCE bu metodu (arka plandaki başlatıcı iş parçacığında) çağırır.
+     * Veritabanı bağlantısını ve araç listesini burada arka planda hazırlamaya başlıyoruz;
+     * kullanıcı giriş bilgilerini yazarken bu işler tamamlanmış olur.
+     */
+    @Override
+    public void init() {
+        StartupPipeline.begin();
+    }
+
     /**
      * start() Metodu:
      * ---------------
@@ -23,6 +37,9 @@ public class RentACarApp extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
+        // Servislerin yayınladığı kayıt değişiklikleri açık pencerelere JavaFX iş parçacığında, toplu olarak ulaşır.
+        EventBus.deliverOn(Platform::runLater);
+
         // Uygulamanın mantığı:
         // Program açılır açılmaz kullanıcıyı karşılayacak ekran "LoginView" olmalıdır.
 
@@ -1,5 +1,10 @@
 package ui;
 
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -7,12 +12,29 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import model.Branch;
 import model.Reservation;
+import model.ReservationStatus;
+import service.BranchService;
 import service.ReservationService;
+import service.ReservationStateMachine;
+import service.ReservationStateMachine.Action;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public class ReservationView {
 
     private TableView<Reservation> table;
+    private FilteredList<Reservation> view; // Ortak rezervasyon listesinin bu penceredeki görünümü
+    private ObservableList<Reservation> liveItems; // Tablonun normal (arşivsiz) içeriği
+    private final ObservableList<Reservation> withArchive = FXCollections.observableArrayList(); // Canlı görünüm + arşiv sonuçları
+    private final List<Reservation> archived = new ArrayList<>();
+    private boolean archiveShown;
+    private final Set<Integer> archivedIds = new HashSet<>(); // Tabloda gösterilen arşiv kayıtları (salt okunur)
 
     public void show() {
         Stage stage = new Stage();
@@ -25,7 +47,9 @@ public class ReservationView {
         txtSearch.setPromptText("Müşteri adı veya durum ara...");
         Button btnSearch = new Button("Ara");
         Button btnReset = new Button("Listeyi Yenile");
-        HBox searchBox = new HBox(10, txtSearch, btnSearch, btnReset);
+        CheckBox chkArchive = new CheckBox("Arşivde de ara");
+        chkArchive.setTooltip(new Tooltip("Arşive taşınmış eski (biten/iptal) rezervasyonlar da veritabanından aranır"));
+        HBox searchBox = new HBox(10, txtSearch, btnSearch, btnReset, chkArchive);
 
         // --- Tablo Yapılandırması ---
         table = new TableView<>();
@@ -42,14 +66,17 @@ public class ReservationView {
         TableColumn<Reservation, String> colModel = new TableColumn<>("Model");
         colModel.setCellValueFactory(new PropertyValueFactory<>("model"));
 
-        TableColumn<Reservation, String> colStatus = new TableColumn<>("Durum");
+        TableColumn<Reservation, ReservationStatus> colStatus = new TableColumn<>("Durum");
         colStatus.setCellValueFactory(new PropertyValueFactory<>("status"));
 
-        TableColumn<Reservation, String> colDate = new TableColumn<>("Başlangıç");
+        TableColumn<Reservation, java.time.LocalDate> colDate = new TableColumn<>("Başlangıç");
         colDate.setCellValueFactory(new PropertyValueFactory<>("startDate"));
 
         table.getColumns().addAll(colId, colCustomer, colBrand, colModel, colStatus, colDate);
-        refreshTable();
+        view = MasterLists.bind(table, MasterLists.reservations());
+        liveItems = table.getItems();
+        // Arşivli görünümde de canlı kayıtlar (onay, iptal vb. sonrası) güncel kalır.
+        view.addListener((ListChangeListener<Reservation>) c -> rebuildWithArchive());
 
         // --- BUTONLAR (Yeni Fonksiyonlar Eklendi) ---
         Button btnNew = new Button("Yeni Rezervasyon");
@@ -69,6 +96,18 @@ public class ReservationView {
         Button btnDelete = new Button("Kayıttan Sil");
         btnDelete.setStyle("-fx-text-fill: red;");
 
+        // Seçili satırın durumuna göre sadece geçerli işlemlerin butonları açık kalır (ReservationStateMachine).
+        // Arşiv kayıtları canlı tabloda olmadığı için hiçbir işlem açılmaz.
+        table.getSelectionModel().selectedItemProperty().addListener((obs, old, sel) -> {
+            if (sel != null && archivedIds.contains(sel.getId())) sel = null;
+            btnApprove.setDisable(!ReservationStateMachine.canApply(sel, Action.APPROVE));
+            btnStartRental.setDisable(!ReservationStateMachine.canApply(sel, Action.START_RENTAL));
+            btnFinishRental.setDisable(!ReservationStateMachine.canApply(sel, Action.FINISH_RENTAL));
+            btnCancel.setDisable(!ReservationStateMachine.canApply(sel, Action.CANCEL));
+            btnDelete.setDisable(!ReservationStateMachine.canApply(sel, Action.DELETE));
+        });
+        for (Button b : new Button[]{btnApprove, btnStartRental, btnFinishRental, btnCancel, btnDelete}) b.setDisable(true);
+
         // Alt Panel Dizilimi
         HBox actionBox = new HBox(10, btnNew, btnApprove, btnStartRental, btnFinishRental, btnCancel, btnDelete);
         actionBox.setPadding(new Insets(10, 0, 0, 0));
@@ -79,8 +118,8 @@ public class ReservationView {
             Reservation sel = table.getSelectionModel().getSelectedItem();
             if (sel != null) {
                 try {
+                    ReservationStateMachine.check(sel, Action.APPROVE);
                     ReservationService.approveReservation(sel.getId());
-                    refreshTable();
                     new Alert(Alert.AlertType.INFORMATION, "Rezervasyon Onaylandı! Araç: RESERVED").show();
                 } catch (Exception ex) { showEx(ex); }
             }
@@ -88,14 +127,22 @@ public class ReservationView {
 
         btnStartRental.setOnAction(e -> {
             Reservation sel = table.getSelectionModel().getSelectedItem();
-            if (sel != null && sel.getStatus().equals("APPROVED")) {
+            if (sel != null) {
                 try {
-                    ReservationService.startRental(sel.getId());
-                    refreshTable();
-                    new Alert(Alert.AlertType.INFORMATION, "Kiralama Başladı! Araç: RENTED\nRezervasyon: COMPLETED").show();
+                    ReservationStateMachine.check(sel, Action.START_RENTAL);
+                    // Tek yön kiralama: Dönüş şubesi seçilir (varsayılan: aracın alındığı şube).
+                    Branch sameBranch = new Branch(0, "Alış şubesine dönecek (tek yön değil)", "");
+                    List<Branch> choices = new ArrayList<>();
+                    choices.add(sameBranch);
+                    choices.addAll(BranchService.getAllBranches());
+                    ChoiceDialog<Branch> dialog = new ChoiceDialog<>(sameBranch, choices);
+                    dialog.setTitle("Kiralama Başlat");
+                    dialog.setHeaderText("Araç hangi şubeye bırakılacak?");
+                    Optional<Branch> dropoff = dialog.showAndWait();
+                    if (dropoff.isEmpty()) return;
+                    ReservationService.startRental(sel.getId(), dropoff.get() == sameBranch ? null : dropoff.get().getId());
+                    new Alert(Alert.AlertType.INFORMATION, "Kiralama Başladı! Araç: RENTED\nRezervasyon: RENTED").show();
                 } catch (Exception ex) { showEx(ex); }
-            } else {
-                new Alert(Alert.AlertType.WARNING, "Sadece ONAYLI (APPROVED) kayıtlar kiralamaya dönüştürülebilir!").show();
             }
         });
 
@@ -103,24 +150,22 @@ public class ReservationView {
             Reservation sel = table.getSelectionModel().getSelectedItem();
             if (sel != null) {
                 try {
+                    ReservationStateMachine.check(sel, Action.FINISH_RENTAL);
                     ReservationService.finishRental(sel.getId());
-                    refreshTable();
                     new Alert(Alert.AlertType.INFORMATION, "Araç Teslim Alındı! Araç: AVAILABLE").show();
                 } catch (Exception ex) { showEx(ex); }
             }
         });
 
-        btnNew.setOnAction(e -> {
-            new AddReservationView().show();
-            refreshTable();
-        });
+        // Kayıt eklenince AddReservationView ortak listeyi yeniler; bu tablo kendiliğinden güncellenir.
+        btnNew.setOnAction(e -> new AddReservationView().show());
 
         btnCancel.setOnAction(e -> {
             Reservation sel = table.getSelectionModel().getSelectedItem();
             if (sel != null) {
                 try {
+                    ReservationStateMachine.check(sel, Action.CANCEL);
                     ReservationService.cancelReservation(sel.getId());
-                    refreshTable();
                 } catch (Exception ex) { showEx(ex); }
             }
         });
@@ -129,22 +174,65 @@ public class ReservationView {
             Reservation sel = table.getSelectionModel().getSelectedItem();
             if (sel != null) {
                 try {
+                    ReservationStateMachine.check(sel, Action.DELETE);
                     ReservationService.deleteReservation(sel.getId());
-                    refreshTable();
                 } catch (Exception ex) { showEx(ex); }
             }
         });
 
-        btnSearch.setOnAction(e -> table.setItems(ReservationService.searchReservations(txtSearch.getText())));
-        btnReset.setOnAction(e -> refreshTable());
+        // Arama veritabanına gitmez, bu penceredeki görünümü filtreler (Müşteri adı veya durum).
+        // "Arşivde de ara" seçiliyse arşiv veritabanında aranır ve sonuçlar canlı kayıtların altına eklenir.
+        btnSearch.setOnAction(e -> {
+            String query = txtSearch.getText();
+            view.setPredicate(r -> MasterLists.matches(query, r.getCustomerName(), r.getStatus().name()));
+            if (chkArchive.isSelected()) showWithArchive(query);
+            else showLive();
+        });
+        btnReset.setOnAction(e -> {
+            txtSearch.clear();
+            view.setPredicate(null);
+            showLive();
+            refreshTable();
+        });
 
         root.getChildren().addAll(searchBox, table, actionBox);
         stage.setScene(new Scene(root, 950, 500));
         stage.show();
     }
 
+    private void showWithArchive(String query) {
+        archived.clear();
+        archived.addAll(ReservationService.searchArchive(query.trim()));
+        archivedIds.clear();
+        for (Reservation r : archived) archivedIds.add(r.getId());
+        archiveShown = true;
+        rebuildWithArchive();
+        SortedList<Reservation> sorted = new SortedList<>(withArchive);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+    }
+
+    private void showLive() {
+        archiveShown = false;
+        archived.clear();
+        archivedIds.clear();
+        withArchive.clear();
+        table.setItems(liveItems);
+    }
+
+    private void rebuildWithArchive() {
+        if (!archiveShown) return;
+        List<Reservation> rows = new ArrayList<>(view);
+        rows.addAll(archived);
+        withArchive.setAll(rows);
+    }
+
+    // "Listeyi Yenile": Rezervasyon işlemleri araç durumlarını da değiştirdiği (tetikleyiciler) için iki ortak liste
+    // birlikte veritabanından çekilir. İşlem butonlarından sonra yenileme gerekmez; servisin yayınladığı olay
+    // ortak listeleri (ve açık tüm pencereleri) günceller (bkz. MasterLists.applyEvents).
     private void refreshTable() {
-        table.setItems(ReservationService.getReservationsForUI());
+        MasterLists.refreshReservations();
+        MasterLists.refreshVehicles();
     }
 
     private void showEx(Exception ex) {
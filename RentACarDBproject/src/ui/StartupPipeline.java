@@ -0,0 +1,109 @@
+package ui;
+
+import javafx.collections.ObservableList;
+import model.Vehicle;
+import server.ApiClient;
+import service.Db;
+import service.DuplicateDetector;
+import service.LicenseIndex;
+import service.VehicleService;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * StartupPipeline Sınıfı (Açılış Hızlandırma)
+ * -------------------------------------------
+ * Giriş ekranı gösterilirken kullanıcı kullanıcı adı/şifre yazmakla meşgulken
+ * arka planda şu işleri PARALEL olarak yapar:
+ * 1. JDBC sürücüsünü yükler ve ilk veritabanı bağlantılarını açıp havuza koyar (Db.warmUp).
+ * 2. Bağlantı hazır olunca araç filosunu önceden çeker (Araç Yönetimi ilk açılışta beklemesin).
+ * 3. Ehliyet no indeksini kurar (yeni rezervasyonda müşteri araması için, bkz. LicenseIndex).
+ * 4. Mükerrer müşteri indeksini kurar (kaydederken benzer müşteri uyarısı için, bkz. DuplicateDetector).
+ * İstemci modunda (ApiClient) bunların hiçbiri yapılmaz: Veritabanına bağlanılmaz, filo girişten sonra sunucudan gelir.
+ *
+ * '-Drentacar.startup.timing=true' verilirse açılış sürelerini ölçüp konsola da yazar:
+ * - JVM başlangıcından giriş ekranına kadar geçen süre,
+ * - "Giriş" tıklamasından ana menünün kullanılabilir olmasına kadar geçen süre.
+ */
+public final class StartupPipeline {
+
+    // Açılış süreleri konsola yazılsın mı (Ölçüm için; normal kullanımda kapalı).
+    private static final boolean TIMING = Boolean.getBoolean("rentacar.startup.timing");
+
+    // Açılışta önceden açılacak bağlantı sayısı (Giriş + ilk liste ekranı için yeterli).
+    private static final int WARM_CONNECTIONS = 2;
+
+    // Arka plan işleri için iş parçacıkları. 'daemon' oldukları için uygulamanın kapanmasını engellemezler.
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "startup-warmup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static CompletableFuture<ObservableList<Vehicle>> fleet;
+    private static long loginClickNanos;
+
+    private StartupPipeline() {
+    }
+
+    /**
+     * RentACarApp.init() içinden, giriş ekranı çizilmeden ÖNCE çağrılır.
+     * Hiçbir işi beklemez, hemen geri döner.
+     */
+    public static synchronized void begin() {
+        if (fleet != null) return; // Çıkış/giriş döngüsünde tekrar başlatma
+
+        // İstemci modunda veritabanına bağlanılmaz; liste de ancak girişten sonra (oturum anahtarıyla) çekilebilir.
+        if (ApiClient.isEnabled()) {
+            fleet = CompletableFuture.completedFuture(null);
+            return;
+        }
+
+        CompletableFuture<Void> connections = CompletableFuture.runAsync(() -> {
+            try {
+                Db.warmUp(WARM_CONNECTIONS);
+            } catch (Exception e) {
+                // Isınma başarısız olsa bile uygulama normal yoldan bağlanmayı dener.
+                System.out.println("Bağlantı ısınması başarısız: " + e.getMessage());
+            }
+        }, EXECUTOR);
+
+        fleet = connections.thenApplyAsync(v -> VehicleService.getAllVehiclesForUI(), EXECUTOR);
+        connections.thenRunAsync(LicenseIndex::warmUp, EXECUTOR)
+                .thenRunAsync(DuplicateDetector::warmUp, EXECUTOR);
+    }
+
+    /**
+     * Önceden yüklenmiş araç listesini TEK SEFERLİK verir.
+     * Yükleme henüz bitmediyse veya daha önce alındıysa 'null' döner; çağıran normal sorguya düşer.
+     */
+    public static synchronized ObservableList<Vehicle> takePreloadedFleet() {
+        if (fleet == null || !fleet.isDone() || fleet.isCompletedExceptionally()) return null;
+        ObservableList<Vehicle> list = fleet.join();
+        fleet = CompletableFuture.completedFuture(null);
+        return list;
+    }
+
+    // Giriş ekranı gösterildiğinde çağrılır.
+    public static void loginScreenShown() {
+        if (!TIMING) return;
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("[Açılış] Giriş ekranı hazır: " + (System.currentTimeMillis() - jvmStart) + " ms (JVM başlangıcından)");
+    }
+
+    // "Giriş" butonuna basıldığında çağrılır.
+    public static void loginClicked() {
+        if (!TIMING) return;
+        loginClickNanos = System.nanoTime();
+    }
+
+    // Ana menü gösterildiğinde çağrılır.
+    public static void mainMenuShown() {
+        if (loginClickNanos == 0) return;
+        System.out.println("[Açılış] Ana menü kullanılabilir: " + (System.nanoTime() - loginClickNanos) / 1_000_000 + " ms (Giriş tıklamasından)");
+        loginClickNanos = 0;
+    }
+}
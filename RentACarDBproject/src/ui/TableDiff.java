@@ -0,0 +1,101 @@
+package ui;
+
+import javafx.collections.ObservableList;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * TableDiff Sınıfı (Farka Dayalı Tablo Güncelleme)
+ * ------------------------------------------------
+ * Listeyi yenilerken 'table.setItems(yeniListe)' yapmak yerine, mevcut satırlarla
+ * veritabanından gelen yeni satırları ID'lerine göre karşılaştırır ve SADECE farkı uygular:
+ * - Artık olmayan satırlar silinir,
+ * - İçeriği değişen satırlar yerinde (aynı sırada) değiştirilir,
+ * - Yeni satırlar doğru konumlarına eklenir.
+ *
+ * NEDEN?
+ * Yeni liste verildiğinde JavaFX seçimi ve kaydırma konumunu kaybeder ve görünen tüm hücreleri
+ * baştan çizer. 50 bin satırlık bir tabloda tek bir durum değişikliği için bile bu yapılıyordu.
+ * Artık yenileme, değişen satır sayısı kadar iş yapar.
+ */
+public final class TableDiff {
+
+    private TableDiff() {
+    }
+
+    /**
+     * @param items   Güncellenecek liste (ortak ana liste; tablolar buna bağlı görünümlerdir)
+     * @param fresh   Veritabanından yeni gelen satırlar (istenen son hal, veritabanı sırasıyla)
+     * @param key     Satırın benzersiz kimliği (araç/müşteri/rezervasyon ID'si)
+     * @param same    İki satırın içeriği aynı mı? (Aynıysa eski nesne yerinde kalır)
+     */
+    public static <T> void apply(ObservableList<T> items, List<T> fresh, ToIntFunction<T> key, BiPredicate<T, T> same) {
+        if (items.isEmpty()) {
+            // İlk doldurma: karşılaştırılacak bir şey yok.
+            items.setAll(fresh);
+            return;
+        }
+
+        Map<Integer, T> freshById = new HashMap<>(fresh.size() * 2);
+        for (T row : fresh) freshById.put(key.applyAsInt(row), row);
+
+        // 1. SİLME: Yeni listede olmayan satırları tek seferde kaldır.
+        // (Kimliğe göre karşılaştıran küme; removeAll her eleman için 'contains' çağırır.)
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (T row : items) {
+            if (!freshById.containsKey(key.applyAsInt(row))) removed.add(row);
+        }
+        if (!removed.isEmpty()) items.removeAll(removed);
+
+        // 2. YERİNDE DEĞİŞİKLİK: İçeriği değişen satırları aynı konumda değiştir.
+        Map<Integer, Integer> positionById = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            T row = items.get(i);
+            int id = key.applyAsInt(row);
+            positionById.put(id, i);
+            T newer = freshById.get(id);
+            if (!same.test(row, newer)) items.set(i, newer);
+        }
+
+        // 3. EKLEME: Yeni satırlar.
+        if (positionById.size() == fresh.size()) return;
+
+        if (!sameOrder(items, fresh, key, positionById)) {
+            // Sıra değişmiş (beklenmez): farkla uğraşmadan listeyi baştan kur.
+            items.setAll(fresh);
+            return;
+        }
+
+        // Her yeni satırı (ardışık olanları toplu halde) veritabanı sırasındaki yerine ekle.
+        int i = 0;
+        while (i < fresh.size()) {
+            if (positionById.containsKey(key.applyAsInt(fresh.get(i)))) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < fresh.size() && !positionById.containsKey(key.applyAsInt(fresh.get(end)))) end++;
+            items.addAll(i, fresh.subList(i, end));
+            i = end;
+        }
+    }
+
+    // Mevcut satırlar, yeni listedeki ortak satırlarla AYNI sırada mı?
+    private static <T> boolean sameOrder(List<T> items, List<T> fresh, ToIntFunction<T> key, Map<Integer, Integer> positionById) {
+        int expected = 0;
+        for (T row : fresh) {
+            Integer pos = positionById.get(key.applyAsInt(row));
+            if (pos == null) continue;
+            if (pos != expected) return false;
+            expected++;
+        }
+        return expected == items.size();
+    }
+}
@@ -0,0 +1,550 @@
+package ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+import model.ReservationStatus;
+import model.TimelineBar;
+import model.Vehicle;
+import service.EntityEvent;
+import service.EventBus;
+import service.ReservationService;
+import service.ReservationStateMachine;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * TimelineView Sınıfı (Araç Takvimi / Zaman Çizelgesi)
+ * ---------------------------------------------------
+ * Her araç için bir ŞERİT, her rezervasyon/kiralama için bir ÇUBUK çizer: "Hangi araç ne zaman kimde?"
+ *
+ * PERFORMANS:
+ * - Çubuklar tek bir Canvas'a elle çizilir. On binlerce çubuk için on binlerce düğüm (Rectangle/Label)
+ *   oluşturmak sahne grafiğini (scene graph) boğar; Canvas'ta sadece EKRANDA GÖRÜNENLER çizilir:
+ *   görünen şeritler kaydırma konumundan, her şeritte görünen ilk çubuk ikili aramayla bulunur.
+ * - Çizim AnimationTimer ile ekran yenilemesine (60 fps) bağlıdır; kaydırma/yakınlaştırma olayları sadece
+ *   "yeniden çiz" işareti koyar, bir karede en fazla bir kez çizilir.
+ * - Veritabanından sadece görünen tarih penceresi (ve iki yanında birer pencere payı) istenir.
+ *   Pencerenin dışına kaydırılınca yeni aralık ARKA PLANDA yüklenir; ekran donmaz.
+ * - Başka pencerelerde yapılan rezervasyon işlemleri (EventBus olayları) yüklü çubuklara doğrudan uygulanır;
+ *   pencere yeniden yüklenmez.
+ *
+ * KULLANIM: Tekerlek = dikey kaydırma, Shift + tekerlek = zamanda kaydırma,
+ * Ctrl + tekerlek = yakınlaştırma, sürükle = serbest kaydırma.
+ */
+public class TimelineView {
+
+    private static final double LANE_HEIGHT = 22;
+    private static final double HEADER_HEIGHT = 34;
+    private static final double LABEL_WIDTH = 200;
+    private static final double MIN_DAY_WIDTH = 2;
+    private static final double MAX_DAY_WIDTH = 120;
+
+    private static final DateTimeFormatter DAY_MONTH = DateTimeFormatter.ofPattern("dd.MM");
+    private static final DateTimeFormatter FULL = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.forLanguageTag("tr"));
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar vbar = new ScrollBar();
+    private final Label lblInfo = new Label(" ");
+
+    // Görünüm durumu
+    private double dayWidth = 24;   // Bir günün piksel genişliği (yakınlaştırma düzeyi)
+    private double originDay;       // Sol kenardaki gün (epoch day, kesirli)
+    private boolean dirty = true;   // Bir sonraki karede yeniden çizilsin mi?
+
+    // Şeritler (araçlar) ve şerit başına çubuklar
+    private List<Vehicle> lanes = new ArrayList<>();
+    private Lane[] laneBars = new Lane[0];
+
+    // Yüklenmiş tarih penceresi
+    private List<TimelineBar> loaded = new ArrayList<>();
+    private long loadedFrom = Long.MAX_VALUE, loadedTo = Long.MIN_VALUE;
+    private boolean loading;
+    private boolean staleWhileLoading; // Yükleme sürerken uygulanamayan bir değişiklik geldi: Bitince tekrar yüklenir
+
+    private final Consumer<List<EntityEvent>> onEvents = this::applyEvents;
+
+    // Sürükleme başlangıcı
+    private double pressX, pressY, pressOrigin, pressScroll;
+
+    public void show() {
+        Stage stage = new Stage();
+        originDay = LocalDate.now().toEpochDay() - 7;
+
+        // ==========================================
+        // 1. ÜST ARAÇ ÇUBUĞU
+        // ==========================================
+        Button btnToday = new Button("Bugün");
+        Button btnZoomIn = new Button("+");
+        Button btnZoomOut = new Button("-");
+        DatePicker dpGoTo = new DatePicker();
+        dpGoTo.setPromptText("Tarihe git...");
+        Button btnRefresh = new Button("Yenile");
+        Label legend = new Label("Bekliyor: turuncu   Onaylı: mavi   Kirada: yeşil   Tamamlandı: gri");
+
+        HBox toolbar = new HBox(10, btnToday, btnZoomOut, btnZoomIn, dpGoTo, btnRefresh, legend);
+        toolbar.setPadding(new Insets(0, 0, 10, 0));
+
+        // ==========================================
+        // 2. ÇİZİM ALANI (Canvas + dikey kaydırma çubuğu)
+        // ==========================================
+        Pane canvasPane = new Pane(canvas);
+        canvas.widthProperty().bind(canvasPane.widthProperty());
+        canvas.heightProperty().bind(canvasPane.heightProperty());
+        canvas.widthProperty().addListener(o -> dirty = true);
+        canvas.heightProperty().addListener(o -> {
+            updateScrollBar();
+            dirty = true;
+        });
+
+        vbar.setOrientation(Orientation.VERTICAL);
+        vbar.valueProperty().addListener(o -> dirty = true);
+
+        BorderPane root = new BorderPane();
+        root.setPadding(new Insets(10));
+        root.setTop(toolbar);
+        root.setCenter(canvasPane);
+        root.setRight(vbar);
+        root.setBottom(lblInfo);
+
+        // ==========================================
+        // 3. OLAYLAR
+        // ==========================================
+        canvas.setOnScroll(this::onScroll);
+        canvas.setOnMousePressed(e -> {
+            pressX = e.getX();
+            pressY = e.getY();
+            pressOrigin = originDay;
+            pressScroll = vbar.getValue();
+        });
+        canvas.setOnMouseDragged(e -> {
+            originDay = pressOrigin - (e.getX() - pressX) / dayWidth;
+            vbar.setValue(clamp(pressScroll - (e.getY() - pressY), 0, vbar.getMax()));
+            dirty = true;
+        });
+        canvas.setOnMouseMoved(this::showInfo);
+
+        btnToday.setOnAction(e -> {
+            originDay = LocalDate.now().toEpochDay() - visibleDays() / 4;
+            dirty = true;
+        });
+        btnZoomIn.setOnAction(e -> zoom(1.5, LABEL_WIDTH + (canvas.getWidth() - LABEL_WIDTH) / 2));
+        btnZoomOut.setOnAction(e -> zoom(1 / 1.5, LABEL_WIDTH + (canvas.getWidth() - LABEL_WIDTH) / 2));
+        dpGoTo.setOnAction(e -> {
+            if (dpGoTo.getValue() == null) return;
+            originDay = dpGoTo.getValue().toEpochDay() - visibleDays() / 4;
+            dirty = true;
+        });
+        btnRefresh.setOnAction(e -> {
+            MasterLists.refreshVehicles();
+            loadedFrom = Long.MAX_VALUE; // Pencere yeniden yüklensin
+            loadedTo = Long.MIN_VALUE;
+            dirty = true;
+        });
+
+        // Araç listesi değişince (ekleme/silme) şeritler yeniden kurulur.
+        ListChangeListener<Vehicle> onFleetChanged = c -> rebuildLanes();
+        MasterLists.vehicles().addListener(onFleetChanged);
+        EventBus.subscribe(onEvents);
+        rebuildLanes();
+
+        AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (!dirty) return;
+                dirty = false;
+                ensureLoaded();
+                draw();
+            }
+        };
+        timer.start();
+        stage.setOnHidden(e -> {
+            timer.stop();
+            MasterLists.vehicles().removeListener(onFleetChanged);
+            EventBus.unsubscribe(onEvents);
+        });
+
+        stage.setScene(new Scene(root, 1200, 700));
+        stage.setTitle("Araç Takvimi (Zaman Çizelgesi)");
+        stage.show();
+    }
+
+    // ==========================================
+    // 4. VERİ
+    // ==========================================
+
+    // Görünen pencere yüklü aralığın dışına çıktıysa (iki yanında birer pencere payıyla) arka planda yükler.
+    private void ensureLoaded() {
+        long left = (long) Math.floor(originDay);
+        long right = (long) Math.ceil(originDay + visibleDays());
+        if (loading || (left >= loadedFrom && right <= loadedTo)) return;
+        long span = right - left + 1;
+        long from = left - span, to = right + span;
+        loading = true;
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return ReservationService.getTimeline(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((bars, error) -> Platform.runLater(() -> {
+            loading = false;
+            loadedFrom = from; // Hata olsa da işaretlenir: Her kaydırmada tekrar denenmesin ("Yenile" ile denenir)
+            loadedTo = to;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                new Alert(Alert.AlertType.ERROR, "Takvim yüklenemedi: " + cause.getMessage()).show();
+                return;
+            }
+            loaded = bars;
+            rebuildLanes();
+            if (staleWhileLoading) reload();
+        }));
+    }
+
+    private void reload() {
+        staleWhileLoading = false;
+        loadedFrom = Long.MAX_VALUE;
+        loadedTo = Long.MIN_VALUE;
+        dirty = true;
+    }
+
+    // Rezervasyon değişikliklerini yüklü çubuklara uygular (JavaFX iş parçacığında, toplu).
+    // Çubuk için gereken bilgi olayda yoksa (örn. müşteri adı değişti) görünen pencere yeniden yüklenir.
+    private void applyEvents(List<EntityEvent> events) {
+        boolean changed = false, stale = false;
+        Map<Integer, Integer> position = null;
+        for (EntityEvent e : events) {
+            if (e.type == EntityEvent.Type.VEHICLE) continue; // Şeritler araç listesini dinler
+            if (e.type == EntityEvent.Type.CUSTOMER || e.kind == EntityEvent.Kind.STALE) {
+                stale = true;
+                continue;
+            }
+            if (position == null) {
+                loaded = new ArrayList<>(loaded); // Yükleme sonucu listesi paylaşılmasın
+                position = new HashMap<>();
+                for (int i = 0; i < loaded.size(); i++) position.put(loaded.get(i).getReservationId(), i);
+            }
+            Integer pos = position.get(e.id);
+            TimelineBar bar = pos == null ? null : loaded.get(pos);
+            switch (e.kind) {
+                case CREATED: {
+                    long start = e.startDate.toEpochDay(), end = e.endDate.toEpochDay();
+                    if (end < loadedFrom || start > loadedTo) break; // Yüklü pencerenin dışında
+                    String name = MasterLists.customerName(e.customerId);
+                    if (name == null) {
+                        stale = true;
+                        break;
+                    }
+                    position.put(e.id, loaded.size());
+                    loaded.add(new TimelineBar(e.id, e.vehicleId, (int) start, (int) end, ReservationStatus.PENDING, name));
+                    changed = true;
+                    break;
+                }
+                case TRANSITION: {
+                    if (bar == null) break;
+                    ReservationStatus status = ReservationStateMachine.statusAfter(bar.getStatus(), e.action);
+                    if (status == null) stale = true;
+                    else loaded.set(pos, status == ReservationStatus.CANCELLED ? null : new TimelineBar(bar.getReservationId(),
+                            bar.getVehicleId(), bar.getStartEpochDay(), bar.getEndEpochDay(), status, bar.getCustomerName()));
+                    changed = true;
+                    break;
+                }
+                case REASSIGNED:
+                    if (bar == null) break;
+                    loaded.set(pos, new TimelineBar(bar.getReservationId(), e.vehicleId, bar.getStartEpochDay(),
+                            bar.getEndEpochDay(), bar.getStatus(), bar.getCustomerName()));
+                    changed = true;
+                    break;
+                case DELETED:
+                    if (bar == null) break;
+                    loaded.set(pos, null);
+                    changed = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (changed) {
+            loaded.removeIf(b -> b == null); // İptal edilen ve silinen çubuklar (takvim iptalleri göstermez)
+            rebuildLanes();
+        }
+        // Süren yükleme değişiklikten önceki veriyi getirebilir: Bitince pencere tekrar yüklenir.
+        if (loading && (changed || stale)) staleWhileLoading = true;
+        else if (stale) reload();
+    }
+
+    // Araçları şube, marka, model ve plakaya göre sıralayıp çubukları şeritlerine dağıtır.
+    private void rebuildLanes() {
+        lanes = new ArrayList<>(MasterLists.vehicles());
+        lanes.sort(Comparator.comparingInt(Vehicle::getBranchId).thenComparing(Vehicle::getBrand)
+                .thenComparing(Vehicle::getModel).thenComparing(Vehicle::getPlate));
+        Map<Integer, Integer> laneOf = new HashMap<>();
+        for (int i = 0; i < lanes.size(); i++) laneOf.put(lanes.get(i).getId(), i);
+
+        List<List<TimelineBar>> grouped = new ArrayList<>();
+        for (int i = 0; i < lanes.size(); i++) grouped.add(null);
+        for (TimelineBar b : loaded) {
+            Integer lane = laneOf.get(b.getVehicleId());
+            if (lane == null) continue;
+            if (grouped.get(lane) == null) grouped.set(lane, new ArrayList<>());
+            grouped.get(lane).add(b);
+        }
+        laneBars = new Lane[lanes.size()];
+        for (int i = 0; i < lanes.size(); i++) {
+            if (grouped.get(i) != null) laneBars[i] = new Lane(grouped.get(i));
+        }
+        updateScrollBar();
+        dirty = true;
+    }
+
+    /**
+     * Bir şeridin çubukları, başlangıç gününe göre sıralı dizilerde.
+     * maxEnd[k] = ilk k+1 çubuğun en geç bitişi; artan olduğu için "görünen ilk çubuk" ikili aramayla bulunur
+     * (Çubuklar üst üste binse bile doğru çalışır).
+     */
+    private static final class Lane {
+        final TimelineBar[] bars;
+        final int[] start, end, maxEnd;
+
+        Lane(List<TimelineBar> list) {
+            bars = list.toArray(new TimelineBar[0]);
+            Arrays.sort(bars, Comparator.comparingInt(TimelineBar::getStartEpochDay));
+            start = new int[bars.length];
+            end = new int[bars.length];
+            maxEnd = new int[bars.length];
+            for (int k = 0; k < bars.length; k++) {
+                start[k] = bars[k].getStartEpochDay();
+                end[k] = bars[k].getEndEpochDay();
+                maxEnd[k] = k == 0 ? end[k] : Math.max(maxEnd[k - 1], end[k]);
+            }
+        }
+
+        // 'day' gününde veya sonrasında biten ilk çubuğun indeksi
+        int firstEndingFrom(double day) {
+            int lo = 0, hi = bars.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (maxEnd[mid] + 1 <= day) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    // ==========================================
+    // 5. ÇİZİM
+    // ==========================================
+
+    private void draw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth(), h = canvas.getHeight();
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, w, h);
+        if (w <= LABEL_WIDTH) return;
+
+        double top = vbar.getValue();
+        int firstLane = Math.max(0, (int) (top / LANE_HEIGHT));
+        int lastLane = Math.min(lanes.size() - 1, (int) ((top + h - HEADER_HEIGHT) / LANE_HEIGHT));
+        double leftDay = originDay, rightDay = originDay + visibleDays();
+
+        // --- Çizelge alanı (Sadece görünen gün ve şeritler) ---
+        g.save();
+        g.beginPath();
+        g.rect(LABEL_WIDTH, HEADER_HEIGHT, w - LABEL_WIDTH, h - HEADER_HEIGHT);
+        g.clip();
+
+        for (int i = firstLane; i <= lastLane; i++) {
+            if (i % 2 == 1) {
+                g.setFill(Color.web("#f7f7f7"));
+                g.fillRect(LABEL_WIDTH, laneY(i), w - LABEL_WIDTH, LANE_HEIGHT);
+            }
+        }
+        if (dayWidth >= 4) {
+            g.setFill(Color.web("#00000010"));
+            for (long d = (long) Math.floor(leftDay); d <= rightDay; d++) {
+                DayOfWeek dow = LocalDate.ofEpochDay(d).getDayOfWeek();
+                if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) g.fillRect(x(d), HEADER_HEIGHT, dayWidth, h);
+            }
+        }
+
+        g.setFont(Font.font(11));
+        for (int i = firstLane; i <= lastLane; i++) {
+            Lane lane = laneBars[i];
+            if (lane == null) continue;
+            double y = laneY(i) + 3;
+            for (int k = lane.firstEndingFrom(leftDay); k < lane.bars.length && lane.start[k] <= rightDay; k++) {
+                double x0 = x(lane.start[k]), x1 = x(lane.end[k] + 1L); // Bitiş günü dahil
+                double bw = Math.max(1, x1 - x0 - 1);
+                g.setFill(color(lane.bars[k].getStatus()));
+                g.fillRect(x0, y, bw, LANE_HEIGHT - 6);
+                if (bw > 40) {
+                    g.setFill(Color.WHITE);
+                    g.fillText(lane.bars[k].getCustomerName(), Math.max(x0, LABEL_WIDTH) + 3, y + 12, bw - 6);
+                }
+            }
+        }
+
+        double today = x(LocalDate.now().toEpochDay());
+        g.setStroke(Color.RED);
+        g.strokeLine(today, HEADER_HEIGHT, today, h);
+        g.restore();
+
+        // --- Tarih başlığı ---
+        g.setFill(Color.web("#eeeeee"));
+        g.fillRect(LABEL_WIDTH, 0, w - LABEL_WIDTH, HEADER_HEIGHT);
+        g.save();
+        g.beginPath();
+        g.rect(LABEL_WIDTH, 0, w - LABEL_WIDTH, HEADER_HEIGHT);
+        g.clip();
+        g.setFill(Color.BLACK);
+        g.setStroke(Color.GRAY);
+        for (long d = (long) Math.floor(leftDay); d <= rightDay; d++) {
+            LocalDate date = LocalDate.ofEpochDay(d);
+            double x = x(d);
+            if (date.getDayOfMonth() == 1) {
+                g.strokeLine(x, 0, x, HEADER_HEIGHT);
+                g.fillText(MONTH.format(date), x + 3, 13);
+            }
+            // Gün etiketleri yakınlaştırmaya göre seyreltilir: her gün / her pazartesi / hiç
+            if (dayWidth >= 36 || (dayWidth >= 6 && date.getDayOfWeek() == DayOfWeek.MONDAY)) {
+                g.strokeLine(x, HEADER_HEIGHT - 8, x, HEADER_HEIGHT);
+                g.fillText(DAY_MONTH.format(date), x + 2, HEADER_HEIGHT - 4);
+            }
+        }
+        g.restore();
+
+        // --- Şerit etiketleri (Sabit sol sütun) ---
+        g.setFill(Color.web("#fafafa"));
+        g.fillRect(0, HEADER_HEIGHT, LABEL_WIDTH, h - HEADER_HEIGHT);
+        g.save();
+        g.beginPath();
+        g.rect(0, HEADER_HEIGHT, LABEL_WIDTH, h - HEADER_HEIGHT);
+        g.clip();
+        g.setFill(Color.BLACK);
+        for (int i = firstLane; i <= lastLane; i++) {
+            Vehicle v = lanes.get(i);
+            g.fillText(v.getPlate() + "  " + v.getBrand() + " " + v.getModel(), 5, laneY(i) + 15, LABEL_WIDTH - 10);
+        }
+        g.restore();
+        g.setStroke(Color.GRAY);
+        g.strokeLine(LABEL_WIDTH, 0, LABEL_WIDTH, h);
+        g.strokeLine(0, HEADER_HEIGHT, w, HEADER_HEIGHT);
+    }
+
+    private static Color color(ReservationStatus status) {
+        switch (status) {
+            case PENDING: return Color.web("#f0a030");
+            case APPROVED: return Color.web("#2f7fd8");
+            case RENTED: return Color.web("#3a9a48");
+            default: return Color.web("#9a9a9a");
+        }
+    }
+
+    private double x(double epochDay) {
+        return LABEL_WIDTH + (epochDay - originDay) * dayWidth;
+    }
+
+    private double laneY(int lane) {
+        return HEADER_HEIGHT + lane * LANE_HEIGHT - vbar.getValue();
+    }
+
+    private double visibleDays() {
+        return Math.max(0, canvas.getWidth() - LABEL_WIDTH) / dayWidth;
+    }
+
+    // ==========================================
+    // 6. KAYDIRMA / YAKINLAŞTIRMA
+    // ==========================================
+
+    private void onScroll(ScrollEvent e) {
+        double dx = e.getDeltaX(), dy = e.getDeltaY();
+        if (e.isShiftDown() && dx == 0) { // Bazı platformlarda Shift + tekerlek dikey gelir
+            dx = dy;
+            dy = 0;
+        }
+        if (e.isControlDown()) {
+            zoom(dy > 0 ? 1.25 : 1 / 1.25, e.getX());
+            return;
+        }
+        originDay -= dx / dayWidth;
+        vbar.setValue(clamp(vbar.getValue() - dy, 0, vbar.getMax()));
+        dirty = true;
+    }
+
+    // İmlecin altındaki gün yerinde kalacak şekilde yakınlaştırır.
+    private void zoom(double factor, double anchorX) {
+        double anchorDay = originDay + (anchorX - LABEL_WIDTH) / dayWidth;
+        dayWidth = clamp(dayWidth * factor, MIN_DAY_WIDTH, MAX_DAY_WIDTH);
+        originDay = anchorDay - (anchorX - LABEL_WIDTH) / dayWidth;
+        dirty = true;
+    }
+
+    private void updateScrollBar() {
+        double content = lanes.size() * LANE_HEIGHT;
+        double viewport = Math.max(0, canvas.getHeight() - HEADER_HEIGHT);
+        vbar.setMax(Math.max(0, content - viewport));
+        vbar.setVisibleAmount(viewport);
+        vbar.setUnitIncrement(LANE_HEIGHT);
+        vbar.setBlockIncrement(viewport);
+        vbar.setValue(clamp(vbar.getValue(), 0, vbar.getMax()));
+    }
+
+    private static double clamp(double v, double min, double max) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    // İmlecin altındaki çubuğun bilgisini alt satırda gösterir.
+    private void showInfo(MouseEvent e) {
+        String text = " ";
+        int lane = (int) ((e.getY() - HEADER_HEIGHT + vbar.getValue()) / LANE_HEIGHT);
+        if (e.getX() > LABEL_WIDTH && e.getY() > HEADER_HEIGHT && lane < lanes.size()) {
+            Vehicle v = lanes.get(lane);
+            text = v.getPlate() + " - " + v.getBrand() + " " + v.getModel();
+            Lane bars = laneBars[lane];
+            double day = originDay + (e.getX() - LABEL_WIDTH) / dayWidth;
+            if (bars != null) {
+                for (int k = bars.firstEndingFrom(day); k < bars.bars.length && bars.start[k] <= day; k++) {
+                    if (bars.end[k] + 1 <= day) continue;
+                    TimelineBar b = bars.bars[k];
+                    text += "  |  #" + b.getReservationId() + " " + b.getCustomerName() + "  "
+                            + FULL.format(LocalDate.ofEpochDay(b.getStartEpochDay())) + " - "
+                            + FULL.format(LocalDate.ofEpochDay(b.getEndEpochDay())) + "  " + b.getStatus();
+                    break;
+                }
+            }
+        }
+        lblInfo.setText(text);
+    }
+}